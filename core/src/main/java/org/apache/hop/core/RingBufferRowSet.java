@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A lock-free buffer of rows for exactly one writing thread and one reading thread. Every row set
+ * in the local engine connects a single copy of a transform to a single copy of another transform
+ * so this is the case for all hops: the producer only ever moves the tail sequence forward and the
+ * consumer only ever moves the head sequence forward.
+ *
+ * <p>Both sequences are padded to live on their own cache line to prevent false sharing between the
+ * two threads. Each side also keeps a cached copy of the other side's sequence so that it only
+ * needs to read the shared (volatile) value when the buffer looks full or empty.
+ *
+ * <p>How a thread waits on a full or empty buffer is determined by the {@link RowSetWaitStrategy}.
+ * With a signalling strategy the waiting thread registers itself and the other side wakes it up as
+ * soon as it wrote or read a row, instead of the waiting thread polling the buffer.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of times we spin before we start parking the waiting thread. */
+  private static final int SPIN_TRIES = 100;
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The next position to read from, only written by the consumer. */
+  private final Sequence head;
+
+  /** The next position to write to, only written by the producer. */
+  private final Sequence tail;
+
+  /** The producer's view of the head sequence */
+  private long cachedHead;
+
+  /** The consumer's view of the tail sequence */
+  private long cachedTail;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  private final RowSetWaitStrategy waitStrategy;
+  private final boolean signalling;
+
+  /** The producer thread waiting for room in the buffer, if any. */
+  private volatile Thread waitingProducer;
+
+  /** The consumer thread waiting for rows in the buffer, if any. */
+  private volatile Thread waitingConsumer;
+
+  /** Only used by the Blocking wait strategy */
+  private final ReentrantLock lock;
+
+  private final Condition notFull;
+  private final Condition notEmpty;
+
+  /**
+   * Create a new single producer, single consumer row set with maxSize capacity. Waiting threads
+   * are parked until the other side wakes them up.
+   *
+   * @param maxSize the maximum number of rows in the buffer
+   */
+  public RingBufferRowSet(int maxSize) {
+    this(maxSize, RowSetWaitStrategy.Park);
+  }
+
+  /**
+   * Create a new single producer, single consumer row set with maxSize capacity.
+   *
+   * @param maxSize the maximum number of rows in the buffer
+   * @param waitStrategy the way to wait for room or rows in the buffer
+   */
+  public RingBufferRowSet(int maxSize, RowSetWaitStrategy waitStrategy) {
+    super();
+
+    capacity = Math.max(1, maxSize);
+
+    // The buffer itself is rounded up to the next power of 2 so that we can use a mask.
+    //
+    int bufferSize = Integer.highestOneBit(capacity);
+    if (bufferSize < capacity) {
+      bufferSize <<= 1;
+    }
+    buffer = new Object[bufferSize][];
+    mask = bufferSize - 1;
+
+    head = new Sequence();
+    tail = new Sequence();
+
+    this.waitStrategy = waitStrategy == null ? RowSetWaitStrategy.Park : waitStrategy;
+    this.signalling = this.waitStrategy.isSignalling();
+    if (this.waitStrategy == RowSetWaitStrategy.Blocking) {
+      lock = new ReentrantLock();
+      notFull = lock.newCondition();
+      notEmpty = lock.newCondition();
+    } else {
+      lock = null;
+      notFull = null;
+      notEmpty = null;
+    }
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.getPlain();
+    if (position - cachedHead >= capacity) {
+      cachedHead = head.getAcquire();
+      if (position - cachedHead >= capacity && !waitForSpace(position, tu.toNanos(time))) {
+        return false;
+      }
+    }
+
+    buffer[(int) position & mask] = rowData;
+    if (signalling) {
+      // The volatile write orders the publication before the check for a waiting consumer.
+      //
+      tail.setVolatile(position + 1);
+      wakeUp(waitingConsumer, notEmpty);
+    } else {
+      tail.setRelease(position + 1);
+    }
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRowWait(0L, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.getPlain();
+    if (position >= cachedTail) {
+      cachedTail = tail.getAcquire();
+      if (position >= cachedTail && !waitForRows(position, tu.toNanos(timeout))) {
+        return null;
+      }
+    }
+
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    if (signalling) {
+      head.setVolatile(position + 1);
+      wakeUp(waitingProducer, notFull);
+    } else {
+      head.setRelease(position + 1);
+    }
+    return row;
+  }
+
+  /**
+   * Wait until the consumer freed up a slot in the buffer.
+   *
+   * @return true if there is room to write at the given position, false if we timed out.
+   */
+  private boolean waitForSpace(long position, long timeoutNanos) {
+    if (timeoutNanos <= 0) {
+      return false;
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    for (int tries = 0; ; tries++) {
+      if (!pause(tries, deadline, true, position)) {
+        return false;
+      }
+      cachedHead = head.getAcquire();
+      if (position - cachedHead < capacity) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Wait until the producer wrote a row to the buffer.
+   *
+   * @return true if there is a row to read at the given position, false if we timed out.
+   */
+  private boolean waitForRows(long position, long timeoutNanos) {
+    if (timeoutNanos <= 0) {
+      return false;
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    for (int tries = 0; ; tries++) {
+      if (!pause(tries, deadline, false, position)) {
+        return false;
+      }
+      cachedTail = tail.getAcquire();
+      if (position < cachedTail) {
+        return true;
+      }
+      if (done.get()) {
+        // The producer finished: the rows written before it did are visible now.
+        //
+        cachedTail = tail.getVolatile();
+        return position < cachedTail;
+      }
+    }
+  }
+
+  /**
+   * Wait a little while according to the wait strategy.
+   *
+   * @param tries the number of times we already waited
+   * @param deadline the time at which we give up
+   * @param producer true if the producer is waiting for room, false if the consumer is waiting for
+   *     rows
+   * @param position the position the waiting thread wants to write to or read from
+   * @return false if the deadline passed or if the thread was interrupted.
+   */
+  private boolean pause(int tries, long deadline, boolean producer, long position) {
+    long remaining = deadline - System.nanoTime();
+    if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    switch (waitStrategy) {
+      case BusySpin:
+        Thread.onSpinWait();
+        break;
+      case Yield:
+        Thread.yield();
+        break;
+      case Park:
+        if (tries < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else {
+          park(producer, position, remaining);
+        }
+        break;
+      case Blocking:
+        await(producer, position, remaining);
+        break;
+      default:
+        break;
+    }
+    return true;
+  }
+
+  /** Park the current thread until the other side wakes it up or until the time is up. */
+  private void park(boolean producer, long position, long nanos) {
+    Thread current = Thread.currentThread();
+    if (producer) {
+      waitingProducer = current;
+      if (mustWait(true, position)) {
+        LockSupport.parkNanos(this, nanos);
+      }
+      waitingProducer = null;
+    } else {
+      waitingConsumer = current;
+      if (mustWait(false, position)) {
+        LockSupport.parkNanos(this, nanos);
+      }
+      waitingConsumer = null;
+    }
+  }
+
+  /** Wait on the lock condition until the other side signals it or until the time is up. */
+  private void await(boolean producer, long position, long nanos) {
+    Thread current = Thread.currentThread();
+    lock.lock();
+    try {
+      if (producer) {
+        waitingProducer = current;
+      } else {
+        waitingConsumer = current;
+      }
+      long remaining = nanos;
+      while (remaining > 0 && mustWait(producer, position)) {
+        remaining = (producer ? notFull : notEmpty).awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      current.interrupt();
+    } finally {
+      if (producer) {
+        waitingProducer = null;
+      } else {
+        waitingConsumer = null;
+      }
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Re-check the buffer after registering as a waiting thread. The volatile reads make sure we
+   * either see the other side's progress or the other side sees us waiting.
+   */
+  private boolean mustWait(boolean producer, long position) {
+    if (producer) {
+      return position - head.getVolatile() >= capacity;
+    } else {
+      return position >= tail.getVolatile() && !done.get();
+    }
+  }
+
+  /** Wake up the given waiting thread, if there is one. */
+  private void wakeUp(Thread waiting, Condition condition) {
+    if (waiting == null) {
+      return;
+    }
+    if (lock == null) {
+      LockSupport.unpark(waiting);
+    } else {
+      lock.lock();
+      try {
+        condition.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    if (signalling) {
+      // Don't let the consumer wait for rows that will never come
+      //
+      wakeUp(waitingConsumer, notEmpty);
+    }
+  }
+
+  @Override
+  public int size() {
+    // Read the head first so that we never report a negative size
+    //
+    long currentHead = head.getAcquire();
+    long currentTail = tail.getAcquire();
+    return (int) Math.max(0L, Math.min(capacity, currentTail - currentHead));
+  }
+
+  @Override
+  public void clear() {
+    while (getRowImmediate() != null) {
+      // Drain the buffer
+    }
+    done.set(false);
+  }
+
+  /**
+   * @return the maximum number of rows this row set can hold
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the way threads wait for room or rows in this row set
+   */
+  public RowSetWaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  /** Padding before the sequence value to keep it on its own cache line. */
+  @SuppressWarnings("unused")
+  private static class LeftPadding {
+    protected long p01;
+    protected long p02;
+    protected long p03;
+    protected long p04;
+    protected long p05;
+    protected long p06;
+    protected long p07;
+  }
+
+  /** The sequence value itself. */
+  private static class SequenceValue extends LeftPadding {
+    protected volatile long value;
+  }
+
+  /** A sequence value padded on both sides to avoid false sharing. */
+  @SuppressWarnings("unused")
+  private static final class Sequence extends SequenceValue {
+    private static final VarHandle VALUE;
+
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    protected long p11;
+    protected long p12;
+    protected long p13;
+    protected long p14;
+    protected long p15;
+    protected long p16;
+    protected long p17;
+
+    long getPlain() {
+      return (long) VALUE.get(this);
+    }
+
+    long getAcquire() {
+      return (long) VALUE.getAcquire(this);
+    }
+
+    long getVolatile() {
+      return (long) VALUE.getVolatile(this);
+    }
+
+    void setRelease(long newValue) {
+      VALUE.setRelease(this, newValue);
+    }
+
+    void setVolatile(long newValue) {
+      VALUE.setVolatile(this, newValue);
+    }
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
+
+/**
+ * A buffer of rows which passes columnar {@link RowBatch} objects between one producing and one
+ * consuming transform copy. Batch-aware transforms hand over complete batches with {@link
+ * #putBatch(IRowMeta, RowBatch, long, TimeUnit)} and {@link #getBatchWait(long, TimeUnit)}, all
+ * other transforms keep using putRow() and getRow(): rows are then collected in and read from
+ * batches transparently.
+ *
+ * <p>Rows written one at a time are published when the current batch is full, when the producer is
+ * done or when it has to wait for room. The producer checks for room once per batch. A consumer
+ * which doesn't get a complete batch within its timeout takes the rows collected so far, so a slow
+ * producer never keeps rows back longer than the consumer waits.
+ */
+public class RowBatchRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The default number of rows in a batch */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final int maxSize;
+  private final int batchSize;
+
+  /** The batches which are ready to be read */
+  private final LinkedBlockingQueue<RowBatch> filled;
+
+  /** Batches which were read row by row and can be re-used */
+  private final ConcurrentLinkedQueue<RowBatch> free;
+
+  /** The number of rows published to the consumer but not read yet */
+  private final AtomicInteger rowsInFlight;
+
+  private final ReentrantLock lock;
+  private final Condition notFull;
+
+  /** Guards the batch the producer is writing to */
+  private final ReentrantLock collectLock;
+
+  /** The batch the producer is writing to, taken over by the consumer when it runs out of rows */
+  private RowBatch putBatch;
+
+  /** The number of rows the producer can still add without checking for room, producer side only */
+  private int reservedRows;
+
+  /** The batch the consumer is reading from, consumer side only */
+  private RowBatch getBatch;
+
+  private int getIndex;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  /**
+   * Create a new batching row set.
+   *
+   * @param maxSize The maximum number of rows in the row set
+   * @param batchSize The maximum number of rows in a batch
+   */
+  public RowBatchRowSet(int maxSize, int batchSize) {
+    super();
+    this.maxSize = Math.max(1, maxSize);
+    this.batchSize = Math.max(1, Math.min(batchSize, this.maxSize));
+
+    filled = new LinkedBlockingQueue<>();
+    free = new ConcurrentLinkedQueue<>();
+    rowsInFlight = new AtomicInteger(0);
+    lock = new ReentrantLock();
+    notFull = lock.newCondition();
+    collectLock = new ReentrantLock();
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    if (reservedRows == 0) {
+      int room = waitForRoom(1, tu.toNanos(time));
+      if (room < 0) {
+        return false;
+      }
+      reservedRows = Math.max(1, Math.min(batchSize, room));
+    }
+
+    collectLock.lock();
+    try {
+      if (putBatch == null) {
+        putBatch = newBatch(rowMeta);
+      }
+      putBatch.addRow(rowData);
+      if (putBatch.isFull()) {
+        publishCollected();
+      }
+    } finally {
+      collectLock.unlock();
+    }
+    reservedRows--;
+    return true;
+  }
+
+  /** Publish the rows collected by the producer, if any. Called with the collect lock held. */
+  private void publishCollected() {
+    if (putBatch != null && !putBatch.isEmpty()) {
+      publish(putBatch);
+    }
+    putBatch = null;
+  }
+
+  /**
+   * Take the next batch for the consumer. When no batch was published within the timeout the rows
+   * which the producer collected so far are taken, so that they don't wait for the batch to fill up
+   * or for the end of the stream.
+   */
+  private RowBatch takeBatch(long timeout, TimeUnit tu) throws InterruptedException {
+    RowBatch batch = filled.poll();
+    if (batch == null && timeout > 0) {
+      batch = filled.poll(timeout, tu);
+    }
+    if (batch == null) {
+      collectLock.lock();
+      try {
+        publishCollected();
+      } finally {
+        collectLock.unlock();
+      }
+      batch = filled.poll();
+    }
+    return batch;
+  }
+
+  /**
+   * Hand over a complete batch of rows to the consumer. Rows written earlier with putRow() are
+   * published first to keep the order of the rows.
+   *
+   * @param rowMeta The layout of the rows in the batch
+   * @param batch The batch of rows
+   * @param time The maximum time to wait for room in the row set
+   * @param tu The unit of the time to wait
+   * @return true if the batch was added, false if the row set was full
+   */
+  public boolean putBatch(IRowMeta rowMeta, RowBatch batch, long time, TimeUnit tu) {
+    if (batch == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    if (waitForRoom(batch.size(), tu.toNanos(time)) < 0) {
+      return false;
+    }
+    reservedRows = 0;
+    collectLock.lock();
+    try {
+      publishCollected();
+      if (!batch.isEmpty()) {
+        publish(batch);
+      }
+    } finally {
+      collectLock.unlock();
+    }
+    return true;
+  }
+
+  private RowBatch newBatch(IRowMeta rowMeta) {
+    RowBatch batch = free.poll();
+    if (batch == null || batch.getRowMeta() != rowMeta || batch.getCapacity() != batchSize) {
+      batch = new RowBatch(rowMeta, batchSize);
+    }
+    return batch;
+  }
+
+  private void publish(RowBatch batch) {
+    rowsInFlight.addAndGet(batch.size());
+    filled.offer(batch);
+  }
+
+  /**
+   * Wait until we can add the given number of rows, next to the rows collected so far, without
+   * going over the maximum size. A batch larger than the row set can always go in when the row set
+   * is empty.
+   *
+   * @return The number of rows which fit in the row set, -1 if there was no room in time
+   */
+  private int waitForRoom(int nrRows, long timeoutNanos) {
+    collectLock.lock();
+    try {
+      int inFlight = rowsInFlight.get() + (putBatch == null ? 0 : putBatch.size());
+      if (inFlight + nrRows <= maxSize || inFlight == 0) {
+        return maxSize - inFlight;
+      }
+
+      // Don't keep rows from the consumer while we wait
+      //
+      publishCollected();
+    } finally {
+      collectLock.unlock();
+    }
+
+    long remaining = timeoutNanos;
+    lock.lock();
+    try {
+      while (rowsInFlight.get() + nrRows > maxSize && rowsInFlight.get() > 0) {
+        if (remaining <= 0) {
+          return -1;
+        }
+        remaining = notFull.awaitNanos(remaining);
+      }
+      return maxSize - rowsInFlight.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return -1;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Called by the consumer after reading a batch, once per batch */
+  private void consumed(int nrRows) {
+    rowsInFlight.addAndGet(-nrRows);
+    lock.lock();
+    try {
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRowWait(0L, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    if (getBatch == null) {
+      try {
+        getBatch = takeBatch(timeout, tu);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      if (getBatch == null) {
+        return null;
+      }
+      getIndex = 0;
+    }
+
+    Object[] row = getBatch.getRow(getIndex++);
+    if (getIndex >= getBatch.size()) {
+      RowBatch done = getBatch;
+      getBatch = null;
+      consumed(done.size());
+      done.clear();
+      free.offer(done);
+    }
+    return row;
+  }
+
+  /**
+   * Get the next complete batch of rows, wait for it if there is none.
+   *
+   * @param timeout The maximum time to wait for a batch
+   * @param tu The unit of the time to wait
+   * @return A batch of rows or null if none was available in time. The caller owns the batch.
+   */
+  public RowBatch getBatchWait(long timeout, TimeUnit tu) {
+    if (getBatch != null) {
+      // Rows were partially read one by one: hand over the rest.
+      //
+      RowBatch rest = new RowBatch(getBatch.getRowMeta(), getBatch.size() - getIndex);
+      for (int i = getIndex; i < getBatch.size(); i++) {
+        rest.addRow(getBatch.getRow(i));
+      }
+      consumed(getBatch.size());
+      getBatch = null;
+      return rest;
+    }
+    RowBatch batch;
+    try {
+      batch = takeBatch(timeout, tu);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    if (batch != null) {
+      consumed(batch.size());
+    }
+    return batch;
+  }
+
+  @Override
+  public void setDone() {
+    // Publish the rows which were still being collected
+    //
+    collectLock.lock();
+    try {
+      publishCollected();
+    } finally {
+      collectLock.unlock();
+    }
+    super.setDone();
+  }
+
+  @Override
+  public int size() {
+    return rowsInFlight.get();
+  }
+
+  @Override
+  public void clear() {
+    filled.clear();
+    collectLock.lock();
+    try {
+      putBatch = null;
+    } finally {
+      collectLock.unlock();
+    }
+    getBatch = null;
+    reservedRows = 0;
+    rowsInFlight.set(0);
+    done.set(false);
+  }
+
+  /**
+   * @return The maximum number of rows in a batch
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+}
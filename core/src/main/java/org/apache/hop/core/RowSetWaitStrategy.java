@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+/**
+ * Describes how a transform thread waits when the row set it reads from is empty or when the row
+ * set it writes to is full. Only the {@link RingBufferRowSet} uses a wait strategy, the other row
+ * sets wait on their queue or lock.
+ */
+@SuppressWarnings("java:S115")
+public enum RowSetWaitStrategy {
+  /** Keep the CPU busy re-checking the row set. Lowest latency, one core per waiting thread. */
+  BusySpin(false),
+
+  /** Re-check the row set but yield the CPU to other threads in between checks. */
+  Yield(false),
+
+  /** Spin briefly, then park the thread until the other side of the row set wakes it up. */
+  Park(true),
+
+  /** Wait on a lock condition until the other side of the row set signals it. */
+  Blocking(true);
+
+  private final boolean signalling;
+
+  RowSetWaitStrategy(boolean signalling) {
+    this.signalling = signalling;
+  }
+
+  /**
+   * @return true if a waiting thread needs to be woken up explicitly by the other side of the row
+   *     set.
+   */
+  public boolean isSignalling() {
+    return signalling;
+  }
+
+  /**
+   * Find the wait strategy with the given name.
+   *
+   * @param name the name to look for
+   * @return the wait strategy or Park if nothing could be found
+   */
+  public static RowSetWaitStrategy lookup(String name) {
+    for (RowSetWaitStrategy strategy : values()) {
+      if (strategy.name().equalsIgnoreCase(name)) {
+        return strategy;
+      }
+    }
+    return Park;
+  }
+}
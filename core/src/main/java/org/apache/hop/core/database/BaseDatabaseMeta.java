@@ -91,6 +91,27 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
    */
   public static final String ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE = "PRESERVE_RESERVED_WORD_CASE";
 
+  /** A flag to determine if we should take connections from a shared connection pool */
+  public static final String ATTRIBUTE_USE_CONNECTION_POOL = "USE_CONNECTION_POOL";
+
+  /** The number of connections to open when the connection pool is first used */
+  public static final String ATTRIBUTE_POOL_MINIMUM_SIZE = "POOL_MINIMUM_SIZE";
+
+  /** The maximum number of connections in the connection pool */
+  public static final String ATTRIBUTE_POOL_MAXIMUM_SIZE = "POOL_MAXIMUM_SIZE";
+
+  /** The maximum time in milliseconds to wait for a free connection in the pool */
+  public static final String ATTRIBUTE_POOL_MAXIMUM_WAIT = "POOL_MAXIMUM_WAIT";
+
+  /** The timeout in seconds to validate a pooled connection with before handing it out */
+  public static final String ATTRIBUTE_POOL_VALIDATION_TIMEOUT = "POOL_VALIDATION_TIMEOUT";
+
+  /** The maximum number of prepared statements to cache per pooled connection */
+  public static final String ATTRIBUTE_POOL_STATEMENT_CACHE_SIZE = "POOL_STATEMENT_CACHE_SIZE";
+
+  /** The time in seconds to keep an idle pooled connection open */
+  public static final String ATTRIBUTE_POOL_IDLE_TIMEOUT = "POOL_IDLE_TIMEOUT";
+
   public static final String SEQUENCE_FOR_BATCH_ID = "SEQUENCE_FOR_BATCH_ID";
   public static final String AUTOINCREMENT_SQL_FOR_BATCH_ID = "AUTOINCREMENT_SQL_FOR_BATCH_ID";
 
@@ -1203,6 +1224,127 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     attributes.put(ATTRIBUTE_PREFERRED_SCHEMA_NAME, preferredSchemaName);
   }
 
+  /**
+   * @return true if connections are taken from a connection pool shared by all pipelines and
+   *     workflows
+   */
+  @Override
+  public boolean isUsingConnectionPool() {
+    String usePool = getAttributeProperty(ATTRIBUTE_USE_CONNECTION_POOL, "N"); // DEFAULT TO NO!!
+    return "Y".equalsIgnoreCase(usePool);
+  }
+
+  /**
+   * @param usingConnectionPool true if connections should be taken from a connection pool shared by
+   *     all pipelines and workflows
+   */
+  @Override
+  public void setUsingConnectionPool(boolean usingConnectionPool) {
+    attributes.put(ATTRIBUTE_USE_CONNECTION_POOL, usingConnectionPool ? "Y" : "N");
+  }
+
+  /**
+   * @return The minimum number of connections to open when the connection pool is first used
+   */
+  @Override
+  public String getPoolMinimumSize() {
+    return getAttributeProperty(ATTRIBUTE_POOL_MINIMUM_SIZE);
+  }
+
+  /**
+   * @param poolMinimumSize The minimum number of connections to open when the connection pool is
+   *     first used
+   */
+  @Override
+  public void setPoolMinimumSize(String poolMinimumSize) {
+    attributes.put(ATTRIBUTE_POOL_MINIMUM_SIZE, poolMinimumSize);
+  }
+
+  /**
+   * @return The maximum number of connections in the connection pool
+   */
+  @Override
+  public String getPoolMaximumSize() {
+    return getAttributeProperty(ATTRIBUTE_POOL_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param poolMaximumSize The maximum number of connections in the connection pool
+   */
+  @Override
+  public void setPoolMaximumSize(String poolMaximumSize) {
+    attributes.put(ATTRIBUTE_POOL_MAXIMUM_SIZE, poolMaximumSize);
+  }
+
+  /**
+   * @return The maximum time in milliseconds to wait for a free connection in the pool
+   */
+  @Override
+  public String getPoolMaximumWait() {
+    return getAttributeProperty(ATTRIBUTE_POOL_MAXIMUM_WAIT);
+  }
+
+  /**
+   * @param poolMaximumWait The maximum time in milliseconds to wait for a free connection in the
+   *     pool
+   */
+  @Override
+  public void setPoolMaximumWait(String poolMaximumWait) {
+    attributes.put(ATTRIBUTE_POOL_MAXIMUM_WAIT, poolMaximumWait);
+  }
+
+  /**
+   * @return The timeout in seconds to validate a pooled connection with before handing it out, 0 to
+   *     skip validation
+   */
+  @Override
+  public String getPoolValidationTimeout() {
+    return getAttributeProperty(ATTRIBUTE_POOL_VALIDATION_TIMEOUT);
+  }
+
+  /**
+   * @param poolValidationTimeout The timeout in seconds to validate a pooled connection with before
+   *     handing it out, 0 to skip validation
+   */
+  @Override
+  public void setPoolValidationTimeout(String poolValidationTimeout) {
+    attributes.put(ATTRIBUTE_POOL_VALIDATION_TIMEOUT, poolValidationTimeout);
+  }
+
+  /**
+   * @return The maximum number of prepared statements to cache per pooled connection
+   */
+  @Override
+  public String getPoolStatementCacheSize() {
+    return getAttributeProperty(ATTRIBUTE_POOL_STATEMENT_CACHE_SIZE);
+  }
+
+  /**
+   * @param poolStatementCacheSize The maximum number of prepared statements to cache per pooled
+   *     connection
+   */
+  @Override
+  public void setPoolStatementCacheSize(String poolStatementCacheSize) {
+    attributes.put(ATTRIBUTE_POOL_STATEMENT_CACHE_SIZE, poolStatementCacheSize);
+  }
+
+  /**
+   * @return The time in seconds to keep an idle pooled connection open, 0 to keep it open
+   */
+  @Override
+  public String getPoolIdleTimeout() {
+    return getAttributeProperty(ATTRIBUTE_POOL_IDLE_TIMEOUT);
+  }
+
+  /**
+   * @param poolIdleTimeout The time in seconds to keep an idle pooled connection open, 0 to keep it
+   *     open
+   */
+  @Override
+  public void setPoolIdleTimeout(String poolIdleTimeout) {
+    attributes.put(ATTRIBUTE_POOL_IDLE_TIMEOUT, poolIdleTimeout);
+  }
+
   /**
    * Verifies on the specified database connection if an index exists on the fields with the
    * specified name.
@@ -56,6 +56,7 @@ import org.apache.hop.core.IProgressMonitor;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
+import org.apache.hop.core.database.pool.DatabaseConnectionPool;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -74,7 +75,6 @@ import org.apache.hop.core.plugins.IPlugin;
 import org.apache.hop.core.plugins.PluginRegistry;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
-import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaBigNumber;
@@ -134,6 +134,9 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
 
   private IRowMeta rowMeta;
 
+  /** Reads the rows of the last row layout we retrieved rows for */
+  private ResultSetRowReader rowReader;
+
   private int written;
 
   private final ILogChannel log;
@@ -348,8 +351,8 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
    * Open the database connection. The algorithm is:
    *
    * <ol>
-   *   <li>If <code>databaseMeta.isUsingConnectionPool()</code>, then the connection's datasource is
-   *       looked up in the pool
+   *   <li>If <code>databaseMeta.isUsingConnectionPool()</code>, then the connection is borrowed
+   *       from the {@linkplain DatabaseConnectionPool} shared by all pipelines and workflows
    *   <li>otherwise, the connection is established via {@linkplain DriverManager}
    * </ol>
    *
@@ -459,10 +462,10 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
               url += ";instanceName=" + instance;
             }
           }
-          connection = DriverManager.getConnection(url, properties);
+          connection = openConnection(url, properties);
         } else {
           // Perhaps the username is in the URL or no username is required...
-          connection = DriverManager.getConnection(url, properties);
+          connection = openConnection(url, properties);
         }
       } else {
         if (!Utils.isEmpty(username)) {
@@ -472,7 +475,7 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
           properties.put("password", password);
         }
 
-        connection = DriverManager.getConnection(url, properties);
+        connection = openConnection(url, properties);
       }
     } catch (Exception e) {
       throw new HopDatabaseException(
@@ -480,6 +483,59 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     }
   }
 
+  /**
+   * Open a connection with the driver manager or borrow one from the connection pool. A pooled
+   * connection goes back to the pool when it's closed.
+   *
+   * @param url the URL to connect to
+   * @param properties the connection properties, including the credentials
+   * @return the connection
+   * @throws SQLException in case the connection couldn't be established
+   */
+  private Connection openConnection(String url, Properties properties) throws SQLException {
+    if (!databaseMeta.isUsingConnectionPool()) {
+      return DriverManager.getConnection(url, properties);
+    }
+
+    // The pool is shared by everyone using the same connection with the same URL and properties
+    //
+    String name = databaseMeta.getName();
+    DatabaseConnectionPool pool =
+        DatabaseConnectionPool.getPool(
+            DatabaseConnectionPool.getKey(name, url, properties),
+            name,
+            Const.toInt(
+                resolve(databaseMeta.getPoolMinimumSize()),
+                DatabaseConnectionPool.DEFAULT_MINIMUM_SIZE),
+            Const.toInt(
+                resolve(databaseMeta.getPoolMaximumSize()),
+                DatabaseConnectionPool.DEFAULT_MAXIMUM_SIZE),
+            Const.toInt(
+                resolve(databaseMeta.getPoolValidationTimeout()),
+                DatabaseConnectionPool.DEFAULT_VALIDATION_TIMEOUT),
+            Const.toInt(
+                resolve(databaseMeta.getPoolStatementCacheSize()),
+                DatabaseConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE),
+            Const.toInt(
+                resolve(databaseMeta.getPoolIdleTimeout()),
+                DatabaseConnectionPool.DEFAULT_IDLE_TIMEOUT));
+    long maximumWait =
+        Const.toLong(
+            resolve(databaseMeta.getPoolMaximumWait()),
+            DatabaseConnectionPool.DEFAULT_MAXIMUM_WAIT);
+
+    long startTime = System.currentTimeMillis();
+    Connection pooledConnection =
+        pool.getConnection(() -> DriverManager.getConnection(url, properties), maximumWait);
+    if (log.isGatheringMetrics()) {
+      log.snap(
+          Metrics.METRIC_DATABASE_POOL_WAIT_TIME, name, System.currentTimeMillis() - startTime);
+      log.snap(Metrics.METRIC_DATABASE_POOL_ACTIVE_COUNT, name, pool.getActiveCount());
+      log.snap(Metrics.METRIC_DATABASE_POOL_IDLE_COUNT, name, pool.getIdleCount());
+    }
+    return pooledConnection;
+  }
+
   /** close() and disconnect() are the same. */
   @Override
   public synchronized void close() {
@@ -1046,6 +1102,21 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
   }
 
   public String getInsertStatement(String schemaName, String tableName, IRowMeta fields) {
+    return getInsertStatement(schemaName, tableName, fields, 1);
+  }
+
+  /**
+   * Get an insert statement which inserts a number of rows at once: INSERT INTO table (a, b) VALUES
+   * (?, ?), (?, ?), ...
+   *
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param fields The columns to insert
+   * @param nrRows The number of rows to insert with the statement
+   * @return The insert statement
+   */
+  public String getInsertStatement(
+      String schemaName, String tableName, IRowMeta fields, int nrRows) {
     StringBuilder ins = new StringBuilder(128);
 
     String schemaTable = databaseMeta.getQuotedSchemaTableCombination(this, schemaName, tableName);
@@ -1069,20 +1140,50 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
       ins.append(databaseMeta.quoteField(name));
     }
     ins.append(")");
-    ins.append(" VALUES (");
+    ins.append(" VALUES ");
 
     // Add placeholders...
-    for (int i = 0; i < fields.size(); i++) {
-      if (i > 0) {
+    for (int row = 0; row < nrRows; row++) {
+      if (row > 0) {
         ins.append(", ");
       }
-      ins.append(" ?");
+      ins.append('(');
+      for (int i = 0; i < fields.size(); i++) {
+        if (i > 0) {
+          ins.append(", ");
+        }
+        ins.append(" ?");
+      }
+      ins.append(')');
     }
-    ins.append(')');
 
     return ins.toString();
   }
 
+  /**
+   * Create an inserter which inserts rows into a table in the fastest way the database supports.
+   * This is a database specific bulk inserter, or multi-row insert statements if the database
+   * supports those.
+   *
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param fields The columns to insert
+   * @return The inserter or null if the database doesn't offer anything faster than batches of
+   *     single-row inserts.
+   * @throws HopDatabaseException in case the inserter couldn't be created
+   */
+  public IBulkInserter createBulkInserter(String schemaName, String tableName, IRowMeta fields)
+      throws HopDatabaseException {
+    IDatabase iDatabase = databaseMeta.getIDatabase();
+    IBulkInserter inserter = iDatabase.createBulkInserter(this, schemaName, tableName, fields);
+    if (inserter == null && iDatabase.getMaxInsertParameters() >= 2 * fields.size()) {
+      inserter =
+          new MultiRowInserter(
+              this, schemaName, tableName, fields, iDatabase.getMaxInsertParameters());
+    }
+    return inserter;
+  }
+
   public void insertRow() throws HopDatabaseException {
     insertRow(prepStatementInsert);
   }
@@ -1297,6 +1398,29 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     }
   }
 
+  /**
+   * Create the exception for a failed bulk insert. A bulk insert doesn't report which rows failed
+   * so the update counts are not set.
+   *
+   * @param message The error message
+   * @param ex The cause
+   * @return The batch exception
+   */
+  public static HopDatabaseBatchException createHopDatabaseBulkException(
+      String message, Exception ex) {
+    HopDatabaseBatchException kdbe;
+    if (ex instanceof SQLException sqlException) {
+      kdbe = createHopDatabaseBatchException(message, sqlException);
+      kdbe.setUpdateCounts(null);
+    } else {
+      kdbe = new HopDatabaseBatchException(message, ex);
+      List<Exception> exceptions = new ArrayList<>();
+      exceptions.add(ex);
+      kdbe.setExceptionsList(exceptions);
+    }
+    return kdbe;
+  }
+
   public static HopDatabaseBatchException createHopDatabaseBatchException(
       String message, SQLException ex) {
     HopDatabaseBatchException kdbe = new HopDatabaseBatchException(message, ex);
@@ -2451,20 +2575,16 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
 
     try {
 
-      int nrcols = rowInfo.size();
-      Object[] data = RowDataUtil.allocateRowData(nrcols);
-
-      if (rs.next()) {
-        for (int i = 0; i < nrcols; i++) {
-          IValueMeta val = rowInfo.getValueMeta(i);
-
-          data[i] = databaseMeta.getValueFromResultSet(rs, val, i);
-        }
-      } else {
-        data = null;
+      if (!rs.next()) {
+        return null;
       }
 
-      return data;
+      // The column readers are bound once for every shape of query we read from
+      //
+      if (rowReader == null || rowReader.getRowMeta() != rowInfo) {
+        rowReader = new ResultSetRowReader(databaseMeta, rowInfo);
+      }
+      return rowReader.readRow(rs);
     } catch (Exception ex) {
       throw new HopDatabaseException("Couldn't get row from result set", ex);
     } finally {
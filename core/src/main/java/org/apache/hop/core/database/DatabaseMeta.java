@@ -2152,6 +2152,62 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     iDatabase.setPreferredSchemaName(preferredSchemaName);
   }
 
+  public boolean isUsingConnectionPool() {
+    return iDatabase.isUsingConnectionPool();
+  }
+
+  public void setUsingConnectionPool(boolean usingConnectionPool) {
+    iDatabase.setUsingConnectionPool(usingConnectionPool);
+  }
+
+  public String getPoolMinimumSize() {
+    return iDatabase.getPoolMinimumSize();
+  }
+
+  public void setPoolMinimumSize(String poolMinimumSize) {
+    iDatabase.setPoolMinimumSize(poolMinimumSize);
+  }
+
+  public String getPoolMaximumSize() {
+    return iDatabase.getPoolMaximumSize();
+  }
+
+  public void setPoolMaximumSize(String poolMaximumSize) {
+    iDatabase.setPoolMaximumSize(poolMaximumSize);
+  }
+
+  public String getPoolMaximumWait() {
+    return iDatabase.getPoolMaximumWait();
+  }
+
+  public void setPoolMaximumWait(String poolMaximumWait) {
+    iDatabase.setPoolMaximumWait(poolMaximumWait);
+  }
+
+  public String getPoolValidationTimeout() {
+    return iDatabase.getPoolValidationTimeout();
+  }
+
+  public void setPoolValidationTimeout(String poolValidationTimeout) {
+    iDatabase.setPoolValidationTimeout(poolValidationTimeout);
+  }
+
+  public String getPoolStatementCacheSize() {
+    return iDatabase.getPoolStatementCacheSize();
+  }
+
+  public void setPoolStatementCacheSize(String poolStatementCacheSize) {
+    iDatabase.setPoolStatementCacheSize(poolStatementCacheSize);
+  }
+
+  public String getPoolIdleTimeout() {
+    return iDatabase.getPoolIdleTimeout();
+  }
+
+  public void setPoolIdleTimeout(String poolIdleTimeout) {
+    iDatabase.setPoolIdleTimeout(poolIdleTimeout);
+  }
+
   public boolean supportsSequenceNoMaxValueOption() {
     return iDatabase.isSupportsSequenceNoMaxValueOption();
   }
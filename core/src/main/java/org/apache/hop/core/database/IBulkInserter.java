@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+
+/**
+ * Inserts rows into a single table in batches, using the fastest way a database offers: multi-row
+ * INSERT statements, COPY, bulk copy and so on. Rows are collected with {@link #addRow(Object[])}
+ * and sent to the database with {@link #executeBatch()}. Committing is left to the caller.
+ *
+ * <p>Contrary to JDBC batches a bulk insert doesn't report which rows failed: when {@link
+ * #executeBatch()} fails the whole batch should be considered as failed and rolled back.
+ *
+ * @see IDatabase#createBulkInserter(Database, String, String, org.apache.hop.core.row.IRowMeta)
+ */
+public interface IBulkInserter {
+
+  /**
+   * Add a row to the current batch.
+   *
+   * @param row The values to insert, in the order of the row metadata given to create the inserter
+   * @throws HopDatabaseException in case the row can't be converted for the database
+   */
+  void addRow(Object[] row) throws HopDatabaseException;
+
+  /**
+   * @return The number of rows in the current batch
+   */
+  int getBatchSize();
+
+  /**
+   * Send the rows of the current batch to the database. Afterwards the batch is empty.
+   *
+   * @throws HopDatabaseBatchException in case the rows couldn't be inserted. The update counts of
+   *     the exception are not set.
+   */
+  void executeBatch() throws HopDatabaseBatchException;
+
+  /** Throw away the rows of the current batch. */
+  void clearBatch();
+
+  /**
+   * Release the resources of the inserter, the connection is not closed.
+   *
+   * @throws HopDatabaseException in case something went wrong
+   */
+  void close() throws HopDatabaseException;
+}
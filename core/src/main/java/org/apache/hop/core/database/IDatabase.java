@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.HopMetadataObject;
@@ -740,6 +741,84 @@ public interface IDatabase extends Cloneable {
    */
   void setPreferredSchemaName(String preferredSchemaName);
 
+  /**
+   * @return true if connections are taken from a connection pool shared by all pipelines and
+   *     workflows
+   */
+  boolean isUsingConnectionPool();
+
+  /**
+   * @param usingConnectionPool true if connections should be taken from a connection pool shared by
+   *     all pipelines and workflows
+   */
+  void setUsingConnectionPool(boolean usingConnectionPool);
+
+  /**
+   * @return The minimum number of connections to open when the connection pool is first used
+   */
+  String getPoolMinimumSize();
+
+  /**
+   * @param poolMinimumSize The minimum number of connections to open when the connection pool is
+   *     first used
+   */
+  void setPoolMinimumSize(String poolMinimumSize);
+
+  /**
+   * @return The maximum number of connections in the connection pool
+   */
+  String getPoolMaximumSize();
+
+  /**
+   * @param poolMaximumSize The maximum number of connections in the connection pool
+   */
+  void setPoolMaximumSize(String poolMaximumSize);
+
+  /**
+   * @return The maximum time in milliseconds to wait for a free connection in the pool
+   */
+  String getPoolMaximumWait();
+
+  /**
+   * @param poolMaximumWait The maximum time in milliseconds to wait for a free connection in the
+   *     pool
+   */
+  void setPoolMaximumWait(String poolMaximumWait);
+
+  /**
+   * @return The timeout in seconds to validate a pooled connection with before handing it out, 0 to
+   *     skip validation
+   */
+  String getPoolValidationTimeout();
+
+  /**
+   * @param poolValidationTimeout The timeout in seconds to validate a pooled connection with before
+   *     handing it out, 0 to skip validation
+   */
+  void setPoolValidationTimeout(String poolValidationTimeout);
+
+  /**
+   * @return The maximum number of prepared statements to cache per pooled connection
+   */
+  String getPoolStatementCacheSize();
+
+  /**
+   * @param poolStatementCacheSize The maximum number of prepared statements to cache per pooled
+   *     connection
+   */
+  void setPoolStatementCacheSize(String poolStatementCacheSize);
+
+  /**
+   * @return The time in seconds to keep an idle pooled connection open, 0 to keep it open
+   */
+  String getPoolIdleTimeout();
+
+  /**
+   * @param poolIdleTimeout The time in seconds to keep an idle pooled connection open, 0 to keep it
+   *     open
+   */
+  void setPoolIdleTimeout(String poolIdleTimeout);
+
   /**
    * Verifies on the specified database connection if an index exists on the fields with the
    * specified name.
@@ -1119,6 +1198,32 @@ public interface IDatabase extends Cloneable {
     return "";
   }
 
+  /**
+   * @return The maximum number of parameters in an INSERT statement with multiple rows: INSERT INTO
+   *     table (a, b) VALUES (?, ?), (?, ?), ... Return 0 if the database doesn't support multi-row
+   *     inserts.
+   */
+  default int getMaxInsertParameters() {
+    return 0;
+  }
+
+  /**
+   * Create a database specific inserter for fast bulk inserts into a table, for example with COPY
+   * or a bulk copy API of the JDBC driver. The inserter uses the connection of the given database.
+   *
+   * @param database The connected database to insert with
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param rowMeta The columns to insert
+   * @return The bulk inserter or null if the database doesn't have a bulk insert of its own
+   * @throws HopDatabaseException in case the inserter couldn't be created
+   */
+  default IBulkInserter createBulkInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return null;
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on
    * the connector version.
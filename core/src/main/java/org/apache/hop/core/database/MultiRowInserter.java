@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Inserts rows with INSERT statements which carry the values of a number of rows at once: INSERT
+ * INTO table (a, b) VALUES (?, ?), (?, ?), ... This saves a round trip and the parsing of a
+ * statement per row on databases which don't rewrite batches of single-row inserts by themselves.
+ *
+ * <p>The number of rows per statement is limited by the maximum number of parameters the database
+ * supports, see {@link IDatabase#getMaxInsertParameters()}.
+ */
+public class MultiRowInserter implements IBulkInserter {
+
+  /** The maximum number of rows we put in a single statement */
+  public static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+  private final Database database;
+  private final String schemaName;
+  private final String tableName;
+  private final IRowMeta rowMeta;
+  private final int rowsPerStatement;
+
+  private final List<Object[]> rows;
+
+  /** The statement which inserts rowsPerStatement rows, re-used for every batch */
+  private PreparedStatement fullStatement;
+
+  /**
+   * @param database The connected database to insert with
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param rowMeta The columns to insert
+   * @param maxParameters The maximum number of parameters in a statement
+   */
+  public MultiRowInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta, int maxParameters) {
+    this.database = database;
+    this.schemaName = schemaName;
+    this.tableName = tableName;
+    this.rowMeta = rowMeta;
+    this.rowsPerStatement =
+        Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, maxParameters / Math.max(1, rowMeta.size())));
+    this.rows = new ArrayList<>();
+  }
+
+  @Override
+  public void addRow(Object[] row) {
+    rows.add(row);
+  }
+
+  @Override
+  public int getBatchSize() {
+    return rows.size();
+  }
+
+  @Override
+  public void executeBatch() throws HopDatabaseBatchException {
+    try {
+      int start = 0;
+      if (rows.size() >= rowsPerStatement) {
+        if (fullStatement == null) {
+          fullStatement =
+              database.prepareSql(
+                  database.getInsertStatement(schemaName, tableName, rowMeta, rowsPerStatement));
+        }
+        for (; start + rowsPerStatement <= rows.size(); start += rowsPerStatement) {
+          setValues(fullStatement, start, rowsPerStatement);
+          fullStatement.addBatch();
+        }
+        fullStatement.executeBatch();
+        fullStatement.clearBatch();
+      }
+
+      // The rest of the rows go in a statement of their own
+      //
+      int rest = rows.size() - start;
+      if (rest > 0) {
+        PreparedStatement statement =
+            database.prepareSql(database.getInsertStatement(schemaName, tableName, rowMeta, rest));
+        try {
+          setValues(statement, start, rest);
+          statement.executeUpdate();
+        } finally {
+          statement.close();
+        }
+      }
+    } catch (SQLException | HopDatabaseException | HopValueException e) {
+      throw Database.createHopDatabaseBulkException(
+          "Error inserting " + rows.size() + " rows into table [" + tableName + "]", e);
+    } finally {
+      rows.clear();
+    }
+  }
+
+  private void setValues(PreparedStatement statement, int start, int nrRows)
+      throws HopDatabaseException, HopValueException {
+    int nrColumns = rowMeta.size();
+    int pos = 1;
+    for (int r = start; r < start + nrRows; r++) {
+      Object[] row = rows.get(r);
+      for (int c = 0; c < nrColumns; c++) {
+        try {
+          database.setValue(statement, rowMeta.getValueMeta(c), row[c], pos++);
+        } catch (HopDatabaseException e) {
+          throw new HopDatabaseException("offending row : " + rowMeta.getString(row), e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void clearBatch() {
+    rows.clear();
+  }
+
+  @Override
+  public void close() throws HopDatabaseException {
+    rows.clear();
+    database.closePreparedStatement(fullStatement);
+    fullStatement = null;
+  }
+
+  /**
+   * @return The number of rows inserted with a single statement
+   */
+  public int getRowsPerStatement() {
+    return rowsPerStatement;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.value.ValueMetaBase;
+
+/**
+ * Reads rows from a result set with a column reader per column which is chosen once for the shape
+ * of the query. This avoids the type switch of {@link IValueMeta#getValueFromResultSet(IDatabase,
+ * ResultSet, int)} as well as the database dialect checks for every value of every row. The readers
+ * for non-primitive values don't need to call {@link ResultSet#wasNull()} either since the driver
+ * already returns null for those.
+ *
+ * <p>String columns with binary string storage (lazy conversion) are read as raw bytes.
+ *
+ * <p>Value types or database types which have their own way of reading a value keep using it: for
+ * those columns the reader simply delegates to {@link
+ * DatabaseMeta#getValueFromResultSet(ResultSet, IValueMeta, int)}.
+ */
+public class ResultSetRowReader {
+
+  /** Reads a single column value from the current row of the result set */
+  @FunctionalInterface
+  private interface IColumnReader {
+    Object read(ResultSet resultSet) throws SQLException, HopDatabaseException;
+  }
+
+  private final IRowMeta rowMeta;
+  private final IColumnReader[] readers;
+
+  /**
+   * Bind a reader to every column of the given row layout
+   *
+   * @param databaseMeta The database the result set comes from
+   * @param rowMeta The layout of the rows in the result set
+   */
+  public ResultSetRowReader(DatabaseMeta databaseMeta, IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+    this.readers = new IColumnReader[rowMeta.size()];
+
+    boolean standardDialect = isStandardDialect(databaseMeta.getIDatabase());
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = createReader(databaseMeta, rowMeta.getValueMeta(i), i, standardDialect);
+    }
+  }
+
+  /**
+   * Read the current row of the result set into a new row. The row is over-allocated so that
+   * transforms downstream can add fields to it.
+   *
+   * @param resultSet The result set positioned on the row to read
+   * @return The row
+   * @throws HopDatabaseException in case a value couldn't be read
+   */
+  public Object[] readRow(ResultSet resultSet) throws HopDatabaseException {
+    Object[] row = RowDataUtil.allocateRowData(readers.length);
+    int i = 0;
+    try {
+      for (; i < readers.length; i++) {
+        row[i] = readers[i].read(resultSet);
+      }
+      return row;
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          "Unable to get value '"
+              + rowMeta.getValueMeta(i).toStringMeta()
+              + "' from database resultset, index "
+              + i,
+          e);
+    }
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  private static IColumnReader createReader(
+      DatabaseMeta databaseMeta, IValueMeta valueMeta, int index, boolean standardDialect) {
+    int column = index + 1;
+
+    if (!standardDialect || !isStandardValueMeta(valueMeta)) {
+      return resultSet -> databaseMeta.getValueFromResultSet(resultSet, valueMeta, index);
+    }
+
+    IDatabase iDatabase = databaseMeta.getIDatabase();
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_BOOLEAN:
+        return resultSet -> {
+          boolean value = resultSet.getBoolean(column);
+          return resultSet.wasNull() ? null : Boolean.valueOf(value);
+        };
+      case IValueMeta.TYPE_NUMBER:
+        return resultSet -> {
+          double value = resultSet.getDouble(column);
+          return resultSet.wasNull() ? null : Double.valueOf(value);
+        };
+      case IValueMeta.TYPE_INTEGER:
+        return resultSet -> {
+          long value = resultSet.getLong(column);
+          return resultSet.wasNull() ? null : Long.valueOf(value);
+        };
+      case IValueMeta.TYPE_BIGNUMBER:
+        return resultSet -> resultSet.getBigDecimal(column);
+      case IValueMeta.TYPE_STRING:
+        if (valueMeta.isStorageBinaryString()) {
+          return resultSet -> resultSet.getBytes(column);
+        }
+        return resultSet -> resultSet.getString(column);
+      case IValueMeta.TYPE_BINARY:
+        if (iDatabase.isSupportsGetBlob()) {
+          return resultSet -> {
+            Blob blob = resultSet.getBlob(column);
+            return blob == null ? null : blob.getBytes(1L, (int) blob.length());
+          };
+        }
+        return resultSet -> resultSet.getBytes(column);
+      case IValueMeta.TYPE_DATE:
+        if (valueMeta.getPrecision() != 1 && iDatabase.isSupportsTimeStampToDateConversion()) {
+          return resultSet -> resultSet.getTimestamp(column);
+        }
+        if (iDatabase.isNetezzaVariant()) {
+          return resultSet -> databaseMeta.getValueFromResultSet(resultSet, valueMeta, index);
+        }
+        return resultSet -> resultSet.getDate(column);
+      default:
+        return resultSet -> null;
+    }
+  }
+
+  /**
+   * @return true if the database type reads values the way {@link BaseDatabaseMeta} does
+   */
+  private static boolean isStandardDialect(IDatabase iDatabase) {
+    if (!(iDatabase instanceof BaseDatabaseMeta)) {
+      return false;
+    }
+    return isDeclaredBy(
+        iDatabase.getClass(),
+        BaseDatabaseMeta.class,
+        ResultSet.class,
+        IValueMeta.class,
+        int.class);
+  }
+
+  /**
+   * @return true if the value type reads values the way {@link ValueMetaBase} does
+   */
+  private static boolean isStandardValueMeta(IValueMeta valueMeta) {
+    if (!(valueMeta instanceof ValueMetaBase)) {
+      return false;
+    }
+    return isDeclaredBy(
+        valueMeta.getClass(), ValueMetaBase.class, IDatabase.class, ResultSet.class, int.class);
+  }
+
+  private static boolean isDeclaredBy(
+      Class<?> clazz, Class<?> declaringClass, Class<?>... parameterTypes) {
+    try {
+      return clazz.getMethod("getValueFromResultSet", parameterTypes).getDeclaringClass()
+          == declaringClass;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
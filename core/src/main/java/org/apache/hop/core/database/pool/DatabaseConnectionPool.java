@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.database.pool;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of physical connections to the same database, shared by all the pipelines and workflows
+ * running in this JVM. The pools are kept per connection identity: the name of the connection and a
+ * digest of the URL and the connection properties, so that the credentials aren't kept in the key.
+ *
+ * <p>Every physical connection keeps a cache of its prepared statements. Since these connections
+ * survive the pipeline which used them, a statement which is prepared over and over again by short
+ * running pipelines only needs to be prepared once per physical connection.
+ *
+ * <p>The connections handed out by the pool are returned to it when they are closed. Connections
+ * which stay idle longer than the idle timeout are closed, down to the minimum size of the pool. A
+ * pool which isn't used at all for that long is closed and forgotten.
+ */
+public class DatabaseConnectionPool {
+  public static final int DEFAULT_MINIMUM_SIZE = 0;
+  public static final int DEFAULT_MAXIMUM_SIZE = 10;
+  public static final long DEFAULT_MAXIMUM_WAIT = 60000L;
+  public static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+  public static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+  public static final int DEFAULT_IDLE_TIMEOUT = 600;
+
+  /** The time in milliseconds between two checks for idle connections */
+  private static final long EVICTION_INTERVAL = 30000L;
+
+  private static final ConcurrentMap<String, DatabaseConnectionPool> pools =
+      new ConcurrentHashMap<>();
+
+  private static Timer evictionTimer;
+
+  private final String name;
+  private final int minimumSize;
+  private final int maximumSize;
+  private final int validationTimeout;
+  private final int statementCacheSize;
+  private final int idleTimeout;
+
+  private final Semaphore permits;
+  private final Deque<PooledConnection> idleConnections;
+  private final AtomicInteger activeCount;
+  private volatile long lastUsed;
+  private volatile boolean closed;
+
+  /**
+   * Create a new connection pool
+   *
+   * @param name the name of the pool, used in error messages
+   * @param minimumSize the number of connections to open when the pool is first used
+   * @param maximumSize the maximum number of connections in use at the same time
+   * @param validationTimeout the timeout in seconds to validate an idle connection with before
+   *     handing it out, 0 to skip validation
+   * @param statementCacheSize the maximum number of prepared statements to cache per connection, 0
+   *     to disable statement caching
+   * @param idleTimeout the time in seconds to keep an idle connection open, 0 to keep it open
+   */
+  public DatabaseConnectionPool(
+      String name,
+      int minimumSize,
+      int maximumSize,
+      int validationTimeout,
+      int statementCacheSize,
+      int idleTimeout) {
+    this.name = name;
+    this.maximumSize = Math.max(1, maximumSize);
+    this.minimumSize = Math.max(0, Math.min(minimumSize, this.maximumSize));
+    this.validationTimeout = Math.max(0, validationTimeout);
+    this.statementCacheSize = Math.max(0, statementCacheSize);
+    this.idleTimeout = Math.max(0, idleTimeout);
+
+    permits = new Semaphore(this.maximumSize, true);
+    idleConnections = new ArrayDeque<>();
+    activeCount = new AtomicInteger();
+    lastUsed = System.currentTimeMillis();
+  }
+
+  /**
+   * Calculate the key of a pool for a connection identity. The URL and the properties are only kept
+   * as a digest since the properties contain the credentials.
+   *
+   * @param name the name of the database connection
+   * @param url the URL of the database connection
+   * @param properties the connection properties, including the credentials
+   * @return the key of the pool
+   */
+  public static String getKey(String name, String url, Properties properties) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(url.getBytes(StandardCharsets.UTF_8));
+      for (Map.Entry<Object, Object> entry : new TreeMap<>(properties).entrySet()) {
+        digest.update((byte) 0);
+        digest.update(String.valueOf(entry.getKey()).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8));
+      }
+      return name + "|" + HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Get the pool for a connection identity. If the pool doesn't exist yet or if its settings
+   * changed it's created. A pool which is replaced is closed: its idle connections are closed right
+   * away, the connections in use are closed when they're handed back.
+   *
+   * @param key the identity of the database connection
+   * @param name the name of the pool, used in error messages
+   * @param minimumSize the number of connections to open when the pool is first used
+   * @param maximumSize the maximum number of connections in use at the same time
+   * @param validationTimeout the timeout in seconds to validate an idle connection with, 0 to skip
+   *     validation
+   * @param statementCacheSize the maximum number of prepared statements to cache per connection
+   * @param idleTimeout the time in seconds to keep an idle connection open, 0 to keep it open
+   * @return the connection pool
+   */
+  public static DatabaseConnectionPool getPool(
+      String key,
+      String name,
+      int minimumSize,
+      int maximumSize,
+      int validationTimeout,
+      int statementCacheSize,
+      int idleTimeout) {
+    startEvictionTimer();
+
+    DatabaseConnectionPool[] replaced = new DatabaseConnectionPool[1];
+    DatabaseConnectionPool pool =
+        pools.compute(
+            key,
+            (k, existing) -> {
+              DatabaseConnectionPool candidate =
+                  new DatabaseConnectionPool(
+                      name,
+                      minimumSize,
+                      maximumSize,
+                      validationTimeout,
+                      statementCacheSize,
+                      idleTimeout);
+              if (existing != null && existing.hasSameSettings(candidate)) {
+                // Keep the pool from being evicted before the connection is borrowed
+                existing.lastUsed = System.currentTimeMillis();
+                return existing;
+              }
+              replaced[0] = existing;
+              return candidate;
+            });
+    if (replaced[0] != null) {
+      replaced[0].close();
+    }
+    return pool;
+  }
+
+  /** Close all connection pools, typically when the Hop environment shuts down. */
+  public static void closeAll() {
+    synchronized (pools) {
+      if (evictionTimer != null) {
+        evictionTimer.cancel();
+        evictionTimer = null;
+      }
+    }
+    List<DatabaseConnectionPool> list = new ArrayList<>(pools.values());
+    pools.clear();
+    for (DatabaseConnectionPool pool : list) {
+      pool.close();
+    }
+  }
+
+  /**
+   * Gets the pools
+   *
+   * @return a copy of the list of connection pools
+   */
+  public static List<DatabaseConnectionPool> getPools() {
+    return new ArrayList<>(pools.values());
+  }
+
+  /** Check for idle connections and unused pools in the background. */
+  private static void startEvictionTimer() {
+    synchronized (pools) {
+      if (evictionTimer != null) {
+        return;
+      }
+      evictionTimer = new Timer("Database connection pool eviction", true);
+      evictionTimer.schedule(
+          new TimerTask() {
+            @Override
+            public void run() {
+              evictAll(System.currentTimeMillis());
+            }
+          },
+          EVICTION_INTERVAL,
+          EVICTION_INTERVAL);
+    }
+  }
+
+  /**
+   * Close the connections which have been idle for too long, and the pools which haven't been used
+   * for that long.
+   *
+   * @param now the current time in milliseconds
+   */
+  static void evictAll(long now) {
+    for (String key : new ArrayList<>(pools.keySet())) {
+      DatabaseConnectionPool[] removed = new DatabaseConnectionPool[1];
+      pools.computeIfPresent(
+          key,
+          (k, pool) -> {
+            if (pool.isUnused(now)) {
+              removed[0] = pool;
+              return null;
+            }
+            return pool;
+          });
+      if (removed[0] != null) {
+        removed[0].close();
+      } else {
+        DatabaseConnectionPool pool = pools.get(key);
+        if (pool != null) {
+          pool.evictIdleConnections(now);
+        }
+      }
+    }
+  }
+
+  private boolean hasSameSettings(DatabaseConnectionPool pool) {
+    return minimumSize == pool.minimumSize
+        && maximumSize == pool.maximumSize
+        && validationTimeout == pool.validationTimeout
+        && statementCacheSize == pool.statementCacheSize
+        && idleTimeout == pool.idleTimeout;
+  }
+
+  /**
+   * See if nobody used this pool for longer than the idle timeout
+   *
+   * @param now the current time in milliseconds
+   * @return true if the pool can be closed
+   */
+  private boolean isUnused(long now) {
+    return idleTimeout > 0
+        && activeCount.get() == 0
+        && lastUsed < now - idleTimeout * 1000L;
+  }
+
+  /**
+   * Close the connections which have been idle longer than the idle timeout, keeping the minimum
+   * number of connections open.
+   *
+   * @param now the current time in milliseconds
+   */
+  void evictIdleConnections(long now) {
+    if (idleTimeout <= 0) {
+      return;
+    }
+    long idleBoundary = now - idleTimeout * 1000L;
+    List<PooledConnection> evicted = new ArrayList<>();
+    synchronized (idleConnections) {
+      // The least recently used connections are at the end
+      //
+      while (!idleConnections.isEmpty()
+          && activeCount.get() + idleConnections.size() > minimumSize
+          && idleConnections.peekLast().getIdleSince() < idleBoundary) {
+        evicted.add(idleConnections.pollLast());
+      }
+    }
+    for (PooledConnection pooledConnection : evicted) {
+      pooledConnection.closePhysically();
+    }
+  }
+
+  /**
+   * Borrow a connection from the pool. When all connections are in use we wait for one to be handed
+   * back. Close the connection to return it to the pool.
+   *
+   * @param factory the factory to open new physical connections with
+   * @param maximumWait the maximum time in milliseconds to wait for a connection
+   * @return the connection
+   * @throws SQLException in case no connection became available in time or if a new connection
+   *     couldn't be opened.
+   */
+  public Connection getConnection(IConnectionFactory factory, long maximumWait)
+      throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool '" + name + "' is closed");
+    }
+    lastUsed = System.currentTimeMillis();
+    try {
+      if (!permits.tryAcquire(Math.max(0, maximumWait), TimeUnit.MILLISECONDS)) {
+        throw new SQLException(
+            "Timeout waiting "
+                + maximumWait
+                + "ms for a connection of pool '"
+                + name
+                + "': all "
+                + maximumSize
+                + " connections are in use");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException(
+          "Interrupted while waiting for a connection of pool '" + name + "'", e);
+    }
+
+    try {
+      PooledConnection pooledConnection = takeIdleConnection();
+      if (pooledConnection == null) {
+        pooledConnection = new PooledConnection(this, factory.createConnection());
+      }
+      activeCount.incrementAndGet();
+      fill(factory);
+      return pooledConnection.lease();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Take the most recently used idle connection which is still valid
+   *
+   * @return the idle connection or null if there isn't any
+   */
+  private PooledConnection takeIdleConnection() {
+    while (true) {
+      PooledConnection pooledConnection;
+      synchronized (idleConnections) {
+        pooledConnection = idleConnections.pollFirst();
+      }
+      if (pooledConnection == null) {
+        return null;
+      }
+      if (pooledConnection.isValid(validationTimeout)) {
+        return pooledConnection;
+      }
+      pooledConnection.closePhysically();
+    }
+  }
+
+  /** Open idle connections until we have the minimum number of connections in the pool. */
+  private void fill(IConnectionFactory factory) {
+    while (!closed && activeCount.get() + getIdleCount() < minimumSize) {
+      try {
+        PooledConnection pooledConnection = new PooledConnection(this, factory.createConnection());
+        pooledConnection.setIdleSince(System.currentTimeMillis());
+        synchronized (idleConnections) {
+          idleConnections.addLast(pooledConnection);
+        }
+      } catch (SQLException e) {
+        // The connection we need right now was opened fine, we'll try again next time
+        return;
+      }
+    }
+  }
+
+  /**
+   * Hand a connection back to the pool
+   *
+   * @param pooledConnection the connection
+   * @param reusable true if the connection can be handed out again
+   */
+  void release(PooledConnection pooledConnection, boolean reusable) {
+    lastUsed = System.currentTimeMillis();
+    try {
+      if (reusable && !closed) {
+        pooledConnection.setIdleSince(lastUsed);
+        synchronized (idleConnections) {
+          idleConnections.addFirst(pooledConnection);
+        }
+      } else {
+        pooledConnection.closePhysically();
+      }
+    } finally {
+      activeCount.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  /** Close all idle connections and refuse to hand out new ones. */
+  public void close() {
+    closed = true;
+    List<PooledConnection> connections;
+    synchronized (idleConnections) {
+      connections = new ArrayList<>(idleConnections);
+      idleConnections.clear();
+    }
+    for (PooledConnection pooledConnection : connections) {
+      pooledConnection.closePhysically();
+    }
+  }
+
+  /**
+   * Gets the number of connections which are in use
+   *
+   * @return value of activeCount
+   */
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  /**
+   * Gets the number of connections which are waiting in the pool to be used
+   *
+   * @return value of idleCount
+   */
+  public int getIdleCount() {
+    synchronized (idleConnections) {
+      return idleConnections.size();
+    }
+  }
+
+  /**
+   * Gets name
+   *
+   * @return value of name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets minimumSize
+   *
+   * @return value of minimumSize
+   */
+  public int getMinimumSize() {
+    return minimumSize;
+  }
+
+  /**
+   * Gets maximumSize
+   *
+   * @return value of maximumSize
+   */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Gets validationTimeout
+   *
+   * @return value of validationTimeout
+   */
+  public int getValidationTimeout() {
+    return validationTimeout;
+  }
+
+  /**
+   * Gets statementCacheSize
+   *
+   * @return value of statementCacheSize
+   */
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  /**
+   * Gets idleTimeout
+   *
+   * @return value of idleTimeout
+   */
+  public int getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Gets closed
+   *
+   * @return value of closed
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+}
@@ -14,16 +14,20 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package org.apache.hop.core.database.pool;
 
-package org.apache.hop.pipeline.transforms.sort;
+import java.sql.Connection;
+import java.sql.SQLException;
 
-/** Keeps track of which temporary file a row is coming from */
-public class RowTempFile {
-  public Object[] row;
-  public int fileNumber;
+/** Opens a new physical database connection when the pool doesn't have an idle one available. */
+@FunctionalInterface
+public interface IConnectionFactory {
 
-  public RowTempFile(Object[] row, int fileNumber) {
-    this.row = row;
-    this.fileNumber = fileNumber;
-  }
+  /**
+   * Open a new connection to the database
+   *
+   * @return the new connection
+   * @throws SQLException in case the connection can't be established
+   */
+  Connection createConnection() throws SQLException;
 }
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.database.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A physical connection managed by a {@link DatabaseConnectionPool}. The connection is handed out
+ * as a proxy which returns it to the pool when it's closed. Prepared statements are handed out as
+ * proxies as well: closing them keeps the statement prepared in a least recently used cache, ready
+ * for the next time the same SQL is prepared on this connection.
+ */
+class PooledConnection {
+  private final DatabaseConnectionPool pool;
+  private final Connection connection;
+  private final boolean initialAutoCommit;
+  private final boolean initialReadOnly;
+  private final String initialCatalog;
+  private final int initialTransactionIsolation;
+  private final Map<String, CachedStatement> statements;
+  private long idleSince;
+
+  PooledConnection(DatabaseConnectionPool pool, Connection connection) throws SQLException {
+    this.pool = pool;
+    this.connection = connection;
+    this.initialAutoCommit = connection.getAutoCommit();
+    this.initialReadOnly = connection.isReadOnly();
+    this.initialCatalog = connection.getCatalog();
+    this.initialTransactionIsolation = connection.getTransactionIsolation();
+    this.statements = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Hand out this connection
+   *
+   * @return a connection proxy which returns this connection to the pool when closed
+   */
+  Connection lease() {
+    Lease lease = new Lease();
+    lease.proxy =
+        (Connection)
+            Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(), new Class<?>[] {Connection.class}, lease);
+    return lease.proxy;
+  }
+
+  /**
+   * See if this connection can still be used
+   *
+   * @param timeout the validation timeout in seconds, 0 to only check if it's closed
+   * @return true if the connection can be used
+   */
+  boolean isValid(int timeout) {
+    try {
+      if (connection.isClosed()) {
+        return false;
+      }
+      return timeout <= 0 || connection.isValid(timeout);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the time in milliseconds since when this connection is idle in the pool
+   */
+  long getIdleSince() {
+    return idleSince;
+  }
+
+  /**
+   * @param idleSince the time in milliseconds since when this connection is idle in the pool
+   */
+  void setIdleSince(long idleSince) {
+    this.idleSince = idleSince;
+  }
+
+  /** Close all cached statements and the physical connection itself. */
+  synchronized void closePhysically() {
+    for (CachedStatement cachedStatement : statements.values()) {
+      closeQuietly(cachedStatement.statement);
+    }
+    statements.clear();
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // The connection is gone either way
+    }
+  }
+
+  /**
+   * Clean up after a lease: close the statements which were left open, roll back whatever wasn't
+   * committed and restore the settings the connection had when it was created.
+   *
+   * @param lease the lease which ends
+   * @return true if the connection can be handed out again
+   */
+  private synchronized boolean reset(Lease lease) {
+    for (Statement statement : lease.openStatements) {
+      closeQuietly(statement);
+    }
+    lease.openStatements.clear();
+
+    Iterator<CachedStatement> iterator = statements.values().iterator();
+    while (iterator.hasNext()) {
+      CachedStatement cachedStatement = iterator.next();
+      if (cachedStatement.inUse) {
+        closeQuietly(cachedStatement.statement);
+        iterator.remove();
+      }
+    }
+
+    try {
+      if (connection.isClosed()) {
+        return false;
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+      }
+      if (connection.getAutoCommit() != initialAutoCommit) {
+        connection.setAutoCommit(initialAutoCommit);
+      }
+      if (connection.isReadOnly() != initialReadOnly) {
+        connection.setReadOnly(initialReadOnly);
+      }
+      if (connection.getTransactionIsolation() != initialTransactionIsolation) {
+        connection.setTransactionIsolation(initialTransactionIsolation);
+      }
+      if (initialCatalog != null && !Objects.equals(connection.getCatalog(), initialCatalog)) {
+        connection.setCatalog(initialCatalog);
+      }
+      connection.clearWarnings();
+      return true;
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private synchronized Object prepareStatement(Lease lease, Method method, Object[] args)
+      throws Throwable {
+    String key = (args.length == 1 ? "" : args[1]) + ":" + args[0];
+    CachedStatement cachedStatement = statements.get(key);
+    if (cachedStatement != null && !cachedStatement.inUse) {
+      if (!cachedStatement.statement.isClosed()) {
+        return cachedStatement.checkout(lease);
+      }
+      statements.remove(key);
+    } else if (cachedStatement != null) {
+      // The same SQL is prepared twice on the same connection: don't cache the second one
+      //
+      Object statement = invoke(connection, method, args);
+      lease.openStatements.add((Statement) statement);
+      return statement;
+    }
+
+    cachedStatement =
+        new CachedStatement(key, (PreparedStatement) invoke(connection, method, args));
+    statements.put(key, cachedStatement);
+
+    Iterator<CachedStatement> iterator = statements.values().iterator();
+    while (statements.size() > pool.getStatementCacheSize() && iterator.hasNext()) {
+      CachedStatement eldest = iterator.next();
+      if (eldest.inUse) {
+        // Closed when it's handed back or at the latest when its user closes the connection
+        //
+        eldest.evicted = true;
+        eldest.owner.openStatements.add(eldest.statement);
+      } else {
+        closeQuietly(eldest.statement);
+      }
+      iterator.remove();
+    }
+    return cachedStatement.checkout(lease);
+  }
+
+  private synchronized void returnStatement(CachedStatement cachedStatement) {
+    cachedStatement.inUse = false;
+    if (cachedStatement.evicted || statements.get(cachedStatement.key) != cachedStatement) {
+      closeQuietly(cachedStatement.statement);
+      return;
+    }
+    try {
+      cachedStatement.restore();
+    } catch (SQLException e) {
+      closeQuietly(cachedStatement.statement);
+      statements.remove(cachedStatement.key);
+    }
+  }
+
+  private static boolean isCacheable(Method method, int cacheSize) {
+    if (cacheSize <= 0 || !"prepareStatement".equals(method.getName())) {
+      return false;
+    }
+    Class<?>[] types = method.getParameterTypes();
+    return types.length == 1 || (types.length == 2 && types[1] == int.class);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static void closeQuietly(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // Nothing we can do about it
+    }
+  }
+
+  /** The connection as handed out to a single user of the pool */
+  private class Lease implements InvocationHandler {
+    private final List<Statement> openStatements = new ArrayList<>();
+    private Connection proxy;
+    private boolean closed;
+
+    @Override
+    public Object invoke(Object object, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            pool.release(PooledConnection.this, reset(this));
+          }
+          return null;
+        case "isClosed":
+          return closed || connection.isClosed();
+        case "equals":
+          return object == args[0];
+        case "hashCode":
+          return System.identityHashCode(object);
+        case "toString":
+          return "Pooled connection of pool '" + pool.getName() + "'";
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("Connection is closed");
+      }
+      if (isCacheable(method, pool.getStatementCacheSize())) {
+        return prepareStatement(this, method, args);
+      }
+      Object result = PooledConnection.invoke(connection, method, args);
+      if (result instanceof Statement) {
+        synchronized (PooledConnection.this) {
+          openStatements.add((Statement) result);
+        }
+      }
+      return result;
+    }
+  }
+
+  /** A prepared statement kept in the statement cache of the connection */
+  private class CachedStatement {
+    private final String key;
+    private final PreparedStatement statement;
+    private final int maxRows;
+    private final int fetchSize;
+    private final int queryTimeout;
+    private boolean inUse;
+    private boolean evicted;
+    private Lease owner;
+
+    private CachedStatement(String key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.maxRows = statement.getMaxRows();
+      this.fetchSize = statement.getFetchSize();
+      this.queryTimeout = statement.getQueryTimeout();
+    }
+
+    private PreparedStatement checkout(Lease lease) {
+      inUse = true;
+      owner = lease;
+      return (PreparedStatement)
+          Proxy.newProxyInstance(
+              PooledConnection.class.getClassLoader(),
+              new Class<?>[] {PreparedStatement.class},
+              new StatementLease(this, lease));
+    }
+
+    /** Put back the settings a previous user may have changed */
+    private void restore() throws SQLException {
+      statement.clearParameters();
+      statement.clearWarnings();
+      if (statement.getMaxRows() != maxRows) {
+        statement.setMaxRows(maxRows);
+      }
+      if (statement.getFetchSize() != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      if (statement.getQueryTimeout() != queryTimeout) {
+        statement.setQueryTimeout(queryTimeout);
+      }
+      try {
+        statement.clearBatch();
+      } catch (SQLException e) {
+        // Batches are not supported by every driver
+      }
+    }
+  }
+
+  /** A cached prepared statement as handed out to a single user */
+  private class StatementLease implements InvocationHandler {
+    private final CachedStatement cachedStatement;
+    private final Lease lease;
+    private boolean closed;
+
+    private StatementLease(CachedStatement cachedStatement, Lease lease) {
+      this.cachedStatement = cachedStatement;
+      this.lease = lease;
+    }
+
+    @Override
+    public Object invoke(Object object, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            returnStatement(cachedStatement);
+          }
+          return null;
+        case "isClosed":
+          return closed || cachedStatement.statement.isClosed();
+        case "getConnection":
+          return lease.proxy;
+        case "equals":
+          return object == args[0];
+        case "hashCode":
+          return System.identityHashCode(object);
+        case "toString":
+          return cachedStatement.statement.toString();
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("Statement is closed");
+      }
+      return PooledConnection.invoke(cachedStatement.statement, method, args);
+    }
+  }
+}
@@ -0,0 +1,551 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.hash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * An append-only hash index of byte[] keys and values which lives outside of the Java heap.
+ *
+ * <p>The keys and values are appended as compact records to a memory-mapped data file. The keys are
+ * hashed into an open-addressing (linear probing) table in a memory-mapped index file. Every slot
+ * is a single long carrying part of the hash code and the offset of the newest record for the key.
+ * Every record points to the previous record with the same key so that a key can carry several
+ * values, for example the versions of a slowly changing dimension entry.
+ *
+ * <p>The data file starts with a header holding a signature and a watermark. When the index is
+ * opened on an existing file with the same signature the previous content is kept. Callers can use
+ * the watermark to remember up to where the content was loaded and refresh incrementally.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class MappedHashIndex implements Closeable {
+
+  /** The watermark value when no watermark was ever set */
+  public static final long NO_WATERMARK = Long.MIN_VALUE;
+
+  private static final long MAGIC = 0x484f504d41504958L;
+  private static final int VERSION = 1;
+
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 8;
+  private static final int HEADER_CLEAN = 12;
+  private static final int HEADER_SIGNATURE = 16;
+  private static final int HEADER_DATA_END = 24;
+  private static final int HEADER_KEY_COUNT = 32;
+  private static final int HEADER_CAPACITY = 40;
+  private static final int HEADER_WATERMARK = 48;
+  private static final int HEADER_LENGTH = 64;
+
+  /** key length, value length, hash code, offset of the previous record */
+  private static final int RECORD_HEADER_LENGTH = 20;
+
+  /** The key length marking the unused end of a data segment */
+  private static final int SKIP_TO_NEXT_SEGMENT = -1;
+
+  private static final int STANDARD_SEGMENT_SHIFT = 26;
+  private static final long STANDARD_CAPACITY = 1L << 16;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+
+  private static final int TAG_SHIFT = 40;
+  private static final long OFFSET_MASK = (1L << TAG_SHIFT) - 1;
+
+  private final Path dataPath;
+  private final Path indexPath;
+  private final boolean temporary;
+  private final int segmentShift;
+
+  private final MappedFile data;
+  private final MappedFile index;
+
+  private final long signature;
+  private long dataEnd;
+  private long size;
+  private long capacity;
+  private long resizeThreshold;
+  private long watermark;
+  private boolean reused;
+
+  MappedHashIndex(
+      Path dataPath, Path indexPath, long signature, boolean temporary, int segmentShift)
+      throws HopException {
+    this.dataPath = dataPath;
+    this.indexPath = indexPath;
+    this.signature = signature;
+    this.temporary = temporary;
+    this.segmentShift = segmentShift;
+
+    try {
+      data = new MappedFile(dataPath, segmentShift);
+      index = new MappedFile(indexPath, segmentShift);
+
+      reused = !temporary && isReusable();
+      if (reused) {
+        dataEnd = data.getLong(HEADER_DATA_END);
+        size = data.getLong(HEADER_KEY_COUNT);
+        capacity = data.getLong(HEADER_CAPACITY);
+        watermark = data.getLong(HEADER_WATERMARK);
+        index.ensureMapped(capacity << 3);
+        resizeThreshold = (long) (capacity * STANDARD_LOAD_FACTOR);
+      } else {
+        data.ensureMapped(HEADER_LENGTH);
+        capacity = STANDARD_CAPACITY;
+        index.ensureMapped(capacity << 3);
+        clear();
+      }
+
+      // Until we close properly, the files on disk can't be trusted
+      //
+      data.putLong(HEADER_MAGIC, MAGIC);
+      data.putInt(HEADER_VERSION, VERSION);
+      data.putLong(HEADER_SIGNATURE, signature);
+      data.putInt(HEADER_CLEAN, 0);
+      data.force();
+    } catch (IOException e) {
+      throw new HopException("Unable to open memory-mapped hash index file " + dataPath, e);
+    }
+  }
+
+  /**
+   * Open a hash index which is kept in the given file. The index itself is stored next to it with
+   * an extra ".idx" extension. If the file exists, was closed properly and was created with the
+   * same signature, the content is kept. Otherwise, we start with an empty index.
+   *
+   * @param filename the name of the data file
+   * @param signature a signature of the content, typically a hash of the metadata of the values
+   * @return the opened hash index
+   * @throws HopException in case the files can't be opened or created
+   */
+  public static MappedHashIndex open(String filename, long signature) throws HopException {
+    Path path = Paths.get(filename);
+    return new MappedHashIndex(
+        path, Paths.get(filename + ".idx"), signature, false, STANDARD_SEGMENT_SHIFT);
+  }
+
+  /**
+   * Create a hash index in temporary files which are removed again when the index is closed.
+   *
+   * @return the new hash index
+   * @throws HopException in case the temporary files can't be created
+   */
+  public static MappedHashIndex createTemporary() throws HopException {
+    try {
+      Path dataPath = Files.createTempFile("hop-hash-index", ".dat");
+      Path indexPath = Files.createTempFile("hop-hash-index", ".idx");
+      return new MappedHashIndex(dataPath, indexPath, 0L, true, STANDARD_SEGMENT_SHIFT);
+    } catch (IOException e) {
+      throw new HopException("Unable to create temporary hash index files", e);
+    }
+  }
+
+  private boolean isReusable() throws IOException {
+    if (data.fileSize() < HEADER_LENGTH) {
+      return false;
+    }
+    data.ensureMapped(data.fileSize());
+    if (data.getLong(HEADER_MAGIC) != MAGIC
+        || data.getInt(HEADER_VERSION) != VERSION
+        || data.getInt(HEADER_CLEAN) != 1
+        || data.getLong(HEADER_SIGNATURE) != signature) {
+      return false;
+    }
+    long storedCapacity = data.getLong(HEADER_CAPACITY);
+    return Long.bitCount(storedCapacity) == 1
+        && index.fileSize() >= storedCapacity << 3
+        && data.fileSize() >= data.getLong(HEADER_DATA_END);
+  }
+
+  /** Remove all keys and values from the index. */
+  public void clear() {
+    dataEnd = HEADER_LENGTH;
+    size = 0;
+    watermark = NO_WATERMARK;
+    resizeThreshold = (long) (capacity * STANDARD_LOAD_FACTOR);
+    clearSlots();
+  }
+
+  /**
+   * Add a value for a key. If the key already has values, the new value becomes the newest one.
+   *
+   * @param key the key
+   * @param value the value
+   * @throws HopException in case the data file can't be extended
+   */
+  public void put(byte[] key, byte[] value) throws HopException {
+    add(key, value, false);
+  }
+
+  /**
+   * Add a value for a key, but only if the key doesn't have a value yet.
+   *
+   * @param key the key
+   * @param value the value
+   * @return true if the value was added, false if the key already had a value
+   * @throws HopException in case the data file can't be extended
+   */
+  public boolean putIfAbsent(byte[] key, byte[] value) throws HopException {
+    return add(key, value, true);
+  }
+
+  private boolean add(byte[] key, byte[] value, boolean onlyIfAbsent) throws HopException {
+    int hashCode = generateHashCode(key);
+    long slot = findSlot(hashCode, ByteBuffer.wrap(key));
+    long previous = index.getLong(slot) & OFFSET_MASK;
+    if (previous != 0 && onlyIfAbsent) {
+      return false;
+    }
+
+    long offset = append(hashCode, key, value, previous);
+    index.putLong(slot, toSlot(hashCode, offset));
+
+    if (previous == 0) {
+      size++;
+      if (size >= resizeThreshold) {
+        resize();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the newest value for a key.
+   *
+   * @param key the key to look up
+   * @return the newest value or null if the key isn't in the index
+   */
+  public byte[] get(byte[] key) {
+    long offset = index.getLong(findSlot(generateHashCode(key), ByteBuffer.wrap(key)));
+    if (offset == 0) {
+      return null;
+    }
+    return readValue(offset & OFFSET_MASK);
+  }
+
+  /**
+   * Get all the values of a key.
+   *
+   * @param key the key to look up
+   * @return the values, the newest first. The list is empty if the key isn't in the index.
+   */
+  public List<byte[]> getAll(byte[] key) {
+    List<byte[]> values = new ArrayList<>();
+    long offset =
+        index.getLong(findSlot(generateHashCode(key), ByteBuffer.wrap(key))) & OFFSET_MASK;
+    while (offset != 0) {
+      values.add(readValue(offset));
+      ByteBuffer segment = data.segment(offset);
+      offset = segment.getLong(data.position(offset) + 12);
+    }
+    return values;
+  }
+
+  /**
+   * Find the index slot of a key: either the slot pointing to the key or the empty slot where it
+   * should go.
+   */
+  private long findSlot(int hashCode, ByteBuffer key) {
+    long mask = capacity - 1;
+    long tag = tagOf(hashCode);
+    long pointer = (hashCode & 0xffffffffL) & mask;
+    while (true) {
+      long slot = pointer << 3;
+      long entry = index.getLong(slot);
+      if (entry == 0 || ((entry >>> TAG_SHIFT) == tag && equalsKey(entry & OFFSET_MASK, key))) {
+        return slot;
+      }
+      pointer = (pointer + 1) & mask;
+    }
+  }
+
+  private boolean equalsKey(long offset, ByteBuffer key) {
+    ByteBuffer segment = data.segment(offset);
+    int position = data.position(offset);
+    int keyLength = segment.getInt(position);
+    return keyLength == key.remaining()
+        && segment.slice(position + RECORD_HEADER_LENGTH, keyLength).equals(key);
+  }
+
+  private byte[] readValue(long offset) {
+    ByteBuffer segment = data.segment(offset);
+    int position = data.position(offset);
+    int keyLength = segment.getInt(position);
+    byte[] value = new byte[segment.getInt(position + 4)];
+    segment.get(position + RECORD_HEADER_LENGTH + keyLength, value);
+    return value;
+  }
+
+  private long append(int hashCode, byte[] key, byte[] value, long previous) throws HopException {
+    long segmentSize = 1L << segmentShift;
+    int length = align(RECORD_HEADER_LENGTH + key.length + value.length);
+    if (length > segmentSize) {
+      throw new HopException(
+          "A key/value pair of " + length + " bytes doesn't fit in the hash index");
+    }
+
+    long offset = dataEnd;
+    long room = segmentSize - data.position(offset);
+    if (offset + room + length > OFFSET_MASK) {
+      throw new HopException(
+          "The hash index data file can't grow beyond " + OFFSET_MASK + " bytes");
+    }
+
+    try {
+      if (length > room) {
+        // Records never span two segments, skip the rest of this one.
+        //
+        data.ensureMapped(offset + 4);
+        data.putInt(offset, SKIP_TO_NEXT_SEGMENT);
+        offset += room;
+      }
+      data.ensureMapped(offset + length);
+    } catch (IOException e) {
+      throw new HopException("Unable to extend hash index data file " + dataPath, e);
+    }
+
+    ByteBuffer segment = data.segment(offset);
+    int position = data.position(offset);
+    segment.putInt(position, key.length);
+    segment.putInt(position + 4, value.length);
+    segment.putInt(position + 8, hashCode);
+    segment.putLong(position + 12, previous);
+    segment.put(position + RECORD_HEADER_LENGTH, key);
+    segment.put(position + RECORD_HEADER_LENGTH + key.length, value);
+
+    dataEnd = offset + length;
+    return offset;
+  }
+
+  /** Double the capacity of the index and put all the keys back in there from the data file. */
+  private void resize() throws HopException {
+    capacity <<= 1;
+    try {
+      index.ensureMapped(capacity << 3);
+    } catch (IOException e) {
+      throw new HopException("Unable to extend hash index file " + indexPath, e);
+    }
+    clearSlots();
+
+    long segmentSize = 1L << segmentShift;
+    long offset = HEADER_LENGTH;
+    while (offset < dataEnd) {
+      ByteBuffer segment = data.segment(offset);
+      int position = data.position(offset);
+      int keyLength = segment.getInt(position);
+      if (keyLength == SKIP_TO_NEXT_SEGMENT) {
+        offset += segmentSize - position;
+        continue;
+      }
+      int valueLength = segment.getInt(position + 4);
+      int hashCode = segment.getInt(position + 8);
+      ByteBuffer key = segment.slice(position + RECORD_HEADER_LENGTH, keyLength);
+
+      // The records are in the order they were added, the last one of a key wins.
+      //
+      index.putLong(findSlot(hashCode, key), toSlot(hashCode, offset));
+
+      offset += align(RECORD_HEADER_LENGTH + keyLength + valueLength);
+    }
+    resizeThreshold = (long) (capacity * STANDARD_LOAD_FACTOR);
+  }
+
+  private void clearSlots() {
+    for (long position = 0; position < capacity << 3; position += 8) {
+      index.putLong(position, 0L);
+    }
+  }
+
+  /**
+   * Flush the content to disk and close the files. Temporary files are removed.
+   *
+   * @throws IOException in case the files can't be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!temporary) {
+        data.putLong(HEADER_DATA_END, dataEnd);
+        data.putLong(HEADER_KEY_COUNT, size);
+        data.putLong(HEADER_CAPACITY, capacity);
+        data.putLong(HEADER_WATERMARK, watermark);
+        index.force();
+        data.force();
+        data.putInt(HEADER_CLEAN, 1);
+        data.force();
+      }
+    } finally {
+      data.close();
+      index.close();
+      if (temporary) {
+        delete(dataPath);
+        delete(indexPath);
+      }
+    }
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // Some platforms don't allow deleting a file while it is still mapped
+      path.toFile().deleteOnExit();
+    }
+  }
+
+  private static int generateHashCode(byte[] key) {
+    int hashCode = Arrays.hashCode(key);
+    hashCode ^= hashCode >>> 16;
+    hashCode *= 0x85ebca6b;
+    hashCode ^= hashCode >>> 13;
+    hashCode *= 0xc2b2ae35;
+    hashCode ^= hashCode >>> 16;
+    return hashCode;
+  }
+
+  private static long tagOf(int hashCode) {
+    return (hashCode >>> 8) & 0xffffffL;
+  }
+
+  private static long toSlot(int hashCode, long offset) {
+    return (tagOf(hashCode) << TAG_SHIFT) | offset;
+  }
+
+  private static int align(int length) {
+    return (length + 3) & ~3;
+  }
+
+  /**
+   * @return the number of distinct keys in the index
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if the content of an existing file was kept when the index was opened
+   */
+  public boolean isReused() {
+    return reused;
+  }
+
+  /**
+   * @return the watermark stored with the index or {@link #NO_WATERMARK}
+   */
+  public long getWatermark() {
+    return watermark;
+  }
+
+  /**
+   * @param watermark the watermark to store with the index, for example the highest last update
+   *     date of the loaded rows
+   */
+  public void setWatermark(long watermark) {
+    this.watermark = watermark;
+  }
+
+  /** A file mapped in memory in segments of a fixed maximum size. */
+  private static final class MappedFile implements Closeable {
+    private final FileChannel channel;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long mapped;
+
+    MappedFile(Path path, int segmentShift) throws IOException {
+      this.channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.segmentShift = segmentShift;
+      this.segmentMask = (1L << segmentShift) - 1;
+    }
+
+    long fileSize() throws IOException {
+      return channel.size();
+    }
+
+    /** Make sure the file is mapped up to the given size, growing the mapping at least 2-fold. */
+    void ensureMapped(long length) throws IOException {
+      if (length <= mapped) {
+        return;
+      }
+      long target = Math.max(length, mapped << 1);
+      while (mapped < target) {
+        int number = (int) (mapped >>> segmentShift);
+        long start = (long) number << segmentShift;
+        long segmentLength = Math.min(1L << segmentShift, target - start);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, segmentLength);
+        if (number < segments.size()) {
+          segments.set(number, buffer);
+        } else {
+          segments.add(buffer);
+        }
+        mapped = start + segmentLength;
+      }
+    }
+
+    ByteBuffer segment(long offset) {
+      return segments.get((int) (offset >>> segmentShift));
+    }
+
+    int position(long offset) {
+      return (int) (offset & segmentMask);
+    }
+
+    long getLong(long offset) {
+      return segment(offset).getLong(position(offset));
+    }
+
+    void putLong(long offset, long value) {
+      segment(offset).putLong(position(offset), value);
+    }
+
+    int getInt(long offset) {
+      return segment(offset).getInt(position(offset));
+    }
+
+    void putInt(long offset, int value) {
+      segment(offset).putInt(position(offset), value);
+    }
+
+    void force() {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      segments.clear();
+      channel.close();
+    }
+  }
+}
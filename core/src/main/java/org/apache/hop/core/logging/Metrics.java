@@ -105,6 +105,21 @@ public class Metrics implements IMetrics {
           MetricsSnapshotType.MAX,
           "METRIC_DATABASE_GET_ROW_MAX_TIME",
           "Get row from DB (max time)");
+  public static final Metrics METRIC_DATABASE_POOL_WAIT_TIME =
+      new Metrics(
+          MetricsSnapshotType.SUM,
+          "METRIC_DATABASE_POOL_WAIT_TIME",
+          "Get connection from pool (total time)");
+  public static final Metrics METRIC_DATABASE_POOL_ACTIVE_COUNT =
+      new Metrics(
+          MetricsSnapshotType.MAX,
+          "METRIC_DATABASE_POOL_ACTIVE_COUNT",
+          "Active connections in pool (max)");
+  public static final Metrics METRIC_DATABASE_POOL_IDLE_COUNT =
+      new Metrics(
+          MetricsSnapshotType.MIN,
+          "METRIC_DATABASE_POOL_IDLE_COUNT",
+          "Idle connections in pool (min)");
 
   // Pipeline
   //
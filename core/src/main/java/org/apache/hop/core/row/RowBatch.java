@@ -0,0 +1,481 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A batch of rows stored column by column. Integer, Number, Boolean and Date values with normal
+ * storage are kept in primitive arrays, all other values are kept as objects. Null values are
+ * tracked in a bitmap per column.
+ *
+ * <p>If a value doesn't have the exact class we expect for its column (a java.sql.Timestamp in a
+ * Date column for example) the whole column falls back to object storage so that we always give
+ * back the exact values we received.
+ *
+ * <p>A batch is not thread-safe: it's filled by one thread and then handed over to another.
+ */
+public class RowBatch {
+  /** The column values are stored in a long[] */
+  public static final int KIND_LONG = 1;
+
+  /** The column values are stored in a double[] */
+  public static final int KIND_DOUBLE = 2;
+
+  /** The column values are stored in a boolean[] */
+  public static final int KIND_BOOLEAN = 3;
+
+  /** The column values are stored in a long[] holding the milliseconds since the epoch */
+  public static final int KIND_DATE = 4;
+
+  /** The column values are stored in an Object[] */
+  public static final int KIND_OBJECT = 5;
+
+  private final IRowMeta rowMeta;
+  private final int capacity;
+  private final int nrColumns;
+  private int size;
+
+  private final int[] kinds;
+  private final long[][] longs;
+  private final double[][] doubles;
+  private final boolean[][] booleans;
+  private final Object[][] objects;
+  private final long[][] nulls;
+
+  /**
+   * Create a new empty batch of rows.
+   *
+   * @param rowMeta The layout of the rows in the batch
+   * @param capacity The maximum number of rows in the batch
+   */
+  public RowBatch(IRowMeta rowMeta, int capacity) {
+    this.rowMeta = rowMeta;
+    this.capacity = Math.max(1, capacity);
+    this.nrColumns = rowMeta.size();
+    this.size = 0;
+
+    kinds = new int[nrColumns];
+    longs = new long[nrColumns][];
+    doubles = new double[nrColumns][];
+    booleans = new boolean[nrColumns][];
+    objects = new Object[nrColumns][];
+    nulls = new long[nrColumns][];
+
+    int words = (this.capacity + 63) >>> 6;
+    for (int c = 0; c < nrColumns; c++) {
+      kinds[c] = getKind(rowMeta.getValueMeta(c));
+      switch (kinds[c]) {
+        case KIND_LONG, KIND_DATE:
+          longs[c] = new long[this.capacity];
+          break;
+        case KIND_DOUBLE:
+          doubles[c] = new double[this.capacity];
+          break;
+        case KIND_BOOLEAN:
+          booleans[c] = new boolean[this.capacity];
+          break;
+        default:
+          objects[c] = new Object[this.capacity];
+          break;
+      }
+      nulls[c] = new long[words];
+    }
+  }
+
+  /**
+   * Determine how we store the values of a column.
+   *
+   * @param valueMeta The column metadata
+   * @return the storage kind for the column
+   */
+  public static int getKind(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return KIND_OBJECT;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return KIND_LONG;
+      case IValueMeta.TYPE_NUMBER:
+        return KIND_DOUBLE;
+      case IValueMeta.TYPE_BOOLEAN:
+        return KIND_BOOLEAN;
+      case IValueMeta.TYPE_DATE:
+        return KIND_DATE;
+      default:
+        return KIND_OBJECT;
+    }
+  }
+
+  /**
+   * Add a row at the end of this batch.
+   *
+   * @param row The row to add
+   * @throws IndexOutOfBoundsException if the batch is full
+   */
+  public void addRow(Object[] row) {
+    if (size >= capacity) {
+      throw new IndexOutOfBoundsException("Row batch is full: " + capacity + " rows");
+    }
+    int index = size;
+    for (int c = 0; c < nrColumns; c++) {
+      Object value = c < row.length ? row[c] : null;
+      setValue(index, c, value);
+    }
+    size++;
+  }
+
+  /**
+   * Add the selected rows of another batch with the same layout at the end of this batch. The
+   * values are copied column by column.
+   *
+   * @param source The batch to copy the rows from
+   * @param selected For every row of the source batch: true to add it
+   * @throws IndexOutOfBoundsException if the selected rows don't fit in the batch
+   */
+  public void addRows(RowBatch source, boolean[] selected) {
+    int nrSelected = 0;
+    for (int i = 0; i < source.size; i++) {
+      if (selected[i]) {
+        nrSelected++;
+      }
+    }
+    if (size + nrSelected > capacity) {
+      throw new IndexOutOfBoundsException("Row batch is full: " + capacity + " rows");
+    }
+    for (int c = 0; c < nrColumns; c++) {
+      if (kinds[c] != source.kinds[c] && kinds[c] != KIND_OBJECT) {
+        toObjectColumn(c, size);
+      }
+      int index = size;
+      for (int i = 0; i < source.size; i++) {
+        if (!selected[i]) {
+          continue;
+        }
+        long bit = 1L << (index & 63);
+        int word = index >>> 6;
+        if (source.isNull(i, c)) {
+          nulls[c][word] |= bit;
+          if (kinds[c] == KIND_OBJECT) {
+            objects[c][index] = null;
+          }
+        } else {
+          nulls[c][word] &= ~bit;
+          switch (kinds[c]) {
+            case KIND_LONG, KIND_DATE:
+              longs[c][index] = source.longs[c][i];
+              break;
+            case KIND_DOUBLE:
+              doubles[c][index] = source.doubles[c][i];
+              break;
+            case KIND_BOOLEAN:
+              booleans[c][index] = source.booleans[c][i];
+              break;
+            default:
+              objects[c][index] =
+                  source.kinds[c] == KIND_OBJECT ? source.objects[c][i] : source.getValue(i, c);
+              break;
+          }
+        }
+        index++;
+      }
+    }
+    size += nrSelected;
+  }
+
+  /**
+   * Set the values of a column to those of a column of another batch, for as many rows as the
+   * other batch holds. Call {@link #setSize(int)} once all the columns of the rows are set.
+   *
+   * @param column The index of the column to set
+   * @param source The batch to copy the values from
+   * @param sourceColumn The index of the column in the source batch
+   * @throws IndexOutOfBoundsException if the rows of the source batch don't fit in this batch
+   */
+  public void setColumn(int column, RowBatch source, int sourceColumn) {
+    int nrRows = source.size;
+    if (nrRows > capacity) {
+      throw new IndexOutOfBoundsException("Row batch is full: " + capacity + " rows");
+    }
+    int sourceKind = source.kinds[sourceColumn];
+    if (sourceKind != kinds[column]) {
+      if (kinds[column] != KIND_OBJECT) {
+        toObjectColumn(column, 0);
+      }
+      for (int i = 0; i < nrRows; i++) {
+        objects[column][i] = source.getValue(i, sourceColumn);
+      }
+    } else {
+      switch (sourceKind) {
+        case KIND_LONG, KIND_DATE:
+          System.arraycopy(source.longs[sourceColumn], 0, longs[column], 0, nrRows);
+          break;
+        case KIND_DOUBLE:
+          System.arraycopy(source.doubles[sourceColumn], 0, doubles[column], 0, nrRows);
+          break;
+        case KIND_BOOLEAN:
+          System.arraycopy(source.booleans[sourceColumn], 0, booleans[column], 0, nrRows);
+          break;
+        default:
+          System.arraycopy(source.objects[sourceColumn], 0, objects[column], 0, nrRows);
+          break;
+      }
+    }
+    System.arraycopy(source.nulls[sourceColumn], 0, nulls[column], 0, (nrRows + 63) >>> 6);
+  }
+
+  /**
+   * Set the same value in a column for a number of rows. Call {@link #setSize(int)} once all the
+   * columns of the rows are set.
+   *
+   * @param column The index of the column to set
+   * @param value The value
+   * @param nrRows The number of rows to set the value for, starting with the first row
+   */
+  public void fillColumn(int column, Object value, int nrRows) {
+    for (int i = 0; i < nrRows; i++) {
+      setValue(i, column, value);
+    }
+  }
+
+  /**
+   * Set a value of a row. Call {@link #setSize(int)} once all the columns of the rows are set.
+   *
+   * @param index The index of the row in the batch
+   * @param column The index of the column
+   * @param value The value
+   */
+  public void setValue(int index, int column, Object value) {
+    long bit = 1L << (index & 63);
+    int word = index >>> 6;
+    if (value == null) {
+      nulls[column][word] |= bit;
+      if (kinds[column] == KIND_OBJECT) {
+        objects[column][index] = null;
+      }
+      return;
+    }
+    nulls[column][word] &= ~bit;
+
+    switch (kinds[column]) {
+      case KIND_LONG:
+        if (value.getClass() == Long.class) {
+          longs[column][index] = (Long) value;
+          return;
+        }
+        break;
+      case KIND_DOUBLE:
+        if (value.getClass() == Double.class) {
+          doubles[column][index] = (Double) value;
+          return;
+        }
+        break;
+      case KIND_BOOLEAN:
+        if (value.getClass() == Boolean.class) {
+          booleans[column][index] = (Boolean) value;
+          return;
+        }
+        break;
+      case KIND_DATE:
+        if (value.getClass() == Date.class) {
+          longs[column][index] = ((Date) value).getTime();
+          return;
+        }
+        break;
+      default:
+        objects[column][index] = value;
+        return;
+    }
+
+    // Unexpected class: keep the exact value we received, including the rows set before it
+    //
+    toObjectColumn(column, Math.max(size, index));
+    objects[column][index] = value;
+  }
+
+  /** Move the values of the first rows of a primitive column into object storage. */
+  private void toObjectColumn(int column, int nrRows) {
+    Object[] values = new Object[capacity];
+    for (int i = 0; i < nrRows; i++) {
+      values[i] = getValue(i, column);
+    }
+    kinds[column] = KIND_OBJECT;
+    objects[column] = values;
+    longs[column] = null;
+    doubles[column] = null;
+    booleans[column] = null;
+  }
+
+  /**
+   * Get a row from the batch as a new row of data.
+   *
+   * @param index The index of the row in the batch
+   * @return A newly allocated row of data
+   */
+  public Object[] getRow(int index) {
+    Object[] row = RowDataUtil.allocateRowData(nrColumns);
+    for (int c = 0; c < nrColumns; c++) {
+      row[c] = getValue(index, c);
+    }
+    return row;
+  }
+
+  /**
+   * Get a value from the batch as an object.
+   *
+   * @param index The index of the row in the batch
+   * @param column The index of the column
+   * @return The value or null
+   */
+  public Object getValue(int index, int column) {
+    if (isNull(index, column)) {
+      return null;
+    }
+    switch (kinds[column]) {
+      case KIND_LONG:
+        return longs[column][index];
+      case KIND_DOUBLE:
+        return doubles[column][index];
+      case KIND_BOOLEAN:
+        return booleans[column][index];
+      case KIND_DATE:
+        return new Date(longs[column][index]);
+      default:
+        return objects[column][index];
+    }
+  }
+
+  /**
+   * @param index The index of the row in the batch
+   * @param column The index of the column
+   * @return true if the value is null
+   */
+  public boolean isNull(int index, int column) {
+    return (nulls[column][index >>> 6] & (1L << (index & 63))) != 0;
+  }
+
+  /**
+   * Get the primitive values of an Integer column, or the milliseconds of a Date column. Only valid
+   * for columns of kind KIND_LONG or KIND_DATE. Check {@link #isNull(int, int)} for null values.
+   *
+   * @param column The index of the column
+   * @return The values of the column, only the first size() values are valid
+   */
+  public long[] getLongs(int column) {
+    return longs[column];
+  }
+
+  /**
+   * Get the primitive values of a Number column. Only valid for columns of kind KIND_DOUBLE.
+   *
+   * @param column The index of the column
+   * @return The values of the column, only the first size() values are valid
+   */
+  public double[] getDoubles(int column) {
+    return doubles[column];
+  }
+
+  /**
+   * Get the primitive values of a Boolean column. Only valid for columns of kind KIND_BOOLEAN.
+   *
+   * @param column The index of the column
+   * @return The values of the column, only the first size() values are valid
+   */
+  public boolean[] getBooleans(int column) {
+    return booleans[column];
+  }
+
+  /**
+   * Get the values of a column stored as objects. Only valid for columns of kind KIND_OBJECT.
+   *
+   * @param column The index of the column
+   * @return The values of the column, only the first size() values are valid
+   */
+  public Object[] getObjects(int column) {
+    return objects[column];
+  }
+
+  /**
+   * @param column The index of the column
+   * @return The way the values of the column are stored: KIND_LONG, KIND_DOUBLE, ...
+   */
+  public int getColumnKind(int column) {
+    return kinds[column];
+  }
+
+  /** Remove all rows from the batch so it can be re-used. */
+  public void clear() {
+    for (int c = 0; c < nrColumns; c++) {
+      if (objects[c] != null) {
+        Arrays.fill(objects[c], 0, size, null);
+      }
+      Arrays.fill(nulls[c], 0L);
+    }
+    size = 0;
+  }
+
+  /**
+   * @return The number of rows in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Set the number of rows in the batch after their values were set column by column.
+   *
+   * @param size The number of rows
+   * @throws IndexOutOfBoundsException if the batch can't hold that many rows
+   */
+  public void setSize(int size) {
+    if (size < 0 || size > capacity) {
+      throw new IndexOutOfBoundsException(
+          "Invalid number of rows " + size + " for a batch of " + capacity + " rows");
+    }
+    this.size = size;
+  }
+
+  /**
+   * @return true if the batch doesn't contain any rows
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if no more rows can be added to this batch
+   */
+  public boolean isFull() {
+    return size >= capacity;
+  }
+
+  /**
+   * @return The maximum number of rows in this batch
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return The layout of the rows in this batch
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+}
@@ -0,0 +1,503 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.hop.core.exception.HopEofException;
+import org.apache.hop.core.exception.HopFileException;
+
+/**
+ * A compact binary encoding for rows of data. It's used for temporary files and to transfer rows
+ * between processes, not for data which is stored for a longer time.
+ *
+ * <p>Compared to {@link IRowMeta#writeData(DataOutputStream, Object[])} null values are kept in a
+ * bitmap per row, integers and dates are written as variable length integers and strings as UTF-8
+ * bytes with a variable length size. Data types without a compact encoding are written with {@link
+ * IValueMeta#writeData(DataOutputStream, Object)}.
+ *
+ * <p>A stream starts with a header holding the format version, see {@link
+ * #writeHeader(DataOutputStream)}. A codec is not thread-safe: it can be used by one thread to
+ * write rows and read rows back.
+ */
+public class RowCodec {
+  /** The version of the encoding, written in the header of every stream */
+  public static final int VERSION = 1;
+
+  private static final int MAGIC = 0x48524331; // HRC1
+
+  private static final int ENCODING_STRING = 1;
+  private static final int ENCODING_NUMBER = 2;
+  private static final int ENCODING_INTEGER = 3;
+  private static final int ENCODING_DATE = 4;
+  private static final int ENCODING_BIGNUMBER = 5;
+  private static final int ENCODING_BOOLEAN = 6;
+  private static final int ENCODING_BYTES = 7;
+  private static final int ENCODING_INDEX = 8;
+  private static final int ENCODING_VALUE_META = 9;
+
+  private final IRowMeta rowMeta;
+  private final IValueMeta[] valueMetas;
+  private final int[] encodings;
+  private final int bitmapSize;
+
+  private byte[] buffer;
+  private int position;
+  private final byte[] bitmap;
+  private final byte[] readBitmap;
+  private byte[] scratch;
+
+  /**
+   * Create a new codec for rows with the given layout
+   *
+   * @param rowMeta The layout of the rows to encode and decode
+   */
+  public RowCodec(IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+    int size = rowMeta.size();
+    valueMetas = new IValueMeta[size];
+    encodings = new int[size];
+    for (int i = 0; i < size; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(i);
+      encodings[i] = getEncoding(valueMetas[i]);
+    }
+    // Rows without values get a single byte to be able to detect the end of a stream.
+    //
+    bitmapSize = Math.max(1, (size + 7) >>> 3);
+    bitmap = new byte[bitmapSize];
+    readBitmap = new byte[bitmapSize];
+    buffer = new byte[256];
+    scratch = new byte[256];
+  }
+
+  private static int getEncoding(IValueMeta valueMeta) {
+    switch (valueMeta.getStorageType()) {
+      case IValueMeta.STORAGE_TYPE_BINARY_STRING:
+        return ENCODING_BYTES;
+      case IValueMeta.STORAGE_TYPE_INDEXED:
+        return ENCODING_INDEX;
+      case IValueMeta.STORAGE_TYPE_NORMAL:
+        break;
+      default:
+        return ENCODING_VALUE_META;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        return ENCODING_STRING;
+      case IValueMeta.TYPE_NUMBER:
+        return ENCODING_NUMBER;
+      case IValueMeta.TYPE_INTEGER:
+        return ENCODING_INTEGER;
+      case IValueMeta.TYPE_DATE:
+        return ENCODING_DATE;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return ENCODING_BIGNUMBER;
+      case IValueMeta.TYPE_BOOLEAN:
+        return ENCODING_BOOLEAN;
+      case IValueMeta.TYPE_BINARY:
+        return ENCODING_BYTES;
+      default:
+        return ENCODING_VALUE_META;
+    }
+  }
+
+  /**
+   * Write the header of a stream of rows.
+   *
+   * @param outputStream The stream to write to
+   * @throws HopFileException in case the header can't be written
+   */
+  public void writeHeader(DataOutputStream outputStream) throws HopFileException {
+    try {
+      outputStream.writeInt(MAGIC);
+      outputStream.writeByte(VERSION);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write the row codec header", e);
+    }
+  }
+
+  /**
+   * Read and verify the header of a stream of rows.
+   *
+   * @param inputStream The stream to read from
+   * @throws HopFileException in case the stream doesn't start with a valid header
+   */
+  public void readHeader(DataInputStream inputStream) throws HopFileException {
+    try {
+      int magic = inputStream.readInt();
+      int version = inputStream.readUnsignedByte();
+      if (magic != MAGIC) {
+        throw new HopFileException("The stream doesn't contain rows encoded by the row codec");
+      }
+      if (version != VERSION) {
+        throw new HopFileException(
+            "Unsupported row codec version " + version + ", expected version " + VERSION);
+      }
+    } catch (EOFException e) {
+      throw new HopEofException(e);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read the row codec header", e);
+    }
+  }
+
+  /**
+   * Write a row of data.
+   *
+   * @param outputStream The stream to write to
+   * @param row The row of data, it should have at least as many values as the row metadata
+   * @throws HopFileException in case the row can't be written
+   */
+  public void writeRow(DataOutputStream outputStream, Object[] row) throws HopFileException {
+    Arrays.fill(bitmap, (byte) 0);
+    for (int i = 0; i < valueMetas.length; i++) {
+      if (row[i] == null) {
+        bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+      }
+    }
+    position = 0;
+    ensureCapacity(bitmapSize);
+    System.arraycopy(bitmap, 0, buffer, 0, bitmapSize);
+    position = bitmapSize;
+
+    try {
+      for (int i = 0; i < valueMetas.length; i++) {
+        Object object = row[i];
+        if (object == null) {
+          continue;
+        }
+        switch (encodings[i]) {
+          case ENCODING_STRING:
+            putString((String) object);
+            break;
+          case ENCODING_NUMBER:
+            putLong(Double.doubleToLongBits((Double) object));
+            break;
+          case ENCODING_INTEGER:
+            putVarLong(zigZag((Long) object));
+            break;
+          case ENCODING_DATE:
+            putVarLong(zigZag(((Date) object).getTime()));
+            break;
+          case ENCODING_BIGNUMBER:
+            putBigNumber((BigDecimal) object);
+            break;
+          case ENCODING_BOOLEAN:
+            ensureCapacity(1);
+            buffer[position++] = (byte) (((Boolean) object) ? 1 : 0);
+            break;
+          case ENCODING_BYTES:
+            putBytes((byte[]) object);
+            break;
+          case ENCODING_INDEX:
+            putVarLong((Integer) object);
+            break;
+          default:
+            // Flush what we have and let the value metadata write the value
+            //
+            outputStream.write(buffer, 0, position);
+            position = 0;
+            valueMetas[i].writeData(outputStream, object);
+            break;
+        }
+      }
+      outputStream.write(buffer, 0, position);
+    } catch (ClassCastException e) {
+      throw new HopFileException(
+          "Data type error writing row with layout " + rowMeta.toStringMeta(), e);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write row data to output stream", e);
+    }
+  }
+
+  /**
+   * Read a row of data.
+   *
+   * @param inputStream The stream to read from
+   * @return A new row of data
+   * @throws HopEofException in case the end of the stream is reached
+   * @throws HopFileException in case the row can't be read
+   * @throws SocketTimeoutException in case of a timeout reading from a socket
+   */
+  public Object[] readRow(DataInputStream inputStream)
+      throws HopFileException, SocketTimeoutException {
+    try {
+      inputStream.readFully(readBitmap);
+
+      Object[] row = RowDataUtil.allocateRowData(valueMetas.length);
+      for (int i = 0; i < valueMetas.length; i++) {
+        if ((readBitmap[i >>> 3] & (1 << (i & 7))) != 0) {
+          continue;
+        }
+        switch (encodings[i]) {
+          case ENCODING_STRING:
+            row[i] = readUtf8(inputStream);
+            break;
+          case ENCODING_NUMBER:
+            row[i] = inputStream.readDouble();
+            break;
+          case ENCODING_INTEGER:
+            row[i] = unZigZag(readVarLong(inputStream));
+            break;
+          case ENCODING_DATE:
+            row[i] = new Date(unZigZag(readVarLong(inputStream)));
+            break;
+          case ENCODING_BIGNUMBER:
+            row[i] = readBigNumber(inputStream);
+            break;
+          case ENCODING_BOOLEAN:
+            row[i] = inputStream.readByte() != 0;
+            break;
+          case ENCODING_BYTES:
+            row[i] = readBytes(inputStream);
+            break;
+          case ENCODING_INDEX:
+            row[i] = (int) readVarLong(inputStream);
+            break;
+          default:
+            row[i] = valueMetas[i].readData(inputStream);
+            break;
+        }
+      }
+      return row;
+    } catch (EOFException e) {
+      throw new HopEofException(e);
+    } catch (SocketTimeoutException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read row data from input stream", e);
+    }
+  }
+
+  /**
+   * @return The layout of the rows this codec handles
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (position + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+    }
+  }
+
+  private void putVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  private void putLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void putBytes(byte[] bytes) {
+    putVarLong(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void putString(String string) {
+    int length = string.length();
+    ensureCapacity(5 + length);
+
+    // Most strings are plain ASCII: copy the characters without an intermediate byte array.
+    //
+    int start = position;
+    putVarLong(length);
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      if (c >= 0x80) {
+        position = start;
+        putBytes(string.getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+      buffer[position++] = (byte) c;
+    }
+  }
+
+  private void putBigNumber(BigDecimal number) {
+    putVarLong(zigZag(number.scale()));
+    putBytes(number.unscaledValue().toByteArray());
+  }
+
+  private String readUtf8(DataInputStream inputStream) throws IOException {
+    int length = (int) readVarLong(inputStream);
+    if (length > scratch.length) {
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+    inputStream.readFully(scratch, 0, length);
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Write a long as a variable length integer: 7 bits per byte, small positive values take the
+   * least space. Use {@link #writeVarSignedLong(DataOutput, long)} for values which can be
+   * negative.
+   *
+   * @param output The output to write to
+   * @param value The value to write
+   * @throws IOException in case of a write error
+   */
+  public static void writeVarLong(DataOutput output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.writeByte((int) value);
+  }
+
+  /**
+   * Read a long written with {@link #writeVarLong(DataOutput, long)}
+   *
+   * @param input The input to read from
+   * @return The value
+   * @throws IOException in case of a read error
+   */
+  public static long readVarLong(DataInput input) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = input.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length integer");
+  }
+
+  /**
+   * Write a long which can be negative as a variable length integer: values close to zero take the
+   * least space.
+   *
+   * @param output The output to write to
+   * @param value The value to write
+   * @throws IOException in case of a write error
+   */
+  public static void writeVarSignedLong(DataOutput output, long value) throws IOException {
+    writeVarLong(output, zigZag(value));
+  }
+
+  /**
+   * Read a long written with {@link #writeVarSignedLong(DataOutput, long)}
+   *
+   * @param input The input to read from
+   * @return The value
+   * @throws IOException in case of a read error
+   */
+  public static long readVarSignedLong(DataInput input) throws IOException {
+    return unZigZag(readVarLong(input));
+  }
+
+  /**
+   * Write a string as UTF-8 bytes preceded by their number as a variable length integer.
+   *
+   * @param output The output to write to
+   * @param string The string to write, not null
+   * @throws IOException in case of a write error
+   */
+  public static void writeString(DataOutput output, String string) throws IOException {
+    writeBytes(output, string.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Read a string written with {@link #writeString(DataOutput, String)}
+   *
+   * @param input The input to read from
+   * @return The string
+   * @throws IOException in case of a read error
+   */
+  public static String readString(DataInput input) throws IOException {
+    return new String(readBytes(input), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Write a byte array preceded by its length as a variable length integer.
+   *
+   * @param output The output to write to
+   * @param bytes The bytes to write, not null
+   * @throws IOException in case of a write error
+   */
+  public static void writeBytes(DataOutput output, byte[] bytes) throws IOException {
+    writeVarLong(output, bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Read a byte array written with {@link #writeBytes(DataOutput, byte[])}
+   *
+   * @param input The input to read from
+   * @return The bytes
+   * @throws IOException in case of a read error
+   */
+  public static byte[] readBytes(DataInput input) throws IOException {
+    int length = (int) readVarLong(input);
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Write a big number as its scale and unscaled value.
+   *
+   * @param output The output to write to
+   * @param number The number to write, not null
+   * @throws IOException in case of a write error
+   */
+  public static void writeBigNumber(DataOutput output, BigDecimal number) throws IOException {
+    writeVarSignedLong(output, number.scale());
+    writeBytes(output, number.unscaledValue().toByteArray());
+  }
+
+  /**
+   * Read a big number written with {@link #writeBigNumber(DataOutput, BigDecimal)}
+   *
+   * @param input The input to read from
+   * @return The number
+   * @throws IOException in case of a read error
+   */
+  public static BigDecimal readBigNumber(DataInput input) throws IOException {
+    int scale = (int) readVarSignedLong(input);
+    return new BigDecimal(new BigInteger(readBytes(input)), scale);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
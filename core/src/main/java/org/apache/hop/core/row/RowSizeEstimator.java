@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Estimates how much heap memory rows of data take. The estimate follows the layout of a 64-bit JVM
+ * with compressed object pointers. It's meant to decide when a buffer of rows should be written to
+ * disk, not to be exact.
+ */
+public class RowSizeEstimator {
+  /** The size of an object header */
+  public static final int OBJECT_HEADER = 16;
+
+  /** The size of an object reference */
+  public static final int REFERENCE = 4;
+
+  private RowSizeEstimator() {}
+
+  /**
+   * Estimate the heap memory taken by a row of data, including the row array itself.
+   *
+   * @param rowMeta The layout of the row
+   * @param row The row of data
+   * @return The estimated size in bytes
+   */
+  public static long estimateRowSize(IRowMeta rowMeta, Object[] row) {
+    if (row == null) {
+      return 0L;
+    }
+    long size = align(OBJECT_HEADER + (long) REFERENCE * row.length);
+    int nrValues = Math.min(row.length, rowMeta.size());
+    for (int i = 0; i < nrValues; i++) {
+      size += estimateValueSize(row[i]);
+    }
+    return size;
+  }
+
+  /**
+   * Estimate the heap memory taken by a single value.
+   *
+   * @param value The value
+   * @return The estimated size in bytes
+   */
+  public static long estimateValueSize(Object value) {
+    if (value == null || value instanceof Boolean) {
+      // Nothing or a shared instance
+      return 0L;
+    }
+    if (value instanceof String string) {
+      // The String object and its byte[] with at least one byte per character
+      return 24L + align(OBJECT_HEADER + (long) string.length());
+    }
+    if (value instanceof Long || value instanceof Double) {
+      return 24L;
+    }
+    if (value instanceof Date) {
+      // java.util.Date and java.sql.Timestamp
+      return 32L;
+    }
+    if (value instanceof byte[] bytes) {
+      return align(OBJECT_HEADER + (long) bytes.length);
+    }
+    if (value instanceof BigDecimal bigDecimal) {
+      // The BigDecimal, its BigInteger and the int[] magnitude
+      return 80L + align(OBJECT_HEADER + 4L * (bigDecimal.precision() / 9 + 1));
+    }
+    // Anything else: a small object
+    return 32L;
+  }
+
+  private static long align(long size) {
+    return (size + 7L) & ~7L;
+  }
+}
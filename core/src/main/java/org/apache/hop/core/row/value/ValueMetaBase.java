@@ -937,6 +937,13 @@ public class ValueMetaBase implements IValueMeta {
     this.caseInsensitive = caseInsensitive;
   }
 
+  /**
+   * @return the comparator which compares the values instead of their type, null if there is none
+   */
+  public Comparator<Object> getComparator() {
+    return comparator;
+  }
+
   /**
    * @return the collatorDisabled
    */
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+/** Test class for the single producer, single consumer ring buffer row set. */
+public class RingBufferRowSetTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RingBufferRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertEquals(10, set.getCapacity());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testFullAndEmpty() {
+    IRowSet set = new RingBufferRowSet(3);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 0; i < 3; i++) {
+      assertTrue(set.putRowWait(rm, new Object[] {i}, 1, TimeUnit.MILLISECONDS));
+    }
+    assertEquals(3, set.size());
+
+    // The buffer is full, even though the underlying array has room for 4 rows
+    //
+    assertFalse(set.putRowWait(rm, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(3, set.size());
+
+    assertArrayEquals(new Object[] {0L}, set.getRow());
+    assertTrue(set.putRowWait(rm, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+
+    for (long i = 1; i < 4; i++) {
+      assertArrayEquals(new Object[] {i}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    }
+    assertEquals(0, set.size());
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testClear() {
+    IRowSet set = new RingBufferRowSet(5);
+    IRowMeta rm = createRowMeta();
+
+    set.putRow(rm, new Object[] {1L});
+    set.putRow(rm, new Object[] {2L});
+    set.setDone();
+    assertTrue(set.isDone());
+
+    set.clear();
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    for (RowSetWaitStrategy strategy : RowSetWaitStrategy.values()) {
+      runProducerConsumer(new RingBufferRowSet(100, strategy), 200_000);
+    }
+  }
+
+  @Test
+  public void testConsumerIsWokenUp() throws Exception {
+    for (RowSetWaitStrategy strategy : RowSetWaitStrategy.values()) {
+      final IRowSet set = new RingBufferRowSet(10, strategy);
+      final IRowMeta rm = createRowMeta();
+
+      Thread producer =
+          new Thread(
+              () -> {
+                try {
+                  Thread.sleep(50);
+                } catch (InterruptedException e) {
+                  // Ignore
+                }
+                set.putRow(rm, new Object[] {1L});
+              });
+      producer.start();
+
+      // Wait much longer than the producer needs: we need to get the row well before the timeout.
+      //
+      long start = System.nanoTime();
+      Object[] row = set.getRowWait(10, TimeUnit.SECONDS);
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      producer.join();
+
+      assertArrayEquals(strategy.name(), new Object[] {1L}, row);
+      assertTrue(strategy.name() + " took " + elapsed + "ms", elapsed < 5000);
+    }
+  }
+
+  @Test
+  public void testDoneWakesUpConsumer() throws Exception {
+    final IRowSet set = new RingBufferRowSet(10, RowSetWaitStrategy.Park);
+
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                // Ignore
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long start = System.nanoTime();
+    assertNull(set.getRowWait(10, TimeUnit.SECONDS));
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    producer.join();
+
+    assertTrue("took " + elapsed + "ms", elapsed < 5000);
+  }
+
+  private void runProducerConsumer(final IRowSet set, final int nrRows) throws Exception {
+    final IRowMeta rm = createRowMeta();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // Retry
+                }
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long expected = 0;
+    while (true) {
+      Object[] row = set.getRow();
+      if (row == null) {
+        if (set.isDone() && set.size() == 0) {
+          break;
+        }
+        continue;
+      }
+      assertEquals(expected++, ((Long) row[0]).longValue());
+    }
+    producer.join();
+
+    assertEquals(nrRows, expected);
+  }
+
+  @Test
+  public void testNames() {
+    IRowSet set = new RingBufferRowSet(3);
+    set.setThreadNameFromToCopy("from", 2, "to", 3);
+
+    assertEquals("from", set.getOriginTransformName());
+    assertEquals(2, set.getOriginTransformCopy());
+    assertEquals("to", set.getDestinationTransformName());
+    assertEquals(3, set.getDestinationTransformCopy());
+    assertEquals("from.2 - to.3", set.getName());
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+/** Test class for the row set passing batches of rows. */
+public class RowBatchRowSetTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testRowsInAndOut() {
+    IRowSet set = new RowBatchRowSet(10, 4);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 0; i < 10; i++) {
+      assertTrue(set.putRowWait(rm, new Object[] {i}, 1, TimeUnit.MILLISECONDS));
+    }
+    assertFalse(set.putRowWait(rm, new Object[] {10L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(10, set.size());
+
+    for (long i = 0; i < 10; i++) {
+      assertEquals(i, set.getRowImmediate()[0]);
+    }
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testBatchesInRowsOut() {
+    RowBatchRowSet set = new RowBatchRowSet(100, 10);
+    IRowMeta rm = createRowMeta();
+
+    // A row written one at a time goes first
+    //
+    set.putRow(rm, new Object[] {0L});
+    RowBatch batch = new RowBatch(rm, 20);
+    for (long i = 1; i <= 20; i++) {
+      batch.addRow(new Object[] {i});
+    }
+    assertTrue(set.putBatch(rm, batch, 1, TimeUnit.MILLISECONDS));
+    set.setDone();
+
+    assertEquals(21, set.size());
+    for (long i = 0; i <= 20; i++) {
+      assertEquals(i, set.getRow()[0]);
+    }
+    assertTrue(set.isDone());
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testRowsInBatchesOut() {
+    RowBatchRowSet set = new RowBatchRowSet(100, 10);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 0; i < 25; i++) {
+      set.putRow(rm, new Object[] {i});
+    }
+    set.setDone();
+
+    // Read one row on its own, the rest of that batch has to follow.
+    //
+    assertEquals(0L, set.getRow()[0]);
+
+    long expected = 1;
+    RowBatch batch;
+    while ((batch = set.getBatchWait(1, TimeUnit.MILLISECONDS)) != null) {
+      for (int i = 0; i < batch.size(); i++) {
+        assertEquals(expected++, batch.getValue(i, 0));
+      }
+    }
+    assertEquals(25, expected);
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testDonePublishesPartialBatch() {
+    RowBatchRowSet set = new RowBatchRowSet(100, 10);
+    IRowMeta rm = createRowMeta();
+
+    // The rows are collected until the batch is full
+    //
+    set.putRow(rm, new Object[] {0L});
+    set.putRow(rm, new Object[] {1L});
+    set.putRow(rm, new Object[] {2L});
+    set.setDone();
+
+    assertNotNull(set.getRowImmediate());
+    assertNotNull(set.getRowImmediate());
+    assertNotNull(set.getRowImmediate());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testCollectedRowsAreNotHeldBack() throws Exception {
+    RowBatchRowSet set = new RowBatchRowSet(100, 10);
+    IRowMeta rm = createRowMeta();
+
+    // The rows are collected in a batch which isn't full. No other row follows and the producer
+    // is not done: the consumer still gets them once its timeout expires.
+    //
+    set.putRow(rm, new Object[] {0L});
+    set.putRow(rm, new Object[] {1L});
+
+    assertEquals(0L, set.getRowImmediate()[0]);
+    assertEquals(1L, set.getRowImmediate()[0]);
+    assertNull(set.getRowImmediate());
+
+    set.putRow(rm, new Object[] {2L});
+    set.putRow(rm, new Object[] {3L});
+    RowBatch batch = set.getBatchWait(1, TimeUnit.MILLISECONDS);
+    assertEquals(2, batch.size());
+    assertEquals(2L, batch.getValue(0, 0));
+    assertEquals(3L, batch.getValue(1, 0));
+    assertNull(set.getBatchWait(1, TimeUnit.MILLISECONDS));
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testRowsArePublishedInFullBatches() {
+    RowBatchRowSet set = new RowBatchRowSet(100, 10);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 0; i < 25; i++) {
+      set.putRow(rm, new Object[] {i});
+    }
+    assertEquals(20, set.size());
+
+    assertEquals(10, set.getBatchWait(1, TimeUnit.MILLISECONDS).size());
+    assertEquals(10, set.getBatchWait(1, TimeUnit.MILLISECONDS).size());
+    assertEquals(5, set.getBatchWait(1, TimeUnit.MILLISECONDS).size());
+    assertNull(set.getBatchWait(1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testBatchesStayLargeWithAWaitingConsumer() throws Exception {
+    final RowBatchRowSet set = new RowBatchRowSet(1000, 100);
+    final IRowMeta rm = createRowMeta();
+    final int nrRows = 100_000;
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // Retry
+                }
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long expected = 0;
+    int nrBatches = 0;
+    while (true) {
+      RowBatch batch = set.getBatchWait(Const.TIMEOUT_GET_MILLIS, TimeUnit.MILLISECONDS);
+      if (batch == null) {
+        if (set.isDone() && set.size() == 0) {
+          break;
+        }
+        continue;
+      }
+      nrBatches++;
+      for (int i = 0; i < batch.size(); i++) {
+        assertEquals(expected++, batch.getValue(i, 0));
+      }
+    }
+    producer.join();
+
+    assertEquals(nrRows, expected);
+    assertTrue("Average batch size " + nrRows / nrBatches, nrBatches * 10 < nrRows);
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final IRowSet set = new RowBatchRowSet(1000, 100);
+    final IRowMeta rm = createRowMeta();
+    final int nrRows = 200_000;
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // Retry
+                }
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long expected = 0;
+    while (true) {
+      Object[] row = set.getRow();
+      if (row == null) {
+        if (set.isDone() && set.size() == 0) {
+          break;
+        }
+        continue;
+      }
+      assertEquals(expected++, ((Long) row[0]).longValue());
+    }
+    producer.join();
+
+    assertEquals(nrRows, expected);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.logging.LogLevel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MultiRowInserterTest {
+  private static final String FULL_SQL = "INSERT INTO T (id, name) VALUES ( ?,  ?), ( ?,  ?)";
+  private static final String REST_SQL = "INSERT INTO T (id, name) VALUES ( ?,  ?)";
+
+  private final DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+  private final IDatabase iDatabase = mock(IDatabase.class);
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement fullStatement = mock(PreparedStatement.class);
+  private final PreparedStatement restStatement = mock(PreparedStatement.class);
+
+  private Database database;
+  private IRowMeta rowMeta;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    when(databaseMeta.getIDatabase()).thenReturn(iDatabase);
+    when(databaseMeta.supportsSetLong()).thenReturn(true);
+    when(databaseMeta.getQuotedSchemaTableCombination(
+            any(IVariables.class), nullable(String.class), anyString()))
+        .thenReturn("T");
+    when(databaseMeta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(databaseMeta.stripCR(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(connection.prepareStatement(FULL_SQL)).thenReturn(fullStatement);
+    when(connection.prepareStatement(REST_SQL)).thenReturn(restStatement);
+
+    ILoggingObject log = mock(ILoggingObject.class);
+    when(log.getLogLevel()).thenReturn(LogLevel.NOTHING);
+    database = new Database(log, new Variables(), databaseMeta);
+    database.setConnection(connection);
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+  }
+
+  @Test
+  public void testInsertStatementWithSeveralRows() {
+    assertEquals(FULL_SQL, database.getInsertStatement(null, "T", rowMeta, 2));
+    assertEquals(REST_SQL, database.getInsertStatement(null, "T", rowMeta));
+  }
+
+  @Test
+  public void testRowsPerStatementFollowsParameterLimit() {
+    assertEquals(2, new MultiRowInserter(database, null, "T", rowMeta, 5).getRowsPerStatement());
+    assertEquals(
+        MultiRowInserter.MAX_ROWS_PER_STATEMENT,
+        new MultiRowInserter(database, null, "T", rowMeta, 65535).getRowsPerStatement());
+  }
+
+  @Test
+  public void testCreateBulkInserter() throws Exception {
+    when(iDatabase.getMaxInsertParameters()).thenReturn(0);
+    assertNull(database.createBulkInserter(null, "T", rowMeta));
+
+    when(iDatabase.getMaxInsertParameters()).thenReturn(4);
+    MultiRowInserter inserter = (MultiRowInserter) database.createBulkInserter(null, "T", rowMeta);
+    assertEquals(2, inserter.getRowsPerStatement());
+
+    IBulkInserter bulkInserter = mock(IBulkInserter.class);
+    when(iDatabase.createBulkInserter(database, null, "T", rowMeta)).thenReturn(bulkInserter);
+    assertSame(bulkInserter, database.createBulkInserter(null, "T", rowMeta));
+  }
+
+  @Test
+  public void testExecuteBatch() throws Exception {
+    MultiRowInserter inserter = new MultiRowInserter(database, null, "T", rowMeta, 4);
+    for (long i = 1; i <= 5; i++) {
+      inserter.addRow(new Object[] {i, "name" + i});
+    }
+    assertEquals(5, inserter.getBatchSize());
+
+    inserter.executeBatch();
+
+    // Two statements with 2 rows each in a batch, the last row on its own
+    //
+    verify(fullStatement, times(2)).addBatch();
+    verify(fullStatement).executeBatch();
+    verify(fullStatement).setLong(3, 2L);
+    verify(fullStatement, times(2)).setString(eq(4), anyString());
+    verify(restStatement).setLong(1, 5L);
+    verify(restStatement).setString(2, "name5");
+    verify(restStatement).executeUpdate();
+    verify(restStatement).close();
+    assertEquals(0, inserter.getBatchSize());
+
+    inserter.close();
+    verify(fullStatement).close();
+  }
+
+  @Test
+  public void testExecuteBatchFailure() throws Exception {
+    when(restStatement.executeUpdate()).thenThrow(new SQLException("duplicate key"));
+    MultiRowInserter inserter = new MultiRowInserter(database, null, "T", rowMeta, 4);
+    inserter.addRow(new Object[] {1L, "one"});
+    try {
+      inserter.executeBatch();
+      fail("The failed insert should throw a batch exception");
+    } catch (HopDatabaseBatchException e) {
+      assertNull(e.getUpdateCounts());
+    }
+    assertEquals(0, inserter.getBatchSize());
+  }
+}
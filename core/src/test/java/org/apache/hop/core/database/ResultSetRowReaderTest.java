@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ResultSetRowReaderTest {
+
+  private final ResultSet resultSet = mock(ResultSet.class);
+  private DatabaseMeta databaseMeta;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase(new ConcreteBaseDatabaseMeta());
+  }
+
+  @Test
+  public void testReadRow() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("updated"));
+
+    Timestamp updated = new Timestamp(0L);
+    when(resultSet.getLong(1)).thenReturn(42L);
+    when(resultSet.getString(2)).thenReturn("Hop");
+    when(resultSet.getBigDecimal(3)).thenReturn(BigDecimal.TEN);
+    when(resultSet.getTimestamp(4)).thenReturn(updated);
+
+    ResultSetRowReader reader = new ResultSetRowReader(databaseMeta, rowMeta);
+    Object[] row = reader.readRow(resultSet);
+
+    assertTrue(row.length >= 4);
+    assertEquals(42L, row[0]);
+    assertEquals("Hop", row[1]);
+    assertEquals(BigDecimal.TEN, row[2]);
+    assertSame(updated, row[3]);
+    verify(resultSet, never()).getString(1);
+  }
+
+  @Test
+  public void testReadNullPrimitive() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    when(resultSet.getLong(1)).thenReturn(0L);
+    when(resultSet.wasNull()).thenReturn(true);
+
+    Object[] row = new ResultSetRowReader(databaseMeta, rowMeta).readRow(resultSet);
+
+    assertNull(row[0]);
+  }
+
+  @Test
+  public void testLazyConversionReadsBytes() throws Exception {
+    IValueMeta valueMeta = new ValueMetaString("name");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(valueMeta);
+    byte[] bytes = "Hop".getBytes();
+    when(resultSet.getBytes(1)).thenReturn(bytes);
+
+    Object[] row = new ResultSetRowReader(databaseMeta, rowMeta).readRow(resultSet);
+
+    assertSame(bytes, row[0]);
+    verify(resultSet, never()).getString(anyInt());
+  }
+
+  @Test
+  public void testSpecificValueTypesAndDialectsAreRespected() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaTimestamp("ts"));
+    Timestamp timestamp = new Timestamp(0L);
+    when(resultSet.getTimestamp(1)).thenReturn(timestamp);
+
+    Object[] row = new ResultSetRowReader(databaseMeta, rowMeta).readRow(resultSet);
+    assertSame(timestamp, row[0]);
+
+    // A dialect with its own conversion is always asked for the value
+    //
+    DatabaseMeta dialectMeta = mock(DatabaseMeta.class);
+    when(dialectMeta.getIDatabase()).thenReturn(mock(IDatabase.class));
+    when(dialectMeta.getValueFromResultSet(any(ResultSet.class), any(IValueMeta.class), anyInt()))
+        .thenReturn("converted");
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    row = new ResultSetRowReader(dialectMeta, rowMeta).readRow(resultSet);
+    assertEquals("converted", row[0]);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.database.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.junit.After;
+import org.junit.Test;
+
+public class DatabaseConnectionPoolTest {
+
+  private final List<Connection> physicalConnections = new ArrayList<>();
+  private final List<PreparedStatement> physicalStatements = new ArrayList<>();
+
+  private final IConnectionFactory factory =
+      () -> {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getCatalog()).thenReturn("main");
+        when(connection.getTransactionIsolation())
+            .thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.prepareStatement(anyString()))
+            .thenAnswer(
+                invocation -> {
+                  PreparedStatement statement = mock(PreparedStatement.class);
+                  physicalStatements.add(statement);
+                  return statement;
+                });
+        physicalConnections.add(connection);
+        return connection;
+      };
+
+  @After
+  public void tearDown() {
+    DatabaseConnectionPool.closeAll();
+  }
+
+  @Test
+  public void testConnectionsAreReused() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 2, 5, 1, 10, 0);
+
+    Connection connection = pool.getConnection(factory, 1000L);
+    assertEquals(2, physicalConnections.size());
+    assertEquals(1, pool.getActiveCount());
+    assertEquals(1, pool.getIdleCount());
+
+    connection.close();
+    assertTrue(connection.isClosed());
+    assertEquals(0, pool.getActiveCount());
+    assertEquals(2, pool.getIdleCount());
+    verify(physicalConnections.get(0), never()).close();
+
+    Connection again = pool.getConnection(factory, 1000L);
+    assertNotSame(connection, again);
+    assertFalse(again.isClosed());
+    assertEquals(2, physicalConnections.size());
+    again.close();
+
+    pool.close();
+    verify(physicalConnections.get(0)).close();
+    verify(physicalConnections.get(1)).close();
+  }
+
+  @Test
+  public void testMaximumSize() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 0, 1, 0, 10, 0);
+
+    Connection connection = pool.getConnection(factory, 1000L);
+    try {
+      pool.getConnection(factory, 10L);
+      fail("All the connections of the pool are in use");
+    } catch (SQLException e) {
+      // Expected
+    }
+    connection.close();
+    pool.getConnection(factory, 10L).close();
+    assertEquals(1, physicalConnections.size());
+  }
+
+  @Test
+  public void testInvalidConnectionsAreReplaced() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 0, 5, 1, 10, 0);
+
+    pool.getConnection(factory, 1000L).close();
+    Connection broken = physicalConnections.get(0);
+    when(broken.isValid(anyInt())).thenReturn(false);
+
+    pool.getConnection(factory, 1000L).close();
+    assertEquals(2, physicalConnections.size());
+    verify(broken).close();
+  }
+
+  @Test
+  public void testUncommittedWorkIsRolledBack() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 0, 5, 0, 10, 0);
+
+    Connection connection = pool.getConnection(factory, 1000L);
+    Connection physical = physicalConnections.get(0);
+    connection.setAutoCommit(false);
+    when(physical.getAutoCommit()).thenReturn(false);
+    connection.close();
+
+    verify(physical).rollback();
+    verify(physical).setAutoCommit(true);
+  }
+
+  @Test
+  public void testSettingsAreRestored() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 0, 5, 0, 10, 0);
+
+    Connection connection = pool.getConnection(factory, 1000L);
+    Connection physical = physicalConnections.get(0);
+    connection.setReadOnly(true);
+    connection.setCatalog("other");
+    connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    when(physical.isReadOnly()).thenReturn(true);
+    when(physical.getCatalog()).thenReturn("other");
+    when(physical.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_SERIALIZABLE);
+    connection.close();
+
+    verify(physical).setReadOnly(false);
+    verify(physical).setCatalog("main");
+    verify(physical).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+  }
+
+  @Test
+  public void testStatementCache() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 0, 5, 0, 2, 0);
+
+    Connection connection = pool.getConnection(factory, 1000L);
+    PreparedStatement statement = connection.prepareStatement("SELECT 1");
+    statement.setMaxRows(1);
+    statement.close();
+    assertTrue(statement.isClosed());
+    connection.close();
+
+    // The same statement is handed out again by the next user of the connection
+    //
+    Connection physical = physicalConnections.get(0);
+    connection = pool.getConnection(factory, 1000L);
+    PreparedStatement cached = connection.prepareStatement("SELECT 1");
+    assertFalse(cached.isClosed());
+    verify(physical, times(1)).prepareStatement("SELECT 1");
+    verify(physicalStatements.get(0)).clearParameters();
+
+    // Preparing the same SQL while it's in use gives a separate statement
+    //
+    PreparedStatement second = connection.prepareStatement("SELECT 1");
+    verify(physical, times(2)).prepareStatement("SELECT 1");
+    second.close();
+    cached.close();
+
+    // The least recently used statement is closed when the cache is full
+    //
+    connection.prepareStatement("SELECT 2").close();
+    verify(physicalStatements.get(0), never()).close();
+    connection.prepareStatement("SELECT 3").close();
+    verify(physicalStatements.get(0)).close();
+
+    connection.prepareStatement("SELECT 2").close();
+    connection.prepareStatement("SELECT 4").close();
+    assertEquals(5, physicalStatements.size());
+    verify(physicalStatements.get(2), never()).close();
+    verify(physicalStatements.get(3)).close();
+    connection.close();
+  }
+
+  @Test
+  public void testIdleConnectionsAreEvicted() throws Exception {
+    DatabaseConnectionPool pool = new DatabaseConnectionPool("test", 1, 5, 0, 10, 60);
+
+    Connection first = pool.getConnection(factory, 1000L);
+    Connection second = pool.getConnection(factory, 1000L);
+    first.close();
+    second.close();
+    assertEquals(2, pool.getIdleCount());
+
+    // Nothing is idle for long enough yet
+    //
+    pool.evictIdleConnections(System.currentTimeMillis());
+    assertEquals(2, pool.getIdleCount());
+
+    // The minimum number of connections stays open
+    //
+    pool.evictIdleConnections(System.currentTimeMillis() + 61000L);
+    assertEquals(1, pool.getIdleCount());
+    verify(physicalConnections.get(0)).close();
+    verify(physicalConnections.get(1), never()).close();
+  }
+
+  @Test
+  public void testUnusedPoolsAreClosed() throws Exception {
+    Properties properties = new Properties();
+    properties.put("user", "hop");
+    properties.put("password", "secret");
+    String key = DatabaseConnectionPool.getKey("test", "jdbc:test", properties);
+    assertFalse(key.contains("secret"));
+
+    DatabaseConnectionPool pool = DatabaseConnectionPool.getPool(key, "test", 0, 5, 0, 10, 60);
+    assertSame(pool, DatabaseConnectionPool.getPool(key, "test", 0, 5, 0, 10, 60));
+    pool.getConnection(factory, 1000L).close();
+
+    DatabaseConnectionPool.evictAll(System.currentTimeMillis());
+    assertFalse(pool.isClosed());
+
+    DatabaseConnectionPool.evictAll(System.currentTimeMillis() + 61000L);
+    assertTrue(pool.isClosed());
+    assertTrue(DatabaseConnectionPool.getPools().isEmpty());
+    verify(physicalConnections.get(0)).close();
+
+    // Other credentials give another pool
+    //
+    properties.put("password", "other");
+    assertNotEquals(key, DatabaseConnectionPool.getKey("test", "jdbc:test", properties));
+  }
+}
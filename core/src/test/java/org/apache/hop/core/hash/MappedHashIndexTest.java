@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedHashIndexTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private static byte[] bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testGetAndPut() throws Exception {
+    MappedHashIndex index = MappedHashIndex.createTemporary();
+    try {
+      assertTrue(index.isEmpty());
+      assertNull(index.get(bytes("a")));
+
+      index.put(bytes("a"), bytes("1"));
+      index.put(bytes("b"), bytes("2"));
+      assertEquals(2, index.getSize());
+      assertArrayEquals(bytes("1"), index.get(bytes("a")));
+      assertArrayEquals(bytes("2"), index.get(bytes("b")));
+      assertNull(index.get(bytes("c")));
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testValuesOfTheSameKey() throws Exception {
+    MappedHashIndex index = MappedHashIndex.createTemporary();
+    try {
+      index.put(bytes("key"), bytes("v1"));
+      index.put(bytes("key"), bytes("v2"));
+      assertFalse(index.putIfAbsent(bytes("key"), bytes("v3")));
+      assertTrue(index.putIfAbsent(bytes("other"), bytes("v4")));
+
+      assertEquals(2, index.getSize());
+      assertArrayEquals(bytes("v2"), index.get(bytes("key")));
+      List<byte[]> values = index.getAll(bytes("key"));
+      assertEquals(2, values.size());
+      assertArrayEquals(bytes("v2"), values.get(0));
+      assertArrayEquals(bytes("v1"), values.get(1));
+      assertTrue(index.getAll(bytes("missing")).isEmpty());
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testResizeAndSegments() throws Exception {
+    Path dataPath = folder.newFile("data").toPath();
+    Path indexPath = folder.newFile("index").toPath();
+
+    // Small segments make sure records regularly skip to the next segment
+    //
+    MappedHashIndex index = new MappedHashIndex(dataPath, indexPath, 1L, true, 12);
+    try {
+      int count = 200_000;
+      for (int i = 0; i < count; i++) {
+        index.put(bytes("key" + i), bytes("value" + i + "-".repeat(i % 300)));
+      }
+      index.put(bytes("key7"), bytes("newer"));
+
+      assertEquals(count, index.getSize());
+      for (int i = 0; i < count; i += 7) {
+        byte[] expected = i == 7 ? bytes("newer") : bytes("value" + i + "-".repeat(i % 300));
+        assertArrayEquals(expected, index.get(bytes("key" + i)));
+      }
+      assertEquals(2, index.getAll(bytes("key7")).size());
+    } finally {
+      index.close();
+    }
+    assertFalse(Files.exists(dataPath));
+    assertFalse(Files.exists(indexPath));
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    String filename = folder.getRoot().getAbsolutePath() + "/cache.dat";
+
+    MappedHashIndex index = MappedHashIndex.open(filename, 42L);
+    assertFalse(index.isReused());
+    assertEquals(MappedHashIndex.NO_WATERMARK, index.getWatermark());
+    for (int i = 0; i < 100_000; i++) {
+      index.put(bytes("key" + i), bytes("value" + i));
+    }
+    index.setWatermark(12345L);
+    index.close();
+
+    index = MappedHashIndex.open(filename, 42L);
+    try {
+      assertTrue(index.isReused());
+      assertEquals(12345L, index.getWatermark());
+      assertEquals(100_000, index.getSize());
+      assertArrayEquals(bytes("value99999"), index.get(bytes("key99999")));
+
+      index.put(bytes("key1"), bytes("refreshed"));
+      assertArrayEquals(bytes("refreshed"), index.get(bytes("key1")));
+    } finally {
+      index.close();
+    }
+
+    // A different signature means the content can't be used anymore
+    //
+    index = MappedHashIndex.open(filename, 43L);
+    try {
+      assertFalse(index.isReused());
+      assertTrue(index.isEmpty());
+      assertNull(index.get(bytes("key1")));
+    } finally {
+      index.close();
+    }
+  }
+}
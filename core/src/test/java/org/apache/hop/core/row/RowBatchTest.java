@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class RowBatchTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("bool"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testColumnKinds() {
+    RowBatch batch = new RowBatch(createRowMeta(), 10);
+
+    assertEquals(RowBatch.KIND_LONG, batch.getColumnKind(0));
+    assertEquals(RowBatch.KIND_DOUBLE, batch.getColumnKind(1));
+    assertEquals(RowBatch.KIND_BOOLEAN, batch.getColumnKind(2));
+    assertEquals(RowBatch.KIND_DATE, batch.getColumnKind(3));
+    assertEquals(RowBatch.KIND_OBJECT, batch.getColumnKind(4));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    IRowMeta rowMeta = createRowMeta();
+    RowBatch batch = new RowBatch(rowMeta, 100);
+
+    Date date = new Date(1234567890L);
+    for (long i = 0; i < 100; i++) {
+      batch.addRow(new Object[] {i, i * 1.5, i % 2 == 0, date, "row" + i});
+    }
+    assertTrue(batch.isFull());
+    assertEquals(100, batch.size());
+
+    for (int i = 0; i < 100; i++) {
+      Object[] row = batch.getRow(i);
+      assertEquals((long) i, row[0]);
+      assertEquals(i * 1.5, row[1]);
+      assertEquals(i % 2 == 0, row[2]);
+      assertEquals(date, row[3]);
+      assertEquals("row" + i, row[4]);
+    }
+    assertEquals(42L, batch.getLongs(0)[42]);
+    assertEquals(63.0, batch.getDoubles(1)[42], 0.0);
+  }
+
+  @Test
+  public void testNulls() {
+    RowBatch batch = new RowBatch(createRowMeta(), 70);
+
+    for (int i = 0; i < 70; i++) {
+      if (i % 3 == 0) {
+        batch.addRow(new Object[] {null, null, null, null, null});
+      } else {
+        batch.addRow(new Object[] {(long) i, 1.0, true, new Date(i), "x"});
+      }
+    }
+    for (int i = 0; i < 70; i++) {
+      for (int c = 0; c < 5; c++) {
+        assertEquals(i % 3 == 0, batch.isNull(i, c));
+      }
+    }
+    Object[] row = batch.getRow(69);
+    for (int c = 0; c < 5; c++) {
+      assertNull(row[c]);
+    }
+  }
+
+  @Test
+  public void testUnexpectedClassFallsBackToObjects() {
+    RowBatch batch = new RowBatch(createRowMeta(), 10);
+
+    Date date = new Date(1000L);
+    Timestamp timestamp = new Timestamp(2000L);
+    batch.addRow(new Object[] {1L, 1.0, true, date, "a"});
+    batch.addRow(new Object[] {2L, 2.0, false, timestamp, "b"});
+
+    assertEquals(RowBatch.KIND_OBJECT, batch.getColumnKind(3));
+    assertEquals(date, batch.getRow(0)[3]);
+    assertSame(timestamp, batch.getRow(1)[3]);
+  }
+
+  @Test
+  public void testClear() {
+    RowBatch batch = new RowBatch(createRowMeta(), 2);
+    batch.addRow(new Object[] {null, 1.0, true, new Date(), "a"});
+    batch.addRow(new Object[] {2L, 2.0, false, new Date(), "b"});
+
+    batch.clear();
+    assertTrue(batch.isEmpty());
+    assertFalse(batch.isFull());
+
+    batch.addRow(new Object[] {3L, null, null, null, null});
+    assertEquals(3L, batch.getValue(0, 0));
+    assertNull(batch.getValue(0, 4));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testFull() {
+    RowBatch batch = new RowBatch(createRowMeta(), 1);
+    batch.addRow(new Object[] {1L, 1.0, true, new Date(), "a"});
+    batch.addRow(new Object[] {2L, 2.0, true, new Date(), "b"});
+  }
+
+  @Test
+  public void testAddSelectedRows() {
+    IRowMeta rowMeta = createRowMeta();
+    RowBatch source = new RowBatch(rowMeta, 70);
+    Date date = new Date(1000L);
+    for (long i = 0; i < 70; i++) {
+      source.addRow(new Object[] {i, i % 3 == 0 ? null : i * 1.5, i % 2 == 0, date, "row" + i});
+    }
+    boolean[] selected = new boolean[70];
+    for (int i = 0; i < 70; i++) {
+      selected[i] = i % 3 == 0 || i > 64;
+    }
+
+    RowBatch batch = new RowBatch(rowMeta, 70);
+    batch.addRow(new Object[] {-1L, null, null, null, "first"});
+    batch.addRows(source, selected);
+
+    int index = 1;
+    for (int i = 0; i < 70; i++) {
+      if (selected[i]) {
+        Object[] row = batch.getRow(index++);
+        for (int c = 0; c < rowMeta.size(); c++) {
+          assertEquals(source.getValue(i, c), row[c]);
+        }
+      }
+    }
+    assertEquals(index, batch.size());
+    assertEquals("first", batch.getValue(0, 4));
+    assertNull(batch.getValue(0, 2));
+  }
+
+  @Test
+  public void testSetColumns() {
+    IRowMeta sourceMeta = createRowMeta();
+    RowBatch source = new RowBatch(sourceMeta, 10);
+    Timestamp timestamp = new Timestamp(2000L);
+    for (long i = 0; i < 10; i++) {
+      source.addRow(new Object[] {i, i * 1.5, null, i == 5 ? timestamp : new Date(i), "row" + i});
+    }
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("bool"));
+    rowMeta.addValueMeta(new ValueMetaString("constant"));
+    RowBatch batch = new RowBatch(rowMeta, 10);
+    batch.setColumn(0, source, 4);
+    batch.setColumn(1, source, 0);
+    batch.setColumn(2, source, 3);
+    batch.setColumn(3, source, 2);
+    batch.fillColumn(4, "constant", source.size());
+    batch.setSize(source.size());
+
+    assertEquals(10, batch.size());
+    assertEquals(RowBatch.KIND_LONG, batch.getColumnKind(1));
+    assertEquals(RowBatch.KIND_OBJECT, batch.getColumnKind(2));
+    for (int i = 0; i < 10; i++) {
+      Object[] row = batch.getRow(i);
+      assertEquals("row" + i, row[0]);
+      assertEquals((long) i, row[1]);
+      assertEquals(source.getValue(i, 3), row[2]);
+      assertNull(row[3]);
+      assertEquals("constant", row[4]);
+    }
+    assertSame(timestamp, batch.getValue(5, 2));
+  }
+
+  @Test
+  public void testSetValuesBeforeSize() {
+    RowBatch batch = new RowBatch(createRowMeta(), 3);
+    batch.setValue(0, 3, new Date(1000L));
+    batch.setValue(1, 3, new Date(2000L));
+    Timestamp timestamp = new Timestamp(3000L);
+    batch.setValue(2, 3, timestamp);
+    batch.setSize(3);
+
+    assertEquals(RowBatch.KIND_OBJECT, batch.getColumnKind(3));
+    assertEquals(new Date(1000L), batch.getValue(0, 3));
+    assertEquals(new Date(2000L), batch.getValue(1, 3));
+    assertSame(timestamp, batch.getValue(2, 3));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSizeOverCapacity() {
+    new RowBatch(createRowMeta(), 1).setSize(2);
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.hop.core.exception.HopEofException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Test;
+
+public class RowCodecTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    rowMeta.addValueMeta(new ValueMetaBinary("binary"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    IValueMeta lazy = new ValueMetaString("lazy");
+    lazy.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    lazy.setStorageMetadata(new ValueMetaString("lazy"));
+    rowMeta.addValueMeta(lazy);
+    return rowMeta;
+  }
+
+  private Object[] createRow(long i) {
+    return new Object[] {
+      i % 2 == 0 ? "row " + i : "résumé 中 " + i,
+      i * 1.25,
+      i % 3 == 0 ? -i * 1_000_000_000L : i,
+      new Date(1_600_000_000_000L + i),
+      new BigDecimal("-12345678901234567890.123").add(BigDecimal.valueOf(i)),
+      i % 2 == 0,
+      new byte[] {1, 2, (byte) i},
+      new Timestamp(1_600_000_000_000L + i),
+      ("lazy" + i).getBytes(StandardCharsets.UTF_8)
+    };
+  }
+
+  private byte[] encode(RowCodec codec, Object[]... rows) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    codec.writeHeader(out);
+    for (Object[] row : rows) {
+      codec.writeRow(out, row);
+    }
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    Object[][] rows = new Object[100][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = createRow(i);
+    }
+    byte[] data = encode(new RowCodec(rowMeta), rows);
+
+    RowCodec codec = new RowCodec(rowMeta);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    codec.readHeader(in);
+    for (Object[] expected : rows) {
+      Object[] row = codec.readRow(in);
+      assertEquals(0, rowMeta.compare(expected, row));
+      assertArrayEquals((byte[]) expected[6], (byte[]) row[6]);
+      assertArrayEquals((byte[]) expected[8], (byte[]) row[8]);
+      assertEquals(expected[7], row[7]);
+    }
+    try {
+      codec.readRow(in);
+      fail("Expected the end of the stream");
+    } catch (HopEofException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testNulls() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    Object[] nulls = new Object[rowMeta.size()];
+    Object[] someNulls = createRow(7);
+    someNulls[0] = null;
+    someNulls[4] = null;
+    someNulls[8] = null;
+    byte[] data = encode(new RowCodec(rowMeta), nulls, someNulls);
+
+    RowCodec codec = new RowCodec(rowMeta);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    codec.readHeader(in);
+    Object[] row = codec.readRow(in);
+    for (int i = 0; i < rowMeta.size(); i++) {
+      assertNull(row[i]);
+    }
+    row = codec.readRow(in);
+    assertNull(row[0]);
+    assertEquals(someNulls[1], row[1]);
+    assertNull(row[4]);
+    assertEquals(someNulls[5], row[5]);
+    assertNull(row[8]);
+  }
+
+  @Test
+  public void testEmptyRows() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    byte[] data = encode(new RowCodec(rowMeta), new Object[0], new Object[0]);
+
+    RowCodec codec = new RowCodec(rowMeta);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    codec.readHeader(in);
+    assertEquals(0, codec.readRow(in).length - RowDataUtil.OVER_ALLOCATE_SIZE);
+    codec.readRow(in);
+    try {
+      codec.readRow(in);
+      fail("Expected the end of the stream");
+    } catch (HopEofException e) {
+      // Expected
+    }
+  }
+
+  @Test(expected = HopFileException.class)
+  public void testInvalidHeader() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    rowMeta.writeData(out, createRow(1));
+    out.close();
+
+    new RowCodec(rowMeta)
+        .readHeader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test
+  public void testSmallerThanValueMetaFormat() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaString("empty"));
+
+    RowCodec codec = new RowCodec(rowMeta);
+    ByteArrayOutputStream codecBytes = new ByteArrayOutputStream();
+    ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+    DataOutputStream codecOut = new DataOutputStream(codecBytes);
+    DataOutputStream metaOut = new DataOutputStream(metaBytes);
+    for (long i = 0; i < 1000; i++) {
+      Object[] row = new Object[] {"customer " + i, i, new Date(i * 1000L), null};
+      codec.writeRow(codecOut, row);
+      rowMeta.writeData(metaOut, row);
+    }
+    codecOut.close();
+    metaOut.close();
+
+    assertTrue(codecBytes.size() + " >= " + metaBytes.size(), codecBytes.size() < metaBytes.size());
+  }
+
+  @Test
+  public void testVarLongs() throws Exception {
+    long[] values = {0, 1, -1, 127, 128, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE};
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    for (long value : values) {
+      RowCodec.writeVarSignedLong(out, value);
+    }
+    RowCodec.writeVarLong(out, 300);
+    RowCodec.writeString(out, "été");
+    out.close();
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    for (long value : values) {
+      assertEquals(value, RowCodec.readVarSignedLong(in));
+    }
+    assertEquals(300, RowCodec.readVarLong(in));
+    assertEquals("été", RowCodec.readString(in));
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class RowSizeEstimatorTest {
+
+  @Test
+  public void testValueSizes() {
+    assertEquals(0L, RowSizeEstimator.estimateValueSize(null));
+    assertEquals(0L, RowSizeEstimator.estimateValueSize(Boolean.TRUE));
+    assertEquals(24L, RowSizeEstimator.estimateValueSize(42L));
+    assertEquals(32L, RowSizeEstimator.estimateValueSize(new Date()));
+    assertEquals(24L, RowSizeEstimator.estimateValueSize(new byte[8]));
+    assertTrue(
+        RowSizeEstimator.estimateValueSize("a much longer string value")
+            > RowSizeEstimator.estimateValueSize("short"));
+    assertTrue(
+        RowSizeEstimator.estimateValueSize(new BigDecimal("123456789012345678901234567890.5"))
+            > RowSizeEstimator.estimateValueSize(BigDecimal.ONE));
+  }
+
+  @Test
+  public void testRowSize() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+
+    Object[] row = RowDataUtil.allocateRowData(rowMeta.size());
+    long emptySize = RowSizeEstimator.estimateRowSize(rowMeta, row);
+    assertEquals(0L, emptySize % 8);
+    assertTrue(emptySize >= RowSizeEstimator.OBJECT_HEADER + 4L * row.length);
+
+    row[0] = 1L;
+    row[1] = "Hop";
+    row[2] = new Date();
+    row[3] = new BigDecimal("10.25");
+    assertTrue(RowSizeEstimator.estimateRowSize(rowMeta, row) > emptySize + 24L + 32L);
+    assertEquals(0L, RowSizeEstimator.estimateRowSize(rowMeta, null));
+  }
+}
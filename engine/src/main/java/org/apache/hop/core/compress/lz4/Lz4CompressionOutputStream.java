@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.lz4;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+/** Writes the LZ4 frame format, this is the format of the lz4 command line tool. */
+public class Lz4CompressionOutputStream extends CompressionOutputStream {
+
+  public Lz4CompressionOutputStream(OutputStream out, ICompressionProvider provider)
+      throws IOException {
+    super(getDelegate(out), provider);
+  }
+
+  private static FramedLZ4CompressorOutputStream getDelegate(OutputStream out) throws IOException {
+    FramedLZ4CompressorOutputStream delegate;
+    if (out instanceof FramedLZ4CompressorOutputStream lz4OutputStream) {
+      delegate = lz4OutputStream;
+    } else {
+      delegate = new FramedLZ4CompressorOutputStream(out);
+    }
+    return delegate;
+  }
+
+  @Override
+  public void close() throws IOException {
+    FramedLZ4CompressorOutputStream zos = (FramedLZ4CompressorOutputStream) delegate;
+    zos.finish();
+    zos.close();
+  }
+}
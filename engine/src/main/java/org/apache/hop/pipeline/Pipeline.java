@@ -54,7 +54,10 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
+import org.apache.hop.core.RowBatchRowSet;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.RowSetWaitStrategy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -82,6 +85,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -359,6 +363,18 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The type of row sets to allocate between transform copies. */
+  protected RowSetType rowSetType;
+
+  /** How transform threads wait on empty or full ring buffer row sets. */
+  protected RowSetWaitStrategy rowSetWaitStrategy;
+
+  /** Run the transform copies on virtual threads instead of platform threads. */
+  protected boolean usingVirtualThreads;
+
+  /** The number of rows in a batch when using batch row sets. */
+  protected int rowBatchSize;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -390,6 +406,9 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetType = RowSetType.Automatic;
+    rowSetWaitStrategy = RowSetWaitStrategy.Park;
+    rowBatchSize = RowBatchRowSet.DEFAULT_BATCH_SIZE;
 
     dataSamplers = Collections.synchronizedList(new ArrayList<>());
   }
@@ -691,32 +710,7 @@ public abstract class Pipeline
         //
         if (dispatchType != TYPE_DISP_N_M) {
           for (int c = 0; c < nrCopies; c++) {
-            IRowSet rowSet;
-            switch (pipelineMeta.getPipelineType()) {
-              case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                    ValueMetaBase.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
-                } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
-                }
-                break;
-
-              case SingleThreaded:
-                rowSet = new QueueRowSet();
-                break;
-
-              default:
-                throw new HopException(
-                    "Unhandled pipeline type: " + pipelineMeta.getPipelineType());
-            }
+            IRowSet rowSet = createRowSet(dispatchType);
 
             switch (dispatchType) {
               case TYPE_DISP_1_1:
@@ -753,7 +747,7 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet = createRowSet(dispatchType);
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -1257,8 +1251,9 @@ public abstract class Pipeline
         //
         for (final TransformMetaDataCombi combi : transforms) {
           RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
+          Thread thread =
+              ThreadUtil.newThread(
+                  runThread, getName() + " - " + combi.transformName, usingVirtualThreads);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -1993,6 +1988,44 @@ public abstract class Pipeline
     return safeModeEnabled;
   }
 
+  /**
+   * Create a new row set to connect a copy of a transform with a copy of the next transform. Every
+   * row set connects exactly one producing copy with one consuming copy.
+   *
+   * @param dispatchType the dispatch type of the hop (TYPE_DISP_1_1, TYPE_DISP_1_N, ...)
+   * @return a new row set
+   * @throws HopException in case the pipeline type isn't supported
+   */
+  protected IRowSet createRowSet(int dispatchType) throws HopException {
+    switch (pipelineMeta.getPipelineType()) {
+      case Normal:
+        if (rowSetType == RowSetType.Batch) {
+          return new RowBatchRowSet(rowSetSize, rowBatchSize);
+        }
+        if (rowSetType == RowSetType.RingBuffer
+            || (rowSetType == RowSetType.Automatic && dispatchType == TYPE_DISP_1_1)) {
+          return new RingBufferRowSet(rowSetSize, rowSetWaitStrategy);
+        }
+        // This is a temporary patch until the batching rowset has proven
+        // to be working in all situations.
+        // Currently there are stalling problems when dealing with small
+        // amounts of rows.
+        //
+        Boolean batchingRowSet =
+            ValueMetaBase.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+        if (batchingRowSet != null && batchingRowSet.booleanValue()) {
+          return new BlockingBatchingRowSet(rowSetSize);
+        }
+        return new BlockingRowSet(rowSetSize);
+
+      case SingleThreaded:
+        return new QueueRowSet();
+
+      default:
+        throw new HopException("Unhandled pipeline type: " + pipelineMeta.getPipelineType());
+    }
+  }
+
   /**
    * This adds a row producer to the pipeline that just got set up. It is preferable to run this
    * BEFORE execute() but after prepareExecution()
@@ -3536,6 +3569,70 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public RowSetType getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(RowSetType rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowSetWaitStrategy
+   *
+   * @return value of rowSetWaitStrategy
+   */
+  public RowSetWaitStrategy getRowSetWaitStrategy() {
+    return rowSetWaitStrategy;
+  }
+
+  /**
+   * @param rowSetWaitStrategy The rowSetWaitStrategy to set
+   */
+  public void setRowSetWaitStrategy(RowSetWaitStrategy rowSetWaitStrategy) {
+    this.rowSetWaitStrategy = rowSetWaitStrategy;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return value of usingVirtualThreads
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * @param usingVirtualThreads The usingVirtualThreads to set
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
+  /**
+   * Gets rowBatchSize
+   *
+   * @return value of rowBatchSize
+   */
+  public int getRowBatchSize() {
+    return rowBatchSize;
+  }
+
+  /**
+   * @param rowBatchSize The rowBatchSize to set
+   */
+  public void setRowBatchSize(int rowBatchSize) {
+    this.rowBatchSize = rowBatchSize;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -3691,4 +3788,35 @@ public abstract class Pipeline
       void addExecutionDataSampler(Sampler sampler) {
     dataSamplers.add(sampler);
   }
+
+  /** The type of row sets that are allocated between the copies of the transforms. */
+  @SuppressWarnings("java:S115")
+  public enum RowSetType {
+    /** Use a lock-free ring buffer for 1:1 hops and a blocking row set for all others. */
+    Automatic,
+
+    /** Always use a blocking row set, backed by a blocking queue. */
+    Blocking,
+
+    /** Always use a lock-free single producer, single consumer ring buffer. */
+    RingBuffer,
+
+    /** Always use a row set which passes columnar batches of rows. */
+    Batch;
+
+    /**
+     * Find the row set type with the given name.
+     *
+     * @param name the name to look for
+     * @return the row set type or Automatic if nothing could be found
+     */
+    public static RowSetType lookup(String name) {
+      for (RowSetType type : values()) {
+        if (type.name().equalsIgnoreCase(name)) {
+          return type;
+        }
+      }
+      return Automatic;
+    }
+  }
 }
@@ -28,6 +28,8 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.Result;
+import org.apache.hop.core.RowBatchRowSet;
+import org.apache.hop.core.RowSetWaitStrategy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -35,6 +37,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.parameters.INamedParameters;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.execution.ExecutionBuilder;
 import org.apache.hop.execution.ExecutionDataBuilder;
@@ -124,6 +127,24 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    setRowSetType(Pipeline.RowSetType.lookup(resolve(config.getRowSetType())));
+    setRowSetWaitStrategy(RowSetWaitStrategy.lookup(resolve(config.getRowSetWaitStrategy())));
+    if ((getRowSetType() == Pipeline.RowSetType.Blocking
+            || getRowSetType() == Pipeline.RowSetType.Batch)
+        && getRowSetWaitStrategy() != RowSetWaitStrategy.Park) {
+      log.logBasic(
+          "The row set wait strategy "
+              + getRowSetWaitStrategy()
+              + " only applies to ring buffer row sets, it's ignored with row set type "
+              + getRowSetType());
+    }
+    if (config.isUsingVirtualThreads() && !ThreadUtil.isVirtualThreadSupported()) {
+      log.logBasic(
+          "Virtual threads are not supported by this Java runtime (Java 21 or later is needed), transforms will run on platform threads");
+    }
+    setUsingVirtualThreads(config.isUsingVirtualThreads());
+    setRowBatchSize(
+        Const.toInt(resolve(config.getRowBatchSize()), RowBatchRowSet.DEFAULT_BATCH_SIZE));
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
     setGatheringMetrics(config.isGatheringMetrics());
@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.lang.StringUtils;
@@ -42,6 +43,8 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
+import org.apache.hop.core.RowBatchRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopRowException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -53,6 +56,7 @@ import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.logging.LoggingObjectType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
@@ -148,8 +152,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private final IPipelineEngine<PipelineMeta> pipeline;
 
-  private final Object statusCountersLock = new Object();
-
   protected Date initStartDate;
   protected Date executionStartDate;
   protected Date firstRowReadDate;
@@ -157,25 +159,25 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   protected Date executionEndDate;
 
   /** Number of lines read from previous transform(s) */
-  private long linesRead;
+  private final AtomicLong linesRead = new AtomicLong(0L);
 
   /** Number of lines written to next transform(s) */
-  private long linesWritten;
+  private final AtomicLong linesWritten = new AtomicLong(0L);
 
   /** Number of lines read from file or database */
-  private long linesInput;
+  private final AtomicLong linesInput = new AtomicLong(0L);
 
   /** Number of lines written to file or database */
-  private long linesOutput;
+  private final AtomicLong linesOutput = new AtomicLong(0L);
 
   /** Number of updates in a database table or file */
-  private long linesUpdated;
+  private final AtomicLong linesUpdated = new AtomicLong(0L);
 
   /** Number of lines skipped */
-  private long linesSkipped;
+  private final AtomicLong linesSkipped = new AtomicLong(0L);
 
   /** Number of lines rejected to an error handling transform */
-  private long linesRejected;
+  private final AtomicLong linesRejected = new AtomicLong(0L);
 
   private boolean distributed;
 
@@ -383,16 +385,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     init = false;
 
-    synchronized (statusCountersLock) {
-      linesRead = 0L;
-      linesWritten = 0L;
-      linesUpdated = 0L;
-      linesSkipped = 0L;
-      linesRejected = 0L;
-      linesInput = 0L;
-      linesOutput = 0L;
-    }
-
     inputRowSets = new ArrayList<>();
     outputRowSets = new ArrayList<>();
     nextTransforms = null;
@@ -642,9 +634,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRead() {
-    synchronized (statusCountersLock) {
-      return linesRead;
-    }
+    return linesRead.get();
   }
 
   /**
@@ -656,9 +646,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return ++linesRead;
-    }
+    return linesRead.incrementAndGet();
   }
 
   /**
@@ -667,9 +655,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return --linesRead;
-    }
+    return linesRead.decrementAndGet();
   }
 
   /**
@@ -679,9 +665,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #decrementLinesRead()
    */
   public void setLinesRead(long newLinesReadValue) {
-    synchronized (statusCountersLock) {
-      linesRead = newLinesReadValue;
-    }
+    linesRead.set(newLinesReadValue);
   }
 
   /**
@@ -690,9 +674,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesInput() {
-    synchronized (statusCountersLock) {
-      return linesInput;
-    }
+    return linesInput.get();
   }
 
   /**
@@ -703,9 +685,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized (statusCountersLock) {
-      return ++linesInput;
-    }
+    return linesInput.incrementAndGet();
   }
 
   /**
@@ -715,9 +695,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesInput()
    */
   public void setLinesInput(long newLinesInputValue) {
-    synchronized (statusCountersLock) {
-      linesInput = newLinesInputValue;
-    }
+    linesInput.set(newLinesInputValue);
   }
 
   /**
@@ -727,9 +705,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesOutput() {
-    synchronized (statusCountersLock) {
-      return linesOutput;
-    }
+    return linesOutput.get();
   }
 
   /**
@@ -740,9 +716,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesOutput(long)
    */
   public long incrementLinesOutput() {
-    synchronized (statusCountersLock) {
-      return ++linesOutput;
-    }
+    return linesOutput.incrementAndGet();
   }
 
   /**
@@ -752,9 +726,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesOutput()
    */
   public void setLinesOutput(long newLinesOutputValue) {
-    synchronized (statusCountersLock) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutput.set(newLinesOutputValue);
   }
 
   /**
@@ -766,9 +738,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesWritten() {
-    synchronized (statusCountersLock) {
-      return linesWritten;
-    }
+    return linesWritten.get();
   }
 
   /**
@@ -779,9 +749,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return ++linesWritten;
-    }
+    return linesWritten.incrementAndGet();
   }
 
   /**
@@ -792,9 +760,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return --linesWritten;
-    }
+    return linesWritten.decrementAndGet();
   }
 
   /**
@@ -806,9 +772,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #decrementLinesWritten()
    */
   public void setLinesWritten(long newLinesWrittenValue) {
-    synchronized (statusCountersLock) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWritten.set(newLinesWrittenValue);
   }
 
   /**
@@ -818,9 +782,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return linesUpdated;
-    }
+    return linesUpdated.get();
   }
 
   /**
@@ -831,9 +793,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesUpdated(long)
    */
   public long incrementLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return ++linesUpdated;
-    }
+    return linesUpdated.incrementAndGet();
   }
 
   /**
@@ -843,9 +803,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesUpdated()
    */
   public void setLinesUpdated(long newLinesUpdatedValue) {
-    synchronized (statusCountersLock) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdated.set(newLinesUpdatedValue);
   }
 
   /**
@@ -857,9 +815,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRejected() {
-    synchronized (statusCountersLock) {
-      return linesRejected;
-    }
+    return linesRejected.get();
   }
 
   /**
@@ -870,9 +826,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized (statusCountersLock) {
-      return ++linesRejected;
-    }
+    return linesRejected.incrementAndGet();
   }
 
   /**
@@ -882,9 +836,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void setLinesRejected(long newLinesRejectedValue) {
-    synchronized (statusCountersLock) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejected.set(newLinesRejectedValue);
   }
 
   /**
@@ -893,9 +845,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesSkipped()
    */
   public long getLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return linesSkipped;
-    }
+    return linesSkipped.get();
   }
 
   /**
@@ -906,9 +856,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #setLinesSkipped(long)
    */
   public long incrementLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return ++linesSkipped;
-    }
+    return linesSkipped.incrementAndGet();
   }
 
   /**
@@ -917,9 +865,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see #incrementLinesSkipped()
    */
   public void setLinesSkipped(long newLinesSkippedValue) {
-    synchronized (statusCountersLock) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkipped.set(newLinesSkippedValue);
   }
 
   @Override
@@ -1037,6 +983,77 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * Pass a batch of rows to the next transform(s). If this transform writes to a single batch row
+   * set the batch is handed over as a whole, otherwise the rows are written one by one with {@link
+   * #putRow(IRowMeta, Object[])}. The batch can't be modified after this call.
+   *
+   * @param rowMeta The layout of the rows in the batch
+   * @param batch The batch of rows to pass on
+   * @throws HopTransformException In case something goes wrong writing the rows
+   */
+  public void putBatch(IRowMeta rowMeta, RowBatch batch) throws HopTransformException {
+    if (batch == null || batch.isEmpty()) {
+      return;
+    }
+    RowBatchRowSet rowSet = getBatchOutputRowSet();
+    if (rowSet == null) {
+      for (int i = 0; i < batch.size(); i++) {
+        putRow(rowMeta, batch.getRow(i));
+      }
+      return;
+    }
+
+    while (paused.get() && !stopped.get()) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        throw new HopTransformException(e);
+      }
+    }
+    if (stopped.get() && !safeStopped.get()) {
+      stopAll();
+      return;
+    }
+    waitUntilPipelineIsStarted();
+
+    IRowMeta toBeSent = rowSet.getRowMeta() == null ? rowMeta.clone() : rowSet.getRowMeta();
+    while (!rowSet.putBatch(toBeSent, batch, Const.TIMEOUT_PUT_MILLIS, TimeUnit.MILLISECONDS)) {
+      if (isStopped() && !safeStopped.get()) {
+        return;
+      }
+    }
+    linesWritten.addAndGet(batch.size());
+
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  /**
+   * Batches can only be handed over as a whole to a single batch row set, when nobody needs to see
+   * the individual rows.
+   *
+   * @return The output row set to hand batches to or null if rows need to be written one by one
+   */
+  private RowBatchRowSet getBatchOutputRowSet() {
+    if (!(getRowHandler() instanceof BaseTransform<?, ?>.DefaultRowHandler)
+        || !rowListeners.isEmpty()
+        || terminator
+        || repartitioning != TransformPartitioningMeta.PARTITIONING_METHOD_NONE) {
+      return null;
+    }
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.size() == 1 && outputRowSets.get(0) instanceof RowBatchRowSet rowSet) {
+        return rowSet;
+      }
+      return null;
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
   private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
     // Are we pausing the transform? If so, stall forever...
     //
@@ -1220,7 +1237,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (isThrottled(rs) && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1256,7 +1273,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
 
-        if (!rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
+        if (isThrottled(rs) && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped()) {
           try {
             Thread.sleep(0, 1);
           } catch (InterruptedException e) {
@@ -1283,6 +1300,18 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * Blocking row sets get a little time to fill up or drain near their boundaries to lower the
+   * stress on their locks. Ring buffer row sets don't have locks and wake up the waiting transform
+   * themselves, batch row sets only lock once per batch.
+   *
+   * @param rowSet the row set to check
+   * @return true if we should sleep a little near the boundaries of the given row set
+   */
+  private static boolean isThrottled(IRowSet rowSet) {
+    return !(rowSet instanceof RingBufferRowSet || rowSet instanceof RowBatchRowSet);
+  }
+
   private void putRowToRowSet(IRowSet rs, IRowMeta rowMeta, Object[] row) {
     IRowMeta toBeSent;
     IRowMeta metaFromRs = rs.getRowMeta();
@@ -1550,6 +1579,133 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Get a batch of rows from the previous transform(s). If this transform reads from a single batch
+   * row set the batches are passed on as they are, otherwise the rows which are available right
+   * away are collected with {@link #getRow()}.
+   *
+   * @return A batch of rows or null if there are no more rows to read
+   * @throws HopException In case something goes wrong reading the rows
+   */
+  public RowBatch getBatch() throws HopException {
+    RowBatchRowSet rowSet = getBatchInputRowSet();
+    if (rowSet == null) {
+      return collectBatch();
+    }
+
+    while (paused.get() && !stopped.get()) {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        throw new HopTransformException(e);
+      }
+    }
+    if (stopped.get()) {
+      stopAll();
+      return null;
+    }
+    waitUntilPipelineIsStarted();
+
+    RowBatch batch = null;
+    while (batch == null && !isStopped()) {
+      batch = rowSet.getBatchWait(Const.TIMEOUT_GET_MILLIS, TimeUnit.MILLISECONDS);
+      if (batch == null && rowSet.isDone()) {
+        batch = rowSet.getBatchWait(1, TimeUnit.MILLISECONDS);
+        if (batch == null) {
+          inputRowSetsLock.writeLock().lock();
+          try {
+            removeRowSetFromInputRowSets(rowSet);
+          } finally {
+            inputRowSetsLock.writeLock().unlock();
+          }
+          return null;
+        }
+      }
+    }
+    if (batch == null) {
+      return null;
+    }
+    if (inputRowMeta == null) {
+      inputRowMeta = rowSet.getRowMeta();
+    }
+    linesRead.addAndGet(batch.size());
+
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+    verifyRejectionRates();
+
+    return batch;
+  }
+
+  /**
+   * @return true if this transform reads whole batches of rows with {@link #getBatch()}. If not,
+   *     reading rows one by one with {@link #getRow()} is cheaper.
+   */
+  public boolean isReadingBatches() {
+    return getBatchInputRowSet() != null;
+  }
+
+  /**
+   * Batches can only be read as a whole from a single batch row set, when nobody needs to see the
+   * individual rows.
+   *
+   * @return The input row set to read batches from or null if rows need to be read one by one
+   */
+  private RowBatchRowSet getBatchInputRowSet() {
+    if (!(getRowHandler() instanceof BaseTransform<?, ?>.DefaultRowHandler)
+        || !rowListeners.isEmpty()
+        || pipeline.isSafeModeEnabled()) {
+      return null;
+    }
+    inputRowSetsLock.readLock().lock();
+    try {
+      if (inputRowSets.size() == 1 && inputRowSets.get(0) instanceof RowBatchRowSet rowSet) {
+        return rowSet;
+      }
+      return null;
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  /** Read at least one row and then all the rows which are available right away. */
+  private RowBatch collectBatch() throws HopException {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    IRowMeta rowMeta = getInputRowMeta();
+    int batchSize = RowBatchRowSet.DEFAULT_BATCH_SIZE;
+    if (pipeline instanceof Pipeline localPipeline) {
+      batchSize = localPipeline.getRowBatchSize();
+    }
+    RowBatch batch = new RowBatch(rowMeta, batchSize);
+    batch.addRow(row);
+    while (!batch.isFull() && hasRowsAvailable()) {
+      row = getRow();
+      if (row == null) {
+        break;
+      }
+      batch.addRow(row);
+    }
+    return batch;
+  }
+
+  private boolean hasRowsAvailable() {
+    inputRowSetsLock.readLock().lock();
+    try {
+      for (IRowSet rowSet : inputRowSets) {
+        if (rowSet.size() > 0) {
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1611,7 +1767,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous transform has not ended...
 
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
+      if (isThrottled(inputRowSet)
+          && !inputRowSet.isDone()
+          && inputRowSet.size() <= lowerBufferBoundary
+          && !isStopped()) {
         try {
           Thread.sleep(0, 1);
         } catch (InterruptedException e) {
@@ -1964,7 +2123,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     // The buffer to grow beyond "a few" entries.
     // We'll only do that if the previous transform has not ended...
 
-    if (!rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped()) {
+    if (isThrottled(rowSet)
+        && !rowSet.isDone()
+        && rowSet.size() <= lowerBufferBoundary
+        && !isStopped()) {
       try {
         Thread.sleep(0, 1);
       } catch (InterruptedException e) {
@@ -2812,12 +2974,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see org.apache.hop.pipeline.transform.ITransform#markStop()
    */
   @Override
-  public synchronized void markStop() {
+  public void markStop() {
 
     // Only mark a transform as stopped once
     //
-    if (!markStopped.get()) {
-      markStopped.set(true);
+    if (markStopped.compareAndSet(false, true)) {
 
       Calendar cal = Calendar.getInstance();
       stopTime = cal.getTime();
@@ -2834,11 +2995,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
-  private synchronized void fireTransformFinishedListeners() {
+  private void fireTransformFinishedListeners() {
+    // Don't hold the monitor of the list while the listeners run: they can block for a long time,
+    // pinning the carrier thread when running on virtual threads.
+    //
+    List<ITransformFinishedListener> listeners;
     synchronized (transformFinishedListeners) {
-      for (ITransformFinishedListener transformListener : transformFinishedListeners) {
-        transformListener.transformFinished(pipeline, transformMeta, this);
-      }
+      listeners = new ArrayList<>(transformFinishedListeners);
+    }
+    for (ITransformFinishedListener transformListener : listeners) {
+      transformListener.transformFinished(pipeline, transformMeta, this);
     }
   }
 
@@ -2955,36 +3121,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   /** Log summary. */
   public void logSummary() {
-    synchronized (statusCountersLock) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
-        logBasic(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      } else {
-        logDetailed(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
+    } else {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
     }
   }
 
@@ -3319,6 +3483,22 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         && (lines % getPipeline().getFeedbackSize()) == 0;
   }
 
+  /**
+   * Check if feedback should be given after processing a number of rows at once, for example a
+   * batch of rows.
+   *
+   * @param lines The number of lines processed so far
+   * @param nrRows The number of rows which were processed last
+   * @return true if the feedback size was reached while processing the last rows
+   */
+  protected boolean checkFeedback(long lines, long nrRows) {
+    long feedbackSize = getPipeline().getFeedbackSize();
+    return getPipeline().isFeedbackShown()
+        && (lines > 0)
+        && (feedbackSize > 0)
+        && (lines / feedbackSize) != ((lines - nrRows) / feedbackSize);
+  }
+
   /**
    * @return the rowMeta
    */
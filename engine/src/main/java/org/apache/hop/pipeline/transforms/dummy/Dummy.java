@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.dummy;
 
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -40,6 +41,29 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (!isReadingBatches()) {
+      return processSingleRow();
+    }
+
+    RowBatch batch = getBatch(); // get a batch of rows, set busy!
+    // no more input to be expected...
+    if (batch == null) {
+      setOutputDone();
+      return false;
+    }
+
+    putBatch(getInputRowMeta(), batch); // copy rows to possible alternate rowset(s).
+
+    if (checkFeedback(getLinesRead(), batch.size())) {
+      if (isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "Dummy.Log.LineNumber") + getLinesRead());
+      }
+    }
+
+    return true;
+  }
+
+  private boolean processSingleRow() throws HopException {
     Object[] r = getRow(); // get row, set busy!
     // no more input to be expected...
     if (r == null) {
@@ -102,6 +102,7 @@ public class CompressionProviderFactoryTest {
             put("Zip", false);
             put("GZip", false);
             put("Snappy", false);
+            put("LZ4", false);
             put("Hadoop-snappy", false);
           }
         };
@@ -131,6 +132,7 @@ public class CompressionProviderFactoryTest {
             put("Zip", false);
             put("GZip", false);
             put("Snappy", false);
+            put("LZ4", false);
             put("Hadoop-snappy", false);
           }
         };
@@ -17,8 +17,11 @@
 
 package org.apache.hop.databases.cratedb;
 
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkInserter;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 
@@ -258,4 +261,11 @@ public class CrateDBDatabaseMeta extends PostgreSqlDatabaseMeta {
   public String getSqlUnlockTables(String[] tableName) {
     throw new UnsupportedOperationException("CrateDB does not support locking tables");
   }
+
+  /** CrateDB doesn't support COPY ... FROM STDIN: use multi-row inserts instead. */
+  @Override
+  public IBulkInserter createBulkInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta) {
+    return null;
+  }
 }
@@ -910,4 +910,12 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
   public String getEndQuote() {
     return "]";
   }
+
+  /**
+   * @return The maximum number of parameters SQL Server accepts in a statement, minus some headroom
+   */
+  @Override
+  public int getMaxInsertParameters() {
+    return 2000;
+  }
 }
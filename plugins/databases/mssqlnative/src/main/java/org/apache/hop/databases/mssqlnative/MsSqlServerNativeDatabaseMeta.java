@@ -21,11 +21,15 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkInserter;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.databases.mssql.MsSqlServerDatabaseMeta;
 import org.apache.hop.metadata.api.HopMetadataProperty;
@@ -189,4 +193,12 @@ public class MsSqlServerNativeDatabaseMeta extends MsSqlServerDatabaseMeta
   public void addDefaultOptions() {
     addExtraOption(getPluginId(), "encrypt", "false");
   }
+
+  /** Bulk copy the rows with the API of the Microsoft driver */
+  @Override
+  public IBulkInserter createBulkInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return SqlServerBulkInserter.create(database, schemaName, tableName, rowMeta);
+  }
 }
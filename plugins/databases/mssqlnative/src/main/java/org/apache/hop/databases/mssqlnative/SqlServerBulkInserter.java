@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.mssqlnative;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.ISQLServerConnection;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.IBulkInserter;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Inserts rows with the bulk copy API of the Microsoft JDBC driver. The rows of a batch are kept in
+ * memory and streamed to the server in a single bulk copy operation. Nulls are kept, constraints
+ * are checked and triggers are fired, just like with INSERT statements. The bulk copy runs in the
+ * transaction of the connection.
+ */
+public class SqlServerBulkInserter implements IBulkInserter {
+
+  private final Connection connection;
+  private final String tableName;
+  private final IRowMeta rowMeta;
+  private final int[] sqlTypes;
+  private final List<Object[]> rows;
+
+  /**
+   * Create a bulk inserter for the connection of the given database.
+   *
+   * @param database The connected database to insert with
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param rowMeta The columns to insert
+   * @return The inserter or null if the connection isn't a connection of the Microsoft driver
+   * @throws HopDatabaseException in case the connection couldn't be inspected
+   */
+  public static SqlServerBulkInserter create(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    Connection connection = database.getConnection();
+    try {
+      if (connection == null || !connection.isWrapperFor(ISQLServerConnection.class)) {
+        return null;
+      }
+      return new SqlServerBulkInserter(
+          connection.unwrap(ISQLServerConnection.class),
+          database
+              .getDatabaseMeta()
+              .getQuotedSchemaTableCombination(database, schemaName, tableName),
+          rowMeta);
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to use bulk copy on the database connection", e);
+    }
+  }
+
+  SqlServerBulkInserter(Connection connection, String tableName, IRowMeta rowMeta) {
+    this.connection = connection;
+    this.tableName = tableName;
+    this.rowMeta = rowMeta;
+    this.rows = new ArrayList<>();
+    this.sqlTypes = new int[rowMeta.size()];
+    for (int i = 0; i < rowMeta.size(); i++) {
+      sqlTypes[i] = getSqlType(rowMeta.getValueMeta(i));
+    }
+  }
+
+  static int getSqlType(IValueMeta valueMeta) {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return Types.BIGINT;
+      case IValueMeta.TYPE_NUMBER:
+        return Types.DOUBLE;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return Types.DECIMAL;
+      case IValueMeta.TYPE_BOOLEAN:
+        return Types.BIT;
+      case IValueMeta.TYPE_DATE, IValueMeta.TYPE_TIMESTAMP:
+        return Types.TIMESTAMP;
+      case IValueMeta.TYPE_BINARY:
+        return Types.VARBINARY;
+      default:
+        return Types.NVARCHAR;
+    }
+  }
+
+  @Override
+  public void addRow(Object[] row) throws HopDatabaseException {
+    Object[] values = new Object[rowMeta.size()];
+    try {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = getValue(rowMeta.getValueMeta(i), sqlTypes[i], row[i]);
+      }
+    } catch (HopValueException e) {
+      throw new HopDatabaseException("offending row : " + getRowString(row), e);
+    }
+    rows.add(values);
+  }
+
+  /** The values of a row for an error message, as they are if they can't be converted */
+  private String getRowString(Object[] row) {
+    try {
+      return rowMeta.getString(row);
+    } catch (HopValueException e) {
+      return Arrays.toString(row);
+    }
+  }
+
+  /** Convert a value to the Java class the driver expects for the column type */
+  static Object getValue(IValueMeta valueMeta, int sqlType, Object object)
+      throws HopValueException {
+    if (valueMeta.isNull(object)) {
+      return null;
+    }
+    switch (sqlType) {
+      case Types.BIGINT:
+        return valueMeta.getInteger(object);
+      case Types.DOUBLE:
+        return valueMeta.getNumber(object);
+      case Types.DECIMAL:
+        return valueMeta.getBigNumber(object);
+      case Types.BIT:
+        return valueMeta.getBoolean(object);
+      case Types.TIMESTAMP:
+        Date date = valueMeta.getDate(object);
+        return date instanceof Timestamp ? date : new Timestamp(date.getTime());
+      case Types.VARBINARY:
+        return valueMeta.getBinary(object);
+      default:
+        return valueMeta.getString(object);
+    }
+  }
+
+  @Override
+  public int getBatchSize() {
+    return rows.size();
+  }
+
+  @Override
+  public void executeBatch() throws HopDatabaseBatchException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    SQLServerBulkCopy bulkCopy = null;
+    try {
+      SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+      options.setKeepNulls(true);
+      options.setCheckConstraints(true);
+      options.setFireTriggers(true);
+      options.setUseInternalTransaction(false);
+
+      bulkCopy = new SQLServerBulkCopy(connection);
+      bulkCopy.setBulkCopyOptions(options);
+      bulkCopy.setDestinationTableName(tableName);
+      for (int i = 0; i < rowMeta.size(); i++) {
+        bulkCopy.addColumnMapping(i + 1, rowMeta.getValueMeta(i).getName());
+      }
+      bulkCopy.writeToServer(new BulkData(rowMeta, sqlTypes, rows));
+    } catch (SQLException e) {
+      throw Database.createHopDatabaseBulkException(
+          "Error bulk copying " + rows.size() + " rows into table [" + tableName + "]", e);
+    } finally {
+      if (bulkCopy != null) {
+        bulkCopy.close();
+      }
+      rows.clear();
+    }
+  }
+
+  @Override
+  public void clearBatch() {
+    rows.clear();
+  }
+
+  @Override
+  public void close() {
+    rows.clear();
+  }
+
+  /** The rows of a batch as the source of a bulk copy */
+  static final class BulkData implements ISQLServerBulkData {
+    private static final long serialVersionUID = 1L;
+
+    private final transient IRowMeta rowMeta;
+    private final int[] sqlTypes;
+    private final transient List<Object[]> rows;
+    private int index;
+
+    BulkData(IRowMeta rowMeta, int[] sqlTypes, List<Object[]> rows) {
+      this.rowMeta = rowMeta;
+      this.sqlTypes = sqlTypes;
+      this.rows = rows;
+      this.index = -1;
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+      Set<Integer> ordinals = new LinkedHashSet<>();
+      for (int i = 1; i <= sqlTypes.length; i++) {
+        ordinals.add(i);
+      }
+      return ordinals;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return rowMeta.getValueMeta(column - 1).getName();
+    }
+
+    @Override
+    public int getColumnType(int column) {
+      return sqlTypes[column - 1];
+    }
+
+    @Override
+    public int getPrecision(int column) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(column - 1);
+      switch (sqlTypes[column - 1]) {
+        case Types.DECIMAL:
+          return 38;
+        case Types.NVARCHAR, Types.VARBINARY:
+          return valueMeta.getLength() > 0 ? valueMeta.getLength() : Integer.MAX_VALUE;
+        default:
+          return 0;
+      }
+    }
+
+    @Override
+    public int getScale(int column) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(column - 1);
+      if (sqlTypes[column - 1] == Types.DECIMAL) {
+        return Math.max(valueMeta.getPrecision(), 0);
+      }
+      return 0;
+    }
+
+    @Override
+    public Object[] getRowData() {
+      return rows.get(index);
+    }
+
+    @Override
+    public boolean next() {
+      index++;
+      return index < rows.size();
+    }
+  }
+}
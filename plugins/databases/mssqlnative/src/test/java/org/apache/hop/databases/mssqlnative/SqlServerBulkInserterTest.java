@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.mssqlnative;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class SqlServerBulkInserterTest {
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name", 50, -1));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount", 18, 2));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaDate("created"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testColumnTypes() {
+    IRowMeta rowMeta = createRowMeta();
+    List<Object[]> rows = new ArrayList<>();
+    int[] sqlTypes = new int[rowMeta.size()];
+    for (int i = 0; i < sqlTypes.length; i++) {
+      sqlTypes[i] = SqlServerBulkInserter.getSqlType(rowMeta.getValueMeta(i));
+    }
+    SqlServerBulkInserter.BulkData bulkData =
+        new SqlServerBulkInserter.BulkData(rowMeta, sqlTypes, rows);
+
+    assertEquals(5, bulkData.getColumnOrdinals().size());
+    assertEquals("name", bulkData.getColumnName(2));
+    assertEquals(Types.BIGINT, bulkData.getColumnType(1));
+    assertEquals(Types.NVARCHAR, bulkData.getColumnType(2));
+    assertEquals(50, bulkData.getPrecision(2));
+    assertEquals(Types.DECIMAL, bulkData.getColumnType(3));
+    assertEquals(38, bulkData.getPrecision(3));
+    assertEquals(2, bulkData.getScale(3));
+    assertEquals(Types.BIT, bulkData.getColumnType(4));
+    assertEquals(Types.TIMESTAMP, bulkData.getColumnType(5));
+  }
+
+  @Test
+  public void testRowsAreConverted() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    SqlServerBulkInserter inserter =
+        new SqlServerBulkInserter(mock(Connection.class), "[dbo].[sas]", rowMeta);
+
+    Date created = new Date(1_000_000L);
+    inserter.addRow(new Object[] {1L, "one", new BigDecimal("1.50"), true, created});
+    inserter.addRow(new Object[] {null, null, null, null, null});
+    assertEquals(2, inserter.getBatchSize());
+
+    inserter.clearBatch();
+    assertEquals(0, inserter.getBatchSize());
+
+    assertEquals(
+        new Timestamp(1_000_000L),
+        SqlServerBulkInserter.getValue(rowMeta.getValueMeta(4), Types.TIMESTAMP, created));
+    assertNull(SqlServerBulkInserter.getValue(rowMeta.getValueMeta(1), Types.NVARCHAR, ""));
+  }
+
+  @Test
+  public void testBulkDataIteratesTheRows() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] {1L});
+    rows.add(new Object[] {2L});
+    SqlServerBulkInserter.BulkData bulkData =
+        new SqlServerBulkInserter.BulkData(rowMeta, new int[] {Types.BIGINT}, rows);
+
+    assertTrue(bulkData.next());
+    assertArrayEquals(new Object[] {1L}, bulkData.getRowData());
+    assertTrue(bulkData.next());
+    assertArrayEquals(new Object[] {2L}, bulkData.getRowData());
+    assertFalse(bulkData.next());
+  }
+}
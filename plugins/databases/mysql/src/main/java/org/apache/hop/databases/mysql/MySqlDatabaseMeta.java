@@ -800,4 +800,12 @@ public class MySqlDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
   public boolean isSupportsTimestampDataType() {
     return true;
   }
+
+  /**
+   * @return The maximum number of placeholders in a prepared statement of the MySQL protocol
+   */
+  @Override
+  public int getMaxInsertParameters() {
+    return 65535;
+  }
 }
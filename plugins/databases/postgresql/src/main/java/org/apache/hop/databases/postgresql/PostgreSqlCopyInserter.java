@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IBulkInserter;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Inserts rows with COPY ... FROM STDIN in CSV format. The rows of a batch are converted to CSV
+ * text in memory and streamed to the server in a single COPY command which is a lot faster than
+ * executing an INSERT statement per row.
+ */
+public class PostgreSqlCopyInserter implements IBulkInserter {
+
+  /** Dates and timestamps with the offset of the local time zone, like the JDBC driver sends */
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSSXXX");
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final CopyManager copyManager;
+  private final String sql;
+  private final IRowMeta rowMeta;
+  private final ZoneId zoneId;
+  private final StringBuilder buffer;
+  private int batchSize;
+
+  /**
+   * Create a COPY inserter for the connection of the given database.
+   *
+   * @param database The connected database to insert with
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param rowMeta The columns to insert
+   * @return The inserter or null if the connection isn't a PostgreSQL JDBC connection
+   * @throws HopDatabaseException in case the connection couldn't be inspected
+   */
+  public static PostgreSqlCopyInserter create(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    Connection connection = database.getConnection();
+    try {
+      if (connection == null || !connection.isWrapperFor(PGConnection.class)) {
+        return null;
+      }
+      CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+      return new PostgreSqlCopyInserter(
+          copyManager, getCopyStatement(database, schemaName, tableName, rowMeta), rowMeta);
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to use COPY on the database connection", e);
+    }
+  }
+
+  PostgreSqlCopyInserter(CopyManager copyManager, String sql, IRowMeta rowMeta) {
+    this.copyManager = copyManager;
+    this.sql = sql;
+    this.rowMeta = rowMeta;
+    this.zoneId = ZoneId.systemDefault();
+    this.buffer = new StringBuilder();
+  }
+
+  static String getCopyStatement(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta) {
+    DatabaseMeta databaseMeta = database.getDatabaseMeta();
+    StringBuilder copy = new StringBuilder(128);
+    copy.append("COPY ")
+        .append(databaseMeta.getQuotedSchemaTableCombination(database, schemaName, tableName))
+        .append(" (");
+    for (int i = 0; i < rowMeta.size(); i++) {
+      if (i > 0) {
+        copy.append(", ");
+      }
+      copy.append(databaseMeta.quoteField(rowMeta.getValueMeta(i).getName()));
+    }
+    copy.append(") FROM STDIN WITH (FORMAT csv)");
+    return copy.toString();
+  }
+
+  @Override
+  public void addRow(Object[] row) throws HopDatabaseException {
+    int start = buffer.length();
+    try {
+      for (int i = 0; i < rowMeta.size(); i++) {
+        if (i > 0) {
+          buffer.append(',');
+        }
+        appendValue(rowMeta.getValueMeta(i), row[i]);
+      }
+      buffer.append('\n');
+      batchSize++;
+    } catch (HopValueException e) {
+      buffer.setLength(start);
+      throw new HopDatabaseException("offending row : " + getRowString(row), e);
+    }
+  }
+
+  /** The values of a row for an error message, as they are if they can't be converted */
+  private String getRowString(Object[] row) {
+    try {
+      return rowMeta.getString(row);
+    } catch (HopValueException e) {
+      return Arrays.toString(row);
+    }
+  }
+
+  /** Append a value in the CSV format of COPY: an empty unquoted value is a null. */
+  private void appendValue(IValueMeta valueMeta, Object object) throws HopValueException {
+    if (valueMeta.isNull(object)) {
+      return;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        buffer.append(valueMeta.getInteger(object).longValue());
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        buffer.append(valueMeta.getNumber(object).doubleValue());
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        buffer.append(valueMeta.getBigNumber(object).toPlainString());
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        buffer.append(Boolean.TRUE.equals(valueMeta.getBoolean(object)) ? 't' : 'f');
+        break;
+      case IValueMeta.TYPE_DATE, IValueMeta.TYPE_TIMESTAMP:
+        appendDate(valueMeta.getDate(object));
+        break;
+      case IValueMeta.TYPE_BINARY:
+        appendBinary(valueMeta.getBinary(object));
+        break;
+      default:
+        appendString(valueMeta.getString(object));
+        break;
+    }
+  }
+
+  private void appendDate(Date date) {
+    Instant instant =
+        date instanceof Timestamp timestamp
+            ? timestamp.toInstant()
+            : Instant.ofEpochMilli(date.getTime());
+    TIMESTAMP_FORMAT.formatTo(instant.atZone(zoneId), buffer);
+  }
+
+  /** Binary values use the hex format of bytea */
+  private void appendBinary(byte[] bytes) {
+    buffer.append("\\x");
+    for (byte b : bytes) {
+      buffer.append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+  }
+
+  /** Strings are always quoted to tell an empty string apart from a null */
+  private void appendString(String string) {
+    buffer.append('"');
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c == '"') {
+        buffer.append('"');
+      }
+      buffer.append(c);
+    }
+    buffer.append('"');
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public void executeBatch() throws HopDatabaseBatchException {
+    if (batchSize == 0) {
+      return;
+    }
+    try {
+      copyManager.copyIn(sql, new StringReader(buffer.toString()));
+    } catch (SQLException | IOException e) {
+      throw Database.createHopDatabaseBulkException(
+          "Error copying " + batchSize + " rows with [" + sql + "]", e);
+    } finally {
+      clearBatch();
+    }
+  }
+
+  @Override
+  public void clearBatch() {
+    buffer.setLength(0);
+    batchSize = 0;
+  }
+
+  @Override
+  public void close() {
+    clearBatch();
+  }
+
+  /**
+   * @return The rows of the current batch in the CSV format of COPY
+   */
+  String getCopyData() {
+    return buffer.toString();
+  }
+}
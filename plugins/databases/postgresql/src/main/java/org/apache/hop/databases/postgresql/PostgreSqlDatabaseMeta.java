@@ -19,10 +19,14 @@ package org.apache.hop.databases.postgresql;
 
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkInserter;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
 /** Contains PostgreSQL specific information through static final members */
@@ -1118,4 +1122,20 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
   public int getMaxTextFieldLength() {
     return GB_LIMIT;
   }
+
+  /**
+   * @return The maximum number of bind parameters in a statement of the PostgreSQL protocol
+   */
+  @Override
+  public int getMaxInsertParameters() {
+    return 32767;
+  }
+
+  /** Bulk inserts use COPY ... FROM STDIN if we have a connection of the PostgreSQL driver. */
+  @Override
+  public IBulkInserter createBulkInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return PostgreSqlCopyInserter.create(database, schemaName, tableName, rowMeta);
+  }
 }
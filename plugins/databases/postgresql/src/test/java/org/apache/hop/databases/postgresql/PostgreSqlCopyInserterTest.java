@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.copy.CopyManager;
+
+public class PostgreSqlCopyInserterTest {
+  private static final String SQL = "COPY t (a) FROM STDIN WITH (FORMAT csv)";
+
+  private IRowMeta rowMeta;
+  private CopyManager copyManager;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("total"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaBinary("data"));
+    copyManager = mock(CopyManager.class);
+  }
+
+  @Test
+  public void testCsvValues() throws Exception {
+    PostgreSqlCopyInserter inserter = new PostgreSqlCopyInserter(copyManager, SQL, rowMeta);
+    inserter.addRow(
+        new Object[] {
+          1L, "say \"hi\", bye", 1.5, new BigDecimal("1E+3"), true, new byte[] {0x01, (byte) 0xAB}
+        });
+    inserter.addRow(new Object[] {2L, "", null, null, false, null});
+    inserter.addRow(new Object[] {null, null, null, null, null, null});
+
+    assertEquals(3, inserter.getBatchSize());
+    assertEquals(
+        "1,\"say \"\"hi\"\", bye\",1.5,1000,t,\\x01ab\n" + "2,,,,f,\n" + ",,,,,\n",
+        inserter.getCopyData());
+  }
+
+  @Test
+  public void testTimestamp() throws Exception {
+    IRowMeta timestampMeta = new RowMeta();
+    timestampMeta.addValueMeta(new ValueMetaTimestamp("ts"));
+    LocalDateTime dateTime = LocalDateTime.of(2024, 2, 29, 13, 45, 10, 123_456_000);
+    String offset =
+        dateTime.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("XXX"));
+
+    PostgreSqlCopyInserter inserter = new PostgreSqlCopyInserter(copyManager, SQL, timestampMeta);
+    inserter.addRow(new Object[] {Timestamp.valueOf(dateTime)});
+
+    assertEquals("2024-02-29 13:45:10.123456" + offset + "\n", inserter.getCopyData());
+  }
+
+  @Test
+  public void testExecuteBatch() throws Exception {
+    PostgreSqlCopyInserter inserter = new PostgreSqlCopyInserter(copyManager, SQL, rowMeta);
+    inserter.executeBatch();
+    inserter.addRow(new Object[] {1L, "a", null, null, null, null});
+    inserter.executeBatch();
+
+    verify(copyManager).copyIn(eq(SQL), any(Reader.class));
+    assertEquals(0, inserter.getBatchSize());
+    assertEquals("", inserter.getCopyData());
+  }
+
+  @Test
+  public void testExecuteBatchFailure() throws Exception {
+    when(copyManager.copyIn(eq(SQL), any(Reader.class)))
+        .thenThrow(new SQLException("duplicate key value"));
+    PostgreSqlCopyInserter inserter = new PostgreSqlCopyInserter(copyManager, SQL, rowMeta);
+    inserter.addRow(new Object[] {1L, "a", null, null, null, null});
+    try {
+      inserter.executeBatch();
+      fail("A failed COPY should throw a batch exception");
+    } catch (HopDatabaseBatchException e) {
+      assertNull(e.getUpdateCounts());
+    }
+    assertEquals(0, inserter.getBatchSize());
+  }
+}
@@ -16,9 +16,12 @@
  */
 package org.apache.hop.databases.redshift;
 
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkInserter;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 
 @DatabaseMetaPlugin(
@@ -79,4 +82,11 @@ public class RedshiftDatabaseMeta extends PostgreSqlDatabaseMeta {
   public boolean isSupportsSetMaxRows() {
     return false;
   }
+
+  /** Redshift doesn't support COPY ... FROM STDIN: use multi-row inserts instead. */
+  @Override
+  public IBulkInserter createBulkInserter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta) {
+    return null;
+  }
 }
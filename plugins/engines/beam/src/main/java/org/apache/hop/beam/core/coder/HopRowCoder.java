@@ -21,12 +21,9 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.net.InetAddress;
-import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.Date;
 import org.apache.avro.Schema;
@@ -35,6 +32,7 @@ import org.apache.beam.sdk.coders.AtomicCoder;
 import org.apache.beam.sdk.coders.CoderException;
 import org.apache.hop.beam.core.HopRow;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.core.row.value.ValueMetaAvroRecord;
 
 public class HopRowCoder extends AtomicCoder<HopRow> {
@@ -43,30 +41,37 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
   public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
 
     Object[] row = hopRow.getRow();
-    ObjectOutputStream out = new ObjectOutputStream(outStream);
+    DataOutputStream out = new DataOutputStream(outStream);
 
-    // Length
+    // Length, 0 means a null row
     //
     if (row == null) {
-      out.writeInt(-1);
+      RowCodec.writeVarLong(out, 0);
+      out.flush();
       return; // all done
-    } else {
-      out.writeInt(hopRow.length());
     }
+    int length = hopRow.length();
+    RowCodec.writeVarLong(out, length + 1L);
+
+    // The null values
+    //
+    byte[] nulls = new byte[(length + 7) >>> 3];
+    for (int i = 0; i < length; i++) {
+      if (row[i] == null) {
+        nulls[i >>> 3] |= (byte) (1 << (i & 7));
+      }
+    }
+    out.write(nulls);
 
     // The values
     //
-    for (int i = 0; i < hopRow.length(); i++) {
+    for (int i = 0; i < length; i++) {
       Object object = row[i];
-      // Null?
-      //
-      out.writeBoolean(object == null);
-
       if (object != null) {
         // Type?
         //
         int objectType = getObjectType(object);
-        out.writeInt(objectType);
+        out.writeByte(objectType);
 
         // The object itself
         //
@@ -79,19 +84,22 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
   @Override
   public HopRow decode(InputStream inStream) throws IOException {
 
-    ObjectInputStream in = new ObjectInputStream(inStream);
+    DataInputStream in = new DataInputStream(inStream);
 
     Object[] row = null;
-    int length = in.readInt();
+    int length = (int) RowCodec.readVarLong(in) - 1;
     if (length < 0) {
       return new HopRow(row);
     }
+    byte[] nulls = new byte[(length + 7) >>> 3];
+    in.readFully(nulls);
+
     row = new Object[length];
     for (int i = 0; i < length; i++) {
       // Null?
-      boolean isNull = in.readBoolean();
+      boolean isNull = (nulls[i >>> 3] & (1 << (i & 7))) != 0;
       if (!isNull) {
-        int objectType = in.readInt();
+        int objectType = in.readUnsignedByte();
         Object object = read(in, objectType);
         row[i] = object;
       }
@@ -105,65 +113,40 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     // Sure
   }
 
-  private void write(ObjectOutputStream out, int objectType, Object object) throws IOException {
+  private void write(DataOutputStream out, int objectType, Object object) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
-        {
-          String string = (String) object;
-          byte[] data = string.getBytes(StandardCharsets.UTF_8);
-          out.writeInt(data.length);
-          out.write(data);
-        }
+        RowCodec.writeString(out, (String) object);
         break;
       case IValueMeta.TYPE_INTEGER:
-        {
-          Long lng = (Long) object;
-          out.writeLong(lng);
-        }
+        RowCodec.writeVarSignedLong(out, (Long) object);
         break;
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          out.writeLong(((Timestamp) object).getTime());
-          out.writeInt(((Timestamp) object).getNanos());
+          RowCodec.writeVarSignedLong(out, ((Timestamp) object).getTime());
+          RowCodec.writeVarLong(out, ((Timestamp) object).getNanos());
         }
         break;
       case IValueMeta.TYPE_DATE:
-        {
-          long lng = ((Date) object).getTime();
-          out.writeLong(lng);
-        }
+        RowCodec.writeVarSignedLong(out, ((Date) object).getTime());
         break;
       case IValueMeta.TYPE_BOOLEAN:
-        {
-          boolean b = (Boolean) object;
-          out.writeBoolean(b);
-        }
+        out.writeBoolean((Boolean) object);
         break;
       case IValueMeta.TYPE_NUMBER:
-        {
-          Double dbl = (Double) object;
-          out.writeDouble(dbl);
-        }
+        out.writeDouble((Double) object);
         break;
       case IValueMeta.TYPE_BIGNUMBER:
-        {
-          BigDecimal bd = (BigDecimal) object;
-          out.writeUTF(bd.toString());
-        }
+        RowCodec.writeBigNumber(out, (BigDecimal) object);
         break;
       case IValueMeta.TYPE_BINARY:
-        {
-          byte[] bytes = (byte[]) object;
-          out.write(bytes.length);
-          out.write(bytes);
-        }
+        RowCodec.writeBytes(out, (byte[]) object);
         break;
       case IValueMeta.TYPE_INET:
         {
           InetAddress inetAddress = (InetAddress) object;
-          write(out, IValueMeta.TYPE_STRING, inetAddress.getHostName());
-          out.writeInt(inetAddress.getAddress().length == 4 ? 1 : 2);
-          out.write(inetAddress.getAddress());
+          RowCodec.writeString(out, inetAddress.getHostName());
+          RowCodec.writeBytes(out, inetAddress.getAddress());
         }
         break;
       case IValueMeta.TYPE_AVRO:
@@ -176,15 +159,13 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
           try {
             // Write the schema as a JSON string...
             //
-            out.writeUTF(genericRecord.getSchema().toString(false));
+            RowCodec.writeString(out, genericRecord.getSchema().toString(false));
 
             // Now we perform the binary serialization of the data
             //
             ValueMetaAvroRecord valueMeta =
                 new ValueMetaAvroRecord("write", genericRecord.getSchema());
-            DataOutputStream dataOutputStream = new DataOutputStream(out);
-            valueMeta.writeData(dataOutputStream, genericRecord);
-            dataOutputStream.flush();
+            valueMeta.writeData(out, genericRecord);
           } catch (Exception e) {
             throw new IOException("Error serializing Avro generic schema and record to String", e);
           }
@@ -196,71 +177,49 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     }
   }
 
-  private Object read(ObjectInputStream in, int objectType) throws IOException {
+  private Object read(DataInputStream in, int objectType) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
-        {
-          int length = in.readInt();
-          byte[] data = new byte[length];
-          in.readFully(data);
-          return new String(data, StandardCharsets.UTF_8);
-        }
+        return RowCodec.readString(in);
 
       case IValueMeta.TYPE_INTEGER:
-        {
-          return in.readLong();
-        }
+        return RowCodec.readVarSignedLong(in);
 
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          Timestamp timestamp = new Timestamp(in.readLong());
-          timestamp.setNanos(in.readInt());
+          Timestamp timestamp = new Timestamp(RowCodec.readVarSignedLong(in));
+          timestamp.setNanos((int) RowCodec.readVarLong(in));
           return timestamp;
         }
 
       case IValueMeta.TYPE_DATE:
-        {
-          return new Date(in.readLong());
-        }
+        return new Date(RowCodec.readVarSignedLong(in));
 
       case IValueMeta.TYPE_BOOLEAN:
-        {
-          return in.readBoolean();
-        }
+        return in.readBoolean();
 
       case IValueMeta.TYPE_NUMBER:
-        {
-          return in.readDouble();
-        }
+        return in.readDouble();
 
       case IValueMeta.TYPE_BIGNUMBER:
-        {
-          return new BigDecimal(in.readUTF());
-        }
+        return RowCodec.readBigNumber(in);
 
       case IValueMeta.TYPE_BINARY:
-        {
-          byte[] bytes = new byte[in.readInt()];
-          in.read(bytes);
-          return bytes;
-        }
+        return RowCodec.readBytes(in);
 
       case IValueMeta.TYPE_INET:
         {
-          String hostname = (String) read(in, IValueMeta.TYPE_STRING);
-          byte[] addr = new byte[in.readInt() == 1 ? 4 : 16];
-          in.read(addr);
-          return InetAddress.getByAddress(hostname, addr);
+          String hostname = RowCodec.readString(in);
+          return InetAddress.getByAddress(hostname, RowCodec.readBytes(in));
         }
 
       case IValueMeta.TYPE_AVRO:
         {
           try {
-            String schemaJson = in.readUTF();
+            String schemaJson = RowCodec.readString(in);
             Schema schema = new Schema.Parser().parse(schemaJson);
             ValueMetaAvroRecord valueMeta = new ValueMetaAvroRecord("read", schema);
-            DataInputStream dataInputStream = new DataInputStream(in);
-            return valueMeta.readData(dataInputStream);
+            return valueMeta.readData(in);
           } catch (Exception e) {
             throw new IOException(
                 "Error de-serializing Avro schema and generic record from JSON", e);
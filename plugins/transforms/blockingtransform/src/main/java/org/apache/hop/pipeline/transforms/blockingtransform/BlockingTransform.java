@@ -33,6 +33,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -90,12 +91,17 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
           gzos = null;
         }
 
+        if (data.rowCodec == null) {
+          data.rowCodec = new RowCodec(rowMeta);
+        }
+        data.rowCodec.writeHeader(dos);
+
         // How many records do we have?
         dos.writeInt(data.buffer.size());
 
         for (p = 0; p < data.buffer.size(); p++) {
           // Just write the data, nothing else
-          rowMeta.writeData(dos, data.buffer.get(p));
+          data.rowCodec.writeRow(dos, data.buffer.get(p));
         }
         // Close temp-file
         dos.close(); // close data stream
@@ -143,6 +149,7 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
           di = new DataInputStream(fi);
         }
         data.dis.add(di);
+        data.rowCodec.readHeader(di);
 
         // How long is the buffer?
         int buffersize = di.readInt();
@@ -159,7 +166,7 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
 
         if (buffersize > 0) {
           // Read a row from temp-file
-          data.rowbuffer.add(data.outputRowMeta.readData(di));
+          data.rowbuffer.add(data.rowCodec.readRow(di));
         }
       } catch (Exception e) {
         logError(
@@ -190,7 +197,7 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
         GZIPInputStream gzfi = (meta.isCompressFiles()) ? data.gzis.get(0) : null;
 
         try {
-          data.rowbuffer.add(0, data.outputRowMeta.readData(di));
+          data.rowbuffer.add(0, data.rowCodec.readRow(di));
         } catch (SocketTimeoutException e) {
           logError(
               BaseMessages.getString(PKG, "System.Log.UnexpectedError") + " : " + e.toString());
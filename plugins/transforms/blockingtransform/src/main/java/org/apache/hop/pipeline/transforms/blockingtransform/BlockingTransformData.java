@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.zip.GZIPInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -37,6 +38,7 @@ public class BlockingTransformData extends BaseTransformData implements ITransfo
   public List<Object[]> rowbuffer;
 
   public IRowMeta outputRowMeta;
+  public RowCodec rowCodec;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
@@ -18,14 +18,18 @@
 package org.apache.hop.pipeline.transforms.calculator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileNotFoundException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.ValueDataUtil;
 import org.apache.hop.core.util.Utils;
@@ -62,9 +66,12 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (!isReadingBatches()) {
+      return processSingleRow();
+    }
 
-    Object[] r = getRow(); // get row, set busy!
-    if (r == null) { // no more input to be expected...
+    RowBatch batch = getBatch(); // get a batch of rows, set busy!
+    if (batch == null) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -72,96 +79,77 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
     if (first) {
       first = false;
-      data.setOutputRowMeta(getInputRowMeta().clone());
-      meta.getFields(
-          data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
-
-      // get all metadata, including source rows and temporary fields.
-      data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
-
-      data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
-      List<Integer> tempIndexes = new ArrayList<>();
+      initCalculations();
+      initBatchIndexes();
+    }
 
-      // Calculate the indexes of the values and arguments in the target data or temporary data
-      // We do this in advance to save time later on.
-      //
-      for (int i = 0; i < meta.getFunctions().size(); i++) {
-        CalculatorMetaFunction function = meta.getFunctions().get(i);
-        data.getFieldIndexes()[i] = new FieldIndexes();
-
-        if (!Utils.isEmpty(function.getFieldName())) {
-          data.getFieldIndexes()[i].indexName =
-              data.getCalcRowMeta().indexOfValue(function.getFieldName());
-          if (data.getFieldIndexes()[i].indexName < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                BaseMessages.getString(
-                    PKG,
-                    "Calculator.Error.UnableFindField",
-                    function.getFieldName(),
-                    "" + (i + 1)));
-          }
-        } else {
-          throw new HopTransformException(
-              BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
+    // The input columns are copied as a whole, only the values used by the calculations are read
+    // row by row.
+    //
+    int nrInputColumns = getInputRowMeta().size();
+    RowBatch outputBatch = new RowBatch(data.getOutputRowMeta(), batch.size());
+    for (int c = 0; c < nrInputColumns; c++) {
+      outputBatch.setColumn(c, batch, c);
+    }
+    Object[] calcData = new Object[data.getCalcRowMeta().size()];
+    boolean[] keep = new boolean[batch.size()];
+    int nrKept = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      for (int index : data.getUsedInputIndexes()) {
+        calcData[index] = batch.getValue(i, index);
+      }
+      Arrays.fill(calcData, nrInputColumns, calcData.length, null);
+      try {
+        calculate(getInputRowMeta(), calcData);
+        for (int c = 0; c < data.getResultIndexes().length; c++) {
+          outputBatch.setValue(i, nrInputColumns + c, calcData[data.getResultIndexes()[c]]);
         }
-
-        if (!Utils.isEmpty(function.getFieldA())) {
-          if (function.getCalcType() != CalculationType.CONSTANT) {
-            data.getFieldIndexes()[i].indexA =
-                data.getCalcRowMeta().indexOfValue(function.getFieldA());
-            if (data.getFieldIndexes()[i].indexA < 0) {
-              // Nope: throw an exception
-              throw new HopTransformException(
-                  "Unable to find the first argument field '"
-                      + function.getFieldName()
-                      + CONST_FOR_CALCULATION
-                      + (i + 1));
-            }
-          } else {
-            data.getFieldIndexes()[i].indexA = -1;
-          }
-        } else {
-          throw new HopTransformException(
-              "There is no first argument specified for calculated field #" + (i + 1));
+        keep[i] = true;
+        nrKept++;
+      } catch (HopFileNotFoundException e) {
+        if (meta.isFailIfNoFile()) {
+          outputBatch.setSize(i);
+          putBatch(data.getOutputRowMeta(), outputBatch);
+          logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+          setErrors(getErrors() + 1);
+          return false;
         }
+      } catch (HopException e) {
+        logError(
+            BaseMessages.getString(
+                PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
+      }
+    }
+    outputBatch.setSize(batch.size());
+    if (nrKept < batch.size()) {
+      // Rows with a missing file are skipped
+      //
+      RowBatch keptBatch = new RowBatch(data.getOutputRowMeta(), nrKept);
+      keptBatch.addRows(outputBatch, keep);
+      outputBatch = keptBatch;
+    }
+    putBatch(data.getOutputRowMeta(), outputBatch); // copy rows to possible alternate rowset(s).
 
-        if (!Utils.isEmpty(function.getFieldB())) {
-          data.getFieldIndexes()[i].indexB =
-              data.getCalcRowMeta().indexOfValue(function.getFieldB());
-          if (data.getFieldIndexes()[i].indexB < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the second argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
-        data.getFieldIndexes()[i].indexC = -1;
-        if (!Utils.isEmpty(function.getFieldC())) {
-          data.getFieldIndexes()[i].indexC =
-              data.getCalcRowMeta().indexOfValue(function.getFieldC());
-          if (data.getFieldIndexes()[i].indexC < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the third argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
+    if (checkFeedback(getLinesRead(), batch.size()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
+    }
+    return true;
+  }
 
-        if (function.isRemovedFromResult()) {
-          tempIndexes.add(getInputRowMeta().size() + i);
-        }
-      }
+  private boolean processSingleRow() throws HopException {
 
-      // Convert temp indexes to int[]
-      data.setTempIndexes(new int[tempIndexes.size()]);
-      for (int i = 0; i < data.getTempIndexes().length; i++) {
-        data.getTempIndexes()[i] = tempIndexes.get(i);
-      }
+    Object[] r = getRow(); // get row, set busy!
+    if (r == null) { // no more input to be expected...
+      setOutputDone();
+      data.clearValuesMetaMapping();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      initCalculations();
     }
 
     if (isRowLevel()) {
@@ -198,6 +186,131 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
     return true;
   }
 
+  /**
+   * Determine the output layout and the indexes of the fields used in the calculations.
+   */
+  private void initCalculations() throws HopException {
+    data.setOutputRowMeta(getInputRowMeta().clone());
+    meta.getFields(data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // get all metadata, including source rows and temporary fields.
+    data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
+
+    data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
+    List<Integer> tempIndexes = new ArrayList<>();
+
+    // Calculate the indexes of the values and arguments in the target data or temporary data
+    // We do this in advance to save time later on.
+    //
+    for (int i = 0; i < meta.getFunctions().size(); i++) {
+      CalculatorMetaFunction function = meta.getFunctions().get(i);
+      data.getFieldIndexes()[i] = new FieldIndexes();
+
+      if (!Utils.isEmpty(function.getFieldName())) {
+        data.getFieldIndexes()[i].indexName =
+            data.getCalcRowMeta().indexOfValue(function.getFieldName());
+        if (data.getFieldIndexes()[i].indexName < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG,
+                  "Calculator.Error.UnableFindField",
+                  function.getFieldName(),
+                  "" + (i + 1)));
+        }
+      } else {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
+      }
+
+      if (!Utils.isEmpty(function.getFieldA())) {
+        if (function.getCalcType() != CalculationType.CONSTANT) {
+          data.getFieldIndexes()[i].indexA =
+              data.getCalcRowMeta().indexOfValue(function.getFieldA());
+          if (data.getFieldIndexes()[i].indexA < 0) {
+            // Nope: throw an exception
+            throw new HopTransformException(
+                "Unable to find the first argument field '"
+                    + function.getFieldName()
+                    + CONST_FOR_CALCULATION
+                    + (i + 1));
+          }
+        } else {
+          data.getFieldIndexes()[i].indexA = -1;
+        }
+      } else {
+        throw new HopTransformException(
+            "There is no first argument specified for calculated field #" + (i + 1));
+      }
+
+      if (!Utils.isEmpty(function.getFieldB())) {
+        data.getFieldIndexes()[i].indexB =
+            data.getCalcRowMeta().indexOfValue(function.getFieldB());
+        if (data.getFieldIndexes()[i].indexB < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the second argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+      data.getFieldIndexes()[i].indexC = -1;
+      if (!Utils.isEmpty(function.getFieldC())) {
+        data.getFieldIndexes()[i].indexC =
+            data.getCalcRowMeta().indexOfValue(function.getFieldC());
+        if (data.getFieldIndexes()[i].indexC < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the third argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+
+      if (function.isRemovedFromResult()) {
+        tempIndexes.add(getInputRowMeta().size() + i);
+      }
+    }
+
+    // Convert temp indexes to int[]
+    data.setTempIndexes(new int[tempIndexes.size()]);
+    for (int i = 0; i < data.getTempIndexes().length; i++) {
+      data.getTempIndexes()[i] = tempIndexes.get(i);
+    }
+  }
+
+  /**
+   * Determine the input fields used by the calculations and where the results go in the output
+   * rows, to calculate batches of rows.
+   */
+  private void initBatchIndexes() {
+    int nrInputColumns = getInputRowMeta().size();
+    Set<Integer> usedInputIndexes = new TreeSet<>();
+    List<Integer> resultIndexes = new ArrayList<>();
+    for (int i = 0; i < meta.getFunctions().size(); i++) {
+      FieldIndexes fieldIndexes = data.getFieldIndexes()[i];
+      for (int index : new int[] {fieldIndexes.indexA, fieldIndexes.indexB, fieldIndexes.indexC}) {
+        if (index >= 0 && index < nrInputColumns) {
+          usedInputIndexes.add(index);
+        }
+      }
+      if (!meta.getFunctions().get(i).isRemovedFromResult()) {
+        resultIndexes.add(nrInputColumns + i);
+      }
+    }
+    data.setUsedInputIndexes(new int[usedInputIndexes.size()]);
+    int u = 0;
+    for (int index : usedInputIndexes) {
+      data.getUsedInputIndexes()[u++] = index;
+    }
+    data.setResultIndexes(new int[resultIndexes.size()]);
+    for (int r = 0; r < resultIndexes.size(); r++) {
+      data.getResultIndexes()[r] = resultIndexes.get(r);
+    }
+  }
+
   /**
    * @param inputRowMeta the input row metadata
    * @param r the input row (data)
@@ -209,6 +322,23 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
     // First copy the input data to the new result...
     Object[] calcData = RowDataUtil.resizeArray(r, data.getCalcRowMeta().size());
 
+    calculate(inputRowMeta, calcData);
+
+    // OK, now we should refrain from adding the temporary fields to the result.
+    // So we remove them.
+    //
+    return RowDataUtil.removeItems(calcData, data.getTempIndexes());
+  }
+
+  /**
+   * Do the calculations of a row.
+   *
+   * @param inputRowMeta the input row metadata
+   * @param calcData the input values followed by room for the calculated and temporary values
+   * @throws HopValueException in case there is a calculation error.
+   */
+  private void calculate(IRowMeta inputRowMeta, Object[] calcData)
+      throws HopValueException, HopFileNotFoundException {
     for (int i = 0, index = inputRowMeta.size() + i; i < meta.getFunctions().size(); i++, index++) {
       CalculatorMetaFunction fn = meta.getFunctions().get(i);
       if (!Utils.isEmpty(fn.getFieldName())) {
@@ -717,10 +847,5 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
         }
       }
     }
-
-    // OK, now we should refrain from adding the temporary fields to the result.
-    // So we remove them.
-    //
-    return RowDataUtil.removeItems(calcData, data.getTempIndexes());
   }
 }
@@ -38,6 +38,12 @@ public class CalculatorData extends BaseTransformData implements ITransformData
 
   private int[] tempIndexes;
 
+  /** The input fields read by the calculations, to calculate batches of rows */
+  private int[] usedInputIndexes;
+
+  /** The calculated values which end up in the output rows, in order */
+  private int[] resultIndexes;
+
   private final Map<Integer, IValueMeta> resultMetaMapping;
 
   public CalculatorData() {
@@ -17,6 +17,9 @@
 
 package org.apache.hop.pipeline.transforms.combinationlookup;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -25,6 +28,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
@@ -34,6 +38,7 @@ import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.hash.MappedHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
@@ -98,12 +103,17 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache(IRowMeta rowMeta, Object[] row) {
+  private Long lookupInCache(IRowMeta rowMeta, Object[] row) throws HopValueException {
     // Short circuit if cache is disabled.
     if (meta.getCacheSize() == -1) {
       return null;
     }
 
+    if (data.offHeapCache != null) {
+      byte[] value = data.offHeapCache.get(getOffHeapKey(rowMeta, row));
+      return value == null ? null : ByteBuffer.wrap(value).getLong();
+    }
+
     // try to find the row in the cache...
     //
     return data.cache.get(new RowMetaAndData(rowMeta, row));
@@ -121,12 +131,20 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    * @param tk
    * @throws HopValueException
    */
-  private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopValueException {
+  private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopException {
     // Short circuit if cache is disabled.
     if (meta.getCacheSize() == -1) {
       return;
     }
 
+    // The off-heap cache isn't limited in size
+    //
+    if (data.offHeapCache != null) {
+      data.offHeapCache.putIfAbsent(
+          getOffHeapKey(rowMeta, row), ByteBuffer.allocate(8).putLong(tk).array());
+      return;
+    }
+
     // store it in the cache if needed.
     data.cache.put(new RowMetaAndData(rowMeta, row), tk);
 
@@ -198,6 +216,15 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
+  /** Serialize the key values in normal storage so they match the values read from the table */
+  private byte[] getOffHeapKey(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    Object[] keyRow = new Object[data.offHeapKeyRowMeta.size()];
+    for (int i = 0; i < keyRow.length; i++) {
+      keyRow[i] = rowMeta.getValueMeta(i).convertToNormalStorageType(row[i]);
+    }
+    return RowMeta.extractData(data.offHeapKeyRowMeta, keyRow);
+  }
+
   protected boolean isAutoIncrement() {
     return techKeyCreation == CREATION_METHOD_AUTOINC;
   }
@@ -742,6 +769,16 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
         data.db.disconnect();
       }
     }
+    if (data.offHeapCache != null) {
+      try {
+        data.offHeapCache.close();
+      } catch (IOException e) {
+        logError(
+            BaseMessages.getString(PKG, "CombinationLookup.Log.UnableToCloseOffHeapCache")
+                + e.getMessage());
+      }
+      data.offHeapCache = null;
+    }
 
     super.dispose();
   }
@@ -753,9 +790,9 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    * @throws HopDatabaseException If something went wrong while selecting the values from the db
    * @throws HopValueException If something went wrong while adding the data to the cache
    * @throws HopConfigException If the transform configuration is incomplete
+   * @throws HopException If the off-heap cache can't be opened or extended
    */
-  private void preloadCache(IRowMeta hashRowMeta)
-      throws HopDatabaseException, HopValueException, HopConfigException {
+  private void preloadCache(IRowMeta hashRowMeta) throws HopException {
     // fast exit if no preload cache or no cache
     if (meta.isPreloadCache() && meta.getCacheSize() >= 0) {
       if (hashRowMeta == null) {
@@ -812,8 +849,13 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
               + Const.CR;
       sql += lookupKeys + Const.CR;
       sql += "FROM " + data.schemaTable + Const.CR;
-      sql += "GROUP BY" + Const.CR;
-      sql += lookupKeys + Const.CR;
+      String groupBy = "GROUP BY" + Const.CR + lookupKeys + Const.CR;
+
+      if (meta.isPreloadCacheOffHeap()) {
+        preloadOffHeapCache(hashRowMeta, sql, groupBy);
+        return;
+      }
+      sql += groupBy;
 
       if (isDebug()) {
         logDebug("Using preload cache statement:" + Const.CR + sql);
@@ -830,4 +872,112 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
     }
   }
+
+  /**
+   * Preload the cache outside of the Java heap. If a cache file was kept from a previous run and we
+   * have a last update field, only the combinations updated since then are read.
+   *
+   * @param hashRowMeta The RowMeta of the hashRow
+   * @param select The select and from clauses of the preload statement
+   * @param groupBy The group by clause of the preload statement
+   * @throws HopException If something went wrong reading the values or storing them in the cache
+   */
+  private void preloadOffHeapCache(IRowMeta hashRowMeta, String select, String groupBy)
+      throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    String lastUpdateField = meta.getFields().getReturnFields().getLastUpdateField();
+
+    data.offHeapKeyRowMeta = new RowMeta();
+    for (IValueMeta valueMeta : hashRowMeta.getValueMetaList()) {
+      IValueMeta keyValueMeta = valueMeta.clone();
+      keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.offHeapKeyRowMeta.addValueMeta(keyValueMeta);
+    }
+
+    String filename = resolve(meta.getPreloadCacheFile());
+    if (Utils.isEmpty(filename)) {
+      data.offHeapCache = MappedHashIndex.createTemporary();
+    } else {
+      // Every transform copy gets its own cache file, only usable for the same query and keys
+      //
+      if (getCopy() > 0) {
+        filename += "." + getCopy();
+      }
+      String signature =
+          select
+              + groupBy
+              + Const.NVL(lastUpdateField, "")
+              + Const.CR
+              + data.offHeapKeyRowMeta.toStringMeta();
+      data.offHeapCache =
+          MappedHashIndex.open(
+              filename,
+              UUID.nameUUIDFromBytes(signature.getBytes(StandardCharsets.UTF_8))
+                  .getMostSignificantBits());
+    }
+    MappedHashIndex index = data.offHeapCache;
+
+    // Remember up to where we read before reading the combinations themselves
+    //
+    Date lastUpdate = null;
+    if (!Utils.isEmpty(lastUpdateField)) {
+      RowMetaAndData max =
+          data.db.getOneRow(
+              "SELECT MAX("
+                  + databaseMeta.quoteField(lastUpdateField)
+                  + ") FROM "
+                  + data.schemaTable);
+      if (max != null) {
+        lastUpdate = max.getRowMeta().getDate(max.getData(), 0);
+      }
+    }
+
+    String sql = select;
+    IRowMeta parameterRowMeta = null;
+    Object[] parameters = null;
+    if (!index.isEmpty() && index.getWatermark() != MappedHashIndex.NO_WATERMARK) {
+      Date watermark = new Date(index.getWatermark());
+      logBasic(
+          BaseMessages.getString(
+              PKG, "CombinationLookup.Log.RefreshingOffHeapCache", index.getSize(), watermark));
+      sql += "WHERE " + databaseMeta.quoteField(lastUpdateField) + " >= ?" + Const.CR;
+      parameterRowMeta = new RowMeta();
+      parameterRowMeta.addValueMeta(new ValueMetaDate(lastUpdateField));
+      parameters = new Object[] {watermark};
+    } else {
+      index.clear();
+    }
+    sql += groupBy;
+
+    if (isDebug()) {
+      logDebug("Using preload cache statement:" + Const.CR + sql);
+    }
+
+    ResultSet resultSet =
+        data.db.openQuery(databaseMeta.stripCR(sql), parameterRowMeta, parameters);
+    try {
+      IRowMeta rowMeta = data.db.getReturnRowMeta();
+      Object[] cacheRow;
+      while ((cacheRow = data.db.getRow(resultSet)) != null) {
+        // Assumes the technical key is at position 0 !!
+        Object[] keyRow = new Object[data.offHeapKeyRowMeta.size()];
+        for (int i = 0; i < keyRow.length; i++) {
+          keyRow[i] =
+              data.offHeapKeyRowMeta
+                  .getValueMeta(i)
+                  .convertData(rowMeta.getValueMeta(i + 1), cacheRow[i + 1]);
+        }
+        index.putIfAbsent(
+            RowMeta.extractData(data.offHeapKeyRowMeta, keyRow),
+            ByteBuffer.allocate(8).putLong(rowMeta.getInteger(cacheRow, 0)).array());
+        incrementLinesInput();
+      }
+    } finally {
+      data.db.closeQuery(resultSet);
+    }
+
+    if (lastUpdate != null) {
+      index.setWatermark(lastUpdate.getTime());
+    }
+  }
 }
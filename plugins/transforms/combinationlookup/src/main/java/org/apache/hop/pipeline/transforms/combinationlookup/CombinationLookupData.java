@@ -21,6 +21,7 @@ import java.sql.PreparedStatement;
 import java.util.Map;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
+import org.apache.hop.core.hash.MappedHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -32,6 +33,11 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
 
   public Map<RowMetaAndData, Long> cache;
 
+  /** The pre-loaded cache kept off-heap, replaces the cache map when used */
+  public MappedHashIndex offHeapCache;
+
+  public IRowMeta offHeapKeyRowMeta;
+
   public IRowMeta outputRowMeta;
   public IRowMeta lookupRowMeta;
   public IRowMeta insertRowMeta;
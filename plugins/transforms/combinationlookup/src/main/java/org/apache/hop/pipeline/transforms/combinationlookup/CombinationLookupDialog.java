@@ -79,6 +79,11 @@ public class CombinationLookupDialog extends BaseTransformDialog {
 
   private Button wPreloadCache;
 
+  private Button wPreloadCacheOffHeap;
+
+  private Label wlPreloadCacheFile;
+  private TextVar wPreloadCacheFile;
+
   private Text wTk;
 
   private Label wlAutoinc;
@@ -292,6 +297,42 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     fdPreloadCache.left = new FormAttachment(wlCachesize, margin);
     fdPreloadCache.right = new FormAttachment(100, 0);
     wPreloadCache.setLayoutData(fdPreloadCache);
+    wPreloadCache.addListener(SWT.Selection, e -> enableFields());
+
+    // Keep the pre-loaded cache off-heap
+    wPreloadCacheOffHeap = new Button(shell, SWT.CHECK);
+    wPreloadCacheOffHeap.setText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.PreloadCacheOffHeap.Label"));
+    wPreloadCacheOffHeap.setToolTipText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.PreloadCacheOffHeap.Tooltip"));
+    PropsUi.setLook(wPreloadCacheOffHeap);
+    FormData fdPreloadCacheOffHeap = new FormData();
+    fdPreloadCacheOffHeap.top = new FormAttachment(wPreloadCache, margin);
+    fdPreloadCacheOffHeap.left = new FormAttachment(wlCachesize, margin);
+    fdPreloadCacheOffHeap.right = new FormAttachment(100, 0);
+    wPreloadCacheOffHeap.setLayoutData(fdPreloadCacheOffHeap);
+    wPreloadCacheOffHeap.addListener(SWT.Selection, e -> enableFields());
+
+    // The file to keep the off-heap cache in
+    wlPreloadCacheFile = new Label(shell, SWT.RIGHT);
+    wlPreloadCacheFile.setText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.PreloadCacheFile.Label"));
+    PropsUi.setLook(wlPreloadCacheFile);
+    FormData fdlPreloadCacheFile = new FormData();
+    fdlPreloadCacheFile.left = new FormAttachment(0, 0);
+    fdlPreloadCacheFile.right = new FormAttachment(middle, -margin);
+    fdlPreloadCacheFile.top = new FormAttachment(wPreloadCacheOffHeap, margin);
+    wlPreloadCacheFile.setLayoutData(fdlPreloadCacheFile);
+    wPreloadCacheFile = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wPreloadCacheFile.setToolTipText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.PreloadCacheFile.Tooltip"));
+    PropsUi.setLook(wPreloadCacheFile);
+    wPreloadCacheFile.addModifyListener(lsMod);
+    FormData fdPreloadCacheFile = new FormData();
+    fdPreloadCacheFile.left = new FormAttachment(middle, 0);
+    fdPreloadCacheFile.top = new FormAttachment(wPreloadCacheOffHeap, margin);
+    fdPreloadCacheFile.right = new FormAttachment(100, 0);
+    wPreloadCacheFile.setLayoutData(fdPreloadCacheFile);
 
     //
     // The Lookup fields: usually the (business) key
@@ -301,7 +342,7 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wPreloadCache, margin);
+    fdlKey.top = new FormAttachment(wPreloadCacheFile, margin);
     fdlKey.right = new FormAttachment(100, 0);
     wlKey.setLayoutData(fdlKey);
 
@@ -604,6 +645,11 @@ public class CombinationLookupDialog extends BaseTransformDialog {
   public void enableFields() {
     wHashfield.setEnabled(wHashcode.getSelection());
     wlHashfield.setEnabled(wHashcode.getSelection());
+
+    wPreloadCacheOffHeap.setEnabled(wPreloadCache.getSelection());
+    boolean offHeap = wPreloadCache.getSelection() && wPreloadCacheOffHeap.getSelection();
+    wlPreloadCacheFile.setEnabled(offHeap);
+    wPreloadCacheFile.setEnabled(offHeap);
   }
 
   private void setTableFieldCombo() {
@@ -698,10 +744,13 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     }
 
     wPreloadCache.setSelection(input.isPreloadCache());
+    wPreloadCacheOffHeap.setSelection(input.isPreloadCacheOffHeap());
+    wPreloadCacheFile.setText(Const.NVL(input.getPreloadCacheFile(), ""));
     wReplace.setSelection(input.isReplaceFields());
     wHashcode.setSelection(input.isUseHash());
     wHashfield.setEnabled(input.isUseHash());
     wlHashfield.setEnabled(input.isUseHash());
+    enableFields();
 
     String techKeyCreation = returnFields.getTechKeyCreation();
     if (techKeyCreation == null) {
@@ -798,6 +847,8 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     }
 
     in.setPreloadCache(wPreloadCache.getSelection());
+    in.setPreloadCacheOffHeap(wPreloadCacheOffHeap.getSelection());
+    in.setPreloadCacheFile(wPreloadCacheFile.getText());
     returnFields.setUseAutoIncrement(wAutoinc.getSelection() && wAutoinc.isEnabled());
     in.setReplaceFields(wReplace.getSelection());
     in.setUseHash(wHashcode.getSelection());
@@ -127,6 +127,20 @@ public class CombinationLookupMeta
       injectionKeyDescription = "CombinationLookup.Injection.PRELOAD_CACHE")
   private boolean preloadCache = false;
 
+  /** Keep the pre-loaded cache outside of the Java heap in memory-mapped files */
+  @HopMetadataProperty(
+      key = "preloadCacheOffHeap",
+      injectionKey = "PRELOAD_CACHE_OFF_HEAP",
+      injectionKeyDescription = "CombinationLookup.Injection.PRELOAD_CACHE_OFF_HEAP")
+  private boolean preloadCacheOffHeap = false;
+
+  /** The local file to keep the off-heap cache in between runs */
+  @HopMetadataProperty(
+      key = "preloadCacheFile",
+      injectionKey = "PRELOAD_CACHE_FILE",
+      injectionKeyDescription = "CombinationLookup.Injection.PRELOAD_CACHE_FILE")
+  private String preloadCacheFile;
+
   /** Limit the cache size to this! */
   @HopMetadataProperty(
       key = "cache_size",
@@ -163,6 +177,7 @@ public class CombinationLookupMeta
     cacheSize = DEFAULT_CACHE_SIZE;
     replaceFields = false;
     preloadCache = false;
+    preloadCacheOffHeap = false;
     useHash = false;
     hashField = "hashcode";
     fields = new CFields();
@@ -29,6 +29,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaFactory;
@@ -240,6 +241,43 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (!isReadingBatches()) {
+      return processSingleRow();
+    }
+
+    RowBatch batch = getBatch();
+    if (batch == null) { // no more rows to be expected from the previous transform(s)
+      setOutputDone();
+      return false;
+    }
+
+    if (data.firstRow) {
+      initOutputMeta();
+    }
+
+    // Copy the input columns and add a column for every constant
+    RowBatch outputBatch = new RowBatch(data.outputMeta, batch.size());
+    int nrInputColumns = getInputRowMeta().size();
+    for (int c = 0; c < nrInputColumns; c++) {
+      outputBatch.setColumn(c, batch, c);
+    }
+    Object[] constants = data.getConstants().getData();
+    for (int c = 0; c < constants.length; c++) {
+      outputBatch.fillColumn(nrInputColumns + c, constants[c], batch.size());
+    }
+    outputBatch.setSize(batch.size());
+
+    putBatch(data.outputMeta, outputBatch);
+
+    if (checkFeedback(getLinesWritten(), batch.size()) && isBasic()) {
+      logBasic(
+          BaseMessages.getString(PKG, "Constant.Log.LineNr", Long.toString(getLinesWritten())));
+    }
+
+    return true;
+  }
+
+  private boolean processSingleRow() throws HopException {
     Object[] r = null;
     r = getRow();
 
@@ -249,12 +287,7 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
     }
 
     if (data.firstRow) {
-      // The output meta is the original input meta + the
-      // additional constant fields.
-
-      data.firstRow = false;
-      data.outputMeta = getInputRowMeta().clone();
-      meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
+      initOutputMeta();
     }
 
     // Add the constant data to the end of the row.
@@ -279,6 +312,15 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
     return true;
   }
 
+  private void initOutputMeta() throws HopException {
+    // The output meta is the original input meta + the
+    // additional constant fields.
+
+    data.firstRow = false;
+    data.outputMeta = getInputRowMeta().clone();
+    meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
+  }
+
   @Override
   public boolean init() {
 
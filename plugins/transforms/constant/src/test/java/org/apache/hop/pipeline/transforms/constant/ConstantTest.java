@@ -17,18 +17,26 @@
 
 package org.apache.hop.pipeline.transforms.constant;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaPluginType;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.After;
@@ -36,6 +44,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class ConstantTest {
@@ -87,6 +96,32 @@ public class ConstantTest {
     assertTrue(success);
   }
 
+  @Test
+  public void testProcessBatch() throws Exception {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    IRowMeta outputRowMeta = inputRowMeta.clone();
+    outputRowMeta.addValueMeta(new ValueMetaString("constant"));
+    mockHelper.iTransformData.outputMeta = outputRowMeta;
+
+    RowBatch batch = new RowBatch(inputRowMeta, 2);
+    batch.addRow(new Object[] {1L});
+    batch.addRow(new Object[] {2L});
+    doReturn(true).when(constantSpy).isReadingBatches();
+    doReturn(batch).when(constantSpy).getBatch();
+    doReturn(inputRowMeta).when(constantSpy).getInputRowMeta();
+    doReturn(new Object[] {"x"}).when(rowMetaAndData).getData();
+    doNothing().when(constantSpy).putBatch(any(IRowMeta.class), any(RowBatch.class));
+
+    assertTrue(constantSpy.processRow());
+
+    ArgumentCaptor<RowBatch> output = ArgumentCaptor.forClass(RowBatch.class);
+    verify(constantSpy).putBatch(eq(outputRowMeta), output.capture());
+    assertEquals(2, output.getValue().size());
+    assertEquals(2L, output.getValue().getValue(1, 0));
+    assertEquals("x", output.getValue().getValue(1, 1));
+  }
+
   @Test
   public void testProcessRow_fail() throws Exception {
 
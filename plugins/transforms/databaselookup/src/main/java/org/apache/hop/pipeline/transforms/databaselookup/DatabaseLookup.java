@@ -18,16 +18,27 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -48,6 +59,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class;
 
+  /** The maximum number of rows waiting for a batch, as a multiple of the batch size */
+  private static final int MAX_BATCH_ROWS_FACTOR = 10;
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -67,8 +81,68 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
    */
   @VisibleForTesting
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+    Object[] lookupRow = getLookupRow(inputRowMeta, row);
+
+    Object[] add;
+    boolean cacheNow = false;
+    boolean cacheHit = false;
+
+    // First, check if we looked up before
+    if (meta.isCached()) {
+      add = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
+      if (add != null) {
+        cacheHit = true;
+      }
+    } else {
+      add = null;
+    }
+
+    // A key which was not found before is not looked up again
+    //
+    boolean notFoundCached = add == DefaultCache.NOT_FOUND;
+    if (notFoundCached) {
+      add = null;
+    }
 
+    if (add == null && !notFoundCached) {
+      if (!(meta.isCached() && meta.isLoadingAllDataInCache())
+          || data.hasDBCondition) { // do not go to the
+        // database when all rows
+        // are in (exception LIKE
+        // operator)
+        if (isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(PKG, "DatabaseLookup.Log.AddedValuesToLookupRow1")
+                  + meta.getLookup().getKeyFields().size()
+                  + BaseMessages.getString(PKG, "DatabaseLookup.Log.AddedValuesToLookupRow2")
+                  + data.lookupMeta.getString(lookupRow));
+        }
+
+        data.db.setValuesLookup(data.lookupMeta, lookupRow);
+        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+        cacheNow = true;
+      }
+    }
+
+    return addLookupValues(
+        inputRowMeta,
+        row,
+        lookupRow,
+        add,
+        cacheHit,
+        cacheNow,
+        add == null || cacheHit ? null : data.db.getReturnRowMeta());
+  }
+
+  /**
+   * Create the row of key values to look up, converted to the types of the table fields.
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The input row
+   * @return The key values
+   * @throws HopException In case a key value can't be converted
+   */
+  private Object[] getLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
     Object[] lookupRow = new Object[data.lookupMeta.size()];
     int lookupIndex = 0;
 
@@ -100,39 +174,39 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
 
-    Object[] add;
-    boolean cacheNow = false;
-    boolean cacheHit = false;
-
-    // First, check if we looked up before
-    if (meta.isCached()) {
-      add = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
-      if (add != null) {
-        cacheHit = true;
-      }
-    } else {
-      add = null;
-    }
-
-    if (add == null) {
-      if (!(meta.isCached() && meta.isLoadingAllDataInCache())
-          || data.hasDBCondition) { // do not go to the
-        // database when all rows
-        // are in (exception LIKE
-        // operator)
-        if (isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseLookup.Log.AddedValuesToLookupRow1")
-                  + meta.getLookup().getKeyFields().size()
-                  + BaseMessages.getString(PKG, "DatabaseLookup.Log.AddedValuesToLookupRow2")
-                  + data.lookupMeta.getString(lookupRow));
-        }
-
-        data.db.setValuesLookup(data.lookupMeta, lookupRow);
-        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
-        cacheNow = true;
-      }
+  /**
+   * Add the looked up values to the input row. When nothing was found the default values are added,
+   * the row is eaten or sent to error handling.
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The input row
+   * @param lookupRow The key values which were looked up
+   * @param add The values found, null if nothing was found
+   * @param cacheHit true if the values were found in the cache
+   * @param cacheNow true if the values should be stored in the cache
+   * @param returnedRowMeta The metadata of the values as returned by the database
+   * @return The output row or null if the row shouldn't be passed on
+   * @throws HopException In case something goes wrong.
+   */
+  private Object[] addLookupValues(
+      IRowMeta inputRowMeta,
+      Object[] row,
+      Object[] lookupRow,
+      Object[] add,
+      boolean cacheHit,
+      boolean cacheNow,
+      IRowMeta returnedRowMeta)
+      throws HopException {
+    if (add == null
+        && meta.isCached()
+        && cacheNow
+        && !meta.isLoadingAllDataInCache()
+        && data.allEquals) {
+      data.cache.storeRowInCache(meta, data.lookupMeta, lookupRow, DefaultCache.NOT_FOUND);
+      cacheNow = false;
     }
 
     if (add == null) { // nothing was found, unknown code: add default values
@@ -188,7 +262,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = returnedRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -206,6 +280,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       data.cache.storeRowInCache(meta, data.lookupMeta, lookupRow, add);
     }
 
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
     for (int i = 0; i < data.returnMeta.size(); i++) {
       outputRow[inputRowMeta.size() + i] = add[i];
     }
@@ -312,6 +387,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !flushBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -404,7 +482,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        data.cache = createCache();
       }
 
       determineFieldsTypesQueryingDb();
@@ -428,8 +506,22 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
       // If the user selected to load all data into the cache at startup, that's what we do now...
       //
+      initBatch();
+
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
-        loadAllTableDataIntoTheCache();
+        if (data.sharedCacheKey == null) {
+          loadAllTableDataIntoTheCache();
+        } else {
+          // Only the first copy using the shared cache loads the table
+          //
+          DefaultCache sharedCache = (DefaultCache) data.cache;
+          synchronized (sharedCache) {
+            if (!sharedCache.isLoaded()) {
+              loadAllTableDataIntoTheCache();
+              sharedCache.setLoaded(true);
+            }
+          }
+        }
       }
     }
 
@@ -439,38 +531,481 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
               + getInputRowMeta().getString(r));
     }
 
+    if (data.batchRows != null) {
+      return addRowToBatch(r);
+    }
+
     try {
       // add new lookup values to the row
       Object[] outputRow = lookupValues(getInputRowMeta(), r);
+      putLookupRow(r, outputRow);
+    } catch (HopException e) {
+      return handleLookupError(r, e);
+    }
 
-      if (outputRow != null) {
-        // copy row to output rowset(s)
-        putRow(data.outputRowMeta, outputRow);
+    return true;
+  }
 
-        if (isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
-                  + getInputRowMeta().getString(r));
+  private void putLookupRow(Object[] r, Object[] outputRow) throws HopException {
+    if (outputRow != null) {
+      // copy row to output rowset(s)
+      putRow(data.outputRowMeta, outputRow);
+
+      if (isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
+                + getInputRowMeta().getString(r));
+      }
+      if (checkFeedback(getLinesRead())) {
+        logBasic("linenr " + getLinesRead());
+      }
+    }
+  }
+
+  /**
+   * Send the row to error handling or stop the transform.
+   *
+   * @return false if the transform stops
+   */
+  private boolean handleLookupError(Object[] r, HopException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
+      return true;
+    }
+    logError(
+        BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+            + e.getMessage());
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /**
+   * Batched lookups are used when a batch size is set and all key conditions are "=" or "IS NULL",
+   * with at least one "=" condition. They don't apply when all rows are loaded in the cache.
+   */
+  private void initBatch() {
+    data.batchRows = null;
+    if (meta.getBatchSize() <= 1
+        || !data.allEquals
+        || (meta.isCached() && meta.isLoadingAllDataInCache())) {
+      return;
+    }
+    int nrEquals = 0;
+    for (int condition : data.conditions) {
+      if (condition == DatabaseLookupMeta.CONDITION_EQ) {
+        nrEquals++;
+      }
+    }
+    if (nrEquals == 0 || nrEquals != data.lookupMeta.size()) {
+      if (isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchNotUsed"));
+      }
+      return;
+    }
+    data.batchSize = meta.getBatchSize();
+    data.batchRows = new ArrayList<>();
+    data.batchKeys = new LinkedHashMap<>();
+  }
+
+  /**
+   * Add a row to the batch. Rows found in the cache are passed on right away when no rows are
+   * waiting, otherwise the row waits for the batch to be looked up to keep the order of the rows.
+   *
+   * @return false if the transform stops
+   */
+  private boolean addRowToBatch(Object[] r) throws HopException {
+    Object[] lookupRow;
+    Object[] add = null;
+    try {
+      lookupRow = getLookupRow(getInputRowMeta(), r);
+      if (meta.isCached()) {
+        add = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
+      }
+      if (add != null && data.batchRows.isEmpty()) {
+        boolean notFound = add == DefaultCache.NOT_FOUND;
+        Object[] outputRow =
+            addLookupValues(
+                getInputRowMeta(), r, lookupRow, notFound ? null : add, true, false, null);
+        putLookupRow(r, outputRow);
+        return true;
+      }
+    } catch (HopException e) {
+      return handleLookupError(r, e);
+    }
+
+    if (add == null) {
+      data.batchKeys.putIfAbsent(new RowMetaAndData(data.lookupMeta, lookupRow), lookupRow);
+    }
+    data.batchRows.add(new Object[][] {r, lookupRow, add});
+
+    if (data.batchKeys.size() >= data.batchSize
+        || data.batchRows.size() >= data.batchSize * MAX_BATCH_ROWS_FACTOR) {
+      return flushBatch();
+    }
+    return true;
+  }
+
+  /**
+   * Look up the keys of the batch in one query and pass on the waiting rows in their original
+   * order.
+   *
+   * @return false if the transform stops
+   */
+  private boolean flushBatch() throws HopException {
+    List<Object[][]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>();
+
+    Map<RowMetaAndData, Object[]> found;
+    try {
+      found = lookupBatch();
+    } catch (HopException e) {
+      data.batchKeys.clear();
+      for (Object[][] batchRow : rows) {
+        if (!handleLookupError(batchRow[0], e)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // The first row with a key from the database completes the values, later rows with the
+    // same key use them as a cache hit.
+    //
+    Set<RowMetaAndData> completed = new HashSet<>();
+    for (Object[][] batchRow : rows) {
+      Object[] r = batchRow[0];
+      Object[] lookupRow = batchRow[1];
+      Object[] add = batchRow[2];
+      try {
+        Object[] outputRow;
+        if (add != null) {
+          boolean notFound = add == DefaultCache.NOT_FOUND;
+          outputRow =
+              addLookupValues(
+                  getInputRowMeta(), r, lookupRow, notFound ? null : add, true, false, null);
+        } else {
+          RowMetaAndData key = new RowMetaAndData(data.lookupMeta, lookupRow);
+          add = found.get(key);
+          boolean first = completed.add(key);
+          outputRow =
+              addLookupValues(
+                  getInputRowMeta(), r, lookupRow, add, !first, first, data.batchReturnRowMeta);
         }
-        if (checkFeedback(getLinesRead())) {
-          logBasic("linenr " + getLinesRead());
+        putLookupRow(r, outputRow);
+      } catch (HopException e) {
+        if (!handleLookupError(r, e)) {
+          return false;
         }
       }
-    } catch (HopException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
+    }
+    data.batchKeys.clear();
+    return true;
+  }
+
+  /**
+   * Look up all the keys of the batch with one query.
+   *
+   * @return The values found, by key
+   */
+  private Map<RowMetaAndData, Object[]> lookupBatch() throws HopException {
+    // A NULL key value never matches "="
+    //
+    List<Object[]> keys = new ArrayList<>();
+    for (Object[] lookupRow : data.batchKeys.values()) {
+      if (!hasNullValue(lookupRow)) {
+        keys.add(lookupRow);
+      }
+    }
+    if (keys.isEmpty()) {
+      return new HashMap<>();
+    }
+    return lookupBatch(keys);
+  }
+
+  /**
+   * Look up keys with one query. The database can return a key differently than it was looked up:
+   * padded with spaces for a CHAR column or in another case with a case-insensitive collation.
+   * Those rows are matched to the keys ignoring the trailing spaces first and the case next.
+   *
+   * @param keys The keys to look up, without NULL values
+   * @return The values found, by key
+   */
+  private Map<RowMetaAndData, Object[]> lookupBatch(List<Object[]> keys) throws HopException {
+    int nrKeyValues = data.lookupMeta.size();
+    if (data.batchStatement == null) {
+      data.batchStatement = data.db.prepareSql(getBatchSql(data.batchSize));
+      data.batchParametersMeta = new RowMeta();
+      for (int i = 0; i < data.batchSize; i++) {
+        data.batchParametersMeta.addRowMeta(data.lookupMeta);
+      }
+    }
+
+    // The statement always takes a full batch of keys: repeat the last key when there are fewer
+    //
+    Object[] parameters = new Object[data.batchSize * nrKeyValues];
+    for (int i = 0; i < data.batchSize; i++) {
+      Object[] key = keys.get(Math.min(i, keys.size() - 1));
+      System.arraycopy(key, 0, parameters, i * nrKeyValues, nrKeyValues);
+    }
+
+    if (isRowLevel()) {
+      logRowlevel(
+          BaseMessages.getString(
+              PKG, "DatabaseLookup.Log.LookingUpBatch", Integer.toString(keys.size())));
+    }
+
+    ResultSet resultSet =
+        data.db.openQuery(data.batchStatement, data.batchParametersMeta, parameters);
+    IRowMeta resultRowMeta = data.db.getReturnRowMeta();
+    List<Object[]> rows = data.db.getRows(resultSet, 0, null);
+
+    data.batchReturnRowMeta = new RowMeta();
+    for (int i = nrKeyValues; i < resultRowMeta.size(); i++) {
+      data.batchReturnRowMeta.addValueMeta(resultRowMeta.getValueMeta(i));
+    }
+
+    Set<RowMetaAndData> requested = new HashSet<>();
+    for (Object[] key : keys) {
+      requested.add(new RowMetaAndData(data.lookupMeta, key));
+    }
+
+    Map<RowMetaAndData, Object[]> found = new HashMap<>();
+    List<Object[][]> otherRows = new ArrayList<>();
+    for (Object[] row : rows) {
+      Object[] keyData = new Object[nrKeyValues];
+      for (int i = 0; i < nrKeyValues; i++) {
+        IValueMeta keyMeta = data.lookupMeta.getValueMeta(i);
+        IValueMeta returned = resultRowMeta.getValueMeta(i);
+        keyData[i] =
+            keyMeta.getType() == returned.getType()
+                ? row[i]
+                : keyMeta.convertData(returned, row[i]);
+      }
+      Object[] values = Arrays.copyOfRange(row, nrKeyValues, resultRowMeta.size());
+      RowMetaAndData key = new RowMetaAndData(data.lookupMeta, keyData);
+      if (requested.contains(key)) {
+        addFoundValues(found, key, values);
       } else {
-        logError(
-            BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
-                + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+        otherRows.add(new Object[][] {keyData, values});
       }
     }
+    if (!otherRows.isEmpty()) {
+      matchOtherRows(keys, found, otherRows, false);
+      matchOtherRows(keys, found, otherRows, true);
+    }
 
-    return true;
+    // A key which only differs in case or trailing spaces from a key which was found matches the
+    // same row with a case-insensitive collation and no row otherwise. Only the database knows.
+    //
+    if (keys.size() > 1 && found.size() < requested.size()) {
+      Set<List<Object>> foundKeys = new HashSet<>();
+      for (RowMetaAndData key : found.keySet()) {
+        foundKeys.add(normalizeKey(key.getData(), true));
+      }
+      for (Object[] key : keys) {
+        if (!found.containsKey(new RowMetaAndData(data.lookupMeta, key))
+            && foundKeys.contains(normalizeKey(key, true))) {
+          found.putAll(lookupBatch(Collections.singletonList(key)));
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Match the rows returned with a key which wasn't looked up to the keys which weren't found.
+   *
+   * @param keys The keys looked up
+   * @param found The values found, by key
+   * @param otherRows The key and values of the rows which didn't match a key, matched rows are
+   *     removed
+   * @param ignoreCase true to ignore the case of the key values, the trailing spaces are always
+   *     ignored
+   */
+  private void matchOtherRows(
+      List<Object[]> keys,
+      Map<RowMetaAndData, Object[]> found,
+      List<Object[][]> otherRows,
+      boolean ignoreCase)
+      throws HopException {
+    Map<List<Object>, List<RowMetaAndData>> missing = new HashMap<>();
+    for (Object[] keyData : keys) {
+      RowMetaAndData key = new RowMetaAndData(data.lookupMeta, keyData);
+      if (!found.containsKey(key)) {
+        missing.computeIfAbsent(normalizeKey(keyData, ignoreCase), k -> new ArrayList<>()).add(key);
+      }
+    }
+    Iterator<Object[][]> iterator = otherRows.iterator();
+    while (iterator.hasNext()) {
+      Object[][] otherRow = iterator.next();
+      List<RowMetaAndData> matching = missing.get(normalizeKey(otherRow[0], ignoreCase));
+      if (matching != null) {
+        for (RowMetaAndData key : matching) {
+          addFoundValues(found, key, otherRow[1]);
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  private void addFoundValues(
+      Map<RowMetaAndData, Object[]> found, RowMetaAndData key, Object[] values)
+      throws HopException {
+    if (found.containsKey(key)) {
+      // Like a single lookup, only the first row counts.
+      //
+      if (meta.getLookup().isFailingOnMultipleResults()) {
+        throw new HopDatabaseException(
+            BaseMessages.getString(
+                PKG,
+                "DatabaseLookup.ERROR0005.MultipleResults",
+                data.lookupMeta.getString(key.getData())));
+      }
+      return;
+    }
+    found.put(key, values);
+  }
+
+  private static List<Object> normalizeKey(Object[] keyData, boolean ignoreCase) {
+    List<Object> normalized = new ArrayList<>(keyData.length);
+    for (Object value : keyData) {
+      if (value instanceof String) {
+        String string = Const.rtrim((String) value);
+        normalized.add(ignoreCase ? string.toLowerCase(Locale.ROOT) : string);
+      } else {
+        normalized.add(value);
+      }
+    }
+    return normalized;
+  }
+
+  private boolean hasNullValue(Object[] lookupRow) throws HopValueException {
+    for (int i = 0; i < lookupRow.length; i++) {
+      if (data.lookupMeta.getValueMeta(i).isNull(lookupRow[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create the query looking up a batch of keys. A single key is looked up with an IN list,
+   * multiple keys with a list of conditions separated by OR.
+   *
+   * @param nrKeys The number of keys looked up
+   * @return The SQL
+   */
+  @VisibleForTesting
+  String getBatchSql(int nrKeys) {
+    DatabaseMeta databaseMeta = data.db.getDatabaseMeta();
+    Lookup lookup = meta.getLookup();
+    List<String> equalFields = new ArrayList<>();
+    List<String> nullFields = new ArrayList<>();
+    for (int i = 0; i < lookup.getKeyFields().size(); i++) {
+      String field = databaseMeta.quoteField(lookup.getKeyFields().get(i).getTableField());
+      if (data.conditions[i] == DatabaseLookupMeta.CONDITION_EQ) {
+        equalFields.add(field);
+      } else {
+        nullFields.add(field);
+      }
+    }
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    sql.append(String.join(", ", equalFields));
+    for (ReturnValue returnValue : lookup.getReturnValues()) {
+      sql.append(", ").append(databaseMeta.quoteField(returnValue.getTableField()));
+    }
+    sql.append(" FROM ")
+        .append(
+            databaseMeta.getQuotedSchemaTableCombination(
+                this, meta.getSchemaName(), meta.getTableName()));
+    sql.append(" WHERE ");
+    if (equalFields.size() == 1) {
+      sql.append(equalFields.get(0)).append(" IN (");
+      for (int i = 0; i < nrKeys; i++) {
+        sql.append(i == 0 ? "?" : ", ?");
+      }
+      sql.append(')');
+    } else {
+      sql.append('(');
+      for (int i = 0; i < nrKeys; i++) {
+        if (i > 0) {
+          sql.append(" OR ");
+        }
+        sql.append('(');
+        for (int j = 0; j < equalFields.size(); j++) {
+          if (j > 0) {
+            sql.append(" AND ");
+          }
+          sql.append(equalFields.get(j)).append(" = ?");
+        }
+        sql.append(')');
+      }
+      sql.append(')');
+    }
+    for (String nullField : nullFields) {
+      sql.append(" AND ").append(nullField).append(" IS NULL");
+    }
+    if (StringUtils.isNotEmpty(lookup.getOrderByClause())) {
+      sql.append(" ORDER BY ").append(lookup.getOrderByClause());
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Create the cache of looked up rows. When all rows are loaded from the table the cache is
+   * unbounded, otherwise it is limited by the configured memory size or number of rows.
+   */
+  private DatabaseLookupData.ICache createCache() throws HopException {
+    long maximumWeight = 0L;
+    boolean weighedByMemory = false;
+    if (!meta.isLoadingAllDataInCache()) {
+      if (meta.getCacheMemorySize() > 0) {
+        maximumWeight = meta.getCacheMemorySize() * 1024L * 1024L;
+        weighedByMemory = true;
+      } else if (meta.getCacheSize() > 0) {
+        maximumWeight = meta.getCacheSize();
+      }
+    }
+    long notFoundTimeout = Math.max(meta.getCacheNotFoundTime(), 0) * 1000L;
+
+    final long cacheWeight = maximumWeight;
+    final boolean cacheWeighedByMemory = weighedByMemory;
+    if (meta.isCacheShared() && data.allEquals) {
+      data.sharedCacheKey = getSharedCacheKey();
+      return DefaultCache.acquireSharedCache(
+          data.sharedCacheKey,
+          () -> new DefaultCache(data, cacheWeight, cacheWeighedByMemory, notFoundTimeout));
+    }
+    return new DefaultCache(data, cacheWeight, cacheWeighedByMemory, notFoundTimeout);
+  }
+
+  /**
+   * The key of a shared cache identifies the database, the table, the keys and the returned values
+   * of the lookup. Transforms with the same key can use the same cached rows.
+   */
+  private String getSharedCacheKey() throws HopException {
+    DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    Lookup lookup = meta.getLookup();
+
+    StringBuilder key = new StringBuilder();
+    key.append(databaseMeta.getName()).append('|').append(databaseMeta.getURL(this));
+    key.append('|').append(resolve(meta.getSchemaName()));
+    key.append('|').append(resolve(meta.getTableName()));
+    for (KeyField keyField : lookup.getKeyFields()) {
+      key.append("|k:").append(keyField.getTableField()).append(' ');
+      key.append(keyField.getCondition());
+    }
+    for (ReturnValue returnValue : lookup.getReturnValues()) {
+      key.append("|r:").append(returnValue.getTableField()).append(' ');
+      key.append(returnValue.getDefaultType()).append(' ').append(returnValue.getTrimType());
+    }
+    key.append("|o:").append(lookup.getOrderByClause());
+    key.append("|m:").append(lookup.isFailingOnMultipleResults());
+    key.append("|l:").append(meta.isLoadingAllDataInCache());
+    return key.toString();
   }
 
   private void loadAllTableDataIntoTheCache() throws HopException {
@@ -661,9 +1196,32 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public void dispose() {
 
     if (data.db != null) {
+      if (data.batchStatement != null) {
+        try {
+          data.db.closePreparedStatement(data.batchStatement);
+        } catch (HopDatabaseException e) {
+          logError("Unable to close the batch lookup statement", e);
+        }
+        data.batchStatement = null;
+      }
       data.db.disconnect();
     }
 
+    if (data.cache instanceof DefaultCache defaultCache && isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "DatabaseLookup.Log.CacheStatistics",
+              Long.toString(defaultCache.getHitCount()),
+              Long.toString(defaultCache.getMissCount()),
+              Long.toString(defaultCache.getEvictionCount()),
+              Integer.toString(defaultCache.size())));
+    }
+    if (data.sharedCacheKey != null) {
+      DefaultCache.releaseSharedCache(data.sharedCacheKey);
+      data.sharedCacheKey = null;
+    }
+
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
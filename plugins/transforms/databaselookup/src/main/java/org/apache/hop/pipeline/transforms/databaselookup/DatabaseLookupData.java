@@ -17,7 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
+import java.sql.PreparedStatement;
 import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -44,6 +47,14 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public int[] returnValueTypes;
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
+  public String sharedCacheKey; // The key of the shared cache in use
+
+  public int batchSize; // The number of keys looked up in one query
+  public List<Object[][]> batchRows; // Rows waiting for the batch: input row, lookup row, values
+  public Map<RowMetaAndData, Object[]> batchKeys; // Keys to look up in the batch
+  public PreparedStatement batchStatement;
+  public IRowMeta batchParametersMeta;
+  public IRowMeta batchReturnRowMeta;
 
   public DatabaseLookupData() {
     super();
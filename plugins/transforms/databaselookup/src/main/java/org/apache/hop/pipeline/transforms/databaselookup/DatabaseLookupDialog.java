@@ -71,6 +71,15 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Label wlCacheMemorySize;
+  private Text wCacheMemorySize;
+
+  private Label wlCacheNotFoundTime;
+  private Text wCacheNotFoundTime;
+
+  private Label wlCacheShared;
+  private Button wCacheShared;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -82,6 +91,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlOrderBy;
   private Text wOrderBy;
 
+  private Text wBatchSize;
+
   private Label wlFailMultiple;
   private Button wFailMultiple;
 
@@ -264,6 +275,44 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     fdCachesize.top = new FormAttachment(wCache, margin);
     wCachesize.setLayoutData(fdCachesize);
 
+    // ICache memory size line
+    wlCacheMemorySize = new Label(shell, SWT.RIGHT);
+    wlCacheMemorySize.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheMemorySize.Label"));
+    PropsUi.setLook(wlCacheMemorySize);
+    FormData fdlCacheMemorySize = new FormData();
+    fdlCacheMemorySize.left = new FormAttachment(0, 0);
+    fdlCacheMemorySize.right = new FormAttachment(middle, -margin);
+    fdlCacheMemorySize.top = new FormAttachment(wCachesize, margin);
+    wlCacheMemorySize.setLayoutData(fdlCacheMemorySize);
+    wCacheMemorySize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheMemorySize);
+    wCacheMemorySize.addModifyListener(lsMod);
+    FormData fdCacheMemorySize = new FormData();
+    fdCacheMemorySize.left = new FormAttachment(middle, 0);
+    fdCacheMemorySize.right = new FormAttachment(100, 0);
+    fdCacheMemorySize.top = new FormAttachment(wCachesize, margin);
+    wCacheMemorySize.setLayoutData(fdCacheMemorySize);
+
+    // ICache time of keys which were not found
+    wlCacheNotFoundTime = new Label(shell, SWT.RIGHT);
+    wlCacheNotFoundTime.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheNotFoundTime.Label"));
+    PropsUi.setLook(wlCacheNotFoundTime);
+    FormData fdlCacheNotFoundTime = new FormData();
+    fdlCacheNotFoundTime.left = new FormAttachment(0, 0);
+    fdlCacheNotFoundTime.right = new FormAttachment(middle, -margin);
+    fdlCacheNotFoundTime.top = new FormAttachment(wCacheMemorySize, margin);
+    wlCacheNotFoundTime.setLayoutData(fdlCacheNotFoundTime);
+    wCacheNotFoundTime = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheNotFoundTime);
+    wCacheNotFoundTime.addModifyListener(lsMod);
+    FormData fdCacheNotFoundTime = new FormData();
+    fdCacheNotFoundTime.left = new FormAttachment(middle, 0);
+    fdCacheNotFoundTime.right = new FormAttachment(100, 0);
+    fdCacheNotFoundTime.top = new FormAttachment(wCacheMemorySize, margin);
+    wCacheNotFoundTime.setLayoutData(fdCacheNotFoundTime);
+
     // ICache : Load all?
     wlCacheLoadAll = new Label(shell, SWT.RIGHT);
     wlCacheLoadAll.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheLoadAll.Label"));
@@ -271,7 +320,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     FormData fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment(0, 0);
     fdlCacheLoadAll.right = new FormAttachment(middle, -margin);
-    fdlCacheLoadAll.top = new FormAttachment(wCachesize, margin);
+    fdlCacheLoadAll.top = new FormAttachment(wCacheNotFoundTime, margin);
     wlCacheLoadAll.setLayoutData(fdlCacheLoadAll);
     wCacheLoadAll = new Button(shell, SWT.CHECK);
     PropsUi.setLook(wCacheLoadAll);
@@ -288,12 +337,35 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
           }
         });
 
+    // ICache : share with other transforms?
+    wlCacheShared = new Label(shell, SWT.RIGHT);
+    wlCacheShared.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheShared.Label"));
+    PropsUi.setLook(wlCacheShared);
+    FormData fdlCacheShared = new FormData();
+    fdlCacheShared.left = new FormAttachment(0, 0);
+    fdlCacheShared.right = new FormAttachment(middle, -margin);
+    fdlCacheShared.top = new FormAttachment(wCacheLoadAll, margin);
+    wlCacheShared.setLayoutData(fdlCacheShared);
+    wCacheShared = new Button(shell, SWT.CHECK);
+    PropsUi.setLook(wCacheShared);
+    FormData fdCacheShared = new FormData();
+    fdCacheShared.left = new FormAttachment(middle, 0);
+    fdCacheShared.top = new FormAttachment(wlCacheShared, 0, SWT.CENTER);
+    wCacheShared.setLayoutData(fdCacheShared);
+    wCacheShared.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.Keys.Label"));
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCacheLoadAll, margin);
+    fdlKey.top = new FormAttachment(wCacheShared, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -478,6 +550,24 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wOrderBy.setLayoutData(fdOrderBy);
     wOrderBy.addModifyListener(lsMod);
 
+    // Batch size line
+    Label wlBatchSize = new Label(shell, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Label"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.top = new FormAttachment(wOrderBy, margin);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchSize);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.top = new FormAttachment(wOrderBy, margin);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    wBatchSize.setLayoutData(fdBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+
     // THE BUTTONS
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -488,7 +578,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wCancel = new Button(shell, SWT.PUSH);
     wCancel.setText(BaseMessages.getString(PKG, "System.Button.Cancel"));
 
-    setButtonPositions(new Button[] {wOk, wGet, wGetLU, wCancel}, margin, wOrderBy);
+    setButtonPositions(new Button[] {wOk, wGet, wGetLU, wCancel}, margin, wBatchSize);
 
     // Add listeners
     wOk.addListener(SWT.Selection, e -> ok());
@@ -579,6 +669,12 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
 
     wCachesize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wlCachesize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wCacheMemorySize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wlCacheMemorySize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wCacheNotFoundTime.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wlCacheNotFoundTime.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wCacheShared.setEnabled(wCache.getSelection());
+    wlCacheShared.setEnabled(wCache.getSelection());
     wCacheLoadAll.setEnabled(wCache.getSelection());
     wlCacheLoadAll.setEnabled(wCache.getSelection());
     wFailMultiple.setEnabled(!wCache.getSelection());
@@ -592,6 +688,9 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    wCacheMemorySize.setText("" + input.getCacheMemorySize());
+    wCacheNotFoundTime.setText("" + input.getCacheNotFoundTime());
+    wCacheShared.setSelection(input.isCacheShared());
 
     Lookup lookup = input.getLookup();
 
@@ -627,6 +726,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wOrderBy.setText(Const.NVL(lookup.getOrderByClause(), ""));
     wFailMultiple.setSelection(lookup.isFailingOnMultipleResults());
     wEatRows.setSelection(lookup.isEatingRowOnLookupFailure());
+    wBatchSize.setText("" + input.getBatchSize());
 
     wKey.optimizeTableView();
     wReturn.optimizeTableView();
@@ -655,6 +755,9 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setCacheMemorySize(Const.toInt(wCacheMemorySize.getText(), 0));
+    input.setCacheNotFoundTime(Const.toInt(wCacheNotFoundTime.getText(), 0));
+    input.setCacheShared(wCacheShared.getSelection());
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
@@ -682,6 +785,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     lookup.setOrderByClause(wOrderBy.getText());
     lookup.setFailingOnMultipleResults(wFailMultiple.getSelection());
     lookup.setEatingRowOnLookupFailure(wEatRows.getSelection());
+    input.setBatchSize(Const.toInt(wBatchSize.getText(), 0));
 
     transformName = wTransformName.getText(); // return value
 
@@ -100,6 +100,30 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Limit the memory used by the cache to this number of MB, 0 to limit the number of rows */
+  @HopMetadataProperty(
+      key = "cache_memory_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheMemorySize")
+  private int cacheMemorySize;
+
+  /** Keep keys which were not found in the cache for this number of seconds, 0 to keep them */
+  @HopMetadataProperty(
+      key = "cache_not_found_time",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheNotFoundTime")
+  private int cacheNotFoundTime;
+
+  /** Share the cache with the other copies and pipelines doing the same lookup */
+  @HopMetadataProperty(
+      key = "cache_shared",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheShared")
+  private boolean cacheShared;
+
+  /** Look up this number of keys in one query, 0 or 1 to look up row by row */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.BatchSize")
+  private int batchSize;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
@@ -112,6 +136,10 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.cacheMemorySize = m.cacheMemorySize;
+    this.cacheNotFoundTime = m.cacheNotFoundTime;
+    this.cacheShared = m.cacheShared;
+    this.batchSize = m.batchSize;
     this.lookup = new Lookup(m.lookup);
   }
 
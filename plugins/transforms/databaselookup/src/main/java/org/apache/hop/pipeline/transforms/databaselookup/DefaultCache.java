@@ -17,112 +17,165 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.math.BigDecimal;
 import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.List;
-import org.apache.hop.core.RowMetaAndData;
-import org.apache.hop.core.TimedRow;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-/** Old code, copied from {@linkplain DatabaseLookup} */
+/**
+ * The cache of looked up rows, by lookup key.
+ *
+ * <p>When the cache is bounded, entries are evicted with the W-TinyLFU policy: new entries enter a
+ * small LRU window and are then only admitted to the main area (a segmented LRU with a probation
+ * and a protected segment) when they are used more often than the entry they would replace. The use
+ * frequencies are estimated with a {@link FrequencySketch}. This keeps the popular keys in the
+ * cache when a scan over many keys that are only used once passes by.
+ *
+ * <p>The cache is bounded either by the number of entries or by the estimated memory used by the
+ * keys and rows. Keys which were not found in the database are cached as {@link #NOT_FOUND},
+ * optionally for a limited time only. A single integer or string key is used as is in the map,
+ * other keys are wrapped in a row key with a precomputed hash code.
+ */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
+  /** The row cached for a key which was not found in the database */
+  public static final Object[] NOT_FOUND = new Object[0];
+
+  /** The estimated number of bytes used by a cache entry apart from the key and the row */
+  static final long ENTRY_OVERHEAD = 112L;
+
+  private static final Object UNCACHEABLE = new Object();
+
+  private static final Map<String, SharedCache> sharedCaches = new HashMap<>();
+
   public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
-    if (cacheSize > 0) {
-      cacheSize = (int) (cacheSize * 1.5);
-    } else {
-      cacheSize = 16;
+    return new DefaultCache(data, Math.max(cacheSize, 0), false, 0L);
+  }
+
+  /**
+   * Get the cache shared under the given key, creating it when it's not used yet. Every call must
+   * be matched by a call to {@link #releaseSharedCache(String)}.
+   *
+   * @param sharedKey The key which identifies the lookup
+   * @param creator Creates the cache when it's not shared yet
+   * @return The shared cache
+   */
+  public static DefaultCache acquireSharedCache(String sharedKey, Supplier<DefaultCache> creator) {
+    synchronized (sharedCaches) {
+      SharedCache shared = sharedCaches.computeIfAbsent(sharedKey, k -> new SharedCache(creator));
+      shared.users++;
+      return shared.cache;
+    }
+  }
+
+  /**
+   * Release a shared cache. The cache is removed when it is no longer used.
+   *
+   * @param sharedKey The key which identifies the lookup
+   */
+  public static void releaseSharedCache(String sharedKey) {
+    synchronized (sharedCaches) {
+      SharedCache shared = sharedCaches.get(sharedKey);
+      if (shared != null && --shared.users <= 0) {
+        sharedCaches.remove(sharedKey);
+      }
     }
-    return new DefaultCache(data, cacheSize);
   }
 
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final Map<Object, Node> map = new HashMap<>();
+  private final FrequencySketch sketch;
+  private final boolean weighedByMemory;
+  private final long maximumWeight;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final long notFoundTimeout;
 
-  DefaultCache(DatabaseLookupData data, int capacity) {
+  private final NodeList window = new NodeList();
+  private final NodeList probation = new NodeList();
+  private final NodeList protectedList = new NodeList();
+  private long windowWeight;
+  private long probationWeight;
+  private long protectedWeight;
+
+  private KeyType keyType;
+  private IRowMeta keyMeta;
+  private boolean loaded;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * @param data The data of the lookup transform
+   * @param maximumWeight The maximum number of entries, or bytes when weighed by memory. The cache
+   *     is unbounded when this is 0.
+   * @param weighedByMemory Weigh the entries by their estimated memory use
+   * @param notFoundTimeout The number of milliseconds keys which were not found stay in the cache,
+   *     0 to keep them
+   */
+  DefaultCache(
+      DatabaseLookupData data, long maximumWeight, boolean weighedByMemory, long notFoundTimeout) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    this.maximumWeight = maximumWeight;
+    this.weighedByMemory = weighedByMemory;
+    this.notFoundTimeout = notFoundTimeout;
+    if (maximumWeight > 0) {
+      windowMaximum = Math.max(1L, maximumWeight / 100);
+      protectedMaximum = (maximumWeight - windowMaximum) * 80 / 100;
+      sketch = new FrequencySketch();
+      if (!weighedByMemory) {
+        sketch.ensureCapacity(maximumWeight);
+      }
+    } else {
+      windowMaximum = 0;
+      protectedMaximum = 0;
+      sketch = null;
+    }
   }
 
   @Override
-  public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
+  public synchronized Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow)
+      throws HopException {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
-      if (timedRow != null) {
-        return timedRow.getRow();
+      Object key = createKey(lookupMeta, lookupRow);
+      if (key == UNCACHEABLE) {
+        missCount++;
+        return null;
+      }
+      Node node = map.get(key);
+      if (sketch != null) {
+        sketch.increment(spread(key));
+      }
+      if (node == null) {
+        missCount++;
+        return null;
+      }
+      if (node.expires != 0L && node.expires < System.currentTimeMillis()) {
+        remove(node);
+        missCount++;
+        return null;
       }
+      hitCount++;
+      onAccess(node);
+      return node.row;
     } else { // special handling of conditions <,>, <> etc.
-      if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
+      if (!data.hasDBCondition && keyMeta != null) { // e.g. LIKE not handled by this routine, yet
         // TODO: find an alternative way to look up the data based on the condition.
         // Not all conditions are "=" so we are going to have to evaluate row by row
         // A sorted list or index might be a good solution here...
         //
-        for (RowMetaAndData key : map.keySet()) {
-          // Now verify that the key is matching our conditions...
-          //
-          boolean match = true;
-          int lookupIndex = 0;
-          for (int i = 0; i < data.conditions.length && match; i++) {
-            IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData = lookupRow[lookupIndex];
-            IValueMeta keyMeta = key.getValueMeta(i);
-            Object keyData = key.getData()[i];
-
-            switch (data.conditions[i]) {
-              case DatabaseLookupMeta.CONDITION_EQ:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_NE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NULL:
-                match = keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
-                match = !keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_BETWEEN:
-                // Between key >= cmp && key <= cmp2
-                IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
-                Object cmpData2 = lookupRow[lookupIndex + 1];
-                match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-                if (match) {
-                  match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-                }
-                lookupIndex++;
-                break;
-                // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
-              default:
-                match = false;
-                data.hasDBCondition =
-                    true; // avoid looping in here the next time, also safety when a new condition
-                // will be introduced
-                break;
-            }
-            lookupIndex++;
-          }
-          if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
+        for (NodeList list : new NodeList[] {window, probation, protectedList}) {
+          for (Node node = list.head; node != null; node = node.next) {
+            if (node.row != NOT_FOUND && matches(lookupMeta, lookupRow, getKeyData(node.key))) {
+              return node.row;
             }
           }
         }
@@ -131,58 +184,458 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     return null;
   }
 
+  /** Verify that the key is matching our conditions */
+  private boolean matches(IRowMeta lookupMeta, Object[] lookupRow, Object[] key)
+      throws HopValueException {
+    boolean match = true;
+    int lookupIndex = 0;
+    for (int i = 0; i < data.conditions.length && match; i++) {
+      IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+      Object cmpData = lookupRow[lookupIndex];
+      IValueMeta keyValueMeta = keyMeta.getValueMeta(i);
+      Object keyData = key[i];
+
+      switch (data.conditions[i]) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) == 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_NE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) != 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) > 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) >= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) < 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          match = (cmpMeta.compare(cmpData, keyValueMeta, keyData) <= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyValueMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyValueMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
+          Object cmpData2 = lookupRow[lookupIndex + 1];
+          match = (keyValueMeta.compare(keyData, cmpMeta, cmpData) >= 0);
+          if (match) {
+            match = (keyValueMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
+          }
+          lookupIndex++;
+          break;
+          // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
+        default:
+          match = false;
+          data.hasDBCondition =
+              true; // avoid looping in here the next time, also safety when a new condition
+          // will be introduced
+          break;
+      }
+      lookupIndex++;
+    }
+    return match;
+  }
+
   @Override
-  public void storeRowInCache(
+  public synchronized void storeRowInCache(
       DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
-    RowMetaAndData rowMetaAndData = new RowMetaAndData(lookupMeta, lookupRow);
-    //  2009-02-01 XXX: I want to write a test case to prove this point before checking
-    // in.
-    // /* Don't insert a row with a duplicate key into the cache. It doesn't seem
-    // * to serve a useful purpose and can potentially cause the transform to return
-    // * different values over the life of the pipeline (if the source DB rows change)
-    // * Additionally, if using the load all data feature, re-inserting would reverse the order
-    // * specified in the transform.
-    // */
-    map.put(rowMetaAndData, new TimedRow(add));
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
-    // 2009-02-01: If you had previously set a cache size and then turned on load all,
-    // this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if (!meta.isLoadingAllDataInCache()
-        && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
-
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
-
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
+    Object key;
+    try {
+      key = createKey(lookupMeta, lookupRow);
+    } catch (HopValueException e) {
+      // A key we can't convert can't be looked up either
+      return;
+    }
+    if (key == UNCACHEABLE) {
+      return;
+    }
+    long expires = 0L;
+    if (add == NOT_FOUND && notFoundTimeout > 0) {
+      expires = System.currentTimeMillis() + notFoundTimeout;
+    }
+
+    Node node = map.get(key);
+    if (node != null) {
+      // Keep the position of the existing entry, only the row changes
+      //
+      long weight = weigh(key, add);
+      addWeight(node.queue, weight - node.weight);
+      node.weight = weight;
+      node.row = add;
+      node.expires = expires;
+    } else {
+      node = new Node(key, add, weigh(key, add), expires);
+      map.put(key, node);
+      window.add(node);
+      windowWeight += node.weight;
+    }
+    if (sketch != null) {
+      if (weighedByMemory) {
+        sketch.ensureCapacity(map.size());
+      }
+      sketch.increment(spread(key));
+      evict();
+    }
+  }
+
+  /** Make sure the window and the cache as a whole stay below their maximum weight */
+  private void evict() {
+    while (windowWeight > windowMaximum && window.head != null) {
+      Node candidate = window.head;
+      window.remove(candidate);
+      windowWeight -= candidate.weight;
+      admit(candidate);
+    }
+  }
+
+  /**
+   * Move an entry from the window to the probation segment. When the main area is full, the entry
+   * only gets in when it's used more often than the least recently used entry of the main area.
+   */
+  private void admit(Node candidate) {
+    long mainMaximum = maximumWeight - windowMaximum;
+    if (candidate.weight > mainMaximum) {
+      evicted(candidate);
+      return;
+    }
+    while (probationWeight + protectedWeight + candidate.weight > mainMaximum) {
+      Node victim = probation.head != null ? probation.head : protectedList.head;
+      if (sketch.frequency(spread(candidate.key)) <= sketch.frequency(spread(victim.key))) {
+        evicted(candidate);
+        return;
+      }
+      remove(victim);
+      evictionCount++;
+    }
+    candidate.queue = Node.PROBATION;
+    probation.add(candidate);
+    probationWeight += candidate.weight;
+  }
+
+  private void evicted(Node node) {
+    map.remove(node.key);
+    evictionCount++;
+  }
+
+  private void onAccess(Node node) {
+    if (sketch == null) {
+      // Unbounded caches keep the order in which the rows were stored
+      return;
+    }
+    switch (node.queue) {
+      case Node.WINDOW:
+        window.moveToTail(node);
+        break;
+      case Node.PROBATION:
+        probation.remove(node);
+        probationWeight -= node.weight;
+        node.queue = Node.PROTECTED;
+        protectedList.add(node);
+        protectedWeight += node.weight;
+        while (protectedWeight > protectedMaximum && protectedList.head != node) {
+          Node demoted = protectedList.head;
+          protectedList.remove(demoted);
+          protectedWeight -= demoted.weight;
+          demoted.queue = Node.PROBATION;
+          probation.add(demoted);
+          probationWeight += demoted.weight;
+        }
+        break;
+      default:
+        protectedList.moveToTail(node);
+        break;
+    }
+  }
+
+  private void remove(Node node) {
+    map.remove(node.key);
+    listOf(node.queue).remove(node);
+    addWeight(node.queue, -node.weight);
+  }
+
+  private NodeList listOf(int queue) {
+    switch (queue) {
+      case Node.WINDOW:
+        return window;
+      case Node.PROBATION:
+        return probation;
+      default:
+        return protectedList;
+    }
+  }
+
+  private void addWeight(int queue, long weight) {
+    switch (queue) {
+      case Node.WINDOW:
+        windowWeight += weight;
+        break;
+      case Node.PROBATION:
+        probationWeight += weight;
+        break;
+      default:
+        protectedWeight += weight;
+        break;
+    }
+  }
+
+  /**
+   * Create the map key for a lookup row. The type of key is decided by the first row which is
+   * stored or looked up, values of other types are converted to the type of that first key.
+   */
+  private Object createKey(IRowMeta lookupMeta, Object[] lookupRow) throws HopValueException {
+    if (keyType == null) {
+      keyMeta = lookupMeta.clone();
+      keyType = KeyType.ROW;
+      if (keyMeta.size() == 1) {
+        IValueMeta valueMeta = keyMeta.getValueMeta(0);
+        if (valueMeta.isStorageNormal()) {
+          if (valueMeta.getType() == IValueMeta.TYPE_INTEGER) {
+            keyType = KeyType.INTEGER;
+          } else if (valueMeta.getType() == IValueMeta.TYPE_STRING
+              && !valueMeta.isCaseInsensitive()) {
+            keyType = KeyType.STRING;
           }
         }
       }
     }
+    if (lookupMeta.size() != keyMeta.size() || lookupRow.length < keyMeta.size()) {
+      return UNCACHEABLE;
+    }
+    if (keyType != KeyType.ROW) {
+      return normalize(keyMeta.getValueMeta(0), lookupMeta.getValueMeta(0), lookupRow[0]);
+    }
+    Object[] keyData = new Object[keyMeta.size()];
+    for (int i = 0; i < keyData.length; i++) {
+      keyData[i] = normalize(keyMeta.getValueMeta(i), lookupMeta.getValueMeta(i), lookupRow[i]);
+    }
+    return new RowKey(keyMeta, keyData);
+  }
+
+  private static Object normalize(IValueMeta keyValueMeta, IValueMeta valueMeta, Object value)
+      throws HopValueException {
+    if (valueMeta == keyValueMeta
+        || (valueMeta.getType() == keyValueMeta.getType()
+            && valueMeta.getStorageType() == keyValueMeta.getStorageType())) {
+      return value;
+    }
+    return keyValueMeta.convertData(valueMeta, value);
+  }
+
+  private Object[] getKeyData(Object key) {
+    if (key instanceof RowKey rowKey) {
+      return rowKey.data;
+    }
+    return new Object[] {key};
+  }
+
+  private long weigh(Object key, Object[] row) {
+    if (!weighedByMemory) {
+      return 1L;
+    }
+    long size = ENTRY_OVERHEAD + estimateSize(row);
+    if (key instanceof RowKey rowKey) {
+      size += 24L + estimateSize(rowKey.data);
+    } else {
+      size += estimateSize(key);
+    }
+    return size;
+  }
+
+  /**
+   * Estimate the number of bytes used on the heap by a value, for a 64 bit JVM with compressed
+   * object pointers.
+   *
+   * @param value The value to weigh
+   * @return The estimated number of bytes
+   */
+  static long estimateSize(Object value) {
+    if (value == null || value instanceof Boolean) {
+      return 0L;
+    }
+    if (value instanceof Object[] row) {
+      long size = 16L + 4L * row.length;
+      for (Object item : row) {
+        size += estimateSize(item);
+      }
+      return size;
+    }
+    if (value instanceof String string) {
+      return 40L + string.length();
+    }
+    if (value instanceof Long || value instanceof Double) {
+      return 16L;
+    }
+    if (value instanceof Date) {
+      return value instanceof java.sql.Timestamp ? 32L : 24L;
+    }
+    if (value instanceof BigDecimal bigDecimal) {
+      return 72L + bigDecimal.unscaledValue().bitLength() / 8;
+    }
+    if (value instanceof byte[] bytes) {
+      return 16L + bytes.length;
+    }
+    return 32L;
+  }
+
+  private static int spread(Object key) {
+    int hash = key == null ? 0 : key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * @return true if all the rows of the lookup table were loaded in this cache
+   */
+  public synchronized boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * @param loaded true if all the rows of the lookup table were loaded in this cache
+   */
+  public synchronized void setLoaded(boolean loaded) {
+    this.loaded = loaded;
+  }
+
+  /**
+   * @return The number of entries in the cache
+   */
+  public synchronized int size() {
+    return map.size();
+  }
+
+  /**
+   * @return The number of lookups which were found in the cache
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of lookups which were not found in the cache
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return The number of entries which were removed to keep the cache below its maximum size
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private enum KeyType {
+    INTEGER,
+    STRING,
+    ROW
+  }
+
+  /** A key of multiple values, with the hash code calculated once */
+  private static final class RowKey {
+    private final IRowMeta rowMeta;
+    private final Object[] data;
+    private final int hashCode;
+
+    RowKey(IRowMeta rowMeta, Object[] data) throws HopValueException {
+      this.rowMeta = rowMeta;
+      this.data = data;
+      this.hashCode = rowMeta.hashCode(data);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof RowKey other) || hashCode != other.hashCode) {
+        return false;
+      }
+      try {
+        return rowMeta.compare(data, other.data) == 0;
+      } catch (HopValueException e) {
+        return false;
+      }
+    }
+  }
+
+  private static final class Node {
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+
+    final Object key;
+    Object[] row;
+    long weight;
+    long expires;
+    int queue = WINDOW;
+    Node previous;
+    Node next;
+
+    Node(Object key, Object[] row, long weight, long expires) {
+      this.key = key;
+      this.row = row;
+      this.weight = weight;
+      this.expires = expires;
+    }
+  }
+
+  /** A doubly linked list of nodes, from least to most recently used */
+  private static final class NodeList {
+    Node head;
+    Node tail;
+
+    void add(Node node) {
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+    }
+
+    void remove(Node node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+    }
+
+    void moveToTail(Node node) {
+      if (tail != node) {
+        remove(node);
+        add(node);
+      }
+    }
+  }
+
+  private static final class SharedCache {
+    final DefaultCache cache;
+    int users;
+
+    SharedCache(Supplier<DefaultCache> creator) {
+      this.cache = creator.get();
+    }
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+/**
+ * A count-min sketch which estimates how often a key was used lately, with 4 bit counters. All
+ * counters are halved once the number of increments reaches 10 times the capacity, so that keys
+ * which were popular a long time ago are forgotten.
+ *
+ * <p>This is the frequency filter of the TinyLFU admission policy used by {@link DefaultCache}.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MINIMUM_CAPACITY = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 26;
+
+  private long[] table;
+  private int tableMask;
+  private int sampleSize;
+  private int additions;
+
+  FrequencySketch() {
+    ensureCapacity(MINIMUM_CAPACITY);
+  }
+
+  /**
+   * Grow the sketch to track about the given number of keys. The counters are cleared when the
+   * sketch grows.
+   */
+  void ensureCapacity(long capacity) {
+    int maximum = (int) Math.min(Math.max(capacity, MINIMUM_CAPACITY), MAXIMUM_CAPACITY);
+    if (table != null && table.length >= maximum) {
+      return;
+    }
+    table = new long[Integer.highestOneBit(maximum - 1) << 1];
+    tableMask = table.length - 1;
+    sampleSize = 10 * maximum;
+    additions = 0;
+  }
+
+  /**
+   * @return The estimated number of times the key was used lately, at most 15
+   */
+  int frequency(int hash) {
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long h = spread(hash, i);
+      int index = (int) h & tableMask;
+      int offset = ((int) (h >>> 40) & 15) << 2;
+      frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+    }
+    return frequency;
+  }
+
+  /** Count one more use of the key */
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long h = spread(hash, i);
+      int index = (int) h & tableMask;
+      int offset = ((int) (h >>> 40) & 15) << 2;
+      if (((table[index] >>> offset) & 0xfL) < 15) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /** Halve all the counters */
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions /= 2;
+  }
+
+  private static long spread(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    return h + (h >>> 32);
+  }
+}
@@ -34,15 +34,21 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
@@ -72,6 +78,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
@@ -404,6 +411,223 @@ public class DatabaseLookupUTest {
     assertNotNull(data.cache.getRowFromCache(data.lookupMeta, new Object[] {2L}));
   }
 
+  @Test
+  public void looksUpKeysInBatches() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    Database db = mock(Database.class);
+    NoneDatabaseMeta genericMeta = new NoneDatabaseMeta();
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(genericMeta);
+    when(db.getDatabaseMeta()).thenReturn(dbMeta);
+    when(db.prepareSql(anyString())).thenReturn(mock(PreparedStatement.class));
+    when(db.openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(rs);
+    RowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaInteger("test"));
+    returnRowMeta.addValueMeta(new ValueMetaString("val"));
+    when(db.getReturnRowMeta()).thenReturn(returnRowMeta);
+    when(db.getRows(rs, 0, null))
+        .thenReturn(Arrays.asList(new Object[] {2L, "two"}, new Object[] {1L, "one"}))
+        .thenReturn(Collections.singletonList(new Object[] {1L, "one"}));
+
+    DatabaseLookupMeta meta = createTestMeta();
+    meta.setCached(false);
+    meta.setLoadingAllDataInCache(false);
+    meta.setBatchSize(2);
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "val",
+                "",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+
+    DatabaseLookup transform = createSpiedTransform(db, mockHelper, meta, data);
+    transform.init();
+
+    data.db = db;
+    data.keytypes = new int[] {IValueMeta.TYPE_INTEGER};
+    data.allEquals = true;
+    data.conditions = new int[] {DatabaseLookupMeta.CONDITION_EQ};
+
+    doReturn(new Object[] {1L}, new Object[] {2L}, new Object[] {1L}, new Object[] {3L}, null)
+        .when(transform)
+        .getRow();
+    doNothing().when(transform).putRow(any(IRowMeta.class), any(Object[].class));
+
+    while (transform.processRow()) {
+      // process all rows
+    }
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(db).prepareSql(sql.capture());
+    assertTrue(sql.getValue().endsWith(" IN (?, ?)"));
+    verify(db, times(2))
+        .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+
+    ArgumentCaptor<Object[]> rows = ArgumentCaptor.forClass(Object[].class);
+    verify(transform, times(4)).putRow(any(IRowMeta.class), rows.capture());
+    assertArrayEquals(new Object[] {1L, "one"}, Arrays.copyOf(rows.getAllValues().get(0), 2));
+    assertArrayEquals(new Object[] {2L, "two"}, Arrays.copyOf(rows.getAllValues().get(1), 2));
+    assertArrayEquals(new Object[] {1L, "one"}, Arrays.copyOf(rows.getAllValues().get(2), 2));
+    assertArrayEquals(new Object[] {3L, null}, Arrays.copyOf(rows.getAllValues().get(3), 2));
+  }
+
+  @Test
+  public void matchesBatchKeysReturnedDifferently() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    Database db = mock(Database.class);
+    NoneDatabaseMeta genericMeta = new NoneDatabaseMeta();
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(genericMeta);
+    when(db.getDatabaseMeta()).thenReturn(dbMeta);
+    when(db.prepareSql(anyString())).thenReturn(mock(PreparedStatement.class));
+    when(db.openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(rs);
+    RowMeta batchRowMeta = new RowMeta();
+    batchRowMeta.addValueMeta(new ValueMetaString("test"));
+    batchRowMeta.addValueMeta(new ValueMetaString("val"));
+    when(db.getReturnRowMeta()).thenReturn(batchRowMeta);
+
+    // A CHAR column comes back padded and a case-insensitive collation returns the stored case
+    //
+    when(db.getRows(rs, 0, null))
+        .thenReturn(Arrays.asList(new Object[] {"a   ", "one"}, new Object[] {"B", "two"}));
+
+    DatabaseLookupMeta meta = createTestMeta();
+    meta.setLoadingAllDataInCache(false);
+    meta.setBatchSize(3);
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "val",
+                "",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+
+    DatabaseLookup transform = createSpiedTransform(db, mockHelper, meta, data);
+    RowMeta input = new RowMeta();
+    input.addValueMeta(new ValueMetaString("Test"));
+    transform.setInputRowMeta(input);
+    transform.init();
+
+    data.db = db;
+    data.keytypes = new int[] {IValueMeta.TYPE_STRING};
+    data.allEquals = true;
+    data.conditions = new int[] {DatabaseLookupMeta.CONDITION_EQ};
+
+    doReturn(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"}, new Object[] {"a"}, null)
+        .when(transform)
+        .getRow();
+    doNothing().when(transform).putRow(any(IRowMeta.class), any(Object[].class));
+
+    while (transform.processRow()) {
+      // process all rows
+    }
+
+    verify(db, times(1))
+        .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+    verify(db, never()).getLookup(anyBoolean());
+
+    ArgumentCaptor<Object[]> rows = ArgumentCaptor.forClass(Object[].class);
+    verify(transform, times(4)).putRow(any(IRowMeta.class), rows.capture());
+    assertArrayEquals(new Object[] {"a", "one"}, Arrays.copyOf(rows.getAllValues().get(0), 2));
+    assertArrayEquals(new Object[] {"b", "two"}, Arrays.copyOf(rows.getAllValues().get(1), 2));
+    assertArrayEquals(new Object[] {"c", null}, Arrays.copyOf(rows.getAllValues().get(2), 2));
+    assertArrayEquals(new Object[] {"a", "one"}, Arrays.copyOf(rows.getAllValues().get(3), 2));
+  }
+
+  @Test
+  public void looksUpKeysInBatchesInH2() throws Exception {
+    try (Connection connection =
+        DriverManager.getConnection("jdbc:h2:mem:DatabaseLookupUTest", "sa", "")) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(
+            "CREATE TABLE lookup_values "
+                + "(lookup_key VARCHAR_IGNORECASE(10), lookup_value VARCHAR(10))");
+        statement.execute(
+            "INSERT INTO lookup_values VALUES ('Apple', 'one'), ('pear', 'two'), ('fig', 'three')");
+      }
+
+      NoneDatabaseMeta genericMeta = new NoneDatabaseMeta();
+      DatabaseMeta dbMeta = new DatabaseMeta();
+      dbMeta.setIDatabase(genericMeta);
+      Database db = new Database(mock(ILoggingObject.class), variables, dbMeta);
+      db.setConnection(connection);
+      db = spy(db);
+      doNothing().when(db).normalConnect(nullable(String.class));
+
+      DatabaseLookupMeta meta = new DatabaseLookupMeta();
+      meta.setConnection("connection1");
+      meta.setBatchSize(4);
+      Lookup lookup = meta.getLookup();
+      lookup.setTableName("lookup_values");
+      lookup.getKeyFields().add(new KeyField("Test", "", "=", "lookup_key"));
+      lookup
+          .getReturnValues()
+          .add(
+              new ReturnValue(
+                  "lookup_value",
+                  "",
+                  "",
+                  "String",
+                  ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+      DatabaseLookupData data = new DatabaseLookupData();
+
+      DatabaseLookup transform = createSpiedTransform(db, mockHelper, meta, data);
+      RowMeta input = new RowMeta();
+      input.addValueMeta(new ValueMetaString("Test"));
+      transform.setInputRowMeta(input);
+      transform.init();
+
+      data.keytypes = new int[] {IValueMeta.TYPE_STRING};
+
+      // "plum" and "kiwi" miss, "apple" only differs in case from "Apple" which is found
+      //
+      doReturn(
+              new Object[] {"Apple"},
+              new Object[] {"PEAR"},
+              new Object[] {"plum"},
+              new Object[] {"apple"},
+              new Object[] {"kiwi"},
+              new Object[] {"Fig"},
+              new Object[] {"pear"},
+              null)
+          .when(transform)
+          .getRow();
+      doNothing().when(transform).putRow(any(IRowMeta.class), any(Object[].class));
+
+      while (transform.processRow()) {
+        // process all rows
+      }
+
+      // Two batches and "apple" on its own
+      //
+      verify(db, times(3))
+          .openQuery(any(PreparedStatement.class), any(IRowMeta.class), any(Object[].class));
+      verify(db, never()).getLookup(anyBoolean());
+
+      ArgumentCaptor<Object[]> rows = ArgumentCaptor.forClass(Object[].class);
+      verify(transform, times(7)).putRow(any(IRowMeta.class), rows.capture());
+      List<Object[]> output = rows.getAllValues();
+      assertArrayEquals(new Object[] {"Apple", "one"}, Arrays.copyOf(output.get(0), 2));
+      assertArrayEquals(new Object[] {"PEAR", "two"}, Arrays.copyOf(output.get(1), 2));
+      assertArrayEquals(new Object[] {"plum", null}, Arrays.copyOf(output.get(2), 2));
+      assertArrayEquals(new Object[] {"apple", "one"}, Arrays.copyOf(output.get(3), 2));
+      assertArrayEquals(new Object[] {"kiwi", null}, Arrays.copyOf(output.get(4), 2));
+      assertArrayEquals(new Object[] {"Fig", "three"}, Arrays.copyOf(output.get(5), 2));
+      assertArrayEquals(new Object[] {"pear", "two"}, Arrays.copyOf(output.get(6), 2));
+
+      transform.dispose();
+    }
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup(
         TransformMeta transformMeta,
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultCacheTest {
+  private DatabaseLookupData data;
+  private IRowMeta integerMeta;
+
+  @Before
+  public void setUp() {
+    data = new DatabaseLookupData();
+    data.allEquals = true;
+    integerMeta = new RowMeta();
+    integerMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @Test
+  public void testFrequentKeysSurviveScan() throws Exception {
+    DefaultCache cache = new DefaultCache(data, 100, false, 0L);
+
+    for (long i = 0; i < 10; i++) {
+      cache.storeRowInCache(null, integerMeta, new Object[] {i}, new Object[] {"hot" + i});
+    }
+    for (int n = 0; n < 5; n++) {
+      for (long i = 0; i < 10; i++) {
+        assertNotNull(cache.getRowFromCache(integerMeta, new Object[] {i}));
+      }
+    }
+
+    // Keys which are used only once should not push out the popular ones
+    //
+    for (long i = 1000; i < 3000; i++) {
+      assertNull(cache.getRowFromCache(integerMeta, new Object[] {i}));
+      cache.storeRowInCache(null, integerMeta, new Object[] {i}, new Object[] {"cold" + i});
+      assertNotNull(cache.getRowFromCache(integerMeta, new Object[] {i % 10}));
+    }
+
+    assertTrue(cache.size() <= 100);
+    for (long i = 0; i < 10; i++) {
+      assertArrayEquals(
+          new Object[] {"hot" + i}, cache.getRowFromCache(integerMeta, new Object[] {i}));
+    }
+    assertTrue(cache.getEvictionCount() > 0);
+  }
+
+  @Test
+  public void testMemoryLimit() throws Exception {
+    DefaultCache cache = new DefaultCache(data, 10000L, true, 0L);
+
+    for (long i = 0; i < 1000; i++) {
+      cache.storeRowInCache(
+          null, integerMeta, new Object[] {i}, new Object[] {"a value of some length " + i});
+    }
+
+    assertTrue(cache.size() > 0);
+    assertTrue(cache.size() <= 10000L / DefaultCache.ENTRY_OVERHEAD);
+  }
+
+  @Test
+  public void testUnboundedCacheKeepsEverything() throws Exception {
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+
+    for (long i = 0; i < 1000; i++) {
+      cache.storeRowInCache(null, integerMeta, new Object[] {i}, new Object[] {i});
+    }
+
+    assertEquals(1000, cache.size());
+    assertEquals(0L, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testNotFoundTimeout() throws Exception {
+    DefaultCache cache = new DefaultCache(data, 0L, false, 10L);
+    cache.storeRowInCache(null, integerMeta, new Object[] {1L}, DefaultCache.NOT_FOUND);
+
+    assertSame(DefaultCache.NOT_FOUND, cache.getRowFromCache(integerMeta, new Object[] {1L}));
+    Thread.sleep(50L);
+    assertNull(cache.getRowFromCache(integerMeta, new Object[] {1L}));
+    assertEquals(0, cache.size());
+    assertEquals(1L, cache.getHitCount());
+    assertEquals(1L, cache.getMissCount());
+  }
+
+  @Test
+  public void testNotFoundKeptWithoutTimeout() throws Exception {
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+    cache.storeRowInCache(null, integerMeta, new Object[] {1L}, DefaultCache.NOT_FOUND);
+
+    Thread.sleep(10L);
+    assertSame(DefaultCache.NOT_FOUND, cache.getRowFromCache(integerMeta, new Object[] {1L}));
+  }
+
+  @Test
+  public void testKeysAreConvertedToTheStoredType() throws Exception {
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+    cache.storeRowInCache(null, integerMeta, new Object[] {42L}, new Object[] {"found"});
+
+    IRowMeta stringMeta = new RowMeta();
+    stringMeta.addValueMeta(new ValueMetaString("id"));
+    assertArrayEquals(
+        new Object[] {"found"}, cache.getRowFromCache(stringMeta, new Object[] {"42"}));
+    assertNull(cache.getRowFromCache(integerMeta, new Object[] {null}));
+  }
+
+  @Test
+  public void testCompositeKeys() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    DefaultCache cache = DefaultCache.newCache(data, 0);
+
+    cache.storeRowInCache(null, keyMeta, new Object[] {1L, "a"}, new Object[] {"1a"});
+    cache.storeRowInCache(null, keyMeta, new Object[] {1L, "b"}, new Object[] {"1b"});
+    cache.storeRowInCache(null, keyMeta, new Object[] {1L, null}, new Object[] {"1null"});
+
+    assertArrayEquals(new Object[] {"1a"}, cache.getRowFromCache(keyMeta, new Object[] {1L, "a"}));
+    assertArrayEquals(new Object[] {"1b"}, cache.getRowFromCache(keyMeta, new Object[] {1L, "b"}));
+    assertArrayEquals(
+        new Object[] {"1null"}, cache.getRowFromCache(keyMeta, new Object[] {1L, null}));
+    assertNull(cache.getRowFromCache(keyMeta, new Object[] {2L, "a"}));
+
+    // A key with a different number of values can't be in the cache
+    //
+    assertNull(cache.getRowFromCache(integerMeta, new Object[] {1L}));
+  }
+
+  @Test
+  public void testSharedCache() {
+    DefaultCache cache1 =
+        DefaultCache.acquireSharedCache("key", () -> DefaultCache.newCache(data, 0));
+    DefaultCache cache2 =
+        DefaultCache.acquireSharedCache("key", () -> DefaultCache.newCache(data, 0));
+    assertSame(cache1, cache2);
+
+    DefaultCache.releaseSharedCache("key");
+    DefaultCache.releaseSharedCache("key");
+
+    DefaultCache cache3 =
+        DefaultCache.acquireSharedCache("key", () -> DefaultCache.newCache(data, 0));
+    assertNotSame(cache1, cache3);
+    DefaultCache.releaseSharedCache("key");
+  }
+}
@@ -24,6 +24,9 @@ import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookup
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.NULL;
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.SYSTEM_DATE;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -31,6 +34,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
@@ -40,6 +44,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashMap;
+import org.apache.hop.core.hash.MappedHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -316,8 +321,14 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
             "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR);
       }
 
-      List<Object[]> rows = data.db.getRows(sql, -1);
-      IRowMeta rowMeta = data.db.getReturnRowMeta();
+      List<Object[]> rows = null;
+      IRowMeta rowMeta;
+      if (meta.isPreloadingCacheOffHeap()) {
+        rowMeta = data.db.getQueryFields(sql, false);
+      } else {
+        rows = data.db.getRows(sql, -1);
+        rowMeta = data.db.getReturnRowMeta();
+      }
 
       data.preloadKeyIndexes = new int[f.getKeys().size()];
       for (int i = 0; i < data.preloadKeyIndexes.length; i++) {
@@ -328,14 +339,28 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       data.preloadFromDateIndex = rowMeta.indexOfValue(f.getDate().getFrom());
       data.preloadToDateIndex = rowMeta.indexOfValue(f.getDate().getTo());
 
-      data.preloadCache =
-          new DimensionCache(
-              rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex);
-      data.preloadCache.setRowCache(rows);
+      if (meta.isPreloadingCacheOffHeap()) {
+        data.offHeapCache =
+            new DimensionOffHeapCache(
+                openOffHeapIndex(sql, rowMeta),
+                rowMeta,
+                data.preloadKeyIndexes,
+                data.preloadFromDateIndex,
+                data.preloadToDateIndex);
+        loadOffHeapCache(sql);
+      } else {
+        data.preloadCache =
+            new DimensionCache(
+                rowMeta,
+                data.preloadKeyIndexes,
+                data.preloadFromDateIndex,
+                data.preloadToDateIndex);
+        data.preloadCache.setRowCache(rows);
 
-      logDetailed("Sorting the cache rows...");
-      data.preloadCache.sortRows();
-      logDetailed("Sorting of cached rows finished.");
+        logDetailed("Sorting the cache rows...");
+        data.preloadCache.sortRows();
+        logDetailed("Sorting of cached rows finished.");
+      }
 
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
@@ -360,6 +385,93 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
   }
 
+  /**
+   * Open the hash index for the off-heap pre-load cache. Without a cache file we use temporary
+   * files. Every transform copy gets its own cache file.
+   */
+  private MappedHashIndex openOffHeapIndex(String sql, IRowMeta rowMeta) throws HopException {
+    String filename = resolve(meta.getPreloadCacheFile());
+    if (StringUtils.isEmpty(filename)) {
+      return MappedHashIndex.createTemporary();
+    }
+    if (getCopy() > 0) {
+      filename += "." + getCopy();
+    }
+
+    // The cache file can only be reused for the same query and row layout
+    //
+    String signature =
+        sql
+            + Const.CR
+            + resolve(meta.getPreloadCacheUpdateField())
+            + Const.CR
+            + rowMeta.toStringMeta();
+    return MappedHashIndex.open(
+        filename,
+        UUID.nameUUIDFromBytes(signature.getBytes(StandardCharsets.UTF_8))
+            .getMostSignificantBits());
+  }
+
+  /**
+   * Read the dimension rows into the off-heap cache. If a cache file was kept from a previous run,
+   * only the rows updated since then are read.
+   */
+  private void loadOffHeapCache(String sql) throws HopException {
+    MappedHashIndex index = data.offHeapCache.getIndex();
+    String updateField = resolve(meta.getPreloadCacheUpdateField());
+
+    // Remember up to where we read before reading the rows themselves
+    //
+    Date lastUpdate = null;
+    if (StringUtils.isNotEmpty(updateField)) {
+      RowMetaAndData max =
+          data.db.getOneRow(
+              "SELECT MAX("
+                  + data.databaseMeta.quoteField(updateField)
+                  + ") FROM "
+                  + data.schemaTable);
+      if (max != null) {
+        lastUpdate = max.getRowMeta().getDate(max.getData(), 0);
+      }
+    }
+
+    IRowMeta parameterRowMeta = null;
+    Object[] parameters = null;
+    if (!index.isEmpty() && index.getWatermark() != MappedHashIndex.NO_WATERMARK) {
+      Date watermark = new Date(index.getWatermark());
+      logBasic(
+          BaseMessages.getString(
+              PKG, "DimensionLookup.Log.RefreshingOffHeapCache", index.getSize(), watermark));
+      sql += " WHERE " + data.databaseMeta.quoteField(updateField) + " >= ?";
+      parameterRowMeta = new RowMeta();
+      parameterRowMeta.addValueMeta(new ValueMetaDate(updateField));
+      parameters = new Object[] {watermark};
+    } else {
+      index.clear();
+    }
+
+    long rows = 0;
+    ResultSet resultSet = data.db.openQuery(sql, parameterRowMeta, parameters);
+    try {
+      Object[] row;
+      while ((row = data.db.getRow(resultSet)) != null) {
+        data.offHeapCache.addRow(row);
+        rows++;
+      }
+    } finally {
+      data.db.closeQuery(resultSet);
+    }
+
+    if (lastUpdate != null) {
+      index.setWatermark(lastUpdate.getTime());
+    }
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "DimensionLookup.Log.OffHeapCacheLoaded", rows, index.getSize()));
+    }
+  }
+
   private synchronized Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
     DLFields f = meta.getFields();
 
@@ -377,11 +489,14 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       //
       // Create a row to compare with
       //
-      IRowMeta preloadRowMeta = data.preloadCache.getRowMeta();
+      IRowMeta preloadRowMeta =
+          data.offHeapCache != null
+              ? data.offHeapCache.getRowMeta()
+              : data.preloadCache.getRowMeta();
 
       // In this case it's all the same. (simple)
       //
-      data.returnRowMeta = data.preloadCache.getRowMeta();
+      data.returnRowMeta = preloadRowMeta;
       lookupRowMeta = preloadRowMeta;
       lookupRow = new Object[preloadRowMeta.size()];
 
@@ -389,7 +504,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       //
       for (int i = 0; i < data.preloadIndexes.size(); i++) {
         int from = data.preloadIndexes.get(i); // Input row index
-        int to = data.preloadCache.getKeyIndexes()[i]; // Lookup row index
+        int to = data.preloadKeyIndexes[i]; // Lookup row index
 
         // From data type...
         //
@@ -397,7 +512,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
         // to date type...
         //
-        IValueMeta toValueMeta = data.preloadCache.getRowMeta().getValueMeta(to);
+        IValueMeta toValueMeta = preloadRowMeta.getValueMeta(to);
 
         // From value:
         //
@@ -418,9 +533,13 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
       // Look up the row in the pre-load cache...
       //
-      int index = data.preloadCache.lookupRow(lookupRow);
-      if (index >= 0) {
-        returnRow = data.preloadCache.getRow(index);
+      if (data.offHeapCache != null) {
+        returnRow = data.offHeapCache.lookupRow(lookupRow);
+      } else {
+        int index = data.preloadCache.lookupRow(lookupRow);
+        if (index >= 0) {
+          returnRow = data.preloadCache.getRow(index);
+        }
       }
     } else {
       lookupRow = new Object[data.lookupRowMeta.size()];
@@ -1829,6 +1948,16 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
         data.db.disconnect();
       }
     }
+    if (data.offHeapCache != null) {
+      try {
+        data.offHeapCache.close();
+      } catch (IOException e) {
+        logError(
+            BaseMessages.getString(PKG, "DimensionLookup.Log.UnableToCloseOffHeapCache")
+                + e.getMessage());
+      }
+      data.offHeapCache = null;
+    }
     super.dispose();
   }
 }
@@ -81,6 +81,8 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
 
   public DimensionCache preloadCache;
 
+  public DimensionOffHeapCache offHeapCache;
+
   public List<Integer> preloadIndexes;
 
   public List<Integer> lazyList;
@@ -98,6 +98,15 @@ public class DimensionLookupDialog extends BaseTransformDialog {
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlPreloadCacheOffHeap;
+  private Button wPreloadCacheOffHeap;
+
+  private Label wlPreloadCacheFile;
+  private TextVar wPreloadCacheFile;
+
+  private Label wlPreloadCacheUpdateField;
+  private TextVar wPreloadCacheUpdateField;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
@@ -356,6 +365,70 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     fdPreloadCache.right = new FormAttachment(100, 0);
     wPreloadCache.setLayoutData(fdPreloadCache);
 
+    // Keep the pre-loaded cache off-heap?
+    wlPreloadCacheOffHeap = new Label(mainComposite, SWT.RIGHT);
+    wlPreloadCacheOffHeap.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheOffHeap.Label"));
+    wlPreloadCacheOffHeap.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheOffHeap.Tooltip"));
+    PropsUi.setLook(wlPreloadCacheOffHeap);
+    FormData fdlPreloadCacheOffHeap = new FormData();
+    fdlPreloadCacheOffHeap.left = new FormAttachment(0, 0);
+    fdlPreloadCacheOffHeap.right = new FormAttachment(middle, -margin);
+    fdlPreloadCacheOffHeap.top = new FormAttachment(wPreloadCache, margin);
+    wlPreloadCacheOffHeap.setLayoutData(fdlPreloadCacheOffHeap);
+    wPreloadCacheOffHeap = new Button(mainComposite, SWT.CHECK);
+    PropsUi.setLook(wPreloadCacheOffHeap);
+    wPreloadCacheOffHeap.addListener(SWT.Selection, e -> setFlags());
+    FormData fdPreloadCacheOffHeap = new FormData();
+    fdPreloadCacheOffHeap.left = new FormAttachment(middle, 0);
+    fdPreloadCacheOffHeap.top = new FormAttachment(wlPreloadCacheOffHeap, 0, SWT.CENTER);
+    fdPreloadCacheOffHeap.right = new FormAttachment(100, 0);
+    wPreloadCacheOffHeap.setLayoutData(fdPreloadCacheOffHeap);
+
+    // The file to keep the off-heap cache in
+    wlPreloadCacheFile = new Label(mainComposite, SWT.RIGHT);
+    wlPreloadCacheFile.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheFile.Label"));
+    PropsUi.setLook(wlPreloadCacheFile);
+    FormData fdlPreloadCacheFile = new FormData();
+    fdlPreloadCacheFile.left = new FormAttachment(0, 0);
+    fdlPreloadCacheFile.right = new FormAttachment(middle, -margin);
+    fdlPreloadCacheFile.top = new FormAttachment(wPreloadCacheOffHeap, margin);
+    wlPreloadCacheFile.setLayoutData(fdlPreloadCacheFile);
+    wPreloadCacheFile = new TextVar(variables, mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wPreloadCacheFile.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheFile.Tooltip"));
+    PropsUi.setLook(wPreloadCacheFile);
+    wPreloadCacheFile.addModifyListener(lsMod);
+    FormData fdPreloadCacheFile = new FormData();
+    fdPreloadCacheFile.left = new FormAttachment(middle, 0);
+    fdPreloadCacheFile.top = new FormAttachment(wPreloadCacheOffHeap, margin);
+    fdPreloadCacheFile.right = new FormAttachment(100, 0);
+    wPreloadCacheFile.setLayoutData(fdPreloadCacheFile);
+
+    // The last update column to refresh the kept cache with
+    wlPreloadCacheUpdateField = new Label(mainComposite, SWT.RIGHT);
+    wlPreloadCacheUpdateField.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheUpdateField.Label"));
+    PropsUi.setLook(wlPreloadCacheUpdateField);
+    FormData fdlPreloadCacheUpdateField = new FormData();
+    fdlPreloadCacheUpdateField.left = new FormAttachment(0, 0);
+    fdlPreloadCacheUpdateField.right = new FormAttachment(middle, -margin);
+    fdlPreloadCacheUpdateField.top = new FormAttachment(wPreloadCacheFile, margin);
+    wlPreloadCacheUpdateField.setLayoutData(fdlPreloadCacheUpdateField);
+    wPreloadCacheUpdateField =
+        new TextVar(variables, mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wPreloadCacheUpdateField.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheUpdateField.Tooltip"));
+    PropsUi.setLook(wPreloadCacheUpdateField);
+    wPreloadCacheUpdateField.addModifyListener(lsMod);
+    FormData fdPreloadCacheUpdateField = new FormData();
+    fdPreloadCacheUpdateField.left = new FormAttachment(middle, 0);
+    fdPreloadCacheUpdateField.top = new FormAttachment(wPreloadCacheFile, margin);
+    fdPreloadCacheUpdateField.right = new FormAttachment(100, 0);
+    wPreloadCacheUpdateField.setLayoutData(fdPreloadCacheUpdateField);
+
     // Cache size ...
     wlCacheSize = new Label(mainComposite, SWT.RIGHT);
     wlCacheSize.setText(BaseMessages.getString(PKG, "DimensionLookupDialog.CacheSize.Label"));
@@ -363,13 +436,13 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment(0, 0);
     fdlCacheSize.right = new FormAttachment(middle, -margin);
-    fdlCacheSize.top = new FormAttachment(wPreloadCache, margin);
+    fdlCacheSize.top = new FormAttachment(wPreloadCacheUpdateField, margin);
     wlCacheSize.setLayoutData(fdlCacheSize);
     wCacheSize = new Text(mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     PropsUi.setLook(wCacheSize);
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment(middle, 0);
-    fdCacheSize.top = new FormAttachment(wPreloadCache, margin);
+    fdCacheSize.top = new FormAttachment(wPreloadCacheUpdateField, margin);
     fdCacheSize.right = new FormAttachment(100, 0);
     wCacheSize.setLayoutData(fdCacheSize);
 
@@ -1047,6 +1120,17 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     wlPreloadCache.setEnabled(wUseCache.getSelection() && !wUpdate.getSelection());
     wPreloadCache.setEnabled(wUseCache.getSelection() && !wUpdate.getSelection());
 
+    boolean offHeap =
+        wPreloadCache.isEnabled()
+            && wPreloadCache.getSelection()
+            && wPreloadCacheOffHeap.getSelection();
+    wlPreloadCacheOffHeap.setEnabled(wPreloadCache.isEnabled() && wPreloadCache.getSelection());
+    wPreloadCacheOffHeap.setEnabled(wPreloadCache.isEnabled() && wPreloadCache.getSelection());
+    wlPreloadCacheFile.setEnabled(offHeap);
+    wPreloadCacheFile.setEnabled(offHeap);
+    wlPreloadCacheUpdateField.setEnabled(offHeap);
+    wPreloadCacheUpdateField.setEnabled(offHeap);
+
     wlCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
     wCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
   }
@@ -1150,6 +1234,9 @@ public class DimensionLookupDialog extends BaseTransformDialog {
 
     wUseCache.setSelection(input.getCacheSize() >= 0);
     wPreloadCache.setSelection(input.isPreloadingCache());
+    wPreloadCacheOffHeap.setSelection(input.isPreloadingCacheOffHeap());
+    wPreloadCacheFile.setText(Const.NVL(input.getPreloadCacheFile(), ""));
+    wPreloadCacheUpdateField.setText(Const.NVL(input.getPreloadCacheUpdateField(), ""));
     wCacheSize.setText("" + input.getCacheSize());
 
     wMinYear.setText("" + input.getMinYear());
@@ -1270,6 +1357,9 @@ public class DimensionLookupDialog extends BaseTransformDialog {
       in.setCacheSize(-1);
     }
     in.setPreloadingCache(wPreloadCache.getSelection());
+    in.setPreloadingCacheOffHeap(wPreloadCacheOffHeap.getSelection());
+    in.setPreloadCacheFile(wPreloadCacheFile.getText());
+    in.setPreloadCacheUpdateField(wPreloadCacheUpdateField.getText());
     if (wPreloadCache.getSelection()) {
       in.setCacheSize(0);
     }
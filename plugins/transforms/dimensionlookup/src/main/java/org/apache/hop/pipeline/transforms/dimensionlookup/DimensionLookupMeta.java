@@ -169,6 +169,27 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
       injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE")
   private boolean preloadingCache;
 
+  /** Keep the pre-loaded cache outside of the Java heap in memory-mapped files */
+  @HopMetadataProperty(
+      key = "preload_cache_off_heap",
+      injectionKey = "PRELOAD_CACHE_OFF_HEAP",
+      injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE_OFF_HEAP")
+  private boolean preloadingCacheOffHeap;
+
+  /** The local file to keep the off-heap cache in between runs */
+  @HopMetadataProperty(
+      key = "preload_cache_file",
+      injectionKey = "PRELOAD_CACHE_FILE",
+      injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE_FILE")
+  private String preloadCacheFile;
+
+  /** The last update date column used to refresh a kept off-heap cache */
+  @HopMetadataProperty(
+      key = "preload_cache_update_field",
+      injectionKey = "PRELOAD_CACHE_UPDATE_FIELD",
+      injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE_UPDATE_FIELD")
+  private String preloadCacheUpdateField;
+
   public DimensionLookupMeta() {
     super();
     this.fields = new DLFields();
@@ -201,6 +222,9 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
     this.startDateAlternative = m.startDateAlternative;
     this.startDateFieldName = m.startDateFieldName;
     this.preloadingCache = m.preloadingCache;
+    this.preloadingCacheOffHeap = m.preloadingCacheOffHeap;
+    this.preloadCacheFile = m.preloadCacheFile;
+    this.preloadCacheUpdateField = m.preloadCacheUpdateField;
   }
 
   @Override
@@ -226,6 +250,7 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
 
     cacheSize = 5000;
     preloadingCache = false;
+    preloadingCacheOffHeap = false;
   }
 
   @Override
@@ -2056,4 +2081,58 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
   public void setPreloadingCache(boolean preloadingCache) {
     this.preloadingCache = preloadingCache;
   }
+
+  /**
+   * Gets preloadingCacheOffHeap
+   *
+   * @return value of preloadingCacheOffHeap
+   */
+  public boolean isPreloadingCacheOffHeap() {
+    return preloadingCacheOffHeap;
+  }
+
+  /**
+   * Sets preloadingCacheOffHeap
+   *
+   * @param preloadingCacheOffHeap value of preloadingCacheOffHeap
+   */
+  public void setPreloadingCacheOffHeap(boolean preloadingCacheOffHeap) {
+    this.preloadingCacheOffHeap = preloadingCacheOffHeap;
+  }
+
+  /**
+   * Gets preloadCacheFile
+   *
+   * @return value of preloadCacheFile
+   */
+  public String getPreloadCacheFile() {
+    return preloadCacheFile;
+  }
+
+  /**
+   * Sets preloadCacheFile
+   *
+   * @param preloadCacheFile value of preloadCacheFile
+   */
+  public void setPreloadCacheFile(String preloadCacheFile) {
+    this.preloadCacheFile = preloadCacheFile;
+  }
+
+  /**
+   * Gets preloadCacheUpdateField
+   *
+   * @return value of preloadCacheUpdateField
+   */
+  public String getPreloadCacheUpdateField() {
+    return preloadCacheUpdateField;
+  }
+
+  /**
+   * Sets preloadCacheUpdateField
+   *
+   * @param preloadCacheUpdateField value of preloadCacheUpdateField
+   */
+  public void setPreloadCacheUpdateField(String preloadCacheUpdateField) {
+    this.preloadCacheUpdateField = preloadCacheUpdateField;
+  }
 }
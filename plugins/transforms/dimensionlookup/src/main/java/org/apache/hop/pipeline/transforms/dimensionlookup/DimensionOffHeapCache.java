@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.pipeline.transforms.dimensionlookup;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.hash.MappedHashIndex;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+
+/**
+ * A pre-load cache of all the versions of a dimension, kept outside of the Java heap in a {@link
+ * MappedHashIndex}. The natural key is the key of the index, every version of a dimension entry is
+ * stored as a separate value. The rows are the same as we get from the database with the technical
+ * key as the first field.
+ *
+ * <p>When the cache is refreshed, updated versions are added again. The newest value for a
+ * technical key is the one that counts.
+ */
+public class DimensionOffHeapCache {
+  private final IRowMeta rowMeta;
+  private final IRowMeta keyRowMeta;
+  private final int[] keyIndexes;
+  private final int fromDateIndex;
+  private final int toDateIndex;
+  private final MappedHashIndex index;
+
+  /**
+   * Create a new off-heap dimension cache
+   *
+   * @param index the hash index to store the rows in
+   * @param rowMeta the description of the rows to store, the technical key comes first
+   * @param keyIndexes the indexes of the natural key (in that order)
+   * @param fromDateIndex the field index where the start of the date range can be found
+   * @param toDateIndex the field index where the end of the date range can be found
+   */
+  public DimensionOffHeapCache(
+      MappedHashIndex index,
+      IRowMeta rowMeta,
+      int[] keyIndexes,
+      int fromDateIndex,
+      int toDateIndex) {
+    this.index = index;
+    this.rowMeta = rowMeta;
+    this.keyIndexes = keyIndexes;
+    this.fromDateIndex = fromDateIndex;
+    this.toDateIndex = toDateIndex;
+
+    keyRowMeta = new RowMeta();
+    for (int keyIndex : keyIndexes) {
+      keyRowMeta.addValueMeta(rowMeta.getValueMeta(keyIndex));
+    }
+  }
+
+  private byte[] getKey(Object[] row) {
+    Object[] keyRow = new Object[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      keyRow[i] = row[keyIndexes[i]];
+    }
+    return RowMeta.extractData(keyRowMeta, keyRow);
+  }
+
+  /**
+   * Add a dimension row (version) to the cache
+   *
+   * @param row the row as read from the database
+   * @throws HopException in case the cache can't grow any further
+   */
+  public void addRow(Object[] row) throws HopException {
+    index.put(getKey(row), RowMeta.extractData(rowMeta, row));
+  }
+
+  /**
+   * Look up the version of a dimension entry which is valid on a certain date.
+   *
+   * @param lookupRowData the natural key values and the lookup date on the position of the start of
+   *     the date range
+   * @return the dimension row or null if no version was found
+   * @throws HopException in case of a data conversion problem
+   */
+  public Object[] lookupRow(Object[] lookupRowData) throws HopException {
+    Date lookupDate = rowMeta.getDate(lookupRowData, fromDateIndex);
+    Set<Long> technicalKeys = new HashSet<>();
+
+    for (byte[] value : index.getAll(getKey(lookupRowData))) {
+      Object[] row = RowMeta.getRow(rowMeta, value);
+
+      // Skip older copies of versions which were refreshed later on
+      //
+      if (!technicalKeys.add(rowMeta.getInteger(row, 0))) {
+        continue;
+      }
+
+      // null as a start date means -Infinity, null as an end date +Infinity
+      //
+      Date fromDate = rowMeta.getDate(row, fromDateIndex);
+      Date toDate = rowMeta.getDate(row, toDateIndex);
+      if ((fromDate == null || fromDate.compareTo(lookupDate) <= 0)
+          && (toDate == null || toDate.compareTo(lookupDate) > 0)) {
+        return row;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Close the underlying hash index
+   *
+   * @throws IOException in case the index can't be written to disk
+   */
+  public void close() throws IOException {
+    index.close();
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * Gets keyIndexes
+   *
+   * @return value of keyIndexes
+   */
+  public int[] getKeyIndexes() {
+    return keyIndexes;
+  }
+
+  /**
+   * Gets index
+   *
+   * @return value of index
+   */
+  public MappedHashIndex getIndex() {
+    return index;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.pipeline.transforms.dimensionlookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+import org.apache.hop.core.hash.MappedHashIndex;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class DimensionOffHeapCacheTest {
+
+  @Test
+  public void testLookupVersions() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("TK"));
+    rowMeta.addValueMeta(new ValueMetaString("CUSTOMER"));
+    rowMeta.addValueMeta(new ValueMetaString("NAME"));
+    rowMeta.addValueMeta(new ValueMetaDate("DATE_FROM"));
+    rowMeta.addValueMeta(new ValueMetaDate("DATE_TO"));
+
+    final Date d1 = new Date(1425300000000L);
+    final Date d2 = new Date(d1.getTime() + 3600000L);
+    final Date d3 = new Date(d1.getTime() + 3600000L * 2);
+
+    DimensionOffHeapCache cache =
+        new DimensionOffHeapCache(MappedHashIndex.createTemporary(), rowMeta, new int[] {1}, 3, 4);
+    try {
+      cache.addRow(new Object[] {1L, "c1", "first", null, d2});
+      cache.addRow(new Object[] {2L, "c1", "second", d2, null});
+      cache.addRow(new Object[] {3L, "c2", "other", d1, d3});
+
+      assertEquals(1L, cache.lookupRow(new Object[] {null, "c1", null, d1, null})[0]);
+      assertEquals(2L, cache.lookupRow(new Object[] {null, "c1", null, d2, null})[0]);
+      assertEquals(2L, cache.lookupRow(new Object[] {null, "c1", null, d3, null})[0]);
+      assertEquals(3L, cache.lookupRow(new Object[] {null, "c2", null, d2, null})[0]);
+      assertNull(cache.lookupRow(new Object[] {null, "c2", null, d3, null}));
+      assertNull(cache.lookupRow(new Object[] {null, "c3", null, d1, null}));
+
+      // A refreshed version replaces the older copy with the same technical key
+      //
+      cache.addRow(new Object[] {3L, "c2", "other", d1, d2});
+      assertNull(cache.lookupRow(new Object[] {null, "c2", null, d2, null}));
+      assertEquals("other", cache.lookupRow(new Object[] {null, "c2", null, d1, null})[2]);
+    } finally {
+      cache.close();
+    }
+  }
+}
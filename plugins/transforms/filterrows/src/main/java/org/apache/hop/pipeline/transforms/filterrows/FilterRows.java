@@ -17,10 +17,12 @@
 
 package org.apache.hop.pipeline.transforms.filterrows;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -63,60 +65,98 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if (r == null) {
+    // Rows sent to true and false target transforms are written one by one
+    //
+    if (data.chosesTargetTransforms || !isReadingBatches()) {
+      return processSingleRow();
+    }
+
+    RowBatch batch = getBatch(); // Get next batch of rows from the input rowset!
+    if (batch == null) {
       setOutputDone();
       return false;
     }
 
     if (first) {
       first = false;
+      initOutput();
+      data.conditionFieldnrs = getConditionFieldnrs();
+    }
 
-      data.outputRowMeta = getInputRowMeta().clone();
-      meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+    // Only the values used by the condition are read from the batch
+    //
+    boolean[] keep = new boolean[batch.size()];
+    int nrKept = 0;
+    Object[] r = new Object[getInputRowMeta().size()];
+    for (int i = 0; i < batch.size(); i++) {
+      for (int fieldnr : data.conditionFieldnrs) {
+        r[fieldnr] = batch.getValue(i, fieldnr);
+      }
+      keep[i] = keepBatchRow(batch, i, r);
+      if (keep[i]) {
+        nrKept++;
+      }
+    }
+    if (nrKept == batch.size()) {
+      putBatch(data.outputRowMeta, batch);
+    } else {
+      RowBatch outputBatch = new RowBatch(data.outputRowMeta, nrKept);
+      outputBatch.addRows(batch, keep);
+      putBatch(data.outputRowMeta, outputBatch); // copy kept rows to output rowset
+    }
 
-      // if filter refers to non-existing fields, throw exception
-      checkNonExistingFields();
+    if (checkFeedback(getLinesRead(), batch.size()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+    }
 
-      // Cache the position of the IRowSet for the output.
+    return true;
+  }
+
+  /**
+   * Evaluate the condition for a row of a batch.
+   *
+   * @param batch The batch of rows
+   * @param index The index of the row in the batch
+   * @param r The values used by the condition
+   * @return true if the row is kept
+   */
+  private boolean keepBatchRow(RowBatch batch, int index, Object[] r) throws HopException {
+    try {
+      return meta.getCondition().evaluate(getInputRowMeta(), r);
+    } catch (Exception e) {
+      // Evaluate again with all the values to log the complete row
       //
-      if (data.chosesTargetTransforms) {
-        List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
-        if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
-          TransformMeta to = targetStreams.get(0).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.trueRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(0).getTransformName()));
-            }
-          }
-        } else {
-          data.trueRowSet = null;
-        }
+      return keepRow(getInputRowMeta(), batch.getRow(index));
+    }
+  }
 
-        if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
-          TransformMeta to = targetStreams.get(1).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.falseRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(1).getTransformName()));
-            }
-          }
-        } else {
-          data.falseRowSet = null;
-        }
+  /** The indexes of the input fields used by the condition */
+  private int[] getConditionFieldnrs() {
+    List<Integer> fieldnrs = new ArrayList<>();
+    for (String field : meta.getCondition().getUsedFields()) {
+      int fieldnr = getInputRowMeta().indexOfValue(field);
+      if (fieldnr >= 0) {
+        fieldnrs.add(fieldnr);
       }
     }
+    int[] conditionFieldnrs = new int[fieldnrs.size()];
+    for (int i = 0; i < conditionFieldnrs.length; i++) {
+      conditionFieldnrs[i] = fieldnrs.get(i);
+    }
+    return conditionFieldnrs;
+  }
+
+  private boolean processSingleRow() throws HopException {
+    Object[] r = getRow(); // Get next usable row from input rowset(s)!
+    if (r == null) {
+      setOutputDone();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      initOutput();
+    }
 
     boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
     if (!data.chosesTargetTransforms) {
@@ -156,6 +196,54 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
     return true;
   }
 
+  /** Determine the output layout and the row sets of the true and false target transforms */
+  private void initOutput() throws HopException {
+    data.outputRowMeta = getInputRowMeta().clone();
+    meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // if filter refers to non-existing fields, throw exception
+    checkNonExistingFields();
+
+    // Cache the position of the IRowSet for the output.
+    //
+    if (data.chosesTargetTransforms) {
+      List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
+      if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
+        TransformMeta to = targetStreams.get(0).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.trueRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(0).getTransformName()));
+          }
+        }
+      } else {
+        data.trueRowSet = null;
+      }
+
+      if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
+        TransformMeta to = targetStreams.get(1).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.falseRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(1).getTransformName()));
+          }
+        }
+      } else {
+        data.falseRowSet = null;
+      }
+    }
+  }
+
   @Override
   public boolean init() {
 
@@ -32,6 +32,9 @@ public class FilterRowsData extends BaseTransformData implements ITransformData
   public String trueTransformName;
   public String falseTransformName;
 
+  /** The indexes of the input fields used by the condition */
+  public int[] conditionFieldnrs;
+
   public FilterRowsData() {
     super();
   }
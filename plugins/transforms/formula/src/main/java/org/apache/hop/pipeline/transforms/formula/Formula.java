@@ -35,7 +35,6 @@ import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -43,7 +42,6 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
 
   private XSSFWorkbook workBook;
   private XSSFSheet workSheet;
-  private Row sheetRow;
   private HashMap<String, String> replaceMap;
 
   @Override
@@ -51,7 +49,6 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
 
     workBook = new XSSFWorkbook();
     workSheet = workBook.createSheet();
-    sheetRow = workSheet.createRow(0);
     replaceMap = new HashMap<String, String>();
 
     return true;
@@ -112,6 +109,28 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
           data.replaceIndex[j] = -1;
         }
       }
+
+      // Parse the formulas once, the fields are bound to their index in the row
+      //
+      data.formulaParsers = new FormulaParser[meta.getFormulas().size()];
+      for (int j = 0; j < meta.getFormulas().size(); j++) {
+        FormulaMetaFunction fn = meta.getFormulas().get(j);
+        try {
+          data.formulaParsers[j] =
+              new FormulaParser(fn, data.outputRowMeta, workSheet, variables, replaceMap);
+        } catch (RuntimeException e) {
+          throw new HopException("Formula '" + fn.getFormula() + "' could not be parsed ", e);
+        }
+        if (isDetailed()) {
+          logDetailed(
+              "Formula '"
+                  + fn.getFormula()
+                  + "' is "
+                  + (data.formulaParsers[j].isCompiled()
+                      ? "compiled"
+                      : "evaluated in a spreadsheet row"));
+        }
+      }
     }
 
     int tempIndex = getInputRowMeta().size();
@@ -120,22 +139,14 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
       logRowlevel("Read row #" + getLinesRead() + " : " + Arrays.toString(r));
     }
 
-    if (sheetRow != null) {
-      workSheet.removeRow(sheetRow);
-    }
-    sheetRow = workSheet.createRow(0);
-
     Object[] outputRowData = RowDataUtil.resizeArray(r, data.outputRowMeta.size());
     Object outputValue = null;
 
     for (int i = 0; i < meta.getFormulas().size(); i++) {
 
       FormulaMetaFunction formula = meta.getFormulas().get(i);
-      FormulaParser parser =
-          new FormulaParser(
-              formula, data.outputRowMeta, outputRowData, sheetRow, variables, replaceMap);
       try {
-        CellValue cellValue = parser.getFormulaValue();
+        CellValue cellValue = data.formulaParsers[i].getFormulaValue(outputRowData);
         CellType cellType = cellValue.getCellType();
 
         int outputValueType = formula.getValueType();
@@ -193,8 +204,7 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
         outputRowData[realIndex] =
             getReturnValue(outputValue, data.returnType[i], realIndex, formula);
       } catch (Exception e) {
-        throw new HopException(
-            "Formula '" + formula.getFormula() + "' could not not be parsed ", e);
+        throw new HopException("Formula '" + formula.getFormula() + "' could not be parsed ", e);
       }
     }
 
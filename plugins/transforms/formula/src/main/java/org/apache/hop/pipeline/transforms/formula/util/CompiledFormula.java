@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ConcatEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.FunctionEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.PercentEval;
+import org.apache.poi.ss.formula.eval.RefEvalBase;
+import org.apache.poi.ss.formula.eval.RelationalOperationEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.TwoOperandNumericOperation;
+import org.apache.poi.ss.formula.eval.UnaryMinusEval;
+import org.apache.poi.ss.formula.eval.UnaryPlusEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.functions.Function;
+import org.apache.poi.ss.formula.functions.NotImplementedFunction;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.AddPtg;
+import org.apache.poi.ss.formula.ptg.AttrPtg;
+import org.apache.poi.ss.formula.ptg.BoolPtg;
+import org.apache.poi.ss.formula.ptg.ConcatPtg;
+import org.apache.poi.ss.formula.ptg.DividePtg;
+import org.apache.poi.ss.formula.ptg.EqualPtg;
+import org.apache.poi.ss.formula.ptg.ErrPtg;
+import org.apache.poi.ss.formula.ptg.GreaterEqualPtg;
+import org.apache.poi.ss.formula.ptg.GreaterThanPtg;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.LessEqualPtg;
+import org.apache.poi.ss.formula.ptg.LessThanPtg;
+import org.apache.poi.ss.formula.ptg.MissingArgPtg;
+import org.apache.poi.ss.formula.ptg.MultiplyPtg;
+import org.apache.poi.ss.formula.ptg.NotEqualPtg;
+import org.apache.poi.ss.formula.ptg.NumberPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.ParenthesisPtg;
+import org.apache.poi.ss.formula.ptg.PercentPtg;
+import org.apache.poi.ss.formula.ptg.PowerPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.StringPtg;
+import org.apache.poi.ss.formula.ptg.SubtractPtg;
+import org.apache.poi.ss.formula.ptg.UnaryMinusPtg;
+import org.apache.poi.ss.formula.ptg.UnaryPlusPtg;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * A formula which is parsed once into a tree of POI operators and functions. The cell references in
+ * the formula are bound to the indexes of the fields in the row. Evaluating the formula for a row
+ * passes the field values straight to the POI function implementations: no spreadsheet cells are
+ * created and the formula text isn't parsed again.
+ *
+ * <p>Formulas with references to other cells, external or add-in functions and functions which look
+ * at the cells around a reference can't be compiled: see {@link #compile(Ptg[], IRowMeta, int[],
+ * boolean)}.
+ */
+public class CompiledFormula {
+
+  /** Functions which need the cells around a reference, these are only evaluated in a sheet */
+  private static final Set<String> SHEET_FUNCTIONS =
+      Set.of(
+          "OFFSET",
+          "INDEX",
+          "INDIRECT",
+          "CELL",
+          "SUMIF",
+          "COUNTIF",
+          "RANK",
+          "LOOKUP",
+          "VLOOKUP",
+          "HLOOKUP",
+          "MATCH");
+
+  private static final Map<Class<? extends Ptg>, Function> OPERATORS = new HashMap<>();
+
+  static {
+    OPERATORS.put(AddPtg.class, TwoOperandNumericOperation.AddEval);
+    OPERATORS.put(SubtractPtg.class, TwoOperandNumericOperation.SubtractEval);
+    OPERATORS.put(MultiplyPtg.class, TwoOperandNumericOperation.MultiplyEval);
+    OPERATORS.put(DividePtg.class, TwoOperandNumericOperation.DivideEval);
+    OPERATORS.put(PowerPtg.class, TwoOperandNumericOperation.PowerEval);
+    OPERATORS.put(ConcatPtg.class, ConcatEval.instance);
+    OPERATORS.put(EqualPtg.class, RelationalOperationEval.EqualEval);
+    OPERATORS.put(NotEqualPtg.class, RelationalOperationEval.NotEqualEval);
+    OPERATORS.put(GreaterEqualPtg.class, RelationalOperationEval.GreaterEqualEval);
+    OPERATORS.put(GreaterThanPtg.class, RelationalOperationEval.GreaterThanEval);
+    OPERATORS.put(LessEqualPtg.class, RelationalOperationEval.LessEqualEval);
+    OPERATORS.put(LessThanPtg.class, RelationalOperationEval.LessThanEval);
+    OPERATORS.put(UnaryMinusPtg.class, UnaryMinusEval.instance);
+    OPERATORS.put(UnaryPlusPtg.class, UnaryPlusEval.instance);
+    OPERATORS.put(PercentPtg.class, PercentEval.instance);
+  }
+
+  private final Node root;
+  private final FieldRefEval[] fields;
+
+  /** The column of the formula cell, after the columns of the fields */
+  private final int formulaColumn;
+
+  private CompiledFormula(Node root, FieldRefEval[] fields) {
+    this.root = root;
+    this.fields = fields;
+    this.formulaColumn = fields.length;
+  }
+
+  /**
+   * Compile the parsed tokens of a formula. The fields are referenced as the cells A1, B1, C1, ...
+   * in the order of the field indexes.
+   *
+   * @param ptgs The tokens of the formula in reverse polish notation
+   * @param rowMeta The layout of the rows the formula is evaluated on
+   * @param fieldIndexes The index of the field of every referenced column
+   * @param setNa True if null values are passed as #N/A instead of as empty cells
+   * @return The compiled formula or null if the formula can only be evaluated in a sheet
+   */
+  public static CompiledFormula compile(
+      Ptg[] ptgs, IRowMeta rowMeta, int[] fieldIndexes, boolean setNa) {
+    FieldRefEval[] fields = new FieldRefEval[fieldIndexes.length];
+    for (int i = 0; i < fieldIndexes.length; i++) {
+      fields[i] = new FieldRefEval(i, rowMeta, fieldIndexes[i], setNa);
+    }
+
+    Deque<Node> stack = new ArrayDeque<>();
+    for (Ptg ptg : ptgs) {
+      if (ptg instanceof AttrPtg attrPtg) {
+        // The jumps of IF and CHOOSE only skip evaluations, the functions get all arguments
+        //
+        if (attrPtg.isSum()) {
+          Node[] arguments = {stack.pop()};
+          stack.push(
+              new FunctionNode(
+                  FunctionEval.getBasicFunction(FunctionMetadataRegistry.FUNCTION_INDEX_SUM),
+                  arguments,
+                  fields.length));
+        } else if (!attrPtg.isSpace()
+            && !attrPtg.isSkip()
+            && !attrPtg.isOptimizedIf()
+            && !attrPtg.isOptimizedChoose()
+            && !attrPtg.isSemiVolatile()) {
+          return null;
+        }
+      } else if (ptg instanceof ParenthesisPtg) {
+        continue;
+      } else if (ptg.getClass() == RefPtg.class) {
+        RefPtg refPtg = (RefPtg) ptg;
+        if (refPtg.getRow() != 0 || refPtg.getColumn() >= fields.length) {
+          return null;
+        }
+        FieldRefEval field = fields[refPtg.getColumn()];
+        stack.push(() -> field);
+      } else if (ptg instanceof AbstractFunctionPtg functionPtg) {
+        Function function = getFunction(functionPtg);
+        if (function == null) {
+          return null;
+        }
+        stack.push(
+            new FunctionNode(
+                function, pop(stack, functionPtg.getNumberOfOperands()), fields.length));
+      } else if (ptg instanceof OperationPtg operationPtg) {
+        Function function = OPERATORS.get(ptg.getClass());
+        if (function == null) {
+          return null;
+        }
+        stack.push(
+            new FunctionNode(
+                function, pop(stack, operationPtg.getNumberOfOperands()), fields.length));
+      } else {
+        ValueEval constant = getConstant(ptg);
+        if (constant == null) {
+          return null;
+        }
+        stack.push(() -> constant);
+      }
+    }
+    if (stack.size() != 1) {
+      return null;
+    }
+    return new CompiledFormula(stack.pop(), fields);
+  }
+
+  private static Function getFunction(AbstractFunctionPtg functionPtg) {
+    int index = functionPtg.getFunctionIndex();
+    if (functionPtg.isExternalFunction()
+        || index == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT
+        || index == FunctionMetadataRegistry.FUNCTION_INDEX_EXTERNAL
+        || SHEET_FUNCTIONS.contains(functionPtg.getName())) {
+      return null;
+    }
+    try {
+      Function function = FunctionEval.getBasicFunction(index);
+      return function instanceof NotImplementedFunction ? null : function;
+    } catch (NotImplementedException e) {
+      // The evaluation in a sheet gives the error
+      return null;
+    }
+  }
+
+  private static ValueEval getConstant(Ptg ptg) {
+    if (ptg instanceof IntPtg intPtg) {
+      return new NumberEval(intPtg.getValue());
+    } else if (ptg instanceof NumberPtg numberPtg) {
+      return new NumberEval(numberPtg.getValue());
+    } else if (ptg instanceof StringPtg stringPtg) {
+      return new StringEval(stringPtg.getValue());
+    } else if (ptg instanceof BoolPtg boolPtg) {
+      return BoolEval.valueOf(boolPtg.getValue());
+    } else if (ptg instanceof ErrPtg errPtg) {
+      return ErrorEval.valueOf(errPtg.getErrorCode());
+    } else if (ptg instanceof MissingArgPtg) {
+      return MissingArgEval.instance;
+    }
+    return null;
+  }
+
+  private static Node[] pop(Deque<Node> stack, int count) {
+    Node[] nodes = new Node[count];
+    for (int i = count - 1; i >= 0; i--) {
+      nodes[i] = stack.pop();
+    }
+    return nodes;
+  }
+
+  /**
+   * Evaluate the formula for a row.
+   *
+   * @param row The row with the field values
+   * @return The result, just like a formula cell would give it
+   * @throws HopValueException in case a field value can't be converted
+   */
+  public CellValue evaluate(Object[] row) throws HopValueException {
+    for (FieldRefEval field : fields) {
+      field.setRow(row);
+    }
+    ValueEval result = WorkbookEvaluator.dereferenceResult(root.evaluate(), 0, formulaColumn);
+    if (result instanceof NumberEval numberEval) {
+      return new CellValue(numberEval.getNumberValue());
+    } else if (result instanceof BoolEval boolEval) {
+      return CellValue.valueOf(boolEval.getBooleanValue());
+    } else if (result instanceof StringEval stringEval) {
+      return new CellValue(stringEval.getStringValue());
+    } else if (result instanceof ErrorEval errorEval) {
+      return CellValue.getError(errorEval.getErrorCode());
+    }
+    throw new IllegalStateException("Unexpected formula result: " + result);
+  }
+
+  /** A node in the expression tree */
+  private interface Node {
+    ValueEval evaluate();
+  }
+
+  /** An operator or function with its arguments */
+  private static final class FunctionNode implements Node {
+    private final Function function;
+    private final Node[] arguments;
+    private final int column;
+
+    FunctionNode(Function function, Node[] arguments, int column) {
+      this.function = function;
+      this.arguments = arguments;
+      this.column = column;
+    }
+
+    @Override
+    public ValueEval evaluate() {
+      ValueEval[] values = new ValueEval[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        values[i] = arguments[i].evaluate();
+      }
+      return function.evaluate(values, 0, column);
+    }
+  }
+
+  /**
+   * The reference to a field: the value in the current row as a spreadsheet cell would hold it.
+   * Functions see a reference, not a value, just like in a sheet.
+   */
+  private static final class FieldRefEval extends RefEvalBase {
+    private final IRowMeta rowMeta;
+    private final int fieldIndex;
+    private final IValueMeta valueMeta;
+    private final boolean setNa;
+    private ValueEval value;
+
+    FieldRefEval(int column, IRowMeta rowMeta, int fieldIndex, boolean setNa) {
+      super(0, 0, 0, column);
+      this.rowMeta = rowMeta;
+      this.fieldIndex = fieldIndex;
+      this.valueMeta = rowMeta.getValueMeta(fieldIndex);
+      this.setNa = setNa;
+    }
+
+    void setRow(Object[] row) throws HopValueException {
+      if (row[fieldIndex] == null) {
+        value = setNa ? ErrorEval.NA : BlankEval.instance;
+      } else if (valueMeta.isBoolean()) {
+        value = BoolEval.valueOf(rowMeta.getBoolean(row, fieldIndex));
+      } else if (valueMeta.isDate()) {
+        value = toNumberEval(DateUtil.getExcelDate(rowMeta.getDate(row, fieldIndex)));
+      } else if (valueMeta.isInteger()) {
+        value = toNumberEval(rowMeta.getInteger(row, fieldIndex));
+      } else if (valueMeta.isNumber()) {
+        value = toNumberEval(rowMeta.getNumber(row, fieldIndex));
+      } else {
+        value = new StringEval(rowMeta.getString(row, fieldIndex));
+      }
+    }
+
+    /** A cell can't hold infinite or NaN numbers */
+    private static ValueEval toNumberEval(double number) {
+      if (Double.isInfinite(number)) {
+        return ErrorEval.DIV_ZERO;
+      } else if (Double.isNaN(number)) {
+        return ErrorEval.NUM_ERROR;
+      }
+      return new NumberEval(number);
+    }
+
+    @Override
+    public ValueEval getInnerValueEval(int sheetIndex) {
+      return value;
+    }
+
+    @Override
+    public AreaEval offset(
+        int relFirstRowIx, int relLastRowIx, int relFirstColIx, int relLastColIx) {
+      throw new IllegalStateException("Offsets from a field reference aren't supported");
+    }
+  }
+}
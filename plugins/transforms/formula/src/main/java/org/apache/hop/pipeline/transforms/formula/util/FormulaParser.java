@@ -18,72 +18,167 @@
 package org.apache.hop.pipeline.transforms.formula.util;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
 import org.apache.poi.hssf.usermodel.HSSFRichTextString;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
-
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+
+/**
+ * Parses a formula once and evaluates it for every row. The fields in the formula are replaced by
+ * the cell references A1, B1, C1, ... Most formulas are compiled into a {@link CompiledFormula}
+ * which works on the field values directly. The others are evaluated in a spreadsheet row with the
+ * field values in its cells. That row and its formula cell are created once, only the cell values
+ * change from one row to the next.
+ */
 public class FormulaParser {
+  private static final Pattern FIELD_PATTERN = Pattern.compile("\\[(.*?)\\]");
+
+  private final FormulaMetaFunction formulaMetaFunction;
+  private final IRowMeta rowMeta;
+
+  /** The formula with the fields replaced by cell references */
+  private final String formula;
+
+  /** The index of the field in every column of the sheet row */
+  private final int[] fieldIndexes;
+
+  private final CompiledFormula compiledFormula;
 
-  private FormulaMetaFunction formulaMetaFunction;
-  private IRowMeta rowMeta;
-  private String[] fieldNames;
-  private String formula;
-  private List<String> formulaFieldList;
-  private Object[] dataRow;
-  private Row sheetRow;
-  private FormulaEvaluator evaluator;
-  private HashMap<String, String> replaceMap;
+  /** The cells holding the field values, only used if the formula isn't compiled */
+  private final Cell[] valueCells;
 
+  private final Cell formulaCell;
+  private final FormulaEvaluator evaluator;
+
+  /**
+   * Parse a formula.
+   *
+   * @param formulaMetaFunction The formula to parse
+   * @param rowMeta The layout of the rows the formula is evaluated on
+   * @param sheet The sheet to evaluate the formula in if it can't be compiled
+   * @param variables The variables to resolve in the formula
+   * @param replaceMap The names of formula fields which replace other fields, with the replaced
+   *     field names
+   * @throws HopException in case a field doesn't exist or the formula can't be parsed
+   */
   public FormulaParser(
       FormulaMetaFunction formulaMetaFunction,
       IRowMeta rowMeta,
-      Object[] dataRow,
-      Row sheetRow,
+      XSSFSheet sheet,
+      IVariables variables,
+      Map<String, String> replaceMap)
+      throws HopException {
+    this(formulaMetaFunction, rowMeta, sheet, variables, replaceMap, true);
+  }
+
+  /**
+   * Parse a formula.
+   *
+   * @param formulaMetaFunction The formula to parse
+   * @param rowMeta The layout of the rows the formula is evaluated on
+   * @param sheet The sheet to evaluate the formula in if it can't be compiled
+   * @param variables The variables to resolve in the formula
+   * @param replaceMap The names of formula fields which replace other fields, with the replaced
+   *     field names
+   * @param compile false to always evaluate the formula in a spreadsheet
+   * @throws HopException in case a field doesn't exist or the formula can't be parsed
+   */
+  FormulaParser(
+      FormulaMetaFunction formulaMetaFunction,
+      IRowMeta rowMeta,
+      XSSFSheet sheet,
       IVariables variables,
-      HashMap<String, String> replaceMap) {
+      Map<String, String> replaceMap,
+      boolean compile)
+      throws HopException {
     this.formulaMetaFunction = formulaMetaFunction;
     this.rowMeta = rowMeta;
-    this.dataRow = dataRow;
-    this.sheetRow = sheetRow;
-    fieldNames = rowMeta.getFieldNames();
-    this.replaceMap = replaceMap;
-    formula = variables.resolve(formulaMetaFunction.getFormula());
-    evaluator = sheetRow.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-
-    formulaFieldList = getFormulaFieldList(formula);
-
-    boolean getNewList = false;
-    for (String formulaField : formulaFieldList) {
-      // check if we are working with a field that was replaced earlier.
-      Set<String> replaceKeys = replaceMap.keySet();
-      if (replaceKeys.contains(formulaField)) {
-        String realFieldName = replaceMap.get(formulaField);
-        formula = formula.replaceAll("\\[" + formulaField + "\\]", "\\[" + realFieldName + "\\]");
-        getNewList = true;
+
+    // Fields replaced by an earlier formula have the name of the replaced field
+    //
+    List<String> fieldNames = new ArrayList<>();
+    for (String formulaField :
+        getFormulaFieldList(variables.resolve(formulaMetaFunction.getFormula()))) {
+      String fieldName = replaceMap.getOrDefault(formulaField, formulaField);
+      if (!fieldNames.contains(fieldName)) {
+        fieldNames.add(fieldName);
       }
     }
 
-    if (getNewList) {
-      formulaFieldList = getFormulaFieldList(formula);
+    String parsedFormula = variables.resolve(formulaMetaFunction.getFormula());
+    for (Map.Entry<String, String> entry : replaceMap.entrySet()) {
+      parsedFormula =
+          parsedFormula.replace("[" + entry.getKey() + "]", "[" + entry.getValue() + "]");
+    }
+    fieldIndexes = new int[fieldNames.size()];
+    for (int i = 0; i < fieldNames.size(); i++) {
+      String fieldName = fieldNames.get(i);
+      fieldIndexes[i] = rowMeta.indexOfValue(fieldName);
+      if (fieldIndexes[i] < 0) {
+        throw new HopException(
+            "Unknown field ["
+                + fieldName
+                + "] in formula '"
+                + formulaMetaFunction.getFormula()
+                + "'");
+      }
+      parsedFormula =
+          parsedFormula.replace(
+              "[" + fieldName + "]", CellReference.convertNumToColString(i) + "1");
+    }
+    formula = parsedFormula;
+
+    Ptg[] ptgs =
+        org.apache.poi.ss.formula.FormulaParser.parse(
+            formula,
+            XSSFEvaluationWorkbook.create(sheet.getWorkbook()),
+            FormulaType.CELL,
+            sheet.getWorkbook().getSheetIndex(sheet));
+    compiledFormula =
+        compile
+            ? CompiledFormula.compile(ptgs, rowMeta, fieldIndexes, formulaMetaFunction.isSetNa())
+            : null;
+
+    if (compiledFormula != null) {
+      valueCells = null;
+      formulaCell = null;
+      evaluator = null;
+    } else {
+      // A sheet of its own so that the formulas evaluated in a spreadsheet don't share row 1.
+      // The formula is parsed into its cell only once.
+      //
+      XSSFSheet formulaSheet = sheet.getWorkbook().createSheet();
+      Row sheetRow = formulaSheet.createRow(0);
+      valueCells = new Cell[fieldIndexes.length];
+      for (int colIndex = 0; colIndex < fieldIndexes.length; colIndex++) {
+        valueCells[colIndex] = sheetRow.createCell(colIndex);
+      }
+      formulaCell = sheetRow.createCell(fieldIndexes.length);
+      formulaCell.setCellFormula(formula);
+      evaluator = sheet.getWorkbook().getCreationHelper().createFormulaEvaluator();
     }
   }
 
   private List<String> getFormulaFieldList(String formula) {
     List<String> theFields = new ArrayList<>();
-    Pattern regex = Pattern.compile("\\[(.*?)\\]");
-    Matcher regexMatcher = regex.matcher(formula);
+    Matcher regexMatcher = FIELD_PATTERN.matcher(formula);
 
     while (regexMatcher.find()) {
       theFields.add(regexMatcher.group(1));
@@ -91,17 +186,31 @@ public class FormulaParser {
     return theFields;
   }
 
-  public CellValue getFormulaValue() throws HopValueException {
-    String parsedFormula = formula;
-    int fieldIndex = 65;
-    int colIndex = 0;
-    for (String formulaField : formulaFieldList) {
-      char s = (char) fieldIndex;
-      Cell cell = sheetRow.createCell(colIndex);
+  /**
+   * @return true if the formula is evaluated without a spreadsheet
+   */
+  public boolean isCompiled() {
+    return compiledFormula != null;
+  }
 
-      int fieldPosition = rowMeta.indexOfValue(formulaField);
+  /**
+   * Evaluate the formula for a row.
+   *
+   * @param dataRow The row with the field values
+   * @return The result of the formula
+   * @throws HopValueException in case a field value can't be converted
+   */
+  public CellValue getFormulaValue(Object[] dataRow) throws HopValueException {
+    if (compiledFormula != null) {
+      return compiledFormula.evaluate(dataRow);
+    }
+    return evaluateInSheet(dataRow);
+  }
 
-      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
+  private CellValue evaluateInSheet(Object[] dataRow) throws HopValueException {
+    for (int colIndex = 0; colIndex < fieldIndexes.length; colIndex++) {
+      Cell cell = valueCells[colIndex];
+      int fieldPosition = fieldIndexes[colIndex];
 
       IValueMeta fieldMeta = rowMeta.getValueMeta(fieldPosition);
       if (dataRow[fieldPosition] != null) {
@@ -115,26 +224,21 @@ public class FormulaParser {
           cell.setCellValue(rowMeta.getInteger(dataRow, fieldPosition));
         } else if (fieldMeta.isNumber()) {
           cell.setCellValue(rowMeta.getNumber(dataRow, fieldPosition));
-        } else if (fieldMeta.isString()) {
-          cell.setCellValue(rowMeta.getString(dataRow, fieldPosition));
         } else {
           cell.setCellValue(rowMeta.getString(dataRow, fieldPosition));
         }
       } else {
         if (formulaMetaFunction.isSetNa()) {
-          cell.setCellFormula("NA()");
+          cell.setCellErrorValue(FormulaError.NA);
         } else {
           cell.setBlank();
         }
       }
-
-      fieldIndex++;
-      colIndex++;
     }
 
-    Cell formulaCell = sheetRow.createCell(colIndex);
-    formulaCell.setCellFormula(parsedFormula);
-
+    // The evaluator caches the results of the cells it evaluated
+    //
+    evaluator.clearAllCachedResultValues();
     return evaluator.evaluate(formulaCell);
   }
 }
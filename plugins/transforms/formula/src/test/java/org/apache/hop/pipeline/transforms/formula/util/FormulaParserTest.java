@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Compiled formulas have to give the same results as formulas evaluated in a spreadsheet. */
+public class FormulaParserTest {
+
+  private static final String[] FORMULAS = {
+    "[a]+[b]",
+    "[a]*2-[b]/4",
+    "ROUND([b],1)",
+    "ABS(-[a])",
+    "[s]&\"-\"&[a]",
+    "CONCATENATE([s],\"x\")",
+    "UPPER([s])",
+    "LEN([s])",
+    "IF([a]>1,\"big\",\"small\")",
+    "AND([flag],[a]>0)",
+    "[d]+1",
+    "YEAR([d])",
+    "ISBLANK([a])",
+    "ISNA([a])",
+    "ISERROR([a]/0)",
+    "1/0",
+    "[a]/0",
+    "[s]+1",
+    "SQRT(-[b])",
+  };
+
+  private XSSFWorkbook workbook;
+  private XSSFSheet sheet;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() {
+    workbook = new XSSFWorkbook();
+    sheet = workbook.createSheet();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("a"));
+    rowMeta.addValueMeta(new ValueMetaNumber("b"));
+    rowMeta.addValueMeta(new ValueMetaString("s"));
+    rowMeta.addValueMeta(new ValueMetaDate("d"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    workbook.close();
+  }
+
+  @Test
+  public void testValues() throws Exception {
+    Calendar calendar = new GregorianCalendar(2024, Calendar.FEBRUARY, 29, 13, 30, 0);
+    compare(false, new Object[] {3L, 10.25, "text", calendar.getTime(), true});
+    compare(false, new Object[] {-1L, 0.0, "", calendar.getTime(), false});
+  }
+
+  @Test
+  public void testNullValues() throws Exception {
+    compare(false, new Object[] {null, null, null, null, null});
+    compare(true, new Object[] {null, null, null, null, null});
+    compare(true, new Object[] {2L, null, "text", null, true});
+  }
+
+  @Test
+  public void testErrorResult() throws Exception {
+    FormulaParser parser = createParser("[a]/0", false, true);
+    assertTrue(parser.isCompiled());
+
+    CellValue value = parser.getFormulaValue(new Object[] {1L, 1.0, "x", null, true});
+    assertEquals(CellType.ERROR, value.getCellType());
+    assertEquals(FormulaError.DIV0.getCode(), value.getErrorValue());
+  }
+
+  @Test
+  public void testSheetEvaluationOnEveryRow() throws Exception {
+    // The formula cell is created only once, the result has to follow the values of every row
+    //
+    FormulaParser parser = createParser("[a]*2", true, false);
+    assertFalse(parser.isCompiled());
+
+    CellValue value = parser.getFormulaValue(new Object[] {1L, null, null, null, null});
+    assertEquals(2.0, value.getNumberValue(), 0.0);
+    value = parser.getFormulaValue(new Object[] {null, null, null, null, null});
+    assertEquals(CellType.ERROR, value.getCellType());
+    assertEquals(FormulaError.NA.getCode(), value.getErrorValue());
+    value = parser.getFormulaValue(new Object[] {4L, null, null, null, null});
+    assertEquals(8.0, value.getNumberValue(), 0.0);
+  }
+
+  private void compare(boolean setNa, Object[] row) throws Exception {
+    for (String formula : FORMULAS) {
+      FormulaParser compiled = createParser(formula, setNa, true);
+      FormulaParser inSheet = createParser(formula, setNa, false);
+
+      // Evaluate twice to make sure nothing is left behind from the previous row
+      //
+      for (int i = 0; i < 2; i++) {
+        CellValue expected = inSheet.getFormulaValue(row);
+        CellValue actual = compiled.getFormulaValue(row);
+        String message = "Formula " + formula + " on " + rowMeta.getString(row);
+        assertEquals(message, expected.getCellType(), actual.getCellType());
+        assertEquals(message, expected.formatAsString(), actual.formatAsString());
+      }
+    }
+  }
+
+  private FormulaParser createParser(String formula, boolean setNa, boolean compile)
+      throws Exception {
+    FormulaMetaFunction function =
+        new FormulaMetaFunction("result", formula, IValueMeta.TYPE_STRING, -1, -1, null, setNa);
+    return new FormulaParser(
+        function, rowMeta, sheet, new Variables(), Collections.emptyMap(), compile);
+  }
+}
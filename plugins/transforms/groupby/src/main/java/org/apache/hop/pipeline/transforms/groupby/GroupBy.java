@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -40,6 +41,7 @@ import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
@@ -181,6 +183,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       // Initialize the group metadata
       //
       initGroupMeta(data.inputRowMeta);
+      initAccumulators();
     }
 
     if (first || data.newBatch) {
@@ -412,11 +415,16 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
    * @throws HopValueException
    */
   void calcAggregate(Object[] row) throws HopValueException {
+    int[] accumulators = data.accumulators;
     for (int i = 0; i < data.subjectnrs.length; i++) {
       Aggregation aggregation = meta.getAggregations().get(i);
 
       Object subj = row[data.subjectnrs[i]];
       IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      if (accumulators != null && accumulators[i] != GroupByData.ACCUMULATOR_OBJECT) {
+        accumulate(i, accumulators[i], subjMeta, subj);
+        continue;
+      }
       Object value = data.agg[i];
       IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
 
@@ -578,6 +586,128 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     }
   }
 
+  /**
+   * Add a value to the primitive accumulator of an aggregate. Nulls are ignored: the count of the
+   * aggregate is the number of values we accumulated.
+   */
+  private void accumulate(int i, int accumulator, IValueMeta subjMeta, Object subj)
+      throws HopValueException {
+    if (subj == null) {
+      return;
+    }
+    boolean isFirst = data.counts[i] == 0;
+    switch (accumulator) {
+      case GroupByData.ACCUMULATOR_LONG_SUM:
+        data.longs[i] += subjMeta.getInteger(subj);
+        break;
+      case GroupByData.ACCUMULATOR_DOUBLE_SUM:
+        // Kahan summation to avoid losing precision over large groups
+        //
+        double sum = data.doubles[i];
+        double y = subjMeta.getNumber(subj) - data.compensations[i];
+        double t = sum + y;
+        data.compensations[i] = Double.isFinite(t) ? (t - sum) - y : 0.0;
+        data.doubles[i] = t;
+        break;
+      case GroupByData.ACCUMULATOR_LONG_MIN:
+        long minLong = subjMeta.getInteger(subj);
+        if (isFirst || minLong < data.longs[i]) {
+          data.longs[i] = minLong;
+        }
+        break;
+      case GroupByData.ACCUMULATOR_LONG_MAX:
+        long maxLong = subjMeta.getInteger(subj);
+        if (isFirst || maxLong > data.longs[i]) {
+          data.longs[i] = maxLong;
+        }
+        break;
+      case GroupByData.ACCUMULATOR_DOUBLE_MIN:
+        double minDouble = subjMeta.getNumber(subj);
+        if (isFirst || Double.compare(minDouble, data.doubles[i]) < 0) {
+          data.doubles[i] = minDouble;
+        }
+        break;
+      case GroupByData.ACCUMULATOR_DOUBLE_MAX:
+        double maxDouble = subjMeta.getNumber(subj);
+        if (isFirst || Double.compare(maxDouble, data.doubles[i]) > 0) {
+          data.doubles[i] = maxDouble;
+        }
+        break;
+      default:
+        break;
+    }
+    data.counts[i]++;
+  }
+
+  /**
+   * Sums, minimums and maximums of Integer and Number fields in normal storage are kept in
+   * primitive arrays instead of as objects. Minimums are only kept this way if nulls are ignored.
+   */
+  private void initAccumulators() {
+    int nrAggregates = data.subjectnrs.length;
+    data.accumulators = new int[nrAggregates];
+    data.longs = new long[nrAggregates];
+    data.doubles = new double[nrAggregates];
+    data.compensations = new double[nrAggregates];
+
+    for (int i = 0; i < nrAggregates; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      int accumulator = GroupByData.ACCUMULATOR_OBJECT;
+      if (subjMeta != null
+          && subjMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL
+          && !subjMeta.isSortedDescending()) {
+        boolean isInteger = subjMeta.getType() == IValueMeta.TYPE_INTEGER;
+        boolean isNumber = subjMeta.getType() == IValueMeta.TYPE_NUMBER;
+        switch (meta.getAggregations().get(i).getType()) {
+          case Aggregation.TYPE_GROUP_SUM, Aggregation.TYPE_GROUP_AVERAGE:
+            if (isInteger) {
+              accumulator = GroupByData.ACCUMULATOR_LONG_SUM;
+            } else if (isNumber) {
+              accumulator = GroupByData.ACCUMULATOR_DOUBLE_SUM;
+            }
+            break;
+          case Aggregation.TYPE_GROUP_MIN:
+            if (isInteger && !minNullIsValued) {
+              accumulator = GroupByData.ACCUMULATOR_LONG_MIN;
+            } else if (isNumber && !minNullIsValued) {
+              accumulator = GroupByData.ACCUMULATOR_DOUBLE_MIN;
+            }
+            break;
+          case Aggregation.TYPE_GROUP_MAX:
+            if (isInteger) {
+              accumulator = GroupByData.ACCUMULATOR_LONG_MAX;
+            } else if (isNumber) {
+              accumulator = GroupByData.ACCUMULATOR_DOUBLE_MAX;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+      data.accumulators[i] = accumulator;
+    }
+  }
+
+  /**
+   * @return The value of an aggregate before its final calculation, null if we have no values
+   */
+  private Object getAccumulatedValue(int i) {
+    int accumulator =
+        data.accumulators == null ? GroupByData.ACCUMULATOR_OBJECT : data.accumulators[i];
+    switch (accumulator) {
+      case GroupByData.ACCUMULATOR_OBJECT:
+        return data.agg[i];
+      case GroupByData.ACCUMULATOR_LONG_SUM,
+          GroupByData.ACCUMULATOR_LONG_MIN,
+          GroupByData.ACCUMULATOR_LONG_MAX:
+        return data.counts[i] == 0 ? null : Long.valueOf(data.longs[i]);
+      case GroupByData.ACCUMULATOR_DOUBLE_SUM:
+        return data.counts[i] == 0 ? null : Double.valueOf(data.doubles[i] - data.compensations[i]);
+      default:
+        return data.counts[i] == 0 ? null : Double.valueOf(data.doubles[i]);
+    }
+  }
+
   /**
    * used for junits in GroupByAggregationNullsTest
    *
@@ -588,6 +718,11 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     for (int i = 0; i < data.counts.length; i++) {
       data.counts[i] = 0;
     }
+    if (data.accumulators != null) {
+      Arrays.fill(data.longs, 0L);
+      Arrays.fill(data.doubles, 0.0);
+      Arrays.fill(data.compensations, 0.0);
+    }
     data.distinctObjs = null;
     data.agg = new Object[data.subjectnrs.length];
     data.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
@@ -720,7 +855,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
       Aggregation aggregation = meta.getAggregations().get(i);
-      Object ag = data.agg[i];
+      Object ag = getAccumulatedValue(i);
       int aggType = aggregation.getType();
       String fieldName = aggregation.getField();
       switch (aggType) {
@@ -832,6 +967,8 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
         data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
         data.fosToTempFile = new FileOutputStream(data.tempFile);
         data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
+        data.rowCodec = new RowCodec(data.inputRowMeta);
+        data.rowCodec.writeHeader(data.dosToTempFile);
         data.firstRead = true;
       } catch (IOException e) {
         throw new HopFileException(
@@ -839,7 +976,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       }
       // OK, save the oldest rows to disk!
       Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+      data.rowCodec.writeRow(data.dosToTempFile, oldest);
       data.bufferList.remove(0);
       data.rowsOnFile++;
     }
@@ -858,6 +995,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
         try {
           data.fisToTmpFile = new FileInputStream(data.tempFile);
           data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          data.rowCodec.readHeader(data.disToTmpFile);
           data.firstRead = false;
         } catch (IOException e) {
           throw new HopFileException(
@@ -869,7 +1007,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       // Read one row from the file!
       Object[] row;
       try {
-        row = data.inputRowMeta.readData(data.disToTmpFile);
+        row = data.rowCodec.readRow(data.disToTmpFile);
       } catch (SocketTimeoutException e) {
         throw new HopFileException(e); // Shouldn't happen on files
       }
@@ -27,11 +27,33 @@ import java.util.List;
 import java.util.Set;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class GroupByData extends BaseTransformData implements ITransformData {
+  /** The aggregate is kept as an object in agg */
+  public static final int ACCUMULATOR_OBJECT = 0;
+
+  /** The sum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_SUM = 1;
+
+  /** The sum of Number values is kept in doubles, with the Kahan compensation in compensations */
+  public static final int ACCUMULATOR_DOUBLE_SUM = 2;
+
+  /** The minimum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_MIN = 3;
+
+  /** The maximum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_MAX = 4;
+
+  /** The minimum of Number values is kept in doubles */
+  public static final int ACCUMULATOR_DOUBLE_MIN = 5;
+
+  /** The maximum of Number values is kept in doubles */
+  public static final int ACCUMULATOR_DOUBLE_MAX = 6;
+
   public Object[] previous;
 
   /** target value meta for aggregation fields */
@@ -60,6 +82,8 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public DataOutputStream dosToTempFile;
 
+  public RowCodec rowCodec;
+
   public int rowsOnFile;
 
   public boolean firstRead;
@@ -91,6 +115,21 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public double[] mean;
 
+  /**
+   * How every aggregate is accumulated, one of the ACCUMULATOR_ constants. Determined from the
+   * input metadata on the first row.
+   */
+  public int[] accumulators;
+
+  /** The primitive Integer accumulators of the current group */
+  public long[] longs;
+
+  /** The primitive Number accumulators of the current group */
+  public double[] doubles;
+
+  /** The low order bits lost while summing the Number values of the current group */
+  public double[] compensations;
+
   public boolean newBatch;
 
   public GroupByData() {
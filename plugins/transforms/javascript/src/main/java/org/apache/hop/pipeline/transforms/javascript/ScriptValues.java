@@ -17,6 +17,12 @@
 
 package org.apache.hop.pipeline.transforms.javascript;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
@@ -81,6 +87,25 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
 
   public Script script;
 
+  /** The optimization level of the scripts in high performance mode */
+  public static final int HIGH_PERFORMANCE_OPTIMIZATION_LEVEL = 9;
+
+  /** The maximum number of compiled scripts shared by all transforms in high performance mode */
+  private static final int MAX_COMPILED_SCRIPTS = 500;
+
+  /**
+   * The compiled scripts of the high performance mode, shared by all copies and executions. A
+   * compiled script doesn't keep any state of its own, it can be executed in any scope.
+   */
+  private static final Map<String, Script> compiledScripts =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Script> eldest) {
+              return size() > MAX_COMPILED_SCRIPTS;
+            }
+          });
+
   public ScriptValues(
       TransformMeta transformMeta,
       ScriptValuesMeta meta,
@@ -92,6 +117,10 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
   }
 
   private void determineUsedFields(IRowMeta row) {
+    if (meta.isHighPerformance()) {
+      determineReferencedFields(row);
+      return;
+    }
     int nr = 0;
     // Count the occurrences of the values.
     // Perhaps we find values in comments, but we take no risk!
@@ -134,6 +163,128 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
     }
   }
 
+  /**
+   * Only pass the fields which the transform script references as a whole identifier, not the ones
+   * which name is merely part of a longer identifier or word.
+   */
+  private void determineReferencedFields(IRowMeta row) {
+    List<Integer> used = new ArrayList<>();
+    for (int i = 0; i < row.size(); i++) {
+      String valname = row.getValueMeta(i).getName();
+      if (isReferenced(valname, strTransformScript)) {
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "ScriptValuesMod.Log.UsedValueName", String.valueOf(i), valname));
+        }
+        used.add(i);
+      }
+    }
+    data.fieldsUsed = used.stream().mapToInt(Integer::intValue).toArray();
+
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "ScriptValuesMod.Log.UsingValuesFromInputStream",
+              String.valueOf(data.fieldsUsed.length)));
+    }
+  }
+
+  /**
+   * Only export the fields which one of the scripts references as a whole identifier. The others
+   * can't have been given a value: new fields stay null and replaced fields keep their value.
+   */
+  private void determineExportedFields() {
+    StringBuilder scripts = new StringBuilder();
+    for (ScriptValuesScript jsScript : meta.getJSScripts()) {
+      scripts.append(jsScript.getScript()).append('\n');
+    }
+    data.fieldsExported = new boolean[meta.getFieldname().length];
+    for (int i = 0; i < data.fieldsExported.length; i++) {
+      data.fieldsExported[i] =
+          Utils.isEmpty(meta.getFieldname()[i])
+              || isReferenced(meta.getFieldname()[i], scripts.toString());
+    }
+  }
+
+  private static boolean isReferenced(String name, String script) {
+    return Pattern.compile("(?<![\\w$])" + Pattern.quote(name) + "(?![\\w$])")
+        .matcher(script)
+        .find();
+  }
+
+  /**
+   * Compile a script. In high performance mode the compiled script is shared with all other copies
+   * and executions which run the same script.
+   *
+   * @param source The source of the script
+   * @param sourceName The name of the script in error messages
+   * @return The compiled script
+   */
+  private Script compileScript(String source, String sourceName) {
+    if (!meta.isHighPerformance()) {
+      return data.cx.compileString(source, sourceName, 1, null);
+    }
+    String key = sourceName + "\n" + source;
+    Script compiled = compiledScripts.get(key);
+    if (compiled == null) {
+      compiled = data.cx.compileString(source, sourceName, 1, null);
+      compiledScripts.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  /** Clear the compiled scripts shared in high performance mode */
+  public static void clearCompiledScripts() {
+    compiledScripts.clear();
+  }
+
+  /**
+   * Expose the values of the current row to the script
+   *
+   * @param rowMeta The layout of the row
+   * @param row The row
+   */
+  private void putRowInScope(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    if (data.jsRow != null) {
+      // High performance mode: re-use the row accessor and pass native values
+      //
+      data.jsRow.setRow(row);
+      data.scope.put("row", data.scope, data.jsRow);
+      for (int i = 0; i < data.fieldsUsed.length; i++) {
+        IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
+        Object valueData = valueMeta.convertToNormalStorageType(row[data.fieldsUsed[i]]);
+        data.scope.put(
+            valueMeta.getName(),
+            data.scope,
+            valueData == null ? null : Context.javaToJS(valueData, data.scope));
+      }
+      return;
+    }
+
+    Scriptable jsrow = Context.toObject(row, data.scope);
+    data.scope.put("row", data.scope, jsrow);
+
+    for (int i = 0; i < data.fieldsUsed.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
+      Object valueData = row[data.fieldsUsed[i]];
+
+      Object normalStorageValueData = valueMeta.convertToNormalStorageType(valueData);
+      Scriptable jsarg;
+      if (normalStorageValueData != null) {
+        jsarg = Context.toObject(normalStorageValueData, data.scope);
+      } else {
+        jsarg = null;
+      }
+      data.scope.put(valueMeta.getName(), data.scope, jsarg);
+    }
+
+    // also add the meta information for the whole row
+    Scriptable jsrowMeta = Context.toObject(rowMeta, data.scope);
+    data.scope.put("rowMeta", data.scope, jsrowMeta);
+  }
+
   private boolean addValues(IRowMeta rowMeta, Object[] row) throws HopException {
     if (first) {
       first = false;
@@ -174,13 +325,23 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
           data.replaceIndex[i] = -1;
         }
       }
+      if (meta.isHighPerformance()) {
+        determineExportedFields();
+      }
 
       // set the optimization level
       data.cx = ContextFactory.getGlobal().enterContext();
 
       try {
         String optimizationLevelAsString = resolve(meta.getOptimizationLevel());
-        if (!Utils.isEmpty(Const.trim(optimizationLevelAsString))) {
+        if (meta.isHighPerformance()) {
+          data.cx.setOptimizationLevel(HIGH_PERFORMANCE_OPTIMIZATION_LEVEL);
+          logBasic(
+              BaseMessages.getString(
+                  PKG,
+                  "ScriptValuesMod.Log.UsingHighPerformanceMode",
+                  String.valueOf(HIGH_PERFORMANCE_OPTIMIZATION_LEVEL)));
+        } else if (!Utils.isEmpty(Const.trim(optimizationLevelAsString))) {
           data.cx.setOptimizationLevel(Integer.parseInt(optimizationLevelAsString.trim()));
           logBasic(
               BaseMessages.getString(
@@ -224,31 +385,16 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
         // add these now (they will be re-added later) to make compilation succeed
         //
 
-        // Add the old style row object for compatibility reasons...
+        // In high performance mode the row object and the row metadata are only created once
         //
-        Scriptable jsrow = Context.toObject(row, data.scope);
-        data.scope.put("row", data.scope, jsrow);
-
-        // Add the used fields...
-        //
-        for (int i = 0; i < data.fieldsUsed.length; i++) {
-          IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
-          Object valueData = row[data.fieldsUsed[i]];
-
-          Object normalStorageValueData = valueMeta.convertToNormalStorageType(valueData);
-          Scriptable jsarg;
-          if (normalStorageValueData != null) {
-            jsarg = Context.toObject(normalStorageValueData, data.scope);
-          } else {
-            jsarg = null;
-          }
-          data.scope.put(valueMeta.getName(), data.scope, jsarg);
+        if (meta.isHighPerformance()) {
+          data.jsRow = new ScriptValuesRow(data.scope);
+          data.scope.put("rowMeta", data.scope, Context.toObject(rowMeta, data.scope));
         }
 
-        // also add the meta information for the whole row
+        // Add the old style row object for compatibility reasons and the used fields...
         //
-        Scriptable jsrowMeta = Context.toObject(rowMeta, data.scope);
-        data.scope.put("rowMeta", data.scope, jsrowMeta);
+        putRowInScope(rowMeta, row);
 
         // Modification for Additional Script parsing
         //
@@ -294,7 +440,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
         try {
           // Checking for StartScript
           if (strStartScript != null && strStartScript.length() > 0) {
-            Script startScript = data.cx.compileString(strStartScript, "pipeline_Start", 1, null);
+            Script startScript = compileScript(strStartScript, "pipeline_Start");
             startScript.exec(data.cx, data.scope);
             if (isDetailed()) {
               logDetailed(("Start Script found!"));
@@ -309,7 +455,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
               BaseMessages.getString(PKG, "ScriptValuesMod.Log.ErrorProcessingStartScript"), es);
         }
         // Now Compile our Script
-        data.script = data.cx.compileString(strTransformScript, "script", 1, null);
+        data.script = compileScript(strTransformScript, "script");
       } catch (Exception e) {
         throw new HopValueException(
             BaseMessages.getString(PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript"), e);
@@ -325,26 +471,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
 
     try {
       try {
-        Scriptable jsrow = Context.toObject(row, data.scope);
-        data.scope.put("row", data.scope, jsrow);
-
-        for (int i = 0; i < data.fieldsUsed.length; i++) {
-          IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
-          Object valueData = row[data.fieldsUsed[i]];
-
-          Object normalStorageValueData = valueMeta.convertToNormalStorageType(valueData);
-          Scriptable jsarg;
-          if (normalStorageValueData != null) {
-            jsarg = Context.toObject(normalStorageValueData, data.scope);
-          } else {
-            jsarg = null;
-          }
-          data.scope.put(valueMeta.getName(), data.scope, jsarg);
-        }
-
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject(rowMeta, data.scope);
-        data.scope.put("rowMeta", data.scope, jsrowMeta);
+        putRowInScope(rowMeta, row);
       } catch (Exception e) {
         throw new HopValueException(
             BaseMessages.getString(PKG, "ScriptValuesMod.Log.UnexpectedeError"), e);
@@ -380,6 +507,12 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
       if (iPipelineStat == CONTINUE_PIPELINE) {
         bRC = true;
         for (int i = 0; i < meta.getFieldname().length; i++) {
+          if (data.fieldsExported != null && !data.fieldsExported[i]) {
+            if (data.replaceIndex[i] < 0) {
+              outputIndex++;
+            }
+            continue;
+          }
           Object result = data.scope.get(meta.getFieldname()[i], data.scope);
           Object valueData = getValueFromJScript(result, i);
           if (data.replaceIndex[i] < 0) {
@@ -460,7 +593,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
         if (data.cx != null) {
           // Checking for EndScript
           if (strEndScript != null && strEndScript.length() > 0) {
-            Script endScript = data.cx.compileString(strEndScript, "pipeline_End", 1, null);
+            Script endScript = compileScript(strEndScript, "pipeline_End");
             endScript.exec(data.cx, data.scope);
             if (isDetailed()) {
               logDetailed(("End Script found!"));
@@ -30,8 +30,14 @@ public class ScriptValuesData extends BaseTransformData implements ITransformDat
   public Scriptable scope;
   public Script script;
 
+  /** The re-used row object of the high performance mode, null otherwise */
+  public ScriptValuesRow jsRow;
+
   public int[] fieldsUsed;
 
+  /** In high performance mode: true for the output fields which a script references */
+  public boolean[] fieldsExported;
+
   public IRowMeta outputRowMeta;
   public int[] replaceIndex;
 
@@ -165,6 +165,8 @@ public class ScriptValuesDialog extends BaseTransformDialog {
   private ScriptValuesHelp scVHelp;
   private TextVar wOptimizationLevel;
 
+  private Button wHighPerformance;
+
   private TreeItem iteminput;
 
   private TreeItem itemoutput;
@@ -327,10 +329,25 @@ public class ScriptValuesDialog extends BaseTransformDialog {
     FormData fdOptimizationLevel = new FormData();
     fdOptimizationLevel.left = new FormAttachment(wlOptimizationLevel, margin);
     fdOptimizationLevel.top = new FormAttachment(wlOptimizationLevel, 0, SWT.CENTER);
-    fdOptimizationLevel.right = new FormAttachment(100, margin);
+    fdOptimizationLevel.right = new FormAttachment(60, 0);
     wOptimizationLevel.setLayoutData(fdOptimizationLevel);
     wOptimizationLevel.addModifyListener(lsMod);
 
+    // Share the compiled scripts and pass native values?
+    //
+    wHighPerformance = new Button(wTop, SWT.CHECK);
+    wHighPerformance.setText(
+        BaseMessages.getString(PKG, "ScriptValuesDialogMod.HighPerformance.Label"));
+    wHighPerformance.setToolTipText(
+        BaseMessages.getString(PKG, "ScriptValuesDialogMod.HighPerformance.Tooltip"));
+    PropsUi.setLook(wHighPerformance);
+    FormData fdHighPerformance = new FormData();
+    fdHighPerformance.left = new FormAttachment(wOptimizationLevel, margin * 2);
+    fdHighPerformance.top = new FormAttachment(wlOptimizationLevel, 0, SWT.CENTER);
+    fdHighPerformance.right = new FormAttachment(100, 0);
+    wHighPerformance.setLayoutData(fdHighPerformance);
+    wHighPerformance.addListener(SWT.Selection, e -> input.setChanged());
+
     // The position just above that and below the script...
     //
     wlPosition = new Label(wTop, SWT.LEFT);
@@ -796,6 +813,7 @@ public class ScriptValuesDialog extends BaseTransformDialog {
     } else {
       wOptimizationLevel.setText(ScriptValuesMeta.OPTIMIZATION_LEVEL_DEFAULT);
     }
+    wHighPerformance.setSelection(input.isHighPerformance());
 
     for (int i = 0; i < input.getFieldname().length; i++) {
       if (input.getFieldname()[i] != null && input.getFieldname()[i].length() > 0) {
@@ -888,6 +906,7 @@ public class ScriptValuesDialog extends BaseTransformDialog {
 
   private void getInfo(ScriptValuesMeta meta) {
     meta.setOptimizationLevel(wOptimizationLevel.getText());
+    meta.setHighPerformance(wHighPerformance.getSelection());
     int nrFields = wFields.nrNonEmpty();
     meta.allocate(nrFields);
     for (int i = 0; i < nrFields; i++) {
@@ -116,6 +116,13 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
   @Injection(name = "OPTIMIZATION_LEVEL")
   private String optimizationLevel;
 
+  /**
+   * Share the compiled scripts across transform copies and executions and hand the field values to
+   * the script as native JavaScript values instead of wrapped Java objects.
+   */
+  @Injection(name = "HIGH_PERFORMANCE")
+  private boolean highPerformance;
+
   public ScriptValuesMeta() {
     super(); // allocate BaseTransformMeta
     try {
@@ -316,6 +323,8 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     try {
       String script = XmlHandler.getTagValue(transformNode, "script");
       optimizationLevel = XmlHandler.getTagValue(transformNode, "optimizationLevel");
+      highPerformance =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "highPerformance"));
 
       // When in compatibility mode, we load the script, not the other tabs...
       //
@@ -386,6 +395,7 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     }
 
     optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+    highPerformance = false;
   }
 
   @Override
@@ -456,6 +466,7 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     StringBuilder retval = new StringBuilder(300);
 
     retval.append("    ").append(XmlHandler.addTagValue("optimizationLevel", optimizationLevel));
+    retval.append("    ").append(XmlHandler.addTagValue("highPerformance", highPerformance));
 
     retval.append("    <jsScripts>");
     for (int i = 0; i < jsScripts.length; i++) {
@@ -879,4 +890,20 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
   public String getOptimizationLevel() {
     return this.optimizationLevel;
   }
+
+  /**
+   * @return true if the compiled scripts are shared and field values are passed as native
+   *     JavaScript values
+   */
+  public boolean isHighPerformance() {
+    return highPerformance;
+  }
+
+  /**
+   * @param highPerformance true to share the compiled scripts and pass field values as native
+   *     JavaScript values
+   */
+  public void setHighPerformance(boolean highPerformance) {
+    this.highPerformance = highPerformance;
+  }
 }
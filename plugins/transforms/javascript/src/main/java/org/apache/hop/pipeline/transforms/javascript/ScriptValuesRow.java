@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * The "row" object of the high performance mode. A single instance is used for all rows of a
+ * transform copy: it reads from and writes to whatever row is currently being processed. Strings,
+ * numbers and booleans are handed to the script as native JavaScript values, other values are
+ * wrapped the way Rhino wraps Java objects.
+ */
+public class ScriptValuesRow extends ScriptableObject {
+
+  private Object[] row;
+
+  public ScriptValuesRow(Scriptable scope) {
+    super(scope, ScriptableObject.getArrayPrototype(scope));
+    this.row = new Object[0];
+  }
+
+  @Override
+  public String getClassName() {
+    return "Row";
+  }
+
+  @Override
+  public Object get(int index, Scriptable start) {
+    if (index < 0 || index >= row.length) {
+      return Scriptable.NOT_FOUND;
+    }
+    return Context.javaToJS(row[index], getParentScope());
+  }
+
+  @Override
+  public Object get(String name, Scriptable start) {
+    if ("length".equals(name)) {
+      return Integer.valueOf(row.length);
+    }
+    return super.get(name, start);
+  }
+
+  @Override
+  public boolean has(int index, Scriptable start) {
+    return index >= 0 && index < row.length;
+  }
+
+  @Override
+  public void put(int index, Scriptable start, Object value) {
+    if (index >= 0 && index < row.length) {
+      row[index] = Context.jsToJava(value, Object.class);
+    }
+  }
+
+  @Override
+  public Object[] getIds() {
+    Object[] ids = new Object[row.length];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = Integer.valueOf(i);
+    }
+    return ids;
+  }
+
+  /**
+   * Gets row
+   *
+   * @return value of row
+   */
+  public Object[] getRow() {
+    return row;
+  }
+
+  /**
+   * @param row The row to expose to the script
+   */
+  public void setRow(Object[] row) {
+    this.row = row;
+  }
+}
@@ -42,6 +42,7 @@ public class ScriptValuesMetaInjectionTest extends BaseMetadataInjectionTest<Scr
   @Test
   public void test() throws Exception {
     check("OPTIMIZATION_LEVEL", () -> meta.getOptimizationLevel());
+    check("HIGH_PERFORMANCE", () -> meta.isHighPerformance());
     check("FIELD_NAME", () -> meta.getFieldname()[0]);
     check("FIELD_RENAME_TO", () -> meta.getRename()[0]);
     check("FIELD_REPLACE", () -> meta.getReplace()[0]);
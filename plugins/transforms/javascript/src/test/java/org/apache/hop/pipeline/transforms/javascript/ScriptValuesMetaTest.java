@@ -59,7 +59,8 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             "precision",
             "replace",
             "jsScripts",
-            "optimizationLevel");
+            "optimizationLevel",
+            "highPerformance");
 
     Map<String, String> getterMap =
         new HashMap<String, String>() {
@@ -72,6 +73,7 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             put("replace", "getReplace");
             //        put( "compatible", "isCompatible" );
             put("optimizationLevel", "getOptimizationLevel");
+            put("highPerformance", "isHighPerformance");
             put("jsScripts", "getJSScripts");
           }
         };
@@ -86,6 +88,7 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             put("replace", "setReplace");
             //        put( "compatible", "setCompatible" );
             put("optimizationLevel", "setOptimizationLevel");
+            put("highPerformance", "setHighPerformance");
             put("jsScripts", "setJSScripts");
           }
         };
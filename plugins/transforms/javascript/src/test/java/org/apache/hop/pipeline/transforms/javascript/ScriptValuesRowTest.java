@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+
+public class ScriptValuesRowTest {
+
+  private Context cx;
+  private Scriptable scope;
+
+  @Before
+  public void setUp() {
+    cx = ContextFactory.getGlobal().enterContext();
+    cx.setOptimizationLevel(ScriptValues.HIGH_PERFORMANCE_OPTIMIZATION_LEVEL);
+    scope = cx.initStandardObjects(null, false);
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+  }
+
+  @Test
+  public void testReadsAndWritesTheCurrentRow() {
+    ScriptValuesRow jsRow = new ScriptValuesRow(scope);
+    scope.put("row", scope, jsRow);
+    Script script =
+        cx.compileString(
+            "row[1] = row[0] + '-' + row.length; typeof row[0] + ':' + (row[2] + 1)",
+            "test",
+            1,
+            null);
+
+    Object[] first = new Object[] {"a", null, 1L};
+    jsRow.setRow(first);
+    assertEquals("string:2", Context.toString(script.exec(cx, scope)));
+    assertEquals("a-3", first[1]);
+
+    // The same accessor and compiled script are used for the next row
+    //
+    Object[] second = new Object[] {"b", null, 41L};
+    jsRow.setRow(second);
+    assertEquals("string:42", Context.toString(script.exec(cx, scope)));
+    assertEquals("b-3", second[1]);
+  }
+}
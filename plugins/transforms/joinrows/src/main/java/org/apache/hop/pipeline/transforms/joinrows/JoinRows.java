@@ -31,6 +31,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -80,6 +81,7 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
       data.dataInputStream = new DataInputStream[rowSetsSize];
       data.size = new int[rowSetsSize];
       data.fileRowMeta = new IRowMeta[rowSetsSize];
+      data.rowCodec = new RowCodec[rowSetsSize];
       data.joinrow = new Object[rowSetsSize][];
       data.rs = new IRowSet[rowSetsSize];
       data.cache = new List[rowSetsSize];
@@ -171,7 +173,10 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
         }
 
         try {
-          rowData = data.fileRowMeta[filenr].readData(data.dataInputStream[filenr]);
+          if (data.position[filenr] == 0) {
+            data.rowCodec[filenr].readHeader(data.dataInputStream[filenr]);
+          }
+          rowData = data.rowCodec[filenr].readRow(data.dataInputStream[filenr]);
         } catch (HopFileException e) {
           logError(
               BaseMessages.getString(PKG, "JoinRows.Log.UnableToReadDataFromTempFile")
@@ -389,9 +394,11 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
       if (data.fileRowMeta[data.filenr] == null) {
         // The first row is used as meta-data, clone it for safety
         data.fileRowMeta[data.filenr] = rowSet.getRowMeta().clone();
+        data.rowCodec[data.filenr] = new RowCodec(data.fileRowMeta[data.filenr]);
+        data.rowCodec[data.filenr].writeHeader(data.dataOutputStream[data.filenr]);
       }
 
-      data.fileRowMeta[data.filenr].writeData(data.dataOutputStream[data.filenr], rowData);
+      data.rowCodec[data.filenr].writeRow(data.dataOutputStream[data.filenr], rowData);
       data.size[data.filenr]++;
 
       if (isRowLevel()) {
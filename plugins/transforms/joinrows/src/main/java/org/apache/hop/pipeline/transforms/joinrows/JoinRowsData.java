@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.util.List;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -34,6 +35,7 @@ public class JoinRowsData extends BaseTransformData implements ITransformData {
   public FileInputStream[] fileInputStream;
   public DataInputStream[] dataInputStream;
   public IRowMeta[] fileRowMeta;
+  public RowCodec[] rowCodec;
 
   public int[] size;
   public int[] position;
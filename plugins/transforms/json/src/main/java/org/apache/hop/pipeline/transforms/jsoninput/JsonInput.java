@@ -18,8 +18,9 @@
 package org.apache.hop.pipeline.transforms.jsoninput;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.Closeable;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.BitSet;
 import org.apache.commons.lang.NotImplementedException;
 import org.apache.commons.vfs2.FileObject;
@@ -45,6 +46,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -256,8 +258,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean keepOpen = false;
     try {
       data.readerRowSet = data.reader.parse(input);
+      // A streaming row set reads the rest of the input as the rows are requested
+      keepOpen = meta.isStreaming();
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -265,7 +270,9 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!keepOpen) {
+        closeQuietly(input);
+      }
     }
   }
 
@@ -329,19 +336,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
-
-          if (nextIn != null) {
-            parseNextInputToRowSet(nextIn);
-          } else {
-            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-          }
-
-        } catch (IOException e) {
-          logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-          incrementErrors();
+        InputStream nextIn = data.inputs.next();
+        if (nextIn != null) {
+          parseNextInputToRowSet(nextIn);
+        } else {
+          parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
         }
       } else {
         if (isDetailed()) {
@@ -355,6 +356,16 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     return outputRow;
   }
 
+  /** A streaming row set parses the input as the rows are read, so it can fail here as well. */
+  private Object[] getReaderRow() throws JsonInputException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (UncheckedIOException e) {
+      logInputError(e.getCause());
+      throw new JsonInputException(e.getCause());
+    }
+  }
+
   private void sendErrorRow(String errorMsg) {
     try {
       // same error as before
@@ -455,7 +466,12 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    if (meta.isStreaming()) {
+      data.reader = new StreamingJsonReader(inputFields, getLogChannel());
+    } else {
+      data.reader =
+          new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -466,6 +482,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     }
     data.inputs = null;
     data.reader = null;
+    if (data.readerRowSet instanceof Closeable) {
+      // Stop reading a streamed input which wasn't read completely
+      closeQuietly((Closeable) data.readerRowSet);
+    }
     data.readerRowSet = null;
     data.repeatedFields = null;
     super.dispose();
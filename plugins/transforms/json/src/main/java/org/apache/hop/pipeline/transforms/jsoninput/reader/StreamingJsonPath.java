@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The subset of JsonPath which can be evaluated while streaming through a document: a path to a
+ * repeating array (or object) followed by a path within each of its elements.
+ *
+ * <p>Supported are child names ({@code .name}, {@code ['name']}), array indexes ({@code [0]}) and
+ * exactly one wildcard ({@code [*]} or {@code .*}). For example {@code $.data.items[*].address.city}
+ * has the repeating array {@code $.data.items} and the element path {@code .address.city}.
+ */
+public class StreamingJsonPath {
+
+  /** A step in a path: the name of a child, an array index or the wildcard */
+  public static final class Segment {
+    private final String name;
+    private final int index;
+
+    private Segment(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    static Segment child(String name) {
+      return new Segment(name, -1);
+    }
+
+    static Segment index(int index) {
+      return new Segment(null, index);
+    }
+
+    static Segment wildcard() {
+      return new Segment(null, -1);
+    }
+
+    public boolean isChild() {
+      return name != null;
+    }
+
+    public boolean isIndex() {
+      return name == null && index >= 0;
+    }
+
+    public boolean isWildcard() {
+      return name == null && index < 0;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Segment)) {
+        return false;
+      }
+      Segment segment = (Segment) o;
+      return index == segment.index && Objects.equals(name, segment.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, index);
+    }
+
+    @Override
+    public String toString() {
+      if (isChild()) {
+        return "['" + name + "']";
+      }
+      return isIndex() ? "[" + index + "]" : "[*]";
+    }
+  }
+
+  private final List<Segment> arrayPath;
+  private final List<Segment> elementPath;
+
+  private StreamingJsonPath(List<Segment> arrayPath, List<Segment> elementPath) {
+    this.arrayPath = Collections.unmodifiableList(arrayPath);
+    this.elementPath = Collections.unmodifiableList(elementPath);
+  }
+
+  /**
+   * Parse a JsonPath expression
+   *
+   * @param path The expression
+   * @return The streaming path or null if the expression isn't part of the supported subset
+   */
+  public static StreamingJsonPath parse(String path) {
+    List<Segment> segments = parseSegments(path);
+    if (segments == null) {
+      return null;
+    }
+    int wildcard = -1;
+    for (int i = 0; i < segments.size(); i++) {
+      if (segments.get(i).isWildcard()) {
+        if (wildcard >= 0) {
+          return null;
+        }
+        wildcard = i;
+      }
+    }
+    if (wildcard < 0) {
+      return null;
+    }
+    return new StreamingJsonPath(
+        new ArrayList<>(segments.subList(0, wildcard)),
+        new ArrayList<>(segments.subList(wildcard + 1, segments.size())));
+  }
+
+  private static List<Segment> parseSegments(String path) {
+    if (path == null) {
+      return null;
+    }
+    String p = path.trim();
+    if (!p.startsWith("$")) {
+      return null;
+    }
+    List<Segment> segments = new ArrayList<>();
+    int i = 1;
+    while (i < p.length()) {
+      char c = p.charAt(i);
+      if (c == '.') {
+        i++;
+        if (i >= p.length() || p.charAt(i) == '.') {
+          // Deep scan (..) is not supported
+          return null;
+        }
+        if (p.charAt(i) == '*') {
+          segments.add(Segment.wildcard());
+          i++;
+          continue;
+        }
+        int end = i;
+        while (end < p.length() && p.charAt(end) != '.' && p.charAt(end) != '[') {
+          char n = p.charAt(end);
+          if (n == '(' || n == ')' || n == '*' || n == '?' || n == '@') {
+            return null;
+          }
+          end++;
+        }
+        if (end == i) {
+          return null;
+        }
+        segments.add(Segment.child(p.substring(i, end)));
+        i = end;
+      } else if (c == '[') {
+        int end = p.indexOf(']', i);
+        if (end < 0) {
+          return null;
+        }
+        String inner = p.substring(i + 1, end).trim();
+        if (inner.equals("*")) {
+          segments.add(Segment.wildcard());
+        } else if (inner.length() >= 2
+            && (inner.charAt(0) == '\'' || inner.charAt(0) == '"')
+            && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+          String name = inner.substring(1, inner.length() - 1);
+          if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0) {
+            // Several names: ['a','b']
+            return null;
+          }
+          segments.add(Segment.child(name));
+        } else {
+          try {
+            int index = Integer.parseInt(inner);
+            if (index < 0) {
+              return null;
+            }
+            segments.add(Segment.index(index));
+          } catch (NumberFormatException e) {
+            // Filters, slices, unions and negative indexes are not supported
+            return null;
+          }
+        }
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * @return The path to the repeating array or object
+   */
+  public List<Segment> getArrayPath() {
+    return arrayPath;
+  }
+
+  /**
+   * @return The path to the value within every element of the repeating array
+   */
+  public List<Segment> getElementPath() {
+    return elementPath;
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingJsonFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads JSON documents without loading them in memory. The parser moves to the repeating array
+ * which all the field paths share and every element of that array becomes a row as soon as it is
+ * read. Only one element is kept in memory at any time.
+ *
+ * <p>The field paths need to be in the subset described in {@link StreamingJsonPath}. Paths which
+ * are not found in an element give a null value.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  private final JsonFactory jsonFactory;
+  private final ILogChannel log;
+
+  private boolean ignoreMissingPath;
+
+  private JsonInputField[] fields;
+  private List<StreamingJsonPath.Segment> arrayPath;
+  private StreamingJsonPath[] paths;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.jsonFactory = new MappingJsonFactory();
+    this.log = log;
+    this.ignoreMissingPath = false;
+    setFields(fields);
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    StreamingJsonPath[] streamingPaths = new StreamingJsonPath[fields.length];
+    List<StreamingJsonPath.Segment> sharedArrayPath = null;
+    for (int i = 0; i < fields.length; i++) {
+      StreamingJsonPath path = StreamingJsonPath.parse(fields[i].getPath());
+      if (path == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "JsonReader.Error.Streaming.UnsupportedPath", fields[i].getPath()));
+      }
+      if (sharedArrayPath == null) {
+        sharedArrayPath = path.getArrayPath();
+      } else if (!sharedArrayPath.equals(path.getArrayPath())) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "JsonReader.Error.Streaming.DifferentArrays",
+                fields[i].getPath(),
+                fields[0].getPath()));
+      }
+      streamingPaths[i] = path;
+    }
+    this.fields = fields;
+    this.paths = streamingPaths;
+    this.arrayPath = sharedArrayPath;
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  /**
+   * Move to the repeating array and return a row set which reads its elements one at a time. The
+   * row set closes the input when all the elements are read.
+   */
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    JsonParser parser = null;
+    try {
+      parser = jsonFactory.createParser(in);
+      if (fields.length > 0 && moveToArray(parser)) {
+        boolean isObject = parser.currentToken() == JsonToken.START_OBJECT;
+        JsonToken first = nextElement(parser, isObject);
+        if (first != null) {
+          StreamingRowSet rowSet = new StreamingRowSet(parser, isObject);
+          parser = null; // the row set closes it
+          return rowSet;
+        }
+      }
+    } catch (IOException e) {
+      throw new HopException(e);
+    } finally {
+      if (parser != null) {
+        try {
+          parser.close();
+        } catch (IOException e) {
+          // Ignore, we're done with it
+        }
+      }
+    }
+
+    // There is nothing to stream
+    //
+    if (!isIgnoreMissingPath() && fields.length > 0) {
+      throw new JsonInputException(
+          BaseMessages.getString(PKG, "JsonReader.Error.CanNotFindPath", fields[0].getPath()));
+    }
+    if (log.isDetailed()) {
+      log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", 0));
+    }
+    IRowSet emptyResponse = new SingleRowRowSet();
+    emptyResponse.putRow(null, new Object[fields.length]);
+    emptyResponse.setDone();
+    return emptyResponse;
+  }
+
+  /**
+   * Follow the array path from the root of the document.
+   *
+   * @return true if the parser is positioned at the start of the repeating array or object
+   */
+  private boolean moveToArray(JsonParser parser) throws IOException {
+    if (parser.nextToken() == null) {
+      return false;
+    }
+    for (StreamingJsonPath.Segment segment : arrayPath) {
+      if (segment.isChild()) {
+        if (!moveToChild(parser, segment.getName())) {
+          return false;
+        }
+      } else if (!moveToIndex(parser, segment.getIndex())) {
+        return false;
+      }
+    }
+    JsonToken token = parser.currentToken();
+    return token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT;
+  }
+
+  private static boolean moveToChild(JsonParser parser, String name) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.currentName();
+      parser.nextToken();
+      if (name.equals(fieldName)) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private static boolean moveToIndex(JsonParser parser, int index) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      return false;
+    }
+    int i = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+      if (i++ == index) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  /**
+   * Move to the start of the next element of the repeating array or object.
+   *
+   * @return the first token of the element or null if there are no more elements
+   */
+  private static JsonToken nextElement(JsonParser parser, boolean isObject) throws IOException {
+    JsonToken token = parser.nextToken();
+    if (isObject && token == JsonToken.FIELD_NAME) {
+      token = parser.nextToken();
+    }
+    if (token == null || token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+      return null;
+    }
+    return token;
+  }
+
+  /** Get a value within an element, null if it's not there */
+  static JsonNode evaluate(JsonNode element, List<StreamingJsonPath.Segment> path) {
+    JsonNode node = element;
+    for (StreamingJsonPath.Segment segment : path) {
+      if (node == null) {
+        return null;
+      }
+      if (segment.isChild()) {
+        node = node.isObject() ? node.get(segment.getName()) : null;
+      } else {
+        node = node.isArray() ? node.get(segment.getIndex()) : null;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Convert to the same kind of values the JsonPath reader gives: strings, numbers and booleans
+   * for values and JSON strings for objects and arrays.
+   */
+  static Object toValue(JsonNode node) {
+    if (node == null || node.isMissingNode() || node.isNull()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node.toString();
+  }
+
+  private class StreamingRowSet extends SingleRowRowSet implements Closeable {
+    private final JsonParser parser;
+    private final boolean isObject;
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    /** The parser is positioned on the first token of the next element */
+    private boolean hasElement;
+
+    private long rowCount;
+
+    StreamingRowSet(JsonParser parser, boolean isObject) {
+      this.parser = parser;
+      this.isObject = isObject;
+      this.hasElement = true;
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        while (hasElement) {
+          JsonNode element = parser.readValueAsTree();
+          hasElement = nextElement(parser, isObject) != null;
+
+          Object[] row = new Object[paths.length];
+          boolean allNulls = !includeNulls;
+          for (int i = 0; i < paths.length; i++) {
+            row[i] = toValue(evaluate(element, paths[i].getElementPath()));
+            allNulls &= row[i] == null;
+          }
+          if (!allNulls) {
+            rowCount++;
+            return row;
+          }
+        }
+      } catch (IOException e) {
+        close();
+        throw new UncheckedIOException(e);
+      }
+      close();
+      return null;
+    }
+
+    @Override
+    public int size() {
+      return hasElement ? 1 : 0;
+    }
+
+    @Override
+    public boolean isDone() {
+      return !hasElement;
+    }
+
+    @Override
+    public void clear() {
+      close();
+    }
+
+    @Override
+    public void close() {
+      if (hasElement || !parser.isClosed()) {
+        hasElement = false;
+        try {
+          parser.close();
+        } catch (IOException e) {
+          // Ignore, we're done with it
+        }
+        if (log.isDetailed()) {
+          log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", rowCount));
+        }
+      }
+    }
+  }
+}
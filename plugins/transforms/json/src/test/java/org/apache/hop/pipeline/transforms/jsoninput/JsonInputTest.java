@@ -1083,6 +1083,32 @@ public class JsonInputTest {
     }
   }
 
+  @Test
+  public void testStreamingBadInput() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    helper.redirectLog(out, LogLevel.ERROR);
+    JsonInputField id = new JsonInputField("id");
+    id.setPath("$.items[*].id");
+    id.setType(IValueMeta.TYPE_STRING);
+
+    // The first element is fine, the input breaks while the next one is read
+    //
+    String input = "{ \"items\": [ { \"id\": \"a\" }, { \"id\": }";
+    try (LocaleChange enUS = new LocaleChange(Locale.US)) {
+      JsonInputMeta meta = createSimpleMeta("json", id);
+      meta.setStreaming(true);
+      JsonInput jsonInput = createJsonInput("json", meta, new Object[] {input});
+      processRows(jsonInput, 3);
+
+      Assert.assertEquals("error", 1, jsonInput.getErrors());
+      Assert.assertEquals("rows written", 1, jsonInput.getLinesWritten());
+      String errors =
+          IOUtils.toString(
+              new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8.name());
+      Assert.assertTrue("expected error", errors.contains("Error parsing string"));
+    }
+  }
+
   @Test
   public void testErrorRedirect() throws Exception {
     JsonInputField field = new JsonInputField("value");
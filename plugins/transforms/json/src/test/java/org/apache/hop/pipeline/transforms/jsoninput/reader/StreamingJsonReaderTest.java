@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.Test;
+
+public class StreamingJsonReaderTest {
+  private static final String JSON =
+      "{\"meta\": {\"count\": 3, \"skipped\": [1, 2]},"
+          + " \"data\": {\"items\": ["
+          + "  {\"id\": 1, \"name\": \"one\", \"address\": {\"city\": \"Ghent\"}, \"tags\": [\"a\", \"b\"]},"
+          + "  {\"id\": 2, \"name\": null, \"tags\": []},"
+          + "  {\"id\": 3, \"name\": \"three\", \"active\": true, \"address\": {\"city\": \"Rome\"}}"
+          + "]}, \"trailer\": \"ignored\"}";
+
+  private final ILogChannel log = mock(ILogChannel.class);
+
+  @Test
+  public void testParsePath() {
+    StreamingJsonPath path = StreamingJsonPath.parse("$.data['items'][*].address.city");
+    assertEquals("[['data'], ['items']]", path.getArrayPath().toString());
+    assertEquals("[['address'], ['city']]", path.getElementPath().toString());
+
+    path = StreamingJsonPath.parse("$[*].tags[0]");
+    assertTrue(path.getArrayPath().isEmpty());
+    assertEquals("[['tags'], [0]]", path.getElementPath().toString());
+
+    assertNull(StreamingJsonPath.parse("$.data.items"));
+    assertNull(StreamingJsonPath.parse("$..id"));
+    assertNull(StreamingJsonPath.parse("$.items[*].tags[*]"));
+    assertNull(StreamingJsonPath.parse("$.items[?(@.id > 1)].id"));
+    assertNull(StreamingJsonPath.parse("$.items[0:2].id"));
+    assertNull(StreamingJsonPath.parse("$.items[*].tags.length()"));
+  }
+
+  @Test
+  public void testStreamRows() throws Exception {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(
+            fields(
+                "$.data.items[*].id",
+                "$.data.items[*].name",
+                "$.data.items[*].address.city",
+                "$.data.items[*].tags[1]",
+                "$.data.items[*].active",
+                "$.data.items[*].tags"),
+            log);
+
+    IRowSet rowSet = reader.parse(input(JSON));
+    assertArrayEquals(
+        new Object[] {1, "one", "Ghent", "b", null, "[\"a\",\"b\"]"}, rowSet.getRow());
+    assertArrayEquals(new Object[] {2, null, null, null, null, "[]"}, rowSet.getRow());
+    assertArrayEquals(new Object[] {3, "three", "Rome", null, true, null}, rowSet.getRow());
+    assertNull(rowSet.getRow());
+    assertTrue(rowSet.isDone());
+  }
+
+  @Test
+  public void testStreamRootArrayElements() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$[*]"), log);
+
+    IRowSet rowSet = reader.parse(input("[{\"a\":1}, 2.5, \"x\"]"));
+    assertArrayEquals(new Object[] {"{\"a\":1}"}, rowSet.getRow());
+    assertArrayEquals(new Object[] {2.5}, rowSet.getRow());
+    assertArrayEquals(new Object[] {"x"}, rowSet.getRow());
+    assertNull(rowSet.getRow());
+  }
+
+  @Test
+  public void testMissingArray() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.nothing[*].id"), log);
+
+    reader.setIgnoreMissingPath(true);
+    IRowSet rowSet = reader.parse(input(JSON));
+    assertArrayEquals(new Object[] {null}, rowSet.getRow());
+    assertNull(rowSet.getRow());
+
+    reader.setIgnoreMissingPath(false);
+    try {
+      reader.parse(input(JSON));
+      throw new AssertionError("Expected an exception for the missing path");
+    } catch (JsonInputException e) {
+      // expected
+    }
+  }
+
+  @Test(expected = HopException.class)
+  public void testUnsupportedPath() throws Exception {
+    new StreamingJsonReader(fields("$..id"), log);
+  }
+
+  @Test(expected = HopException.class)
+  public void testDifferentArrays() throws Exception {
+    new StreamingJsonReader(fields("$.data.items[*].id", "$.meta.skipped[*]"), log);
+  }
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static InputStream input(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -19,6 +19,10 @@ package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -43,9 +47,13 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
 /** Consume messages from a Kafka topic */
@@ -54,6 +62,18 @@ public class KafkaConsumerInput
 
   private static final Class<?> PKG = KafkaConsumerInputMeta.class;
 
+  /** A lane with this many batches waiting has its partitions paused until it catches up */
+  private static final int MAX_PENDING_BATCHES = 2;
+
+  /** The maximum time to poll while lanes are busy, so that their offsets are committed in time */
+  private static final long BUSY_LANES_POLL_MS = 100L;
+
+  /** How long to wait for the running batches when the lanes are stopped */
+  private static final long LANE_STOP_TIMEOUT_MS = 60000L;
+
+  /** The lanes write the rows of the Kafka pipeline from their own threads */
+  private final Object putRowLock = new Object();
+
   public KafkaConsumerInput(
       TransformMeta transformMeta,
       KafkaConsumerInputMeta meta,
@@ -82,18 +102,39 @@ public class KafkaConsumerInput
     data.incomingRowsBuffer = new ArrayList<>();
     data.batchDuration = Const.toInt(resolve(meta.getBatchDuration()), 0);
     data.batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
+    data.parallelism = Math.max(1, Const.toInt(resolve(meta.getParallelism()), 1));
+    if (data.parallelism > 1 && errorHandlingConditionIsSatisfied()) {
+      logBasic("Error handling of single records is only supported with one lane, not using lanes");
+      data.parallelism = 1;
+    }
+    boolean parallel = data.parallelism > 1;
+    if (parallel && meta.isAutoCommit()) {
+      logBasic(
+          "Offsets are committed when the lanes completed the messages, "
+              + "automatic commits are turned off for "
+              + data.parallelism
+              + " parallel lanes");
+    }
 
-    data.consumer = buildKafkaConsumer(this, meta);
+    data.consumer = buildKafkaConsumer(this, meta, meta.isAutoCommit() && !parallel);
 
     // Subscribe to the topics...
     //
     Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
-    data.consumer.subscribe(topics);
+    if (parallel) {
+      data.consumer.subscribe(topics, new LaneRebalanceListener());
+    } else {
+      data.consumer.subscribe(topics);
+    }
 
     // Load and start the single threader transformation
     //
     try {
-      initSubPipeline();
+      if (parallel) {
+        initLanes();
+      } else {
+        initSubPipeline(0);
+      }
     } catch (Exception e) {
       logError("Error initializing sub-transformation", e);
       return false;
@@ -104,7 +145,25 @@ public class KafkaConsumerInput
     return true;
   }
 
-  private void initSubPipeline() throws HopException {
+  /** Start a copy of the Kafka pipeline for every lane */
+  private void initLanes() throws HopException {
+    data.lanes = new ArrayList<>();
+    data.partitionLanes = new HashMap<>();
+    for (int laneNr = 0; laneNr < data.parallelism; laneNr++) {
+      initSubPipeline(laneNr);
+      data.lanes.add(
+          new KafkaConsumerLane(
+              laneNr,
+              getTransformName() + " lane " + (laneNr + 1),
+              data.executor,
+              data.rowProducer));
+      data.executor = null;
+      data.rowProducer = null;
+    }
+    logDetailed("Started " + data.lanes.size() + " parallel lanes");
+  }
+
+  private void initSubPipeline(int laneNr) throws HopException {
     try {
 
       String realFilename = resolve(meta.getFilename());
@@ -163,7 +222,9 @@ public class KafkaConsumerInput
                   throws HopTransformException {
                 // Write this row to the next transform(s)
                 //
-                KafkaConsumerInput.this.putRow(rowMeta, row);
+                synchronized (putRowLock) {
+                  KafkaConsumerInput.this.putRow(rowMeta, row);
+                }
               }
             });
       }
@@ -184,7 +245,9 @@ public class KafkaConsumerInput
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
-      getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
+      String subPipelineName =
+          laneNr == 0 ? getTransformName() : getTransformName() + " lane " + (laneNr + 1);
+      getPipeline().addActiveSubPipeline(subPipelineName, kafkaPipeline);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
@@ -192,6 +255,22 @@ public class KafkaConsumerInput
 
   @Override
   public void dispose() {
+    if (data.lanes != null) {
+      stopLanes();
+
+      // Commit what the lanes completed so that it isn't processed again
+      //
+      Map<TopicPartition, OffsetAndMetadata> offsets = takeProcessedOffsets();
+      if (data.consumer != null) {
+        try {
+          commitOffsets(offsets, true);
+        } catch (WakeupException e) {
+          // The wake-up of the stop request is used up now, try again
+          commitOffsets(offsets, true);
+        }
+      }
+      data.lanes = null;
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -200,6 +279,11 @@ public class KafkaConsumerInput
   }
 
   public static Consumer buildKafkaConsumer(IVariables variables, KafkaConsumerInputMeta meta) {
+    return buildKafkaConsumer(variables, meta, meta.isAutoCommit());
+  }
+
+  public static Consumer buildKafkaConsumer(
+      IVariables variables, KafkaConsumerInputMeta meta, boolean autoCommit) {
 
     Thread.currentThread().setContextClassLoader(meta.getClass().getClassLoader());
 
@@ -222,7 +306,7 @@ public class KafkaConsumerInput
     config.put(
         ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
         variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, autoCommit);
 
     // Timeout : max batch wait
     //
@@ -261,6 +345,10 @@ public class KafkaConsumerInput
   @Override
   public boolean processRow() throws HopException {
 
+    if (data.lanes != null) {
+      return processRowInLanes();
+    }
+
     // Poll records...
     // If we get any, process them...
     //
@@ -347,7 +435,7 @@ public class KafkaConsumerInput
 
         data.rowProducer = null;
 
-        initSubPipeline();
+        initSubPipeline(0);
       } catch (Exception e) {
         logError("Error initializing sub-transformation", e);
         return false;
@@ -356,6 +444,200 @@ public class KafkaConsumerInput
     return true;
   }
 
+  /**
+   * Poll records and give them to the lanes by partition. The lanes process their batches on their
+   * own threads. This thread polls, commits the offsets which the lanes completed and pauses the
+   * partitions of lanes which fall behind, so that a slow batch doesn't hold up the other lanes.
+   */
+  private boolean processRowInLanes() {
+    try {
+      commitOffsets(takeProcessedOffsets(), false);
+
+      for (KafkaConsumerLane lane : data.lanes) {
+        if (lane.getFailure() != null) {
+          logError(
+              "Error processing the Kafka messages in lane " + (lane.getLaneNr() + 1),
+              lane.getFailure());
+          stopLanes();
+          setErrors(1);
+          setOutputDone();
+          stopAll();
+          return false;
+        }
+      }
+
+      boolean busy = pauseBusyLanes();
+
+      long pollMs = data.batchDuration > 0 ? data.batchDuration : Long.MAX_VALUE;
+      if (busy) {
+        pollMs = Math.min(pollMs, BUSY_LANES_POLL_MS);
+      }
+      ConsumerRecords<Object, Object> records = data.consumer.poll(Duration.ofMillis(pollMs));
+      if (data.isKafkaConsumerClosing || records.isEmpty()) {
+        return true;
+      }
+
+      // The messages of a partition all go to the same lane, in the order of their offsets
+      //
+      Map<KafkaConsumerLane, List<Object[]>> laneRows = new HashMap<>();
+      Map<KafkaConsumerLane, Map<TopicPartition, OffsetAndMetadata>> laneOffsets = new HashMap<>();
+      for (TopicPartition partition : records.partitions()) {
+        KafkaConsumerLane lane = getLane(partition);
+        List<Object[]> rows = laneRows.computeIfAbsent(lane, l -> new ArrayList<>());
+        long nextOffset = 0L;
+        for (ConsumerRecord<Object, Object> record : records.records(partition)) {
+          rows.add(processMessageAsRow(record));
+          nextOffset = record.offset() + 1;
+          incrementLinesInput();
+        }
+        laneOffsets
+            .computeIfAbsent(lane, l -> new HashMap<>())
+            .put(partition, new OffsetAndMetadata(nextOffset));
+      }
+      for (Map.Entry<KafkaConsumerLane, List<Object[]>> entry : laneRows.entrySet()) {
+        KafkaConsumerLane lane = entry.getKey();
+        lane.submit(data.outputRowMeta, entry.getValue(), laneOffsets.get(lane));
+      }
+      if (isDetailed()) {
+        logDetailed(
+            "Number of rows read: " + records.count() + " for " + laneRows.size() + " lane(s)");
+      }
+    } catch (WakeupException e) {
+      // We're going to close kafka consumer because of pipeline has been stopped so stop the lanes
+      // too
+      stopLanes();
+      setOutputDone();
+      stopAll();
+    }
+    return true;
+  }
+
+  private KafkaConsumerLane getLane(TopicPartition partition) {
+    KafkaConsumerLane lane = data.partitionLanes.get(partition);
+    if (lane == null) {
+      // Not distributed by the rebalance listener: give it a fixed lane
+      //
+      lane = data.lanes.get(Math.floorMod(partition.hashCode(), data.lanes.size()));
+      data.partitionLanes.put(partition, lane);
+    }
+    return lane;
+  }
+
+  /**
+   * Pause the partitions of the lanes which have enough batches waiting and resume them once the
+   * lane caught up.
+   *
+   * @return true if any of the lanes still has batches to process
+   */
+  private boolean pauseBusyLanes() {
+    Set<TopicPartition> paused = data.consumer.paused();
+    List<TopicPartition> toPause = new ArrayList<>();
+    List<TopicPartition> toResume = new ArrayList<>();
+    for (Map.Entry<TopicPartition, KafkaConsumerLane> entry : data.partitionLanes.entrySet()) {
+      boolean full = entry.getValue().getPendingBatches() >= MAX_PENDING_BATCHES;
+      if (full && !paused.contains(entry.getKey())) {
+        toPause.add(entry.getKey());
+      } else if (!full && paused.contains(entry.getKey())) {
+        toResume.add(entry.getKey());
+      }
+    }
+    if (!toPause.isEmpty()) {
+      data.consumer.pause(toPause);
+    }
+    if (!toResume.isEmpty()) {
+      data.consumer.resume(toResume);
+    }
+    return data.lanes.stream().anyMatch(lane -> lane.getPendingBatches() > 0);
+  }
+
+  /** Take the offsets of the messages which the lanes completed since the last commit */
+  private Map<TopicPartition, OffsetAndMetadata> takeProcessedOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (KafkaConsumerLane lane : data.lanes) {
+      offsets.putAll(lane.takeProcessedOffsets());
+    }
+    return offsets;
+  }
+
+  private void commitOffsets(Map<TopicPartition, OffsetAndMetadata> offsets, boolean sync) {
+    if (offsets.isEmpty()) {
+      return;
+    }
+    try {
+      if (sync) {
+        data.consumer.commitSync(offsets);
+      } else {
+        data.consumer.commitAsync(
+            offsets,
+            (committed, e) -> {
+              if (e != null) {
+                logError("Error committing offsets " + committed, e);
+              }
+            });
+      }
+    } catch (WakeupException e) {
+      throw e;
+    } catch (KafkaException e) {
+      // The messages are processed again by the consumer which gets the partitions
+      //
+      logError("Error committing offsets " + offsets, e);
+    }
+  }
+
+  private void awaitLanes() {
+    for (KafkaConsumerLane lane : data.lanes) {
+      try {
+        lane.awaitIdle();
+      } catch (HopException e) {
+        logError("Error waiting for lane " + (lane.getLaneNr() + 1), e);
+      }
+    }
+  }
+
+  private void stopLanes() {
+    for (KafkaConsumerLane lane : data.lanes) {
+      lane.dispose(LANE_STOP_TIMEOUT_MS);
+    }
+  }
+
+  /**
+   * Keeps the lanes in line with the partitions which are assigned to this consumer. The callbacks
+   * are called by the Kafka consumer during a poll, on the thread of this transform.
+   */
+  private class LaneRebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      if (data.lanes == null) {
+        return;
+      }
+      // Complete and commit what the lanes are doing before another consumer takes over
+      //
+      awaitLanes();
+      commitOffsets(takeProcessedOffsets(), true);
+      partitions.forEach(data.partitionLanes::remove);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      if (data.lanes == null) {
+        return;
+      }
+      // Spread all the assigned partitions over the lanes again. The lanes are idle so moving a
+      // partition to another lane keeps its messages in order.
+      //
+      awaitLanes();
+      data.partitionLanes = KafkaConsumerLane.distribute(data.consumer.assignment(), data.lanes);
+      if (isDetailed()) {
+        logDetailed(
+            "Spread "
+                + data.partitionLanes.size()
+                + " assigned partitions over "
+                + data.lanes.size()
+                + " lanes");
+      }
+    }
+  }
+
   private boolean errorHandlingConditionIsSatisfied() {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
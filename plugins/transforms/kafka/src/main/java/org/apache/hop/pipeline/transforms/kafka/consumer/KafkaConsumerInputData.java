@@ -18,12 +18,14 @@
 package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 
 @SuppressWarnings("java:S1104")
 public class KafkaConsumerInputData extends BaseTransformData implements ITransformData {
@@ -35,6 +37,13 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public SingleThreadedPipelineExecutor executor;
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
+  public int parallelism;
+
+  /** The parallel lanes, or null when the Kafka pipeline runs on the thread of the transform */
+  public List<KafkaConsumerLane> lanes;
+
+  /** The lane which processes the messages of every assigned partition */
+  public Map<TopicPartition, KafkaConsumerLane> partitionLanes;
 
   /** */
   public KafkaConsumerInputData() {
@@ -81,6 +81,7 @@ public class KafkaConsumerInputMeta
   public static final String PIPELINE_PATH = "pipelinePath";
   public static final String BATCH_SIZE = "batchSize";
   public static final String BATCH_DURATION = "batchDuration";
+  public static final String PARALLELISM = "parallelism";
   public static final String DIRECT_BOOTSTRAP_SERVERS = "directBootstrapServers";
   public static final String ADVANCED_CONFIG = "advancedConfig";
   public static final String CONFIG_OPTION = "option";
@@ -104,6 +105,9 @@ public class KafkaConsumerInputMeta
   @Injection(name = DURATION)
   protected String batchDuration = "1000";
 
+  @Injection(name = PARALLELISM)
+  protected String parallelism = "1";
+
   @Injection(name = SUB_TRANSFORM)
   protected String subTransform = "";
 
@@ -215,6 +219,7 @@ public class KafkaConsumerInputMeta
     }
     setBatchSize(XmlHandler.getTagValue(transformNode, BATCH_SIZE));
     setBatchDuration(XmlHandler.getTagValue(transformNode, BATCH_DURATION));
+    setParallelism(XmlHandler.getTagValue(transformNode, PARALLELISM));
     setDirectBootstrapServers(XmlHandler.getTagValue(transformNode, DIRECT_BOOTSTRAP_SERVERS));
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
@@ -265,6 +270,7 @@ public class KafkaConsumerInputMeta
   public void setDefault() {
     batchSize = "1000";
     batchDuration = "1000";
+    parallelism = "1";
   }
 
   public RowMeta getRowMeta(String origin, IVariables variables) throws HopTransformException {
@@ -308,6 +314,7 @@ public class KafkaConsumerInputMeta
     xml.append("    ").append(XmlHandler.addTagValue(SUB_TRANSFORM, getSubTransform()));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_SIZE, batchSize));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_DURATION, batchDuration));
+    xml.append("    ").append(XmlHandler.addTagValue(PARALLELISM, parallelism));
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
@@ -503,6 +510,19 @@ public class KafkaConsumerInputMeta
               transformMeta));
     }
 
+    if (StringUtils.isNotEmpty(getParallelism())) {
+      try {
+        Integer.parseInt(variables.resolve(getParallelism()));
+      } catch (NumberFormatException e) {
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_ERROR,
+                BaseMessages.getString(
+                    PKG, "KafkaConsumerInputMeta.CheckResult.NaN", "Parallel lanes"),
+                transformMeta));
+      }
+    }
+
     if (duration == 0 && size == 0) {
       remarks.add(
           new CheckResult(
@@ -583,6 +603,23 @@ public class KafkaConsumerInputMeta
     this.batchDuration = batchDuration;
   }
 
+  /**
+   * Gets parallelism: the number of lanes, each with a copy of the Kafka pipeline, which process
+   * the assigned partitions in parallel
+   *
+   * @return value of parallelism
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism The parallelism to set
+   */
+  public void setParallelism(String parallelism) {
+    this.parallelism = parallelism;
+  }
+
   /**
    * Gets the name of the transform in the kafka pipeline to retrieve data from
    *
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * A lane of the parallel Kafka consumer: a copy of the Kafka pipeline which runs the batches given
+ * to it on its own thread, one after the other. A partition is only given to one lane at a time so
+ * the messages of a partition are processed in order. The offsets of the batches which the lane
+ * completed are kept until the consumer commits them.
+ *
+ * <p>The Kafka consumer itself is not thread safe. Only the batches run on the thread of the lane,
+ * everything else is called by the thread of the Kafka Consumer transform.
+ */
+public class KafkaConsumerLane {
+  private final int laneNr;
+  private final SingleThreadedPipelineExecutor executor;
+  private final RowProducer rowProducer;
+  private final ExecutorService thread;
+
+  /** The number of batches which are given to this lane and are not processed yet */
+  private final AtomicInteger pendingBatches;
+
+  /** The next offset to commit for every partition, up to where the lane processed the messages */
+  private final Map<TopicPartition, OffsetAndMetadata> processedOffsets;
+
+  private volatile Exception failure;
+  private volatile boolean stopped;
+
+  public KafkaConsumerLane(
+      int laneNr,
+      String threadName,
+      SingleThreadedPipelineExecutor executor,
+      RowProducer rowProducer) {
+    this.laneNr = laneNr;
+    this.executor = executor;
+    this.rowProducer = rowProducer;
+    this.pendingBatches = new AtomicInteger();
+    this.processedOffsets = new HashMap<>();
+    this.thread =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread laneThread = new Thread(runnable, threadName);
+              laneThread.setDaemon(true);
+              return laneThread;
+            });
+  }
+
+  /**
+   * Process a batch of rows on the thread of this lane, after the batches which were given before.
+   *
+   * @param rowMeta The layout of the rows
+   * @param rows The rows of the messages, in the order of the offsets for every partition
+   * @param offsets The next offset for every partition in the batch, to commit once the batch is
+   *     processed
+   */
+  public void submit(
+      IRowMeta rowMeta, List<Object[]> rows, Map<TopicPartition, OffsetAndMetadata> offsets) {
+    pendingBatches.incrementAndGet();
+    thread.execute(() -> process(rowMeta, rows, offsets));
+  }
+
+  private void process(
+      IRowMeta rowMeta, List<Object[]> rows, Map<TopicPartition, OffsetAndMetadata> offsets) {
+    try {
+      // Once a batch failed or the lane is stopped the next ones are skipped so their offsets are
+      // never committed
+      //
+      if (failure == null && !stopped) {
+        for (Object[] row : rows) {
+          rowProducer.putRow(rowMeta, row);
+        }
+        executor.oneIteration();
+
+        if (executor.isStopped() || executor.getErrors() > 0) {
+          failure =
+              new HopException(
+                  "The Kafka pipeline of lane "
+                      + (laneNr + 1)
+                      + " reported "
+                      + executor.getErrors()
+                      + " error(s)");
+        } else {
+          executor.buildExecutionSummary();
+          synchronized (processedOffsets) {
+            processedOffsets.putAll(offsets);
+          }
+        }
+      }
+    } catch (Exception e) {
+      failure = e;
+    } finally {
+      pendingBatches.decrementAndGet();
+    }
+  }
+
+  /**
+   * Take the offsets which are processed since the last call
+   *
+   * @return The next offset to commit for every partition which made progress
+   */
+  public Map<TopicPartition, OffsetAndMetadata> takeProcessedOffsets() {
+    synchronized (processedOffsets) {
+      Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(processedOffsets);
+      processedOffsets.clear();
+      return offsets;
+    }
+  }
+
+  /** Wait until all the batches which were given to this lane are processed */
+  public void awaitIdle() throws HopException {
+    try {
+      thread.submit(() -> {}).get();
+    } catch (RejectedExecutionException e) {
+      // The lane is stopped, there's nothing to wait for
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for lane " + (laneNr + 1), e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error waiting for lane " + (laneNr + 1), e);
+    }
+  }
+
+  /**
+   * Stop the lane. Batches which haven't started are dropped, their offsets are not committed.
+   *
+   * @param timeoutMs How long to wait for the running batch to finish
+   */
+  public void dispose(long timeoutMs) {
+    if (thread.isShutdown()) {
+      return;
+    }
+    stopped = true;
+    thread.shutdown();
+    try {
+      thread.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    executor.getPipeline().stopAll();
+    executor.dispose();
+  }
+
+  /**
+   * Spread partitions evenly over lanes. The partitions are sorted by topic and number so that the
+   * same assignment gives the same lanes.
+   *
+   * @param partitions The assigned partitions
+   * @param lanes The lanes to spread the partitions over
+   * @return The lane for every partition
+   */
+  public static Map<TopicPartition, KafkaConsumerLane> distribute(
+      Collection<TopicPartition> partitions, List<KafkaConsumerLane> lanes) {
+    List<TopicPartition> sorted = new ArrayList<>(partitions);
+    sorted.sort(
+        Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition));
+    Map<TopicPartition, KafkaConsumerLane> partitionLanes = new HashMap<>();
+    for (int i = 0; i < sorted.size(); i++) {
+      partitionLanes.put(sorted.get(i), lanes.get(i % lanes.size()));
+    }
+    return partitionLanes;
+  }
+
+  /**
+   * Gets laneNr
+   *
+   * @return value of laneNr, starting at 0
+   */
+  public int getLaneNr() {
+    return laneNr;
+  }
+
+  /**
+   * @return The number of batches which are given to this lane and are not processed yet
+   */
+  public int getPendingBatches() {
+    return pendingBatches.get();
+  }
+
+  /**
+   * @return The error which stopped this lane or null if the lane runs fine
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+}
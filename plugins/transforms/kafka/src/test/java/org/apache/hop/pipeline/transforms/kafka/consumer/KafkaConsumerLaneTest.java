@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class KafkaConsumerLaneTest {
+  @Mock SingleThreadedPipelineExecutor executor;
+  @Mock RowProducer rowProducer;
+  @Mock IRowMeta rowMeta;
+  @Mock Pipeline pipeline;
+
+  KafkaConsumerLane lane;
+
+  @Before
+  public void setUp() {
+    when(executor.getPipeline()).thenReturn(pipeline);
+    lane = new KafkaConsumerLane(0, "lane 1", executor, rowProducer);
+  }
+
+  @After
+  public void tearDown() {
+    lane.dispose(1000L);
+  }
+
+  @Test
+  public void testDistribute() {
+    List<KafkaConsumerLane> lanes =
+        Arrays.asList(lane, new KafkaConsumerLane(1, "lane 2", executor, rowProducer));
+    TopicPartition a0 = new TopicPartition("a", 0);
+    TopicPartition a1 = new TopicPartition("a", 1);
+    TopicPartition a2 = new TopicPartition("a", 2);
+    TopicPartition b0 = new TopicPartition("b", 0);
+
+    Map<TopicPartition, KafkaConsumerLane> partitionLanes =
+        KafkaConsumerLane.distribute(Arrays.asList(b0, a2, a0, a1), lanes);
+
+    assertEquals(4, partitionLanes.size());
+    assertSame(lanes.get(0), partitionLanes.get(a0));
+    assertSame(lanes.get(1), partitionLanes.get(a1));
+    assertSame(lanes.get(0), partitionLanes.get(a2));
+    assertSame(lanes.get(1), partitionLanes.get(b0));
+    lanes.get(1).dispose(1000L);
+  }
+
+  @Test
+  public void testProcessedOffsets() throws Exception {
+    TopicPartition partition = new TopicPartition("a", 0);
+    Object[] row = new Object[] {"message"};
+
+    lane.submit(
+        rowMeta,
+        Collections.singletonList(row),
+        Collections.singletonMap(partition, new OffsetAndMetadata(43L)));
+    lane.awaitIdle();
+
+    verify(rowProducer).putRow(rowMeta, row);
+    verify(executor).oneIteration();
+    assertEquals(0, lane.getPendingBatches());
+    assertNull(lane.getFailure());
+    assertEquals(43L, lane.takeProcessedOffsets().get(partition).offset());
+    assertTrue(lane.takeProcessedOffsets().isEmpty());
+  }
+
+  @Test
+  public void testFailedBatchIsNotCommitted() throws Exception {
+    when(executor.getErrors()).thenReturn(1L);
+
+    lane.submit(
+        rowMeta,
+        Collections.singletonList(new Object[] {"message"}),
+        Collections.singletonMap(new TopicPartition("a", 0), new OffsetAndMetadata(1L)));
+    lane.awaitIdle();
+
+    assertNotNull(lane.getFailure());
+    assertTrue(lane.takeProcessedOffsets().isEmpty());
+  }
+}
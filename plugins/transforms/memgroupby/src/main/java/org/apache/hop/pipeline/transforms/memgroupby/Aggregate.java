@@ -21,8 +21,38 @@ import java.util.Set;
 
 @SuppressWarnings("java:S1104")
 public class Aggregate {
+  /** The aggregate is kept as an object in agg */
+  public static final int ACCUMULATOR_OBJECT = 0;
+
+  /** The sum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_SUM = 1;
+
+  /** The sum of Number values is kept in doubles, with the Kahan compensation in compensations */
+  public static final int ACCUMULATOR_DOUBLE_SUM = 2;
+
+  /** The minimum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_MIN = 3;
+
+  /** The maximum of Integer values is kept in longs */
+  public static final int ACCUMULATOR_LONG_MAX = 4;
+
+  /** The minimum of Number values is kept in doubles */
+  public static final int ACCUMULATOR_DOUBLE_MIN = 5;
+
+  /** The maximum of Number values is kept in doubles */
+  public static final int ACCUMULATOR_DOUBLE_MAX = 6;
+
   public Object[] agg;
   public long[] counts;
   public Set<Object>[] distinctObjs;
   public double[] mean;
+
+  /** The primitive Integer accumulators, null if there are none */
+  public long[] longs;
+
+  /** The primitive Number accumulators, null if there are none */
+  public double[] doubles;
+
+  /** The low order bits lost while summing Number values, null if there are no Number sums */
+  public double[] compensations;
 }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A hash table with the aggregates of the groups, keyed by the values of the group fields. The
+ * keys, their hash codes and the aggregates are kept in parallel arrays using open addressing with
+ * linear probing: a group doesn't take any memory besides its key and its aggregate.
+ *
+ * <p>Keys are compared using the group metadata so that the same value in a different storage type
+ * ends up in the same group.
+ */
+public class GroupTable {
+  private static final int MIN_CAPACITY = 16;
+
+  private final IRowMeta groupMeta;
+
+  private Object[][] keys;
+  private int[] hashes;
+  private Aggregate[] aggregates;
+  private int size;
+  private int mask;
+
+  /**
+   * @param groupMeta The metadata of the group fields
+   * @param expectedSize The number of groups we expect to store without growing the table
+   */
+  public GroupTable(IRowMeta groupMeta, int expectedSize) {
+    this.groupMeta = groupMeta;
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity][];
+    hashes = new int[capacity];
+    aggregates = new Aggregate[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Calculate the hash code of the values of the group fields. This is the same hash code as {@link
+   * IRowMeta#hashCode(Object[])} over the values in normal storage.
+   *
+   * @param groupData The values of the group fields
+   * @return The hash code
+   * @throws HopValueException in case of a conversion error
+   */
+  public int hash(Object[] groupData) throws HopValueException {
+    int hash = 1;
+    for (int i = 0; i < groupData.length; i++) {
+      Object value = groupMeta.getValueMeta(i).convertToNormalStorageType(groupData[i]);
+      hash =
+          31 * hash
+              + (value instanceof byte[] bytes ? Arrays.hashCode(bytes) : Objects.hashCode(value));
+    }
+    return hash;
+  }
+
+  /** Spread the bits of the hash code: we only use the lowest bits to pick a slot. */
+  private int slotFor(int hash) {
+    int h = hash * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * @param groupData The values of the group fields
+   * @return The aggregate of the group or null if we don't have the group
+   * @throws HopValueException in case of a conversion error
+   */
+  public Aggregate get(Object[] groupData) throws HopValueException {
+    return get(groupData, hash(groupData));
+  }
+
+  /**
+   * @param groupData The values of the group fields
+   * @param hash The hash code of the values, see {@link #hash(Object[])}
+   * @return The aggregate of the group or null if we don't have the group
+   * @throws HopValueException in case of a conversion error
+   */
+  public Aggregate get(Object[] groupData, int hash) throws HopValueException {
+    int slot = slotFor(hash);
+    while (keys[slot] != null) {
+      if (hashes[slot] == hash && groupMeta.compare(groupData, keys[slot]) == 0) {
+        return aggregates[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Store the aggregate of a group, replacing the aggregate we had for the group.
+   *
+   * @param groupData The values of the group fields
+   * @param aggregate The aggregate of the group
+   * @throws HopValueException in case of a conversion error
+   */
+  public void put(Object[] groupData, Aggregate aggregate) throws HopValueException {
+    put(groupData, hash(groupData), aggregate);
+  }
+
+  /**
+   * Store the aggregate of a group, replacing the aggregate we had for the group.
+   *
+   * @param groupData The values of the group fields
+   * @param hash The hash code of the values, see {@link #hash(Object[])}
+   * @param aggregate The aggregate of the group
+   * @throws HopValueException in case of a conversion error
+   */
+  public void put(Object[] groupData, int hash, Aggregate aggregate) throws HopValueException {
+    int slot = slotFor(hash);
+    while (keys[slot] != null) {
+      if (hashes[slot] == hash && groupMeta.compare(groupData, keys[slot]) == 0) {
+        aggregates[slot] = aggregate;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = groupData;
+    hashes[slot] = hash;
+    aggregates[slot] = aggregate;
+    size++;
+
+    // Keep the table at most half full to keep the probe sequences short
+    //
+    if (size * 2 > keys.length) {
+      grow();
+    }
+  }
+
+  private void grow() {
+    Object[][] oldKeys = keys;
+    int[] oldHashes = hashes;
+    Aggregate[] oldAggregates = aggregates;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = slotFor(oldHashes[i]);
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        hashes[slot] = oldHashes[i];
+        aggregates[slot] = oldAggregates[i];
+      }
+    }
+  }
+
+  /**
+   * The number of slots in the table. Use this with {@link #getGroupData(int)} and {@link
+   * #getAggregate(int)} to loop over the groups.
+   *
+   * @return The number of slots in the table
+   */
+  public int getCapacity() {
+    return keys.length;
+  }
+
+  /**
+   * @param slot The slot in the table
+   * @return The values of the group fields in the slot or null if the slot is empty
+   */
+  public Object[] getGroupData(int slot) {
+    return keys[slot];
+  }
+
+  /**
+   * @param slot The slot in the table
+   * @return The aggregate in the slot or null if the slot is empty
+   */
+  public Aggregate getAggregate(int slot) {
+    return aggregates[slot];
+  }
+
+  /**
+   * @param slot The slot in the table
+   * @return The hash code of the group in the slot, only valid if the slot isn't empty
+   */
+  public int getHash(int slot) {
+    return hashes[slot];
+  }
+
+  /**
+   * @return The number of groups in the table
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return true if the table doesn't contain any groups
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Remove all groups, the table keeps its capacity. */
+  public void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, null);
+      Arrays.fill(aggregates, null);
+      size = 0;
+    }
+  }
+}
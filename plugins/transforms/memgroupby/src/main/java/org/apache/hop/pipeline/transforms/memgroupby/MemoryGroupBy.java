@@ -23,37 +23,55 @@ import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.Gr
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
 import java.util.TreeSet;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.RowSizeEstimator;
 import org.apache.hop.core.row.ValueDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
-import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
 
 /** Groups information based on aggregation rules. (sum, count, ...) */
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class;
 
+  /** The number of hash partitions the rows of new groups are spilled to */
+  static final int NR_SPILL_PARTITIONS = 16;
+
+  /**
+   * The estimated memory of a group in the hash table on top of the group and aggregate data: three
+   * slots in a table which is at most half full
+   */
+  private static final long GROUP_ENTRY_SIZE = 24L;
+
+  /** The estimated memory of a value added to a list */
+  private static final long LIST_VALUE_SIZE = 32L;
+
+  /** The estimated memory of a value added to a set, not counting the value itself */
+  private static final long SET_VALUE_SIZE = 40L;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -154,6 +172,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       // Only calculate data.aggMeta here, not for every new aggregate.
       //
       newAggregate(r, null);
+      initAccumulators();
+      data.parallelAggregation = isParallelAggregation();
 
       // for speed: groupMeta+aggMeta
       //
@@ -176,7 +196,14 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.newBatch = false;
     }
 
-    addToAggregate(r);
+    if (data.parallelAggregation) {
+      if (data.parallelAggregator == null) {
+        data.parallelAggregator = new ParallelAggregator(this, data, data.aggregationThreads);
+      }
+      data.parallelAggregator.addRow(r);
+    } else {
+      addToAggregate(r);
+    }
 
     if (checkFeedback(getLinesRead()) && isBasic()) {
       logBasic(BaseMessages.getString(PKG, "MemoryGroupBy.LineNumber") + getLinesRead());
@@ -186,29 +213,39 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
+    // Merge the groups of the aggregation threads
+    //
+    if (data.parallelAggregator != null) {
+      try {
+        data.map = data.parallelAggregator.finish();
+      } finally {
+        data.parallelAggregator.close();
+        data.parallelAggregator = null;
+      }
+    }
+
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+    boolean hasGroups = !data.map.isEmpty();
+    outputGroups();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+    // Aggregate the rows of the groups which didn't fit in memory, one hash partition at a time
+    //
+    queueSpillFiles();
+    while (!data.pendingSpillFiles.isEmpty() && !isStopped()) {
+      try (SpillFile spillFile = data.pendingSpillFiles.pop()) {
+        aggregateSpillFile(spillFile);
       }
-      putRow(data.outputRowMeta, outputRowData);
+      hasGroups |= !data.map.isEmpty();
+      outputGroups();
+      queueSpillFiles();
     }
+    data.spillLevel = 0;
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (!hasGroups && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -228,6 +265,138 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  /** Pass the groups in the map to the next transforms and empty the map. */
+  private void outputGroups() throws HopException {
+    for (int slot = 0; slot < data.map.getCapacity(); slot++) {
+      Object[] groupData = data.map.getGroupData(slot);
+      if (groupData == null) {
+        continue;
+      }
+      Object[] aggregateResult = getAggregateResult(data.map.getAggregate(slot));
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] =
+            data.groupMeta.getValueMeta(i).convertToNormalStorageType(groupData[i]);
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+    data.map.clear();
+    data.mapBytes = 0L;
+  }
+
+  /** The hash partitions spilled while aggregating the last rows have to be aggregated next. */
+  private void queueSpillFiles() throws HopException {
+    if (data.spillFiles == null) {
+      return;
+    }
+    for (SpillFile spillFile : data.spillFiles) {
+      if (spillFile != null) {
+        spillFile.closeOutput();
+        data.pendingSpillFiles.push(spillFile);
+      }
+    }
+    data.spillFiles = null;
+  }
+
+  /** Aggregate the rows of a spilled hash partition. New groups can be spilled again. */
+  private void aggregateSpillFile(SpillFile spillFile) throws HopException {
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Log.AggregatingSpillFile",
+              spillFile.getRowCount(),
+              spillFile.getLevel()));
+    }
+    data.spillLevel = spillFile.getLevel();
+    spillFile.startReading();
+    Object[] row = spillFile.readRow();
+    while (row != null && !isStopped()) {
+      addToAggregate(row);
+      row = spillFile.readRow();
+    }
+  }
+
+  /**
+   * Write the row of a new group to the temporary file of its hash partition if that partition was
+   * spilled before or if the groups in memory take more memory than allowed. The groups already in
+   * memory keep aggregating their rows so every group is aggregated either in memory or from a
+   * single temporary file.
+   *
+   * @return true if the row was written to a temporary file
+   */
+  private boolean spillRow(int hash, Object[] r) throws HopException {
+    int partition = getSpillPartition(hash);
+    SpillFile spillFile = data.spillFiles == null ? null : data.spillFiles[partition];
+    if (spillFile == null) {
+      // We always keep at least one group in memory to make progress
+      //
+      if (data.mapBytes < data.memoryLimit || data.map.isEmpty()) {
+        return false;
+      }
+      if (data.spillFiles == null) {
+        data.spillFiles = new SpillFile[NR_SPILL_PARTITIONS];
+      }
+      if (data.spillCodec == null) {
+        data.spillCodec = new RowCodec(data.inputRowMeta);
+      }
+      FileObject file =
+          HopVfs.createTempFile(
+              Const.NVL(resolve(meta.getPrefix()), "grp"),
+              ".tmp",
+              Const.NVL(resolve(meta.getDirectory()), System.getProperty("java.io.tmpdir")),
+              this);
+      spillFile = new SpillFile(file, data.spillCodec, data.spillLevel + 1);
+      data.spillFiles[partition] = spillFile;
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "MemoryGroupBy.Log.SpillingPartition", partition, data.map.size()));
+      }
+    }
+    spillFile.writeRow(r);
+    return true;
+  }
+
+  /**
+   * The hash code is mixed with the spill level: the rows of a spilled partition are all in the
+   * same partition of the previous level and have to be spread over new partitions.
+   */
+  private int getSpillPartition(int groupHash) {
+    int hash = groupHash + data.spillLevel * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % NR_SPILL_PARTITIONS;
+  }
+
+  /** Estimate the memory taken by a new group in the map. */
+  private long estimateGroupSize(Object[] groupData, Aggregate aggregate) {
+    int nrAggregates = aggregate.agg.length;
+    long size = GROUP_ENTRY_SIZE + RowSizeEstimator.estimateRowSize(data.groupMeta, groupData);
+    // The aggregate with its agg, counts and mean arrays and the primitive accumulators
+    size += RowSizeEstimator.OBJECT_HEADER + 7L * RowSizeEstimator.REFERENCE;
+    size += 3L * RowSizeEstimator.OBJECT_HEADER + 20L * nrAggregates;
+    if (aggregate.longs != null) {
+      size += RowSizeEstimator.OBJECT_HEADER + 8L * nrAggregates;
+    }
+    if (aggregate.doubles != null) {
+      size += 2L * RowSizeEstimator.OBJECT_HEADER + 16L * nrAggregates;
+    }
+    for (Object value : aggregate.agg) {
+      size += RowSizeEstimator.estimateValueSize(value);
+    }
+    return size;
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -235,15 +404,40 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
    * @throws HopException
    */
   void addToAggregate(Object[] r) throws HopException {
+    addToAggregate(data, r);
+  }
 
-    Object[] groupData = new Object[data.groupMeta.size()];
-    for (int i = 0; i < data.groupnrs.length; i++) {
-      groupData[i] = r[data.groupnrs[i]];
+  /**
+   * Add a row to the groups of the given transform data. This is either the data of the transform
+   * or the partial groups of an aggregation thread with its own copy of the metadata.
+   *
+   * @param target The groups to add the row to
+   * @param r The row
+   * @throws HopException
+   */
+  void addToAggregate(MemoryGroupByData target, Object[] r) throws HopException {
+
+    if (target.groupLookup == null) {
+      target.groupLookup = new Object[target.groupMeta.size()];
+    }
+    Object[] groupLookup = target.groupLookup;
+    for (int i = 0; i < target.groupnrs.length; i++) {
+      groupLookup[i] = r[target.groupnrs[i]];
     }
-    HashEntry entry = data.getHashEntry(groupData);
+    int hash = target.map.hash(groupLookup);
 
-    Aggregate aggregate = data.map.get(entry);
+    Aggregate aggregate = target.map.get(groupLookup, hash);
     if (aggregate == null) {
+      // Over the memory limit the rows of new groups are aggregated later
+      //
+      if (target.memoryLimit > 0 && spillRow(hash, r)) {
+        return;
+      }
+
+      // The map keeps the group values: they need an array of their own
+      //
+      Object[] groupData = groupLookup.clone();
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -251,14 +445,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       // Store it in the map!
       //
-      data.map.put(entry, aggregate);
+      target.map.put(groupData, hash, aggregate);
+      if (target.memoryLimit > 0) {
+        target.mapBytes += estimateGroupSize(groupData, aggregate);
+      }
     }
 
-    for (int i = 0; i < data.subjectnrs.length; i++) {
-      Object subj = r[data.subjectnrs[i]];
-      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+    int[] accumulators = target.accumulators;
+    for (int i = 0; i < target.subjectnrs.length; i++) {
+      Object subj = r[target.subjectnrs[i]];
+      IValueMeta subjMeta = target.inputRowMeta.getValueMeta(target.subjectnrs[i]);
+      if (accumulators != null && accumulators[i] != Aggregate.ACCUMULATOR_OBJECT) {
+        accumulate(aggregate, i, accumulators[i], subjMeta, subj);
+        continue;
+      }
       Object value = aggregate.agg[i];
-      IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
+      IValueMeta valueMeta = target.aggMeta.getValueMeta(i);
       GAggregate agg = meta.getAggregates().get(i);
 
       switch (agg.getType()) {
@@ -274,6 +476,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case Median, Percentile:
           if (!subjMeta.isNull(subj)) {
             ((List<Double>) aggregate.agg[i]).add(subjMeta.getNumber(subj));
+            target.mapBytes += LIST_VALUE_SIZE;
           }
           break;
         case StandardDeviation:
@@ -311,6 +514,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
             }
             if (!aggregate.distinctObjs[i].contains(obj)) {
               aggregate.distinctObjs[i].add(obj);
+              target.mapBytes += SET_VALUE_SIZE + RowSizeEstimator.estimateValueSize(obj);
             }
           }
           aggregate.counts[i] = aggregate.distinctObjs[i].size();
@@ -361,10 +565,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case ConcatComma:
           if (subj != null) {
             StringBuilder sb = (StringBuilder) value;
-            if (sb.length() > 0) {
+            int length = sb.length();
+            if (length > 0) {
               sb.append(", ");
             }
             sb.append(subjMeta.getString(subj));
+            target.mapBytes += sb.length() - length;
           }
           break;
         case ConcatString:
@@ -374,16 +580,20 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
               separator = resolve(agg.getValueField());
             }
             StringBuilder sb = (StringBuilder) value;
-            if (sb.length() > 0) {
+            int length = sb.length();
+            if (length > 0) {
               sb.append(separator);
             }
             sb.append(subjMeta.getString(subj));
+            target.mapBytes += sb.length() - length;
           }
           break;
         case ConcatDistinct:
           if (subj != null) {
             SortedSet<Object> set = (SortedSet<Object>) value;
-            set.add(subj);
+            if (set.add(subj)) {
+              target.mapBytes += SET_VALUE_SIZE + RowSizeEstimator.estimateValueSize(subj);
+            }
           }
           break;
         default:
@@ -412,17 +622,29 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       aggregate.distinctObjs = null;
       aggregate.agg = new Object[data.subjectnrs.length];
       aggregate.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
+      if (data.hasLongAccumulators) {
+        aggregate.longs = new long[data.subjectnrs.length];
+      }
+      if (data.hasDoubleAccumulators) {
+        aggregate.doubles = new double[data.subjectnrs.length];
+        aggregate.compensations = new double[data.subjectnrs.length];
+      }
+
+      // The metadata is the same for every group: only create the initial values
+      //
+      for (int i = 0; i < data.subjectnrs.length; i++) {
+        aggregate.agg[i] = newAggregateValue(meta.getAggregates().get(i).getType(), r, i);
+      }
+      return;
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
       IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
-      Object v = null;
       IValueMeta vMeta = null;
       GAggregate agg = meta.getAggregates().get(i);
       switch (agg.getType()) {
         case Median, Percentile:
           vMeta = new ValueMetaNumber(agg.getField());
-          v = new ArrayList<Double>();
           break;
         case StandardDeviation:
           vMeta = new ValueMetaNumber(agg.getField());
@@ -437,15 +659,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case First, Last, FirstIncludingNull, LastIncludingNull, Minimum, Maximum:
           vMeta = subjMeta.clone();
           vMeta.setName(agg.getField());
-          v = r == null ? null : r[data.subjectnrs[i]];
           break;
-        case ConcatComma, ConcatString:
+        case ConcatComma, ConcatString, ConcatDistinct:
           vMeta = new ValueMetaString(agg.getField());
-          v = new StringBuilder();
-          break;
-        case ConcatDistinct:
-          vMeta = new ValueMetaString(agg.getField());
-          v = new TreeSet<>();
           break;
         default:
           throw new HopException("Unknown data type for aggregation : " + agg.getField());
@@ -456,14 +672,357 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           && agg.getType() != CountAny) {
         vMeta.setLength(subjMeta.getLength(), subjMeta.getPrecision());
       }
-      if (aggregate == null) {
-        data.aggMeta.addValueMeta(vMeta);
-      } else {
-        aggregate.agg[i] = v;
+      data.aggMeta.addValueMeta(vMeta);
+    }
+  }
+
+  /** The value an aggregate of a new group starts with */
+  private Object newAggregateValue(GroupType type, Object[] r, int i) {
+    switch (type) {
+      case Median, Percentile:
+        return new ArrayList<Double>();
+      case First, Last, FirstIncludingNull, LastIncludingNull, Minimum, Maximum:
+        return r == null ? null : r[data.subjectnrs[i]];
+      case ConcatComma, ConcatString:
+        return new StringBuilder();
+      case ConcatDistinct:
+        return new TreeSet<>();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Sums, minimums and maximums of Integer and Number fields in normal storage are accumulated in
+   * primitive arrays instead of as objects. Minimums are only kept this way if nulls are ignored.
+   */
+  private void initAccumulators() {
+    data.accumulators = new int[data.subjectnrs.length];
+    data.hasLongAccumulators = false;
+    data.hasDoubleAccumulators = false;
+
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      int accumulator = Aggregate.ACCUMULATOR_OBJECT;
+      if (subjMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL
+          && !subjMeta.isSortedDescending()) {
+        boolean isInteger = subjMeta.getType() == IValueMeta.TYPE_INTEGER;
+        boolean isNumber = subjMeta.getType() == IValueMeta.TYPE_NUMBER;
+        switch (meta.getAggregates().get(i).getType()) {
+          case Sum, Average:
+            if (isInteger) {
+              accumulator = Aggregate.ACCUMULATOR_LONG_SUM;
+            } else if (isNumber) {
+              accumulator = Aggregate.ACCUMULATOR_DOUBLE_SUM;
+            }
+            break;
+          case Minimum:
+            if (isInteger && !minNullIsValued) {
+              accumulator = Aggregate.ACCUMULATOR_LONG_MIN;
+            } else if (isNumber && !minNullIsValued) {
+              accumulator = Aggregate.ACCUMULATOR_DOUBLE_MIN;
+            }
+            break;
+          case Maximum:
+            if (isInteger) {
+              accumulator = Aggregate.ACCUMULATOR_LONG_MAX;
+            } else if (isNumber) {
+              accumulator = Aggregate.ACCUMULATOR_DOUBLE_MAX;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+      data.accumulators[i] = accumulator;
+      data.hasLongAccumulators |= isLongAccumulator(accumulator);
+      data.hasDoubleAccumulators |= isDoubleAccumulator(accumulator);
+    }
+  }
+
+  private static boolean isLongAccumulator(int accumulator) {
+    return accumulator == Aggregate.ACCUMULATOR_LONG_SUM
+        || accumulator == Aggregate.ACCUMULATOR_LONG_MIN
+        || accumulator == Aggregate.ACCUMULATOR_LONG_MAX;
+  }
+
+  private static boolean isDoubleAccumulator(int accumulator) {
+    return accumulator == Aggregate.ACCUMULATOR_DOUBLE_SUM
+        || accumulator == Aggregate.ACCUMULATOR_DOUBLE_MIN
+        || accumulator == Aggregate.ACCUMULATOR_DOUBLE_MAX;
+  }
+
+  /**
+   * Add a value to a primitive accumulator. Nulls are ignored, the count of the aggregate is the
+   * number of values we accumulated.
+   */
+  private void accumulate(
+      Aggregate aggregate, int i, int accumulator, IValueMeta subjMeta, Object subj)
+      throws HopValueException {
+    if (subj == null) {
+      return;
+    }
+    boolean isFirst = aggregate.counts[i] == 0;
+    switch (accumulator) {
+      case Aggregate.ACCUMULATOR_LONG_SUM:
+        aggregate.longs[i] += subjMeta.getInteger(subj);
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_SUM:
+        addCompensated(aggregate, i, subjMeta.getNumber(subj));
+        break;
+      case Aggregate.ACCUMULATOR_LONG_MIN:
+        long minLong = subjMeta.getInteger(subj);
+        if (isFirst || minLong < aggregate.longs[i]) {
+          aggregate.longs[i] = minLong;
+        }
+        break;
+      case Aggregate.ACCUMULATOR_LONG_MAX:
+        long maxLong = subjMeta.getInteger(subj);
+        if (isFirst || maxLong > aggregate.longs[i]) {
+          aggregate.longs[i] = maxLong;
+        }
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_MIN:
+        double minDouble = subjMeta.getNumber(subj);
+        if (isFirst || Double.compare(minDouble, aggregate.doubles[i]) < 0) {
+          aggregate.doubles[i] = minDouble;
+        }
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_MAX:
+        double maxDouble = subjMeta.getNumber(subj);
+        if (isFirst || Double.compare(maxDouble, aggregate.doubles[i]) > 0) {
+          aggregate.doubles[i] = maxDouble;
+        }
+        break;
+      default:
+        break;
+    }
+    aggregate.counts[i]++;
+  }
+
+  /** Kahan summation: the compensation keeps the low order bits lost in the sum */
+  private static void addCompensated(Aggregate aggregate, int i, double value) {
+    double sum = aggregate.doubles[i];
+    double y = value - aggregate.compensations[i];
+    double t = sum + y;
+    aggregate.compensations[i] = Double.isFinite(t) ? (t - sum) - y : 0.0;
+    aggregate.doubles[i] = t;
+  }
+
+  /**
+   * Aggregates which don't depend on the order of the rows can be calculated in parts on several
+   * threads and merged afterwards.
+   *
+   * @param type The aggregation type
+   * @return true if partial aggregates of this type can be merged
+   */
+  static boolean isMergeable(GroupType type) {
+    switch (type) {
+      case Sum,
+          Average,
+          Median,
+          Percentile,
+          StandardDeviation,
+          CountDistinct,
+          CountAll,
+          CountAny,
+          Minimum,
+          Maximum,
+          ConcatDistinct:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private boolean isParallelAggregation() {
+    if (data.aggregationThreads <= 1) {
+      return false;
+    }
+    if (data.memoryLimit > 0) {
+      logBasic(BaseMessages.getString(PKG, "MemoryGroupBy.Log.ParallelWithMemoryLimit"));
+      return false;
+    }
+    for (GAggregate aggregate : meta.getAggregates()) {
+      if (!isMergeable(aggregate.getType())) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "MemoryGroupBy.Log.ParallelNotMergeable", aggregate.getField()));
+        return false;
+      }
+    }
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Log.ParallelAggregation", data.aggregationThreads));
+    }
+    return true;
+  }
+
+  /**
+   * Merge the partial aggregate of a group calculated by another aggregation thread into the
+   * aggregate of the same group.
+   *
+   * @param target The groups we merge into
+   * @param aggregate The aggregate to merge into
+   * @param source The groups of the other aggregation thread
+   * @param other The partial aggregate of the other thread
+   * @throws HopValueException in case of a conversion error
+   */
+  void mergeAggregate(
+      MemoryGroupByData target, Aggregate aggregate, MemoryGroupByData source, Aggregate other)
+      throws HopValueException {
+    for (int i = 0; i < target.subjectnrs.length; i++) {
+      int accumulator =
+          target.accumulators == null ? Aggregate.ACCUMULATOR_OBJECT : target.accumulators[i];
+      if (accumulator != Aggregate.ACCUMULATOR_OBJECT) {
+        mergeAccumulator(aggregate, other, i, accumulator);
+        continue;
+      }
+      IValueMeta valueMeta = target.aggMeta.getValueMeta(i);
+      IValueMeta otherMeta = source.aggMeta.getValueMeta(i);
+      Object value = aggregate.agg[i];
+      Object otherValue = other.agg[i];
+      GroupType type = meta.getAggregates().get(i).getType();
+
+      switch (type) {
+        case Sum:
+          aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, otherMeta, otherValue);
+          break;
+        case Average:
+          aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, otherMeta, otherValue);
+          aggregate.counts[i] += other.counts[i];
+          break;
+        case Median, Percentile:
+          ((List<Double>) value).addAll((List<Double>) otherValue);
+          break;
+        case StandardDeviation:
+          mergeStandardDeviation(aggregate, other, i);
+          break;
+        case CountDistinct:
+          if (other.distinctObjs == null || other.distinctObjs[i] == null) {
+            break;
+          }
+          if (aggregate.distinctObjs == null) {
+            aggregate.distinctObjs = new Set[meta.getAggregates().size()];
+          }
+          if (aggregate.distinctObjs[i] == null) {
+            aggregate.distinctObjs[i] = other.distinctObjs[i];
+          } else {
+            aggregate.distinctObjs[i].addAll(other.distinctObjs[i]);
+          }
+          aggregate.counts[i] = aggregate.distinctObjs[i].size();
+          break;
+        case CountAll, CountAny:
+          aggregate.counts[i] += other.counts[i];
+          break;
+        case Minimum:
+          boolean otherIsNull = otherMeta.isNull(otherValue);
+          boolean valueIsNull = valueMeta.isNull(value);
+          if (minNullIsValued || (!otherIsNull && !valueIsNull)) {
+            if (otherMeta.compare(otherValue, valueMeta, value) < 0) {
+              aggregate.agg[i] = otherValue;
+            }
+          } else if (valueIsNull && !otherIsNull) {
+            aggregate.agg[i] = otherValue;
+          }
+          break;
+        case Maximum:
+          if (otherMeta.compare(otherValue, valueMeta, value) > 0) {
+            aggregate.agg[i] = otherValue;
+          }
+          break;
+        case ConcatDistinct:
+          ((SortedSet<Object>) value).addAll((SortedSet<Object>) otherValue);
+          break;
+        default:
+          throw new HopValueException("Aggregation type " + type + " can't be merged");
       }
     }
   }
 
+  private static void mergeAccumulator(
+      Aggregate aggregate, Aggregate other, int i, int accumulator) {
+    if (other.counts[i] == 0) {
+      return;
+    }
+    boolean isFirst = aggregate.counts[i] == 0;
+    switch (accumulator) {
+      case Aggregate.ACCUMULATOR_LONG_SUM:
+        aggregate.longs[i] += other.longs[i];
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_SUM:
+        addCompensated(aggregate, i, other.doubles[i] - other.compensations[i]);
+        break;
+      case Aggregate.ACCUMULATOR_LONG_MIN:
+        if (isFirst || other.longs[i] < aggregate.longs[i]) {
+          aggregate.longs[i] = other.longs[i];
+        }
+        break;
+      case Aggregate.ACCUMULATOR_LONG_MAX:
+        if (isFirst || other.longs[i] > aggregate.longs[i]) {
+          aggregate.longs[i] = other.longs[i];
+        }
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_MIN:
+        if (isFirst || Double.compare(other.doubles[i], aggregate.doubles[i]) < 0) {
+          aggregate.doubles[i] = other.doubles[i];
+        }
+        break;
+      case Aggregate.ACCUMULATOR_DOUBLE_MAX:
+        if (isFirst || Double.compare(other.doubles[i], aggregate.doubles[i]) > 0) {
+          aggregate.doubles[i] = other.doubles[i];
+        }
+        break;
+      default:
+        break;
+    }
+    aggregate.counts[i] += other.counts[i];
+  }
+
+  /** Combine the count, mean and sum of squared differences of two parts of the same group */
+  private static void mergeStandardDeviation(Aggregate aggregate, Aggregate other, int i) {
+    long n1 = aggregate.counts[i];
+    long n2 = other.counts[i];
+    if (n2 == 0) {
+      return;
+    }
+    double m2Other = other.agg[i] == null ? 0.0 : (Double) other.agg[i];
+    if (n1 == 0) {
+      aggregate.counts[i] = n2;
+      aggregate.mean[i] = other.mean[i];
+      aggregate.agg[i] = m2Other;
+      return;
+    }
+    double m2 = aggregate.agg[i] == null ? 0.0 : (Double) aggregate.agg[i];
+    double n = (double) n1 + n2;
+    double delta = other.mean[i] - aggregate.mean[i];
+    aggregate.mean[i] += delta * n2 / n;
+    aggregate.agg[i] = m2 + m2Other + delta * delta * n1 * n2 / n;
+    aggregate.counts[i] = n1 + n2;
+  }
+
+  /**
+   * @return The value of an aggregate before its final calculation, null if we have no values
+   */
+  private Object getAccumulatedValue(Aggregate aggregate, int i) {
+    int accumulator =
+        data.accumulators == null ? Aggregate.ACCUMULATOR_OBJECT : data.accumulators[i];
+    if (accumulator == Aggregate.ACCUMULATOR_OBJECT) {
+      return aggregate.agg[i];
+    }
+    if (aggregate.counts[i] == 0) {
+      return null;
+    }
+    if (accumulator == Aggregate.ACCUMULATOR_DOUBLE_SUM) {
+      return aggregate.doubles[i] - aggregate.compensations[i];
+    }
+    if (isLongAccumulator(accumulator)) {
+      return aggregate.longs[i];
+    }
+    return aggregate.doubles[i];
+  }
+
   private void initGroupMeta(IRowMeta previousRowMeta) {
     data.groupMeta = new RowMeta();
     data.entryMeta = new RowMeta();
@@ -475,6 +1034,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       IValueMeta normalMeta = valueMeta.clone();
       normalMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
     }
+
+    data.map = new GroupTable(data.groupMeta, 5000);
   }
 
   /**
@@ -489,7 +1050,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
       GAggregate agg = meta.getAggregates().get(i);
-      Object ag = aggregate.agg[i];
+      Object ag = getAccumulatedValue(aggregate, i);
       switch (agg.getType()) {
         case Sum:
           break;
@@ -554,7 +1115,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   public boolean init() {
 
     if (super.init()) {
-      data.map = new HashMap<>(5000);
+      data.memoryLimit = Const.toLong(resolve(meta.getMemoryLimit()), -1L) * 1024L * 1024L;
+      data.aggregationThreads = Const.toInt(resolve(meta.getAggregationThreads()), 1);
       return true;
     }
     return false;
@@ -562,10 +1124,36 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
   @Override
   public void dispose() {
+    if (data.parallelAggregator != null) {
+      data.parallelAggregator.close();
+      data.parallelAggregator = null;
+    }
+
+    // Remove the temporary files in case we stopped early
+    //
+    if (data.spillFiles != null) {
+      for (SpillFile spillFile : data.spillFiles) {
+        closeSpillFile(spillFile);
+      }
+      data.spillFiles = null;
+    }
+    while (!data.pendingSpillFiles.isEmpty()) {
+      closeSpillFile(data.pendingSpillFiles.pop());
+    }
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
 
+  private void closeSpillFile(SpillFile spillFile) {
+    if (spillFile != null) {
+      try {
+        spillFile.close();
+      } catch (HopException e) {
+        logError(e.getLocalizedMessage(), e);
+      }
+    }
+  }
+
   @Override
   public void batchComplete() throws HopException {
     // Empty the hash table
@@ -17,55 +17,18 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
-import java.util.HashMap;
-import org.apache.hop.core.exception.HopValueException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
-  public class HashEntry {
-    private Object[] groupData;
-
-    public HashEntry(Object[] groupData) {
-      this.groupData = groupData;
-    }
-
-    public Object[] getGroupData() {
-      return groupData;
-    }
-
-    public boolean equals(Object obj) {
-      HashEntry entry = (HashEntry) obj;
-
-      try {
-        return groupMeta.compare(groupData, entry.groupData) == 0;
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
-
-    public int hashCode() {
-      try {
-        return groupMeta.hashCode(getHashValue());
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
-
-    private Object[] getHashValue() throws HopValueException {
-      Object[] groupDataHash = new Object[groupMeta.size()];
-      for (int i = 0; i < groupMeta.size(); i++) {
-        IValueMeta valueMeta = groupMeta.getValueMeta(i);
-        groupDataHash[i] = valueMeta.convertToNormalStorageType(groupData[i]);
-      }
-      return groupDataHash;
-    }
-  }
-
-  public HashMap<HashEntry, Aggregate> map;
+  /** The aggregates of the groups in memory */
+  public GroupTable map;
 
   public IRowMeta aggMeta;
   public IRowMeta groupMeta;
@@ -89,16 +52,56 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /**
+   * How every aggregate is accumulated, one of the Aggregate.ACCUMULATOR_ constants. Determined
+   * from the input metadata on the first row, null if everything is kept as objects.
+   */
+  public int[] accumulators;
+
+  /** True if one of the accumulators keeps its value in Aggregate.longs */
+  public boolean hasLongAccumulators;
+
+  /** True if one of the accumulators keeps its value in Aggregate.doubles */
+  public boolean hasDoubleAccumulators;
+
+  /** The maximum memory the groups can take in bytes, 0 or less if there is no limit */
+  public long memoryLimit;
+
+  /** The estimated memory taken by the groups in the map */
+  public long mapBytes;
+
+  /** The number of times the rows we're aggregating were partitioned, 0 for the input rows */
+  public int spillLevel;
+
+  /** The temporary files of the spilled hash partitions, null if nothing was spilled */
+  public SpillFile[] spillFiles;
+
+  /** The spilled hash partitions which still have to be aggregated */
+  public Deque<SpillFile> pendingSpillFiles;
+
+  /** Writes and reads the input rows in the temporary files */
+  public RowCodec spillCodec;
+
+  /** The number of threads to aggregate the rows on */
+  public int aggregationThreads;
+
+  /** True if the rows are aggregated on several threads and the partial groups merged */
+  public boolean parallelAggregation;
+
+  /** Aggregates the rows on several threads, created on the first row */
+  public ParallelAggregator parallelAggregator;
+
+  /** Holds the group values of a row to look up its group, copied when it's a new group */
+  public Object[] groupLookup;
+
   public MemoryGroupByData() {
     super();
-  }
-
-  public HashEntry getHashEntry(Object[] groupData) {
-    return new HashEntry(groupData);
+    pendingSpillFiles = new ArrayDeque<>();
   }
 
   /** Method responsible for clearing out memory hogs */
   public void clear() {
-    map = new HashMap<>();
+    map = null;
+    mapBytes = 0L;
   }
 }
@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -57,6 +58,14 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private TextVar wMemoryLimit;
+
+  private TextVar wSpillDirectory;
+
+  private TextVar wPrefix;
+
+  private TextVar wAggregationThreads;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -144,12 +153,98 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // The memory limit of the groups
+    //
+    Label wlMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlMemoryLimit.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.Label"));
+    wlMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip"));
+    PropsUi.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip"));
+    PropsUi.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
+    // The directory of the temporary files
+    //
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.Label"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.top = new FormAttachment(wMemoryLimit, margin);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wMemoryLimit, margin);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
+    // The prefix of the temporary files
+    //
+    Label wlPrefix = new Label(shell, SWT.RIGHT);
+    wlPrefix.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Prefix.Label"));
+    PropsUi.setLook(wlPrefix);
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment(0, 0);
+    fdlPrefix.top = new FormAttachment(wSpillDirectory, margin);
+    fdlPrefix.right = new FormAttachment(middle, -margin);
+    wlPrefix.setLayoutData(fdlPrefix);
+    wPrefix = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPrefix);
+    wPrefix.addModifyListener(lsMod);
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment(middle, 0);
+    fdPrefix.top = new FormAttachment(wSpillDirectory, margin);
+    fdPrefix.right = new FormAttachment(100, 0);
+    wPrefix.setLayoutData(fdPrefix);
+
+    // The number of aggregation threads
+    //
+    Label wlAggregationThreads = new Label(shell, SWT.RIGHT);
+    wlAggregationThreads.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.AggregationThreads.Label"));
+    wlAggregationThreads.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.AggregationThreads.ToolTip"));
+    PropsUi.setLook(wlAggregationThreads);
+    FormData fdlAggregationThreads = new FormData();
+    fdlAggregationThreads.left = new FormAttachment(0, 0);
+    fdlAggregationThreads.top = new FormAttachment(wPrefix, margin);
+    fdlAggregationThreads.right = new FormAttachment(middle, -margin);
+    wlAggregationThreads.setLayoutData(fdlAggregationThreads);
+    wAggregationThreads = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wAggregationThreads.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.AggregationThreads.ToolTip"));
+    PropsUi.setLook(wAggregationThreads);
+    wAggregationThreads.addModifyListener(lsMod);
+    FormData fdAggregationThreads = new FormData();
+    fdAggregationThreads.left = new FormAttachment(middle, 0);
+    fdAggregationThreads.top = new FormAttachment(wPrefix, margin);
+    fdAggregationThreads.right = new FormAttachment(100, 0);
+    wAggregationThreads.setLayoutData(fdAggregationThreads);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wAggregationThreads, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -306,6 +401,10 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getDirectory(), ""));
+    wPrefix.setText(Const.NVL(input.getPrefix(), ""));
+    wAggregationThreads.setText(Const.NVL(input.getAggregationThreads(), ""));
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -342,6 +441,10 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setMemoryLimit(wMemoryLimit.getText());
+    input.setDirectory(wSpillDirectory.getText());
+    input.setPrefix(wPrefix.getText());
+    input.setAggregationThreads(wAggregationThreads.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
@@ -82,6 +82,40 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /**
+   * The maximum amount of memory in MB the groups can take. When it's reached the rows of new
+   * groups are written to temporary files and aggregated afterwards. Empty means no limit.
+   */
+  @HopMetadataProperty(
+      key = "memory_limit",
+      injectionKey = "MEMORY_LIMIT",
+      injectionKeyDescription = "MemoryGroupBy.Injection.MEMORY_LIMIT")
+  private String memoryLimit;
+
+  /** Directory to store the temporary files */
+  @HopMetadataProperty(
+      key = "directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_DIRECTORY")
+  private String directory;
+
+  /** Temporary files prefix */
+  @HopMetadataProperty(
+      key = "prefix",
+      injectionKey = "SPILL_FILE_PREFIX",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_FILE_PREFIX")
+  private String prefix;
+
+  /**
+   * The number of threads which aggregate the rows in parallel. Every thread builds partial groups
+   * which are merged when all rows are read.
+   */
+  @HopMetadataProperty(
+      key = "aggregation_threads",
+      injectionKey = "AGGREGATION_THREADS",
+      injectionKeyDescription = "MemoryGroupBy.Injection.AGGREGATION_THREADS")
+  private String aggregationThreads;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
@@ -96,6 +130,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       aggregates.add(new GAggregate(aggregate));
     }
     this.alwaysGivingBackOneRow = meta.alwaysGivingBackOneRow;
+    this.memoryLimit = meta.memoryLimit;
+    this.directory = meta.directory;
+    this.prefix = meta.prefix;
+    this.aggregationThreads = meta.aggregationThreads;
   }
 
   @Override
@@ -464,6 +502,62 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return the memory limit in MB for the groups kept in memory
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit the memory limit in MB for the groups kept in memory
+   */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return the directory to store the temporary files
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory the directory to store the temporary files
+   */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the prefix of the temporary files
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix the prefix of the temporary files
+   */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * @return the number of threads which aggregate the rows in parallel
+   */
+  public String getAggregationThreads() {
+    return aggregationThreads;
+  }
+
+  /**
+   * @param aggregationThreads the number of threads which aggregate the rows in parallel
+   */
+  public void setAggregationThreads(String aggregationThreads) {
+    this.aggregationThreads = aggregationThreads;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.i18n.BaseMessages;
+
+/**
+ * Aggregates the rows on a number of threads. The rows are handed out in chunks to whichever
+ * aggregation thread is available. Every thread keeps its own partial groups so that it never has
+ * to wait for the others. After the last row the partial groups of all threads are merged into one
+ * table. This is only possible for aggregates which don't depend on the order of the rows, see
+ * {@link MemoryGroupBy#isMergeable(MemoryGroupByMeta.GroupType)}.
+ */
+public class ParallelAggregator implements AutoCloseable {
+  private static final Class<?> PKG = MemoryGroupByMeta.class;
+
+  /** The number of rows handed to an aggregation thread at once */
+  static final int CHUNK_SIZE = 1000;
+
+  private static final long POLL_MILLIS = 100L;
+
+  /** Marks the end of the rows in the queue */
+  private static final List<Object[]> END = new ArrayList<>(0);
+
+  private final MemoryGroupBy memoryGroupBy;
+  private final Worker[] workers;
+
+  /** The chunks of rows to aggregate, shared by all aggregation threads */
+  private final BlockingQueue<List<Object[]>> input;
+
+  private List<Object[]> chunk;
+
+  private volatile boolean closed;
+
+  /**
+   * @param memoryGroupBy The transform we aggregate for
+   * @param data The transform data with the group and aggregate metadata
+   * @param nrThreads The number of threads to aggregate on
+   */
+  public ParallelAggregator(MemoryGroupBy memoryGroupBy, MemoryGroupByData data, int nrThreads) {
+    this.memoryGroupBy = memoryGroupBy;
+    int nrWorkers = Math.max(1, nrThreads);
+    this.input = new ArrayBlockingQueue<>(nrWorkers * 2);
+    this.chunk = new ArrayList<>(CHUNK_SIZE);
+    this.workers = new Worker[nrWorkers];
+    for (int i = 0; i < nrWorkers; i++) {
+      workers[i] = new Worker(i, data);
+    }
+    for (Worker worker : workers) {
+      worker.thread.start();
+    }
+  }
+
+  /**
+   * Add a row to aggregate.
+   *
+   * @param row The row
+   * @throws HopException in case an aggregation thread failed
+   */
+  public void addRow(Object[] row) throws HopException {
+    chunk.add(row);
+    if (chunk.size() >= CHUNK_SIZE) {
+      send(chunk);
+      chunk = new ArrayList<>(CHUNK_SIZE);
+    }
+  }
+
+  /** Hand a chunk of rows to the aggregation threads, wait if they're all busy. */
+  private void send(List<Object[]> rows) throws HopException {
+    try {
+      while (!input.offer(rows, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        checkFailures();
+        if (memoryGroupBy.isStopped()) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+  }
+
+  /**
+   * All rows were added: wait for the aggregation threads to finish and merge their groups.
+   *
+   * @return The merged groups
+   * @throws HopException in case an aggregation thread failed or the groups can't be merged
+   */
+  public GroupTable finish() throws HopException {
+    if (!chunk.isEmpty()) {
+      send(chunk);
+      chunk = new ArrayList<>(0);
+    }
+    for (int i = 0; i < workers.length; i++) {
+      send(END);
+    }
+    for (Worker worker : workers) {
+      try {
+        while (worker.thread.isAlive()) {
+          worker.thread.join(POLL_MILLIS);
+          checkFailures();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(e);
+      }
+    }
+    checkFailures();
+
+    if (workers.length > 1 && memoryGroupBy.isDetailed()) {
+      memoryGroupBy.logDetailed(
+          BaseMessages.getString(PKG, "MemoryGroupBy.Log.MergingPartialGroups", workers.length));
+    }
+
+    // Merge the partial groups into the groups of the first thread
+    //
+    MemoryGroupByData result = workers[0].data;
+    for (int w = 1; w < workers.length && !memoryGroupBy.isStopped(); w++) {
+      MemoryGroupByData source = workers[w].data;
+      GroupTable table = source.map;
+      for (int slot = 0; slot < table.getCapacity(); slot++) {
+        Object[] groupData = table.getGroupData(slot);
+        if (groupData == null) {
+          continue;
+        }
+        int hash = table.getHash(slot);
+        Aggregate other = table.getAggregate(slot);
+        Aggregate aggregate = result.map.get(groupData, hash);
+        if (aggregate == null) {
+          result.map.put(groupData, hash, other);
+        } else {
+          memoryGroupBy.mergeAggregate(result, aggregate, source, other);
+        }
+      }
+      source.clear();
+    }
+    return result.map;
+  }
+
+  private void checkFailures() throws HopException {
+    for (Worker worker : workers) {
+      Throwable e = worker.failure;
+      if (e != null) {
+        throw new HopException("Error aggregating rows on thread " + worker.thread.getName(), e);
+      }
+    }
+  }
+
+  /** Stop the aggregation threads. */
+  @Override
+  public void close() {
+    closed = true;
+    for (Worker worker : workers) {
+      try {
+        worker.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    input.clear();
+  }
+
+  private boolean isDone() {
+    return closed || memoryGroupBy.isStopped();
+  }
+
+  /** An aggregation thread with its own partial groups */
+  private final class Worker implements Runnable {
+    private final MemoryGroupByData data;
+    private final Thread thread;
+
+    private volatile Throwable failure;
+
+    Worker(int index, MemoryGroupByData transformData) {
+      // Value metadata caches formatters while converting values: every thread needs its own copy
+      //
+      data = new MemoryGroupByData();
+      data.inputRowMeta = transformData.inputRowMeta.clone();
+      data.groupMeta = transformData.groupMeta.clone();
+      data.aggMeta = transformData.aggMeta.clone();
+      data.groupnrs = transformData.groupnrs;
+      data.subjectnrs = transformData.subjectnrs;
+      data.accumulators = transformData.accumulators;
+      data.hasLongAccumulators = transformData.hasLongAccumulators;
+      data.hasDoubleAccumulators = transformData.hasDoubleAccumulators;
+      data.memoryLimit = 0L;
+      data.map = new GroupTable(data.groupMeta, 5000);
+
+      thread =
+          new Thread(this, memoryGroupBy.getTransformName() + " - aggregation thread " + index);
+      thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<Object[]> rows = poll();
+        while (rows != null && rows != END) {
+          for (Object[] row : rows) {
+            memoryGroupBy.addToAggregate(data, row);
+          }
+          rows = poll();
+        }
+      } catch (Throwable e) {
+        failure = e;
+      }
+    }
+
+    /** Wait for rows from the transform thread, null if we have to stop */
+    private List<Object[]> poll() throws InterruptedException {
+      List<Object[]> rows = input.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      while (rows == null && !isDone()) {
+        rows = input.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      }
+      return rows;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.exception.HopEofException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.RowCodec;
+import org.apache.hop.core.vfs.HopVfs;
+
+/**
+ * A temporary file with the input rows of the groups which didn't fit in memory, for one hash
+ * partition. The file is first written completely and then read back once.
+ */
+public class SpillFile implements AutoCloseable {
+  private static final int BUFFER_SIZE = 50000;
+
+  private final FileObject file;
+  private final RowCodec rowCodec;
+  private final int level;
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+  private long rowCount;
+
+  /**
+   * Create the file and write the header of the row codec.
+   *
+   * @param file The temporary file
+   * @param rowCodec The codec to write and read the input rows with
+   * @param level The number of times the rows were partitioned
+   * @throws HopException in case the file can't be created
+   */
+  public SpillFile(FileObject file, RowCodec rowCodec, int level) throws HopException {
+    this.file = file;
+    this.rowCodec = rowCodec;
+    this.level = level;
+    try {
+      outputStream =
+          new DataOutputStream(
+              new BufferedOutputStream(HopVfs.getOutputStream(file, false), BUFFER_SIZE));
+      rowCodec.writeHeader(outputStream);
+    } catch (IOException | HopException e) {
+      throw new HopFileException("Unable to create temp-file " + file, e);
+    }
+  }
+
+  /**
+   * Write an input row to the file.
+   *
+   * @param row The row
+   * @throws HopException in case the row can't be written
+   */
+  public void writeRow(Object[] row) throws HopException {
+    rowCodec.writeRow(outputStream, row);
+    rowCount++;
+  }
+
+  /**
+   * Stop writing and open the file for reading.
+   *
+   * @throws HopException in case the file can't be closed or opened
+   */
+  public void startReading() throws HopException {
+    closeOutput();
+    try {
+      inputStream =
+          new DataInputStream(new BufferedInputStream(HopVfs.getInputStream(file), BUFFER_SIZE));
+      rowCodec.readHeader(inputStream);
+    } catch (IOException | HopException e) {
+      throw new HopFileException("Unable to open temp-file " + file, e);
+    }
+  }
+
+  /**
+   * Read the next row of the file.
+   *
+   * @return The next row or null if there are no more rows
+   * @throws HopException in case the row can't be read
+   */
+  public Object[] readRow() throws HopException {
+    try {
+      return rowCodec.readRow(inputStream);
+    } catch (HopEofException e) {
+      return null;
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException("Timeout reading temp-file " + file, e);
+    }
+  }
+
+  /**
+   * Stop writing: flush and close the output of the file.
+   *
+   * @throws HopFileException in case the file can't be closed
+   */
+  public void closeOutput() throws HopFileException {
+    if (outputStream != null) {
+      try {
+        outputStream.close();
+      } catch (IOException e) {
+        throw new HopFileException("Unable to close temp-file " + file, e);
+      } finally {
+        outputStream = null;
+      }
+    }
+  }
+
+  /** Close the file and delete it. */
+  @Override
+  public void close() throws HopException {
+    HopFileException exception = null;
+    try {
+      closeOutput();
+      if (inputStream != null) {
+        inputStream.close();
+        inputStream = null;
+      }
+    } catch (IOException e) {
+      exception = new HopFileException("Unable to close temp-file " + file, e);
+    } catch (HopFileException e) {
+      exception = e;
+    }
+    try {
+      if (file.exists()) {
+        file.delete();
+      }
+    } catch (FileSystemException e) {
+      if (exception == null) {
+        exception = new HopFileException("Unable to delete temp-file " + file, e);
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * @return The number of times the rows in this file were partitioned
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * @return The number of rows written to the file
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return The temporary file
+   */
+  public FileObject getFile() {
+    return file;
+  }
+}
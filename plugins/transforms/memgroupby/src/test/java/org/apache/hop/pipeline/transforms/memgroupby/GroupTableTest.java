@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class GroupTableTest {
+
+  @Test
+  public void testBinaryStorageKeys() throws Exception {
+    IValueMeta keyMeta = new ValueMetaString("key");
+    keyMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    keyMeta.setStorageMetadata(new ValueMetaString("key"));
+    IRowMeta groupMeta = new RowMeta();
+    groupMeta.addValueMeta(keyMeta);
+
+    GroupTable table = new GroupTable(groupMeta, 16);
+    Aggregate aggregate = new Aggregate();
+    table.put(new Object[] {"key".getBytes()}, aggregate);
+
+    // A different array with the same bytes is the same group
+    //
+    assertSame(aggregate, table.get(new Object[] {"key".getBytes()}));
+    assertNull(table.get(new Object[] {"other".getBytes()}));
+    assertEquals(1, table.size());
+  }
+
+  @Test
+  public void testGrowAndIterate() throws Exception {
+    IRowMeta groupMeta = new RowMeta();
+    groupMeta.addValueMeta(new ValueMetaInteger("id"));
+    groupMeta.addValueMeta(new ValueMetaString("code"));
+
+    GroupTable table = new GroupTable(groupMeta, 1);
+    Aggregate[] aggregates = new Aggregate[10000];
+    for (int i = 0; i < aggregates.length; i++) {
+      aggregates[i] = new Aggregate();
+      table.put(new Object[] {(long) i, i % 2 == 0 ? null : "c" + i}, aggregates[i]);
+    }
+    assertEquals(aggregates.length, table.size());
+
+    for (int i = 0; i < aggregates.length; i++) {
+      assertSame(aggregates[i], table.get(new Object[] {(long) i, i % 2 == 0 ? null : "c" + i}));
+    }
+    assertNull(table.get(new Object[] {1L, null}));
+
+    // Replacing an aggregate doesn't add a group
+    //
+    Aggregate replacement = new Aggregate();
+    table.put(new Object[] {0L, null}, replacement);
+    assertSame(replacement, table.get(new Object[] {0L, null}));
+    assertEquals(aggregates.length, table.size());
+
+    int nrGroups = 0;
+    for (int slot = 0; slot < table.getCapacity(); slot++) {
+      if (table.getGroupData(slot) != null) {
+        assertTrue(table.getAggregate(slot) != null);
+        nrGroups++;
+      }
+    }
+    assertEquals(aggregates.length, nrGroups);
+
+    table.clear();
+    assertTrue(table.isEmpty());
+    assertNull(table.get(new Object[] {5L, "c5"}));
+  }
+}
@@ -21,7 +21,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
-import java.util.HashMap;
 import java.util.List;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
@@ -30,7 +29,6 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
-import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.AfterClass;
@@ -84,7 +82,7 @@ public class MemoryGroupByAggregationNullsTest {
     data.outputRowMeta = rmi;
     data.groupMeta = rmi;
     data.groupnrs = new int[] {};
-    data.map = new HashMap<>();
+    data.map = new GroupTable(rmi, 16);
     when(rmi.getValueMeta(Mockito.anyInt())).thenReturn(vmi);
     data.aggMeta = rmi;
     transform =
@@ -94,12 +92,12 @@ public class MemoryGroupByAggregationNullsTest {
     // put aggregate into map with default predefined value
     aggregate = new Aggregate();
     aggregate.agg = new Object[] {def};
-    data.map.put(getHashEntry(), aggregate);
+    data.map.put(getGroupData(), aggregate);
   }
 
-  // test hash entry
-  HashEntry getHashEntry() {
-    return data.getHashEntry(new Object[data.groupMeta.size()]);
+  // test group key
+  Object[] getGroupData() {
+    return new Object[data.groupMeta.size()];
   }
 
   /**
@@ -119,7 +117,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.setMinNullIsValued(true);
     transform.addToAggregate(new Object[] {null});
 
-    Aggregate agg = data.map.get(getHashEntry());
+    Aggregate agg = data.map.get(getGroupData());
     Assert.assertNotNull("Hash code strategy changed?", agg);
 
     Assert.assertNull("Value is set", agg.agg[0]);
@@ -131,7 +129,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.setMinNullIsValued(false);
     transform.addToAggregate(new Object[] {null});
 
-    Aggregate agg = data.map.get(getHashEntry());
+    Aggregate agg = data.map.get(getGroupData());
     Assert.assertNotNull("Hash code strategy changed?", agg);
 
     Assert.assertEquals("Value is NOT set", def, agg.agg[0]);
@@ -178,7 +176,7 @@ public class MemoryGroupByAggregationNullsTest {
     aggregate.agg = new Object[] {new byte[0]};
     byte[] bytes = {51};
     transform.addToAggregate(new Object[] {bytes});
-    Aggregate result = data.map.get(getHashEntry());
+    Aggregate result = data.map.get(getGroupData());
     Assert.assertEquals("Returns non-null value", bytes, result.agg[0]);
   }
 
@@ -207,7 +205,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.addToAggregate(new Object[] {binaryData0.getBytes()});
     transform.addToAggregate(new Object[] {binaryData1.getBytes()});
 
-    Object[] distinctObjs = data.map.get(getHashEntry()).distinctObjs[0].toArray();
+    Object[] distinctObjs = data.map.get(getGroupData()).distinctObjs[0].toArray();
 
     Assert.assertEquals(binaryData0, distinctObjs[1]);
     Assert.assertEquals(binaryData1, distinctObjs[0]);
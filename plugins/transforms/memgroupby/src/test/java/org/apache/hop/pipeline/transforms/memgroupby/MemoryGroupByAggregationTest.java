@@ -257,6 +257,27 @@ public class MemoryGroupByAggregationTest {
     assertEquals(3, output.getInteger("value_count_distinct"));
   }
 
+  @Test
+  public void testNumberSumIsCompensated() throws Exception {
+    addColumn(new ValueMetaNumber("num"), 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, null);
+    addColumn(new ValueMetaInteger("intg"), Long.MAX_VALUE - 1, null, 1L);
+
+    aggregates =
+        Maps.toMap(List.of("min", "max", "sum", "ave"), Functions.forMap(default_aggregates));
+
+    RowMetaAndData output = runTransform();
+
+    // A plain sum of the doubles gives 0.9999999999999999
+    assertEquals(1.0, output.getNumber("num_sum", Double.NaN));
+    assertEquals(0.1, output.getNumber("num_ave", Double.NaN));
+    assertEquals(0.1, output.getNumber("num_min", Double.NaN));
+    assertEquals(0.1, output.getNumber("num_max", Double.NaN));
+
+    assertEquals(Long.MAX_VALUE, output.getInteger("intg_sum"));
+    assertEquals(1L, output.getInteger("intg_min"));
+    assertEquals(Long.MAX_VALUE - 1, output.getInteger("intg_max"));
+  }
+
   private RowMetaAndData runTransform() throws HopException {
     // Allocate meta
     List<String> aggKeys = ImmutableList.copyOf(aggregates.keySet());
@@ -274,7 +295,6 @@ public class MemoryGroupByAggregationTest {
     }
 
     MemoryGroupByData data = new MemoryGroupByData();
-    data.map = Maps.newHashMap();
 
     TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
     PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class MemoryGroupByParallelTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Memory group by", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void cleanUp() {
+    mockHelper.cleanUp();
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("customer"));
+    rowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    rowMeta.addValueMeta(new ValueMetaNumber("price"));
+    return rowMeta;
+  }
+
+  /** Every customer gets nrRowsPerCustomer rows, spread over the input. */
+  private List<Object[]> createRows(int nrCustomers, int nrRowsPerCustomer) {
+    List<Object[]> rows = new ArrayList<>();
+    long seq = 0;
+    for (int r = 0; r < nrRowsPerCustomer; r++) {
+      for (int c = 0; c < nrCustomers; c++) {
+        rows.add(
+            new Object[] {"customer-" + c, seq % 7 == 0 ? null : seq % 100, (seq % 1000) / 10.0});
+        seq++;
+      }
+    }
+    return rows;
+  }
+
+  private MemoryGroupByMeta createMeta(String threads, GAggregate... extraAggregates) {
+    List<GAggregate> aggregates =
+        new ArrayList<>(
+            List.of(
+                new GAggregate("sum", "amount", GroupType.Sum, null),
+                new GAggregate("average", "price", GroupType.Average, null),
+                new GAggregate("min", "amount", GroupType.Minimum, null),
+                new GAggregate("max", "price", GroupType.Maximum, null),
+                new GAggregate("count", "amount", GroupType.CountAll, null),
+                new GAggregate("countAny", "amount", GroupType.CountAny, null),
+                new GAggregate("distinct", "amount", GroupType.CountDistinct, null),
+                new GAggregate("stddev", "price", GroupType.StandardDeviation, null),
+                new GAggregate("median", "price", GroupType.Median, null),
+                new GAggregate("amounts", "amount", GroupType.ConcatDistinct, null)));
+    aggregates.addAll(List.of(extraAggregates));
+
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setGroups(List.of(new GGroup("customer")));
+    meta.setAggregates(aggregates);
+    meta.setAggregationThreads(threads);
+    return meta;
+  }
+
+  /** Run the transform and return the output rows by group. */
+  private Map<Object, Object[]> aggregate(
+      MemoryGroupByMeta meta, MemoryGroupByData data, List<Object[]> rows) throws HopException {
+    IRowMeta inputRowMeta = createRowMeta();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    IRowSet inputRowSet = new QueueRowSet();
+    for (Object[] row : rows) {
+      inputRowSet.putRow(inputRowMeta, row);
+    }
+    inputRowSet.setDone();
+    transform.addRowSetToInputRowSets(inputRowSet);
+    transform.setInputRowMeta(inputRowMeta);
+    assertTrue(transform.init());
+
+    Map<Object, Object[]> output = new HashMap<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            Object[] previous = output.put(row[0], row);
+            assertNull("Group " + row[0] + " was passed twice", previous);
+          }
+        });
+    while (transform.processRow()) {
+      // Keep aggregating
+    }
+    transform.dispose();
+    return output;
+  }
+
+  private void assertSameGroups(Map<Object, Object[]> expected, Map<Object, Object[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (Map.Entry<Object, Object[]> entry : expected.entrySet()) {
+      Object[] expectedRow = entry.getValue();
+      Object[] actualRow = actual.get(entry.getKey());
+      for (int i = 0; i < expectedRow.length; i++) {
+        String message = "Group " + entry.getKey() + ", field " + i;
+        // The order in which numbers are added changes the last bits of the result
+        if (expectedRow[i] instanceof Double expectedNumber) {
+          assertEquals(message, expectedNumber, (Double) actualRow[i], 1e-9);
+        } else {
+          assertEquals(message, expectedRow[i], actualRow[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testParallelAggregation() throws Exception {
+    List<Object[]> rows = createRows(20000, 5);
+
+    MemoryGroupByData singleData = new MemoryGroupByData();
+    Map<Object, Object[]> expected = aggregate(createMeta(null), singleData, rows);
+    assertFalse(singleData.parallelAggregation);
+
+    MemoryGroupByData parallelData = new MemoryGroupByData();
+    Map<Object, Object[]> actual = aggregate(createMeta("4"), parallelData, rows);
+    assertTrue(parallelData.parallelAggregation);
+    assertNull(parallelData.parallelAggregator);
+
+    assertEquals(20000, expected.size());
+    assertSameGroups(expected, actual);
+
+    // customer-0 gets seq 0, 20000, 40000, 60000 and 80000: only the first amount is null
+    Object[] row = actual.get("customer-0");
+    assertEquals(0L, row[1]);
+    assertEquals(4L, row[5]);
+    assertEquals(5L, row[6]);
+  }
+
+  @Test
+  public void testOrderDependentAggregateUsesOneThread() throws Exception {
+    List<Object[]> rows = createRows(100, 10);
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    Map<Object, Object[]> output =
+        aggregate(
+            createMeta("4", new GAggregate("first", "amount", GroupType.First, null)), data, rows);
+
+    assertFalse(data.parallelAggregation);
+    assertEquals(100, output.size());
+    // customer-1 gets seq 1, 101, 201, ... 901
+    assertEquals(1L, output.get("customer-1")[11]);
+  }
+}
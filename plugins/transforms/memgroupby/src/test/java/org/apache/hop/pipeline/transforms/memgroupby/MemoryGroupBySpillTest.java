@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Memory group by", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void cleanUp() {
+    mockHelper.cleanUp();
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("customer"));
+    rowMeta.addValueMeta(new ValueMetaInteger("seq"));
+    rowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    return rowMeta;
+  }
+
+  /** Every customer gets nrRowsPerCustomer rows, spread over the input. */
+  private List<Object[]> createRows(int nrCustomers, int nrRowsPerCustomer) {
+    List<Object[]> rows = new ArrayList<>();
+    long seq = 0;
+    for (int r = 0; r < nrRowsPerCustomer; r++) {
+      for (int c = 0; c < nrCustomers; c++) {
+        rows.add(new Object[] {"customer-" + c, seq, seq % 7 == 0 ? null : seq % 100});
+        seq++;
+      }
+    }
+    return rows;
+  }
+
+  private MemoryGroupByMeta createMeta(String memoryLimit) {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setGroups(List.of(new GGroup("customer")));
+    meta.setAggregates(
+        List.of(
+            new GAggregate("sum", "amount", GroupType.Sum, null),
+            new GAggregate("count", "amount", GroupType.CountAll, null),
+            new GAggregate("distinct", "amount", GroupType.CountDistinct, null),
+            new GAggregate("first", "seq", GroupType.First, null),
+            new GAggregate("last", "seq", GroupType.Last, null),
+            new GAggregate("all", "seq", GroupType.ConcatComma, null)));
+    meta.setMemoryLimit(memoryLimit);
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setPrefix("grp");
+    return meta;
+  }
+
+  /**
+   * Run the transform and return the output rows by group.
+   *
+   * @param spilledFiles Receives the number of temporary files present when the first group is
+   *     passed on
+   */
+  private Map<Object, Object[]> aggregate(
+      MemoryGroupByMeta meta, List<Object[]> rows, AtomicInteger spilledFiles) throws HopException {
+    IRowMeta inputRowMeta = createRowMeta();
+    MemoryGroupByData data = new MemoryGroupByData();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    IRowSet inputRowSet = new QueueRowSet();
+    for (Object[] row : rows) {
+      inputRowSet.putRow(inputRowMeta, row);
+    }
+    inputRowSet.setDone();
+    transform.addRowSetToInputRowSets(inputRowSet);
+    transform.setInputRowMeta(inputRowMeta);
+    assertTrue(transform.init());
+
+    Map<Object, Object[]> output = new HashMap<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            if (output.isEmpty()) {
+              String[] files = tempFolder.getRoot().list();
+              spilledFiles.set(files == null ? 0 : files.length);
+            }
+            Object[] previous = output.put(row[0], row);
+            assertEquals("Group " + row[0] + " was passed twice", null, previous);
+          }
+        });
+    while (transform.processRow()) {
+      // Keep aggregating
+    }
+    transform.dispose();
+    return output;
+  }
+
+  private void assertNoTempFiles() {
+    String[] files = tempFolder.getRoot().list();
+    assertNotNull(files);
+    assertEquals(0, files.length);
+  }
+
+  @Test
+  public void testSpillToDisk() throws Exception {
+    // Enough groups to spill hash partitions again while aggregating a spilled partition
+    List<Object[]> rows = createRows(100000, 2);
+
+    AtomicInteger inMemoryFiles = new AtomicInteger();
+    Map<Object, Object[]> expected = aggregate(createMeta(null), rows, inMemoryFiles);
+    assertEquals(0, inMemoryFiles.get());
+
+    AtomicInteger spilledFiles = new AtomicInteger();
+    Map<Object, Object[]> actual = aggregate(createMeta("1"), rows, spilledFiles);
+    assertTrue(spilledFiles.get() > 0);
+
+    assertEquals(100000, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (Map.Entry<Object, Object[]> entry : expected.entrySet()) {
+      assertArrayEquals("Group " + entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+    }
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testNoSpillUnderLimit() throws Exception {
+    List<Object[]> rows = createRows(100, 10);
+
+    AtomicInteger spilledFiles = new AtomicInteger();
+    Map<Object, Object[]> output = aggregate(createMeta("100"), rows, spilledFiles);
+
+    assertEquals(0, spilledFiles.get());
+    assertEquals(100, output.size());
+    // customer-0 gets seq 0, 100, 200, ... 900
+    Object[] row = output.get("customer-0");
+    assertEquals(0L, row[4]);
+    assertEquals(900L, row[5]);
+    assertEquals("0, 100, 200, 300, 400, 500, 600, 700, 800, 900", row[6]);
+    assertNoTempFiles();
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.util.EnvUtil;
@@ -384,6 +385,141 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
   @Override
   public boolean processRow() throws HopException {
+    if (!isReadingBatches()) {
+      return processSingleRow();
+    }
+
+    RowBatch batch = getBatch(); // get a batch of rows, wait for our turn, indicate busy!
+    if (batch == null) { // no more input to be expected...
+
+      setOutputDone();
+      return false;
+    }
+
+    // The field indexes are determined on the first row. After that the selected columns are
+    // copied as a whole unless the metadata of the values changes or the rows are logged.
+    //
+    if (first || data.metadata || isRowLevel()) {
+      if (!selectRows(batch)) {
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+    } else {
+      putBatch(data.metadataRowMeta, selectColumns(batch));
+    }
+
+    if (checkFeedback(getLinesRead(), batch.size())) {
+      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  /**
+   * Select, remove and change the metadata of the values of a batch one row at a time.
+   *
+   * @param batch The input rows
+   * @return false if the transform stops
+   * @throws HopException In case of an error without error handling
+   */
+  private boolean selectRows(RowBatch batch) throws HopException {
+    RowBatch outputBatch = null;
+    for (int i = 0; i < batch.size(); i++) {
+      Object[] outputData = selectRow(batch.getRow(i));
+      if (outputData == null) {
+        if (isStopped()) {
+          return false;
+        }
+        continue; // the row went to error handling
+      }
+      if (outputBatch == null) {
+        outputBatch = new RowBatch(data.metadataRowMeta, batch.size());
+      }
+      outputBatch.addRow(outputData);
+    }
+
+    // Send the rows on their way
+    //
+    if (outputBatch != null) {
+      putBatch(data.metadataRowMeta, outputBatch);
+    }
+    return true;
+  }
+
+  /**
+   * Select and remove the columns of a batch without changing their metadata.
+   *
+   * @param batch The input rows
+   * @return The output rows
+   * @throws HopValueException In case a value can't be cloned
+   */
+  private RowBatch selectColumns(RowBatch batch) throws HopValueException {
+    if (data.columnnrs == null) {
+      initColumnnrs();
+    }
+
+    RowBatch outputBatch = new RowBatch(data.metadataRowMeta, batch.size());
+    for (int c = 0; c < data.columnnrs.length; c++) {
+      int columnnr = data.columnnrs[c];
+      outputBatch.setColumn(c, batch, columnnr);
+
+      // Primitive columns hold copies of the values already
+      //
+      if (data.clonecolumns[c] && outputBatch.getColumnKind(c) == RowBatch.KIND_OBJECT) {
+        IValueMeta valueMeta = getInputRowMeta().getValueMeta(columnnr);
+        for (int i = 0; i < batch.size(); i++) {
+          if (!outputBatch.isNull(i, c)) {
+            outputBatch.setValue(i, c, valueMeta.cloneValueData(outputBatch.getValue(i, c)));
+          }
+        }
+      }
+    }
+    outputBatch.setSize(batch.size());
+    return outputBatch;
+  }
+
+  /**
+   * Determine the input column of every output column, and which of them are cloned like
+   * selectValues() does, when the metadata doesn't change.
+   */
+  private void initColumnnrs() {
+    List<Integer> selected = new ArrayList<>();
+    List<Boolean> cloned = new ArrayList<>();
+    if (data.select) {
+      for (int idx : data.fieldnrs) {
+        if (idx < getInputRowMeta().size()) {
+          selected.add(idx);
+          cloned.add(true);
+        }
+      }
+      for (int idx : data.extraFieldnrs) {
+        selected.add(idx);
+        cloned.add(false);
+      }
+    } else {
+      for (int idx = 0; idx < getInputRowMeta().size(); idx++) {
+        selected.add(idx);
+        cloned.add(false);
+      }
+    }
+    if (data.deselect) {
+      // Remove from the back so that the indexes of the other fields don't change
+      //
+      for (int i = data.removenrs.length - 1; i >= 0; i--) {
+        selected.remove(data.removenrs[i]);
+        cloned.remove(data.removenrs[i]);
+      }
+    }
+
+    data.columnnrs = new int[selected.size()];
+    data.clonecolumns = new boolean[selected.size()];
+    for (int i = 0; i < data.columnnrs.length; i++) {
+      data.columnnrs[i] = selected.get(i);
+      data.clonecolumns[i] = cloned.get(i);
+    }
+  }
+
+  private boolean processSingleRow() throws HopException {
     Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
     if (rowData == null) { // no more input to be expected...
 
@@ -391,6 +527,39 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       return false;
     }
 
+    Object[] outputData = selectRow(rowData);
+    if (outputData == null && isStopped()) {
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    if (outputData != null) {
+      // Send the row on its way
+      //
+      putRow(data.metadataRowMeta, outputData);
+      if (isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
+                + data.metadataRowMeta.getString(outputData));
+      }
+    }
+
+    if (checkFeedback(getLinesRead())) {
+      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  /**
+   * Select, remove and change the metadata of the values of one row. A row with an error goes to
+   * error handling if that is enabled.
+   *
+   * @param rowData The input row
+   * @return The output row or null if the row went to error handling or the transform stops
+   * @throws HopException In case of an error without error handling
+   */
+  private Object[] selectRow(Object[] rowData) throws HopException {
     Object[] rowCopy = null;
     if (getTransformMeta().isDoingErrorHandling()) {
       rowCopy = getInputRowMeta().cloneRow(rowData);
@@ -419,27 +588,13 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       if (data.select) {
         outputData = selectValues(getInputRowMeta(), outputData);
       }
-      if (data.deselect) {
+      if (data.deselect && outputData != null) {
         outputData = removeValues(data.selectRowMeta, outputData);
       }
-      if (data.metadata) {
+      if (data.metadata && outputData != null) {
         outputData = metadataValues(data.deselectRowMeta, outputData);
       }
-
-      if (outputData == null) {
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-
-      // Send the row on its way
-      //
-      putRow(data.metadataRowMeta, outputData);
-      if (isRowLevel()) {
-        logRowlevel(
-            BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
-                + data.metadataRowMeta.getString(outputData));
-      }
-
+      return outputData;
     } catch (HopException e) {
       if (getTransformMeta().isDoingErrorHandling()) {
         String field;
@@ -450,16 +605,11 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
           field = null;
         }
         putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
+        return null;
       } else {
         throw e;
       }
     }
-
-    if (checkFeedback(getLinesRead())) {
-      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
-    }
-
-    return true;
   }
 
   @Override
@@ -29,6 +29,11 @@ public class SelectValuesData extends BaseTransformData implements ITransformDat
   public int[] removenrs;
   public int[] metanrs;
 
+  /** The input column of every output column, to select the columns of batches of rows */
+  public int[] columnnrs;
+
+  public boolean[] clonecolumns;
+
   public boolean firstselect;
   public boolean firstdeselect;
   public boolean firstmetadata;
@@ -0,0 +1,453 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowCodec;
+import org.apache.hop.core.row.RowSizeEstimator;
+import org.apache.hop.i18n.BaseMessages;
+
+/**
+ * Sorts the rows on a number of threads. The first rows are kept aside while a random sample is
+ * taken from them with reservoir sampling. The sorted sample gives the boundaries of consecutive
+ * key ranges, one per thread. After that every row is handed to the thread of its key range where
+ * it's sorted in memory or in sorted runs on disk, just like the single threaded sort. Since the
+ * key ranges don't overlap, reading the threads one after the other gives a globally sorted result.
+ *
+ * <p>Rows with the same sort key end up on the same thread in the order in which they arrived which
+ * keeps the sort stable.
+ *
+ * <p>The key ranges are based on the rows kept aside only: the rows after them can't be sampled
+ * without keeping them aside as well. If the input is ordered or its keys change further on, the
+ * threads get unequal shares of the rows. The result is sorted all the same, only the work is
+ * spread less evenly.
+ */
+public class ParallelSorter implements AutoCloseable {
+  private static final Class<?> PKG = SortRows.class;
+
+  /** The number of sampled rows per partition */
+  static final int SAMPLES_PER_PARTITION = 100;
+
+  /** The maximum number of rows we keep aside before we determine the key ranges */
+  static final int MAX_SAMPLE_WINDOW = 100_000;
+
+  /** The number of rows handed to or from a sort thread at once */
+  static final int CHUNK_SIZE = 1000;
+
+  private static final int QUEUE_SIZE = 4;
+  private static final long POLL_MILLIS = 100L;
+
+  /** Marks the end of the rows in a queue */
+  private static final List<Object[]> END = new ArrayList<>(0);
+
+  private final SortRows sortRows;
+  private final SortRowsData data;
+  private final int nrPartitions;
+
+  /** The rows we keep aside until we know the key ranges */
+  private List<Object[]> window;
+
+  private long windowBytes;
+  private final int windowSize;
+
+  private List<Object[]> sample;
+  private final int sampleSize;
+  private long nrSampled;
+  private final Random random;
+
+  private SortPartitioner partitioner;
+  private Partition[] partitions;
+  private List<Object[]>[] chunks;
+
+  /** The partition we're reading sorted rows from */
+  private int outputPartition;
+
+  private List<Object[]> outputChunk;
+  private int outputIndex;
+
+  private volatile boolean closed;
+
+  /**
+   * @param sortRows The transform we sort for
+   * @param data The transform data with the sort settings
+   * @param nrPartitions The number of threads to sort on
+   */
+  public ParallelSorter(SortRows sortRows, SortRowsData data, int nrPartitions) {
+    this.sortRows = sortRows;
+    this.data = data;
+    this.nrPartitions = Math.max(1, nrPartitions);
+    this.sampleSize = this.nrPartitions * SAMPLES_PER_PARTITION;
+    this.windowSize =
+        data.sortSize > 0 ? Math.min(data.sortSize, MAX_SAMPLE_WINDOW) : MAX_SAMPLE_WINDOW;
+    this.window = new ArrayList<>();
+    this.sample = new ArrayList<>(sampleSize);
+    this.random = new Random();
+  }
+
+  /**
+   * Add a row to sort.
+   *
+   * @param row The row
+   * @throws HopException in case a sort thread failed
+   */
+  public void addRow(Object[] row) throws HopException {
+    if (partitioner != null) {
+      route(row);
+      return;
+    }
+
+    window.add(row);
+    sampleRow(row);
+    if (data.memoryLimit > 0) {
+      windowBytes +=
+          RowSizeEstimator.estimateRowSize(data.outputRowMeta, row) + SortRows.SORT_ENTRY_SIZE;
+    }
+    if (window.size() >= windowSize
+        || (data.memoryLimit > 0 && windowBytes >= data.memoryLimit / 2)) {
+      startPartitions();
+    }
+  }
+
+  /** Reservoir sampling: every row kept aside has the same chance to be in the sample */
+  private void sampleRow(Object[] row) {
+    nrSampled++;
+    if (sample.size() < sampleSize) {
+      sample.add(row);
+    } else {
+      long index = random.nextLong(nrSampled);
+      if (index < sampleSize) {
+        sample.set((int) index, row);
+      }
+    }
+  }
+
+  /** Determine the key ranges, start the sort threads and hand over the rows we kept aside. */
+  @SuppressWarnings("unchecked")
+  private void startPartitions() throws HopException {
+    partitioner = new SortPartitioner(sample, nrPartitions, data.keyEncoder, data.rowComparator);
+    if (sortRows.isDetailed()) {
+      sortRows.logDetailed(
+          BaseMessages.getString(
+              PKG, "SortRows.Detailed.ParallelSort", nrPartitions, sample.size()));
+    }
+
+    partitions = new Partition[nrPartitions];
+    chunks = new List[nrPartitions];
+    for (int i = 0; i < nrPartitions; i++) {
+      partitions[i] = new Partition(i);
+      chunks[i] = new ArrayList<>(CHUNK_SIZE);
+    }
+    for (Partition partition : partitions) {
+      partition.thread.start();
+    }
+
+    List<Object[]> rows = window;
+    window = null;
+    sample = null;
+    for (Object[] row : rows) {
+      route(row);
+    }
+  }
+
+  private void route(Object[] row) throws HopException {
+    int index = partitioner.partitionOf(row);
+    List<Object[]> chunk = chunks[index];
+    chunk.add(row);
+    if (chunk.size() >= CHUNK_SIZE) {
+      send(partitions[index], chunk);
+      chunks[index] = new ArrayList<>(CHUNK_SIZE);
+    }
+  }
+
+  /** Hand a chunk of rows to a sort thread, wait if it's busy. */
+  private void send(Partition partition, List<Object[]> chunk) throws HopException {
+    try {
+      while (!partition.input.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        partition.checkFailure();
+        if (sortRows.isStopped()) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+  }
+
+  /**
+   * All rows were added: let the sort threads sort the last rows they received. Afterwards the
+   * sorted rows can be read with {@link #next()}.
+   *
+   * @throws HopException in case a sort thread failed
+   */
+  public void finish() throws HopException {
+    if (partitioner == null) {
+      if (window.isEmpty()) {
+        return;
+      }
+      startPartitions();
+    }
+    for (int i = 0; i < nrPartitions; i++) {
+      if (!chunks[i].isEmpty()) {
+        send(partitions[i], chunks[i]);
+        chunks[i] = new ArrayList<>(0);
+      }
+      send(partitions[i], END);
+    }
+  }
+
+  /**
+   * Get the next row in sort order.
+   *
+   * @return The next row or null if there are no more rows
+   * @throws HopException in case a sort thread failed
+   */
+  public Object[] next() throws HopException {
+    if (partitions == null) {
+      return null;
+    }
+    while (outputPartition < nrPartitions) {
+      if (outputChunk != null && outputIndex < outputChunk.size()) {
+        return outputChunk.get(outputIndex++);
+      }
+      List<Object[]> chunk = partitions[outputPartition].take();
+      if (chunk == null) {
+        return null; // stopped
+      }
+      if (chunk == END) {
+        outputPartition++;
+        outputChunk = null;
+      } else {
+        outputChunk = chunk;
+        outputIndex = 0;
+      }
+    }
+    return null;
+  }
+
+  /** Stop the sort threads and remove their temporary files. */
+  @Override
+  public void close() {
+    closed = true;
+    if (partitions == null) {
+      return;
+    }
+    for (Partition partition : partitions) {
+      try {
+        partition.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      partition.cleanUp();
+    }
+    partitions = null;
+  }
+
+  private boolean isDone() {
+    return closed || sortRows.isStopped();
+  }
+
+  /** One key range with the thread which sorts it */
+  private final class Partition implements Runnable {
+    private final BlockingQueue<List<Object[]>> input = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final BlockingQueue<List<Object[]>> output = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread thread;
+
+    /** Read and written by the sort thread, cleaned up after it stopped */
+    private final List<Object[]> buffer = new ArrayList<>();
+
+    private final List<FileObject> files = new ArrayList<>();
+    private final RowCodec rowCodec;
+    private SortRunMerger merger;
+
+    private final int sortSize;
+    private final long memoryLimit;
+    private final int minSortSize;
+    private long bufferBytes;
+    private int freeCounter;
+    private int freeMemoryPct = 100;
+
+    private volatile Throwable failure;
+
+    Partition(int index) {
+      // The limits are shared by all threads
+      //
+      this.sortSize = data.sortSize > 0 ? Math.max(1, data.sortSize / nrPartitions) : -1;
+      this.memoryLimit = data.memoryLimit > 0 ? Math.max(1L, data.memoryLimit / nrPartitions) : -1L;
+      this.minSortSize = Math.max(1, data.minSortSize / nrPartitions);
+
+      // A codec keeps state while reading and writing: every thread needs its own
+      //
+      this.rowCodec = new RowCodec(data.outputRowMeta);
+      this.thread = new Thread(this, sortRows.getTransformName() + " - sort thread " + index);
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<Object[]> chunk = poll(input);
+        while (chunk != null && chunk != END) {
+          for (Object[] row : chunk) {
+            addRow(row);
+          }
+          chunk = poll(input);
+        }
+        if (chunk == null) {
+          return; // stopped
+        }
+
+        if (files.isEmpty()) {
+          sortRows.quickSort(buffer);
+          for (int start = 0; start < buffer.size(); start += CHUNK_SIZE) {
+            if (!offer(buffer.subList(start, Math.min(start + CHUNK_SIZE, buffer.size())))) {
+              return;
+            }
+          }
+        } else {
+          writeRun();
+          merger = sortRows.openMerger(files, rowCodec);
+          List<Object[]> rows = new ArrayList<>(CHUNK_SIZE);
+          Object[] row = merger.next();
+          while (row != null) {
+            rows.add(row);
+            if (rows.size() >= CHUNK_SIZE) {
+              if (!offer(rows)) {
+                return;
+              }
+              rows = new ArrayList<>(CHUNK_SIZE);
+            }
+            row = merger.next();
+          }
+          if (!rows.isEmpty() && !offer(rows)) {
+            return;
+          }
+        }
+        offer(END);
+      } catch (Throwable e) {
+        failure = e;
+      }
+    }
+
+    private void addRow(Object[] row) throws HopException {
+      buffer.add(row);
+      if (memoryLimit > 0) {
+        bufferBytes +=
+            RowSizeEstimator.estimateRowSize(data.outputRowMeta, row) + SortRows.SORT_ENTRY_SIZE;
+      }
+      if (data.freeMemoryPctLimit > 0 && ++freeCounter >= 1000) {
+        freeMemoryPct = Const.getPercentageFreeMemory();
+        freeCounter = 0;
+      }
+
+      // Buffer is full: sort & dump to disk
+      boolean doSort = sortSize > 0 && buffer.size() >= sortSize;
+      doSort |= memoryLimit > 0 && bufferBytes >= memoryLimit;
+      doSort |=
+          data.freeMemoryPctLimit > 0
+              && freeMemoryPct < data.freeMemoryPctLimit
+              && buffer.size() >= minSortSize;
+      if (doSort) {
+        writeRun();
+      }
+    }
+
+    private void writeRun() throws HopException {
+      if (buffer.isEmpty()) {
+        return;
+      }
+      sortRows.quickSort(buffer);
+      files.add(sortRows.writeRun(buffer, rowCodec));
+      buffer.clear();
+      bufferBytes = 0L;
+      freeMemoryPct = Const.getPercentageFreeMemory();
+      freeCounter = 0;
+    }
+
+    /** Wait for rows from the transform thread, null if we have to stop */
+    private List<Object[]> poll(BlockingQueue<List<Object[]>> queue) throws InterruptedException {
+      List<Object[]> chunk = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      while (chunk == null && !isDone()) {
+        chunk = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      }
+      return chunk;
+    }
+
+    /** Hand sorted rows to the transform thread, false if we have to stop */
+    private boolean offer(List<Object[]> chunk) throws InterruptedException {
+      while (!output.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (isDone()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Take sorted rows on the transform thread, null if the transform was stopped */
+    private List<Object[]> take() throws HopException {
+      try {
+        List<Object[]> chunk = output.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        while (chunk == null) {
+          checkFailure();
+          if (sortRows.isStopped()) {
+            return null;
+          }
+          chunk = output.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return chunk;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(e);
+      }
+    }
+
+    private void checkFailure() throws HopException {
+      Throwable e = failure;
+      if (e != null) {
+        throw new HopException("Error sorting rows on thread " + thread.getName(), e);
+      }
+    }
+
+    /** Only called once the sort thread stopped */
+    private void cleanUp() {
+      if (merger != null) {
+        try {
+          merger.close();
+        } catch (HopException e) {
+          sortRows.logError(e.getLocalizedMessage(), e);
+        }
+        merger = null;
+      }
+      for (FileObject file : files) {
+        sortRows.deleteFile(file);
+      }
+      files.clear();
+      buffer.clear();
+      input.clear();
+      output.clear();
+    }
+  }
+}
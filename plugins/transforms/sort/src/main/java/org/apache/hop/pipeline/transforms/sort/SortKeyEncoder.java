@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+
+/**
+ * Encodes the sort fields of a row into a normalized binary key: comparing two keys byte by byte
+ * (unsigned) gives the same result as {@link IRowMeta#compare(Object[], Object[], int[])} on the
+ * rows. This way the sort and the merge don't have to compare rows value by value.
+ *
+ * <p>Only String (case sensitive, no collator), Integer, Number, Date, Boolean and Binary fields
+ * without a custom comparator can be encoded. Use {@link #isSupported(IRowMeta, int[])} to find out
+ * if the sort fields qualify, the rows are compared value by value otherwise.
+ *
+ * <p>Every field starts with a null marker byte followed by an encoding which is prefix free. For
+ * descending fields all the bytes of the field are inverted.
+ */
+public class SortKeyEncoder {
+  private static final byte NULL_MARKER = 0x00;
+  private static final byte VALUE_MARKER = 0x01;
+
+  private final IRowMeta rowMeta;
+  private final int[] fieldNrs;
+  private final IValueMeta[] valueMetas;
+
+  /** A per-thread buffer to build the keys in */
+  private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+  public SortKeyEncoder(IRowMeta rowMeta, int[] fieldNrs) {
+    this.rowMeta = rowMeta;
+    this.fieldNrs = fieldNrs;
+    this.valueMetas = new IValueMeta[fieldNrs.length];
+    for (int i = 0; i < fieldNrs.length; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(fieldNrs[i]);
+    }
+  }
+
+  /**
+   * See if the given sort fields can be encoded in a normalized key.
+   *
+   * @param rowMeta The layout of the rows
+   * @param fieldNrs The indexes of the sort fields
+   * @return true if all sort fields can be encoded
+   */
+  public static boolean isSupported(IRowMeta rowMeta, int[] fieldNrs) {
+    for (int fieldNr : fieldNrs) {
+      if (!isSupported(rowMeta.getValueMeta(fieldNr))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupported(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return false;
+    }
+    // A custom comparator decides the order itself
+    //
+    if (valueMeta instanceof ValueMetaBase valueMetaBase && valueMetaBase.getComparator() != null) {
+      return false;
+    }
+    // Only the plain value types, subclasses could compare differently
+    //
+    Class<?> clazz = valueMeta.getClass();
+    if (clazz == ValueMetaString.class) {
+      return valueMeta.isCollatorDisabled() && !valueMeta.isCaseInsensitive();
+    }
+    return clazz == ValueMetaInteger.class
+        || clazz == ValueMetaNumber.class
+        || clazz == ValueMetaDate.class
+        || clazz == ValueMetaBoolean.class
+        || clazz == ValueMetaBinary.class;
+  }
+
+  /**
+   * Encode the sort fields of a row. This method is thread-safe.
+   *
+   * @param row The row of data
+   * @return The normalized key of the row
+   * @throws HopValueException in case a value can't be converted
+   */
+  public byte[] encode(Object[] row) throws HopValueException {
+    Buffer buffer = buffers.get();
+    buffer.size = 0;
+    for (int i = 0; i < fieldNrs.length; i++) {
+      IValueMeta valueMeta = valueMetas[i];
+      int start = buffer.size;
+      encodeValue(buffer, valueMeta, row[fieldNrs[i]]);
+      if (valueMeta.isSortedDescending()) {
+        buffer.invert(start);
+      }
+    }
+    return Arrays.copyOf(buffer.bytes, buffer.size);
+  }
+
+  private void encodeValue(Buffer buffer, IValueMeta valueMeta, Object value)
+      throws HopValueException {
+    if (valueMeta.isNull(value)) {
+      buffer.add(NULL_MARKER);
+      return;
+    }
+    buffer.add(VALUE_MARKER);
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        String string = valueMeta.getString(value);
+        if (valueMeta.isIgnoreWhitespace()) {
+          string = string.trim();
+        }
+        encodeString(buffer, string);
+        break;
+      case IValueMeta.TYPE_INTEGER:
+        buffer.addLong(valueMeta.getInteger(value) ^ Long.MIN_VALUE);
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        long bits = Double.doubleToLongBits(valueMeta.getNumber(value));
+        buffer.addLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+        break;
+      case IValueMeta.TYPE_DATE:
+        buffer.addLong(valueMeta.getDate(value).getTime() ^ Long.MIN_VALUE);
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        buffer.add(Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? (byte) 1 : (byte) 0);
+        break;
+      case IValueMeta.TYPE_BINARY:
+        // Shorter values come first, then the signed bytes
+        byte[] bytes = (byte[]) value;
+        buffer.addInt(bytes.length);
+        for (byte b : bytes) {
+          buffer.add((byte) (b ^ 0x80));
+        }
+        break;
+      default:
+        throw new HopValueException(
+            "Unable to build a sort key for " + valueMeta.toStringMeta() + " : unsupported type");
+    }
+  }
+
+  /**
+   * The characters are written as UTF-16 big endian which sorts like String.compareTo(). A zero
+   * byte is escaped as 0x00 0xFF and the string ends with 0x00 0x00 so that a string sorts before
+   * any longer string with the same prefix.
+   */
+  private static void encodeString(Buffer buffer, String string) {
+    int length = string.length();
+    buffer.ensure(length * 4 + 2);
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      addEscaped(buffer, (byte) (c >>> 8));
+      addEscaped(buffer, (byte) c);
+    }
+    buffer.add((byte) 0x00);
+    buffer.add((byte) 0x00);
+  }
+
+  private static void addEscaped(Buffer buffer, byte b) {
+    buffer.add(b);
+    if (b == 0) {
+      buffer.add((byte) 0xFF);
+    }
+  }
+
+  /**
+   * Compare two normalized keys.
+   *
+   * @param key1 The first key
+   * @param key2 The second key
+   * @return a negative number, zero or a positive number if the first key sorts before, the same as
+   *     or after the second key
+   */
+  public static int compareKeys(byte[] key1, byte[] key2) {
+    return Arrays.compareUnsigned(key1, key2);
+  }
+
+  /**
+   * @return The layout of the rows
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  private static final class Buffer {
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    private void ensure(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+
+    private void add(byte b) {
+      ensure(1);
+      bytes[size++] = b;
+    }
+
+    private void addInt(int value) {
+      ensure(4);
+      for (int shift = 24; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void addLong(long value) {
+      ensure(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void invert(int start) {
+      for (int i = start; i < size; i++) {
+        bytes[i] = (byte) ~bytes[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.hop.core.exception.HopValueException;
+
+/**
+ * Splits the sort keys in consecutive ranges, one per partition. The boundaries of the ranges are
+ * taken from a sorted sample of the rows so every partition gets about the same number of rows.
+ *
+ * <p>Partition p gets the rows with a key larger than boundary p-1 and smaller than or equal to
+ * boundary p. Rows with the same key always go to the same partition.
+ */
+public class SortPartitioner {
+  private final SortKeyEncoder keyEncoder;
+  private final Comparator<Object[]> rowComparator;
+  private final int nrPartitions;
+
+  /** The boundary keys if we have a key encoder */
+  private final byte[][] boundaryKeys;
+
+  /** The boundary rows if we compare rows */
+  private final Object[][] boundaryRows;
+
+  /**
+   * Determine the boundaries of the partitions.
+   *
+   * @param sample A random sample of the rows to sort, it's sorted in place
+   * @param nrPartitions The number of partitions
+   * @param keyEncoder The encoder of normalized sort keys or null to compare rows
+   * @param rowComparator The comparator to use if there is no key encoder
+   * @throws HopValueException in case a sort key can't be encoded
+   */
+  public SortPartitioner(
+      List<Object[]> sample,
+      int nrPartitions,
+      SortKeyEncoder keyEncoder,
+      Comparator<Object[]> rowComparator)
+      throws HopValueException {
+    this.keyEncoder = keyEncoder;
+    this.rowComparator = rowComparator;
+    this.nrPartitions = Math.max(1, nrPartitions);
+
+    int nrBoundaries = sample.isEmpty() ? 0 : this.nrPartitions - 1;
+    if (keyEncoder != null) {
+      List<byte[]> keys = new ArrayList<>(sample.size());
+      for (Object[] row : sample) {
+        keys.add(keyEncoder.encode(row));
+      }
+      keys.sort(SortKeyEncoder::compareKeys);
+      boundaryKeys = new byte[nrBoundaries][];
+      for (int i = 0; i < nrBoundaries; i++) {
+        boundaryKeys[i] = keys.get(boundaryIndex(i, keys.size()));
+      }
+      boundaryRows = null;
+    } else {
+      sample.sort(rowComparator);
+      boundaryRows = new Object[nrBoundaries][];
+      for (int i = 0; i < nrBoundaries; i++) {
+        boundaryRows[i] = sample.get(boundaryIndex(i, sample.size()));
+      }
+      boundaryKeys = null;
+    }
+  }
+
+  /** The index in the sorted sample of the upper boundary of partition i */
+  private int boundaryIndex(int i, int sampleSize) {
+    return Math.max(0, (int) ((long) (i + 1) * sampleSize / nrPartitions) - 1);
+  }
+
+  /**
+   * Find the partition of a row.
+   *
+   * @param row The row
+   * @return The partition number, from 0 to the number of partitions - 1
+   * @throws HopValueException in case the sort key can't be encoded
+   */
+  public int partitionOf(Object[] row) throws HopValueException {
+    int low = 0;
+    int high;
+    if (boundaryKeys != null) {
+      byte[] key = keyEncoder.encode(row);
+      high = boundaryKeys.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (SortKeyEncoder.compareKeys(key, boundaryKeys[mid]) <= 0) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+    } else {
+      high = boundaryRows.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (rowComparator.compare(row, boundaryRows[mid]) <= 0) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return The number of partitions
+   */
+  public int getNrPartitions() {
+    return nrPartitions;
+  }
+}
@@ -17,29 +17,22 @@
 
 package org.apache.hop.pipeline.transforms.sort;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
-import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowCodec;
+import org.apache.hop.core.row.RowSizeEstimator;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -52,6 +45,18 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class;
 
+  /** The maximum number of sorted runs we merge at once */
+  static final int MAX_MERGE_FAN_IN = 128;
+
+  private static final String GZIP_COMPRESSION = "GZip";
+  private static final String NO_COMPRESSION = "None";
+
+  /** The estimated memory per buffered row on top of the row itself: references and sort key */
+  static final long SORT_ENTRY_SIZE = 48L;
+
+  private static final Comparator<SortEntry> SORT_ENTRY_ORDER =
+      (e1, e2) -> SortKeyEncoder.compareKeys(e1.key, e2.key);
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -71,8 +76,21 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       }
     }
 
+    // Sorting on multiple threads?
+    //
+    if (data.parallelSort) {
+      if (data.parallelSorter == null) {
+        data.parallelSorter = new ParallelSorter(this, data, data.sortThreads);
+      }
+      data.parallelSorter.addRow(r);
+      return;
+    }
+
     // Save row
     data.buffer.add(r);
+    if (data.memoryLimit > 0) {
+      data.bufferBytes += RowSizeEstimator.estimateRowSize(rowMeta, r) + SORT_ENTRY_SIZE;
+    }
 
     // Check the free memory every 1000 rows...
     //
@@ -96,6 +114,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
     // Buffer is full: sort & dump to disk
     boolean doSort = data.buffer.size() == data.sortSize;
+    doSort |= data.memoryLimit > 0 && data.bufferBytes >= data.memoryLimit;
     doSort |=
         data.freeMemoryPctLimit > 0
             && data.freeMemoryPct < data.freeMemoryPctLimit
@@ -123,63 +142,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     quickSort(data.buffer);
 
     // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
-
     try {
-      FileObject fileObject =
-          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
-
-      data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
-
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
-      Object[] previousRow = null;
-      if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
-      }
-
-      // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
-
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
-        }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
-        }
-      }
+      data.files.add(writeRun(data.buffer, data.rowCodec)); // Remember the files!
 
       if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
         data.minSortSize = data.buffer.size(); // if we did it once, we can do
@@ -194,13 +158,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
       // Clear the list
       data.buffer.clear();
-
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
+      data.bufferBytes = 0L;
 
       // How much memory do we have left?
       //
@@ -218,150 +176,165 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+  private FileObject createTempFile() throws HopException {
+    return HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
   }
 
-  // get sorted rows from available files in iterative manner.
-  // that means call to this method will continue to return rows
-  // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
-    Object[] retval;
-
-    // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
-      if (isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
-      }
-
-      try {
-        for (int f = 0; f < data.files.size() && !isStopped(); f++) {
-          FileObject fileObject = data.files.get(f);
-          String filename = HopVfs.getFilename(fileObject);
-          if (isDetailed()) {
-            logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
-          }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
-
-          // How long is the buffer?
-          int buffersize = data.bufferSizes.get(f);
-
-          if (isDetailed()) {
-            logDetailed(
+  /**
+   * Write sorted rows to a new temporary file. Duplicate rows are left out if we only pass unique
+   * rows.
+   *
+   * @param rows The sorted rows
+   * @param rowCodec The codec to write the rows with
+   * @return The new sorted run
+   */
+  FileObject writeRun(List<Object[]> rows, RowCodec rowCodec) throws HopException {
+    FileObject fileObject = createTempFile();
+    try (SortRunWriter writer = new SortRunWriter(fileObject, data.compressionProvider, rowCodec)) {
+      Object[] previousRow = null;
+      for (Object[] row : rows) {
+        if (meta.isOnlyPassingUniqueRows()
+            && previousRow != null
+            && data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0) {
+          if (isRowLevel()) {
+            logRowlevel(
                 BaseMessages.getString(
-                    PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
-          }
-
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
-            data.tempRows.add(new RowTempFile(row, f));
+                    PKG,
+                    "SortRows.RowLevel.DuplicateRowRemoved",
+                    data.outputRowMeta.getString(row)));
           }
+        } else {
+          writer.writeRow(row);
         }
-
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
-      } catch (Exception e) {
-        logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
+        previousRow = row;
       }
+    } catch (HopException e) {
+      deleteFile(fileObject);
+      throw e;
     }
+    return fileObject;
+  }
 
-    if (data.files.isEmpty()) {
-      // read from in-memory processing
-
-      if (data.getBufferIndex < data.buffer.size()) {
-        retval = data.buffer.get(data.getBufferIndex);
-        data.getBufferIndex++;
-      } else {
-        retval = null;
+  /** Open the given sorted runs for reading. */
+  private List<SortRunReader> openRuns(List<FileObject> files, RowCodec rowCodec)
+      throws HopException {
+    List<SortRunReader> readers = new ArrayList<>(files.size());
+    try {
+      for (FileObject fileObject : files) {
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "SortRows.Detailed.OpeningTempFile", HopVfs.getFilename(fileObject)));
+        }
+        readers.add(new SortRunReader(fileObject, data.compressionProvider, rowCodec));
       }
-    } else {
-      // read from disk processing
-
-      if (data.rowbuffer.isEmpty()) {
-        retval = null;
-      } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
-        //
-        if (isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
-          }
+    } catch (HopException e) {
+      for (SortRunReader reader : readers) {
+        try {
+          reader.close();
+        } catch (HopException ce) {
+          // We're already reporting the original problem
         }
+      }
+      throw e;
+    }
+    return readers;
+  }
 
-        RowTempFile rowTempFile = data.tempRows.remove(0);
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
-
-        // now get another Row for position smallest
-
-        FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
+  /**
+   * Merge a number of sorted runs into a single new run. The merged runs are deleted.
+   *
+   * @param files The sorted runs to merge
+   * @param rowCodec The codec to read and write the rows with
+   * @return The new sorted run
+   */
+  private FileObject mergeRuns(List<FileObject> files, RowCodec rowCodec) throws HopException {
+    if (isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.MergingTempFiles", files.size()));
+    }
+    FileObject fileObject = createTempFile();
+    try (SortRunMerger merger =
+            new SortRunMerger(openRuns(files, rowCodec), data.keyEncoder, data.rowComparator);
+        SortRunWriter writer = new SortRunWriter(fileObject, data.compressionProvider, rowCodec)) {
+      Object[] row = merger.next();
+      while (row != null && !isStopped()) {
+        writer.writeRow(row);
+        row = merger.next();
+      }
+    } catch (HopException e) {
+      deleteFile(fileObject);
+      throw e;
+    }
+    for (FileObject file : files) {
+      deleteFile(file);
+    }
+    return fileObject;
+  }
 
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
-          try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
-            file.delete();
-          } catch (IOException e) {
-            logError(
-                BaseMessages.getString(
-                    PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString()));
-            setErrors(1);
-            stopAll();
-            return null;
-          }
+  /**
+   * Open all sorted runs for the final merge. If there are more than {@link #MAX_MERGE_FAN_IN} runs
+   * we first merge groups of runs until we have few enough of them. Consecutive runs are merged
+   * together to keep the sort stable.
+   *
+   * @param files The sorted runs, replaced by the merged runs if we need more than one pass
+   * @param rowCodec The codec to read and write the rows with
+   */
+  SortRunMerger openMerger(List<FileObject> files, RowCodec rowCodec) throws HopException {
+    while (files.size() > MAX_MERGE_FAN_IN && !isStopped()) {
+      List<FileObject> merged = new ArrayList<>();
+      try {
+        for (int start = 0; start < files.size(); start += MAX_MERGE_FAN_IN) {
+          int end = Math.min(start + MAX_MERGE_FAN_IN, files.size());
+          merged.add(mergeRuns(files.subList(start, end), rowCodec));
+        }
+      } catch (HopException e) {
+        // Make sure all files are cleaned up
+        files.addAll(merged);
+        throw e;
+      }
+      files.clear();
+      files.addAll(merged);
+    }
 
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
+    if (isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", files.size()));
+    }
+    return new SortRunMerger(openRuns(files, rowCodec), data.keyEncoder, data.rowComparator);
+  }
 
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
+  void deleteFile(FileObject fileObject) {
+    try {
+      if (fileObject != null && fileObject.exists()) {
+        fileObject.delete();
+      }
+    } catch (FileSystemException e) {
+      logError(
+          BaseMessages.getString(
+              PKG, "SortRows.Error.UnableToCloseFile", data.files.size(), fileObject.toString()),
+          e);
+    }
+  }
 
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
-        }
+  // get sorted rows from available files in iterative manner.
+  // that means call to this method will continue to return rows
+  // till all temp files will not be read to the end.
+  Object[] getBuffer() throws HopException {
+    if (data.parallelSorter != null) {
+      return data.parallelSorter.next();
+    }
+    if (data.files.isEmpty()) {
+      // read from in-memory processing
+      if (data.getBufferIndex < data.buffer.size()) {
+        return data.buffer.get(data.getBufferIndex++);
       }
+      return null;
+    }
+
+    // read from disk processing: merge all sorted runs
+    if (data.merger == null) {
+      data.merger = openMerger(data.files, data.rowCodec);
     }
-    return retval;
+    return data.merger.next();
   }
 
   @Override
@@ -417,7 +390,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       // Metadata
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
-      data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
 
       for (int i = 0; i < meta.getSortFields().size(); i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(meta.getSortFields().get(i).getFieldName());
@@ -442,6 +414,20 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+
+      // Compare normalized binary keys if the sort fields allow it
+      //
+      if (SortKeyEncoder.isSupported(data.outputRowMeta, data.fieldnrs)) {
+        data.keyEncoder = new SortKeyEncoder(data.outputRowMeta, data.fieldnrs);
+      } else {
+        data.keyEncoder = null;
+      }
+      data.rowCodec = new RowCodec(data.outputRowMeta);
+
+      // Sorting on multiple threads only makes sense if we don't sort in presorted groups
+      //
+      data.parallelSort =
+          data.sortThreads > 1 && (data.groupnrs == null || data.groupnrs.length == 0);
     } // end if first
 
     // it is not first row and it is null
@@ -557,7 +543,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
     data.sortSize = Const.toInt(resolve(meta.getSortSize()), -1);
     data.freeMemoryPctLimit = Const.toInt(meta.getFreeMemoryLimit(), -1);
-    if (data.sortSize <= 0 && data.freeMemoryPctLimit <= 0) {
+    data.memoryLimit = Const.toLong(resolve(meta.getMemoryLimit()), -1L) * 1024L * 1024L;
+    if (data.sortSize <= 0 && data.freeMemoryPctLimit <= 0 && data.memoryLimit <= 0) {
       // Prefer the memory limit as it should never fail
       //
       data.freeMemoryPctLimit = 25;
@@ -567,16 +554,28 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
-
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.isCompressFiles());
 
-    data.tempRows = new ArrayList<>();
+    // The compression of the temporary files, GZip if only the compress option is set.
+    //
+    String compressionType = resolve(meta.getCompressionType());
+    if (Utils.isEmpty(compressionType) && data.compressFiles) {
+      compressionType = GZIP_COMPRESSION;
+    }
+    data.compressionProvider = null;
+    if (!Utils.isEmpty(compressionType) && !NO_COMPRESSION.equalsIgnoreCase(compressionType)) {
+      data.compressionProvider =
+          CompressionProviderFactory.getInstance().getCompressionProviderByName(compressionType);
+      if (data.compressionProvider == null) {
+        logError(
+            BaseMessages.getString(PKG, "SortRows.Error.UnknownCompressionType", compressionType));
+        return false;
+      }
+    }
 
     data.minSortSize = 5000;
+    data.sortThreads = Const.toInt(resolve(meta.getSortThreads()), 1);
 
     return true;
   }
@@ -589,40 +588,44 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private void clearBuffers() {
 
+    // Stop the sort threads and remove their temp files
+    if (data.parallelSorter != null) {
+      data.parallelSorter.close();
+      data.parallelSorter = null;
+    }
+
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
+    data.bufferBytes = 0L;
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
-      }
-    }
-    // remove temp files
-    for (int f = 0; f < data.files.size(); f++) {
-      FileObject fileToDelete = data.files.get(f);
+    // close the open temp files
+    if (data.merger != null) {
       try {
-        if (fileToDelete != null && fileToDelete.exists()) {
-          fileToDelete.delete();
-        }
-      } catch (FileSystemException e) {
+        data.merger.close();
+      } catch (HopException e) {
         logError(e.getLocalizedMessage(), e);
       }
+      data.merger = null;
+    }
+    // remove temp files
+    for (FileObject fileToDelete : data.files) {
+      deleteFile(fileToDelete);
     }
+    data.files.clear();
   }
 
-  /** Sort the entire vector, if it is not empty. */
-  void quickSort(List<Object[]> elements) {
+  /**
+   * Sort the entire vector, if it is not empty. With normalized sort keys the rows are sorted in
+   * parallel.
+   */
+  void quickSort(List<Object[]> elements) throws HopException {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (data.keyEncoder != null) {
+        sortOnKeys(elements);
+      } else {
+        elements.sort(data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -637,6 +640,22 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
+  private void sortOnKeys(List<Object[]> elements) throws HopValueException {
+    SortEntry[] entries = new SortEntry[elements.size()];
+    for (int i = 0; i < entries.length; i++) {
+      Object[] row = elements.get(i);
+      entries[i] = new SortEntry(data.keyEncoder.encode(row), row);
+    }
+
+    // This is a stable sort, small arrays are sorted sequentially
+    //
+    Arrays.parallelSort(entries, SORT_ENTRY_ORDER);
+
+    for (int i = 0; i < entries.length; i++) {
+      elements.set(i, entries[i].row);
+    }
+  }
+
   @Override
   public void startBundle() throws HopException {
     // Do nothing
@@ -665,7 +684,10 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   }
 
   private void preSortBeforeFlush() throws HopException {
-    if (!data.files.isEmpty()) {
+    if (data.parallelSorter != null) {
+      // let the sort threads sort their rows
+      data.parallelSorter.finish();
+    } else if (!data.files.isEmpty()) {
       // dump to dist and then read from disk
       sortExternalRows();
     } else {
@@ -701,23 +723,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
-  private class RowTemapFileComparator extends SortRowsComparator
-      implements Comparator<RowTempFile> {
-    RowTemapFileComparator(IRowMeta rowMeta, int[] fieldNrs) {
-      super(rowMeta, fieldNrs);
-    }
-
-    @Override
-    public int compare(RowTempFile o1, RowTempFile o2) {
-      try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
-      } catch (HopValueException e) {
-        logError("Error comparing rows: " + e.toString());
-        return 0;
-      }
-    }
-  }
-
   private class RowObjectArrayComparator extends SortRowsComparator
       implements Comparator<Object[]> {
     RowObjectArrayComparator(IRowMeta rowMeta, int[] fieldNrs) {
@@ -734,4 +739,15 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       }
     }
   }
+
+  /** A row with its normalized sort key */
+  private static final class SortEntry {
+    private final byte[] key;
+    private final Object[] row;
+
+    SortEntry(byte[] key, Object[] row) {
+      this.key = key;
+      this.row = row;
+    }
+  }
 }
@@ -17,41 +17,55 @@
 
 package org.apache.hop.pipeline.transforms.sort;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowCodec;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class SortRowsData extends BaseTransformData implements ITransformData {
+  /** The sorted runs written to disk, in the order in which they were written */
   public List<FileObject> files;
+
   public List<Object[]> buffer;
   public int getBufferIndex;
 
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
-  public List<Integer> bufferSizes;
+  /** The estimated memory taken by the rows in the buffer */
+  public long bufferBytes;
+
+  /** The maximum memory the buffer can take in bytes, 0 or less if there is no limit */
+  public long memoryLimit;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  /** Merges the sorted runs on disk */
+  public SortRunMerger merger;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
   public IRowMeta outputRowMeta;
+  public RowCodec rowCodec;
   public int sortSize;
   public boolean compressFiles;
+  public ICompressionProvider compressionProvider;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
-  Comparator<RowTempFile> comparator;
+  /** The number of threads to sort on */
+  public int sortThreads;
+
+  /** True if we sort on multiple threads */
+  public boolean parallelSort;
+
+  /** Sorts the rows on multiple threads, null if we sort on the transform thread */
+  public ParallelSorter parallelSorter;
+
+  /** Builds normalized binary sort keys, null if the sort fields don't support this */
+  public SortKeyEncoder keyEncoder;
+
   Comparator<Object[]> rowComparator;
 
   public int freeCounter;
@@ -71,10 +85,6 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     super();
 
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    gzis = new ArrayList<>();
-    dis = new ArrayList<>();
-    bufferSizes = new ArrayList<>();
 
     previous = null; // Heroic
   }
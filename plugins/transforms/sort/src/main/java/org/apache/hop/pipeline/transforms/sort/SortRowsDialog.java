@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.sort;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -33,6 +34,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.CheckBoxVar;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -67,8 +69,14 @@ public class SortRowsDialog extends BaseTransformDialog {
 
   private TextVar wFreeMemory;
 
+  private TextVar wMemoryLimit;
+
+  private TextVar wSortThreads;
+
   private CheckBoxVar wCompress;
 
+  private ComboVar wCompression;
+
   private Button wUniqueRows;
 
   private TableView wFields;
@@ -214,6 +222,46 @@ public class SortRowsDialog extends BaseTransformDialog {
     fdFreeMemory.right = new FormAttachment(100, 0);
     wFreeMemory.setLayoutData(fdFreeMemory);
 
+    // Maximum memory the rows in memory can take
+    Label wlMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlMemoryLimit.setText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.Label"));
+    wlMemoryLimit.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.ToolTip"));
+    PropsUi.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    fdlMemoryLimit.top = new FormAttachment(wFreeMemory, margin * 2);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.ToolTip"));
+    PropsUi.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
+    // Number of sort threads
+    Label wlSortThreads = new Label(shell, SWT.RIGHT);
+    wlSortThreads.setText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.Label"));
+    wlSortThreads.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.ToolTip"));
+    PropsUi.setLook(wlSortThreads);
+    FormData fdlSortThreads = new FormData();
+    fdlSortThreads.left = new FormAttachment(0, 0);
+    fdlSortThreads.right = new FormAttachment(middle, -margin);
+    fdlSortThreads.top = new FormAttachment(wMemoryLimit, margin * 2);
+    wlSortThreads.setLayoutData(fdlSortThreads);
+    wSortThreads = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSortThreads.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.SortThreads.ToolTip"));
+    PropsUi.setLook(wSortThreads);
+    wSortThreads.addModifyListener(lsMod);
+    FormData fdSortThreads = new FormData();
+    fdSortThreads.left = new FormAttachment(middle, 0);
+    fdSortThreads.top = new FormAttachment(wMemoryLimit, margin * 2);
+    fdSortThreads.right = new FormAttachment(100, 0);
+    wSortThreads.setLayoutData(fdSortThreads);
+
     // Using compression for temporary files?
     Label wlCompress = new Label(shell, SWT.RIGHT);
     wlCompress.setText(BaseMessages.getString(PKG, "SortRowsDialog.Compress.Label"));
@@ -221,7 +269,7 @@ public class SortRowsDialog extends BaseTransformDialog {
     FormData fdlCompress = new FormData();
     fdlCompress.left = new FormAttachment(0, 0);
     fdlCompress.right = new FormAttachment(middle, -margin);
-    fdlCompress.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdlCompress.top = new FormAttachment(wSortThreads, margin * 2);
     wlCompress.setLayoutData(fdlCompress);
     wCompress = new CheckBoxVar(variables, shell, SWT.CHECK, "");
     PropsUi.setLook(wCompress);
@@ -240,6 +288,27 @@ public class SortRowsDialog extends BaseTransformDialog {
           }
         });
 
+    // The compression of the temporary files
+    Label wlCompression = new Label(shell, SWT.RIGHT);
+    wlCompression.setText(BaseMessages.getString(PKG, "SortRowsDialog.Compression.Label"));
+    wlCompression.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.Compression.ToolTip"));
+    PropsUi.setLook(wlCompression);
+    FormData fdlCompression = new FormData();
+    fdlCompression.left = new FormAttachment(0, 0);
+    fdlCompression.right = new FormAttachment(middle, -margin);
+    fdlCompression.top = new FormAttachment(wCompress, margin * 2);
+    wlCompression.setLayoutData(fdlCompression);
+    wCompression = new ComboVar(variables, shell, SWT.BORDER);
+    wCompression.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.Compression.ToolTip"));
+    wCompression.setItems(CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    PropsUi.setLook(wCompression);
+    wCompression.addModifyListener(lsMod);
+    FormData fdCompression = new FormData();
+    fdCompression.left = new FormAttachment(middle, 0);
+    fdCompression.top = new FormAttachment(wCompress, margin * 2);
+    fdCompression.right = new FormAttachment(100, 0);
+    wCompression.setLayoutData(fdCompression);
+
     // Using compression for temporary files?
     Label wlUniqueRows = new Label(shell, SWT.RIGHT);
     wlUniqueRows.setText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Label"));
@@ -247,7 +316,7 @@ public class SortRowsDialog extends BaseTransformDialog {
     FormData fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment(0, 0);
     fdlUniqueRows.right = new FormAttachment(middle, -margin);
-    fdlUniqueRows.top = new FormAttachment(wCompress, margin);
+    fdlUniqueRows.top = new FormAttachment(wCompression, margin);
     wlUniqueRows.setLayoutData(fdlUniqueRows);
     wUniqueRows = new Button(shell, SWT.CHECK);
     wUniqueRows.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Tooltip"));
@@ -401,8 +470,11 @@ public class SortRowsDialog extends BaseTransformDialog {
     }
     wSortSize.setText(Const.NVL(input.getSortSize(), ""));
     wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
+    wSortThreads.setText(Const.NVL(input.getSortThreads(), ""));
     wCompress.setSelection(input.isCompressFiles());
     wCompress.setVariableName(input.getCompressFilesVariable());
+    wCompression.setText(Const.NVL(input.getCompressionType(), ""));
     wUniqueRows.setSelection(input.isOnlyPassingUniqueRows());
 
     Table table = wFields.table;
@@ -466,9 +538,12 @@ public class SortRowsDialog extends BaseTransformDialog {
     input.setDirectory(wSortDir.getText());
     input.setSortSize(wSortSize.getText());
     input.setFreeMemoryLimit(wFreeMemory.getText());
+    input.setMemoryLimit(wMemoryLimit.getText());
+    input.setSortThreads(wSortThreads.getText());
     log.logDetailed("Sort rows", "Compression is set to " + wCompress.getSelection());
     input.setCompressFiles(wCompress.getSelection());
     input.setCompressFilesVariable(wCompress.getVariableName());
+    input.setCompressionType(wCompression.getText());
     input.setOnlyPassingUniqueRows(wUniqueRows.getSelection());
 
     int nrFields = wFields.nrNonEmpty();
@@ -76,6 +76,13 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
   @HopMetadataProperty(key = "free_memory", injectionKey = "FREE_MEMORY_TRESHOLD")
   private String freeMemoryLimit;
 
+  /**
+   * The maximum amount of memory in MB the rows kept in memory can take before they're sorted and
+   * written to a temporary file. The size of the rows is estimated.
+   */
+  @HopMetadataProperty(key = "memory_limit", injectionKey = "SORT_MEMORY_LIMIT")
+  private String memoryLimit;
+
   /** only pass unique rows to the output stream(s) */
   @HopMetadataProperty(key = "unique_rows", injectionKey = "ONLY_PASS_UNIQUE_ROWS")
   private boolean onlyPassingUniqueRows;
@@ -91,6 +98,20 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
   @HopMetadataProperty(key = "compress_variables", injectionKey = "COMPRESS_VARIABLE")
   private String compressFilesVariable;
 
+  /**
+   * The name of the compression provider to use for the temporary files. If it's not set we use
+   * GZip compression when compressFiles is enabled.
+   */
+  @HopMetadataProperty(key = "compression", injectionKey = "COMPRESSION_TYPE")
+  private String compressionType;
+
+  /**
+   * The number of threads which sort the rows in parallel. The rows are range partitioned over the
+   * threads so the output stays globally sorted. Empty or 1 sorts on a single thread.
+   */
+  @HopMetadataProperty(key = "sort_threads", injectionKey = "SORT_THREADS")
+  private String sortThreads;
+
   private List<SortRowsField> groupFields;
 
   public SortRowsMeta() {
@@ -146,8 +167,11 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     prefix = "out";
     sortSize = "1000000";
     freeMemoryLimit = null;
+    memoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    compressionType = null;
+    sortThreads = null;
     onlyPassingUniqueRows = false;
 
     int nrFields = 0;
@@ -392,6 +416,48 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     this.freeMemoryLimit = freeMemoryLimit;
   }
 
+  /**
+   * @return the memory limit in MB for the rows kept in memory
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit the memory limit in MB for the rows kept in memory
+   */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return the name of the compression provider for the temporary files
+   */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * @param compressionType the name of the compression provider for the temporary files
+   */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
+  /**
+   * @return the number of threads which sort the rows in parallel
+   */
+  public String getSortThreads() {
+    return sortThreads;
+  }
+
+  /**
+   * @param sortThreads the number of threads which sort the rows in parallel
+   */
+  public void setSortThreads(String sortThreads) {
+    this.sortThreads = sortThreads;
+  }
+
   public boolean isGroupSortEnabled() {
     return this.getSortFields() != null;
   }
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.util.Comparator;
+import java.util.List;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * Merges sorted runs with a tree of losers. Every internal node of the tree keeps the run which
+ * lost the comparison at that node, the overall winner is kept at the top. Taking a row only needs
+ * to replay the path from the winning run up to the top: log2(k) comparisons for k runs.
+ *
+ * <p>Rows which sort the same are taken from the run with the lowest index first which makes the
+ * merge stable if the runs are in the order in which they were written.
+ */
+public class SortRunMerger implements AutoCloseable {
+  private final SortRunReader[] readers;
+  private final int nrRuns;
+  private final Object[][] rows;
+  private final byte[][] keys;
+  private final SortKeyEncoder keyEncoder;
+  private final Comparator<Object[]> rowComparator;
+
+  /** tree[0] is the winning run, tree[1..nrRuns-1] are the losers of the internal nodes */
+  private final int[] tree;
+
+  /**
+   * Read the first row of each run and build the tree.
+   *
+   * @param readers The runs to merge
+   * @param keyEncoder The encoder of normalized sort keys or null to compare rows
+   * @param rowComparator The comparator to use if there is no key encoder
+   * @throws HopException in case a run can't be read
+   */
+  public SortRunMerger(
+      List<SortRunReader> readers, SortKeyEncoder keyEncoder, Comparator<Object[]> rowComparator)
+      throws HopException {
+    this.readers = readers.toArray(new SortRunReader[0]);
+    this.nrRuns = this.readers.length;
+    this.rows = new Object[nrRuns][];
+    this.keys = new byte[nrRuns][];
+    this.keyEncoder = keyEncoder;
+    this.rowComparator = rowComparator;
+    this.tree = new int[Math.max(1, nrRuns)];
+
+    for (int run = 0; run < nrRuns; run++) {
+      advance(run);
+    }
+    build();
+  }
+
+  /**
+   * Take the next row from the merge.
+   *
+   * @return The smallest row of all runs or null if all runs are exhausted
+   * @throws HopException in case a run can't be read
+   */
+  public Object[] next() throws HopException {
+    if (nrRuns == 0) {
+      return null;
+    }
+    int winner = tree[0];
+    Object[] row = rows[winner];
+    if (row != null) {
+      advance(winner);
+      replay(winner);
+    }
+    return row;
+  }
+
+  private void advance(int run) throws HopException {
+    Object[] row = readers[run].readRow();
+    rows[run] = row;
+    if (keyEncoder != null) {
+      keys[run] = row == null ? null : keyEncoder.encode(row);
+    }
+  }
+
+  /**
+   * @return true if run a has to go before run b. Exhausted runs go last.
+   */
+  private boolean before(int a, int b) {
+    if (rows[a] == null) {
+      return false;
+    }
+    if (rows[b] == null) {
+      return true;
+    }
+    int cmp;
+    if (keyEncoder != null) {
+      cmp = SortKeyEncoder.compareKeys(keys[a], keys[b]);
+    } else {
+      cmp = rowComparator.compare(rows[a], rows[b]);
+    }
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+
+  /** Play all the matches bottom up. The runs are the leaves nrRuns..2*nrRuns-1 of the tree. */
+  private void build() {
+    if (nrRuns == 0) {
+      return;
+    }
+    int[] winners = new int[2 * nrRuns];
+    for (int run = 0; run < nrRuns; run++) {
+      winners[nrRuns + run] = run;
+    }
+    for (int node = nrRuns - 1; node > 0; node--) {
+      int a = winners[2 * node];
+      int b = winners[2 * node + 1];
+      if (before(a, b)) {
+        winners[node] = a;
+        tree[node] = b;
+      } else {
+        winners[node] = b;
+        tree[node] = a;
+      }
+    }
+    tree[0] = winners[1];
+  }
+
+  /** Replay the matches on the path from a run to the top of the tree. */
+  private void replay(int run) {
+    int winner = run;
+    for (int node = (nrRuns + run) >>> 1; node > 0; node >>>= 1) {
+      if (before(tree[node], winner)) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /**
+   * @return The number of runs being merged
+   */
+  public int getNrRuns() {
+    return nrRuns;
+  }
+
+  @Override
+  public void close() throws HopException {
+    HopException exception = null;
+    for (SortRunReader reader : readers) {
+      try {
+        reader.close();
+      } catch (HopException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+}
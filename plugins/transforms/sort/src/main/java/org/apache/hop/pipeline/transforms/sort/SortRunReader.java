@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.exception.HopEofException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.RowCodec;
+import org.apache.hop.core.vfs.HopVfs;
+
+/** Reads back a sorted run of rows written by {@link SortRunWriter}. */
+public class SortRunReader implements AutoCloseable {
+  private static final int BUFFER_SIZE = 50000;
+
+  private final FileObject file;
+  private final RowCodec rowCodec;
+  private final DataInputStream inputStream;
+
+  /**
+   * Open the file and verify the header of the row codec.
+   *
+   * @param file The file to read from
+   * @param compressionProvider The compression the file was written with or null
+   * @param rowCodec The codec to read the rows with
+   * @throws HopException in case the file can't be opened
+   */
+  public SortRunReader(FileObject file, ICompressionProvider compressionProvider, RowCodec rowCodec)
+      throws HopException {
+    this.file = file;
+    this.rowCodec = rowCodec;
+    InputStream stream = null;
+    try {
+      stream = HopVfs.getInputStream(file);
+      if (compressionProvider != null) {
+        stream = compressionProvider.createInputStream(new BufferedInputStream(stream));
+      }
+      inputStream = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+      rowCodec.readHeader(inputStream);
+    } catch (IOException | HopException e) {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException ignored) {
+          // We're already reporting the original problem
+        }
+      }
+      throw new HopFileException("Unable to open temp-file " + file, e);
+    }
+  }
+
+  /**
+   * Read the next row of the run.
+   *
+   * @return The next row or null if there are no more rows
+   * @throws HopException in case the row can't be read
+   */
+  public Object[] readRow() throws HopException {
+    try {
+      return rowCodec.readRow(inputStream);
+    } catch (HopEofException e) {
+      return null;
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException("Timeout reading temp-file " + file, e);
+    }
+  }
+
+  @Override
+  public void close() throws HopFileException {
+    try {
+      inputStream.close();
+    } catch (IOException e) {
+      throw new HopFileException("Unable to close temp-file " + file, e);
+    }
+  }
+
+  /**
+   * @return The file we're reading from
+   */
+  public FileObject getFile() {
+    return file;
+  }
+}
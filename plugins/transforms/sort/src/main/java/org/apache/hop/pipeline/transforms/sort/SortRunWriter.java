@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.RowCodec;
+import org.apache.hop.core.vfs.HopVfs;
+
+/** Writes a sorted run of rows to a temporary file. */
+public class SortRunWriter implements AutoCloseable {
+  private static final int BUFFER_SIZE = 500000;
+
+  private final FileObject file;
+  private final RowCodec rowCodec;
+  private final DataOutputStream outputStream;
+  private long rowCount;
+
+  /**
+   * Create the file and write the header of the row codec.
+   *
+   * @param file The file to write to
+   * @param compressionProvider The compression to use or null to write uncompressed data
+   * @param rowCodec The codec to write the rows with
+   * @throws HopException in case the file can't be created
+   */
+  public SortRunWriter(FileObject file, ICompressionProvider compressionProvider, RowCodec rowCodec)
+      throws HopException {
+    this.file = file;
+    this.rowCodec = rowCodec;
+    try {
+      OutputStream stream = HopVfs.getOutputStream(file, false);
+      if (compressionProvider != null) {
+        stream = compressionProvider.createOutputStream(new BufferedOutputStream(stream));
+      }
+      outputStream = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException("Unable to create temp-file " + file, e);
+    }
+    rowCodec.writeHeader(outputStream);
+  }
+
+  public void writeRow(Object[] row) throws HopFileException {
+    rowCodec.writeRow(outputStream, row);
+    rowCount++;
+  }
+
+  @Override
+  public void close() throws HopFileException {
+    try {
+      outputStream.close();
+    } catch (IOException e) {
+      throw new HopFileException("Unable to close temp-file " + file, e);
+    }
+  }
+
+  /**
+   * @return The file we're writing to
+   */
+  public FileObject getFile() {
+    return file;
+  }
+
+  /**
+   * @return The number of rows written
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+}
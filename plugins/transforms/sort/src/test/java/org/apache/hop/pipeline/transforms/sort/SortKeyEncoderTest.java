@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Random;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class SortKeyEncoderTest {
+
+  private static final String[] STRINGS = {
+    null, "", "a", "ab", "a\u0000", "a\u0000b", "b", "B", "été", "￿", " a", "a "
+  };
+
+  private static final double[] NUMBERS = {
+    -Double.MAX_VALUE, -1.5, -0.0, 0.0, Double.MIN_VALUE, 1.5, Double.MAX_VALUE, Double.NaN
+  };
+
+  private IRowMeta createRowMeta(boolean descending) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    rowMeta.addValueMeta(new ValueMetaBinary("binary"));
+    for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+      valueMeta.setCollatorDisabled(true);
+      valueMeta.setSortedDescending(descending);
+    }
+    return rowMeta;
+  }
+
+  private Object[] randomRow(Random random) {
+    Object[] row = new Object[6];
+    row[0] = STRINGS[random.nextInt(STRINGS.length)];
+    row[1] = random.nextInt(10) == 0 ? null : (long) (random.nextInt(7) - 3) * Long.MAX_VALUE / 3;
+    row[2] = random.nextInt(10) == 0 ? null : NUMBERS[random.nextInt(NUMBERS.length)];
+    row[3] = random.nextInt(10) == 0 ? null : new Date(random.nextInt(5) * 1000L - 2000L);
+    row[4] = random.nextInt(10) == 0 ? null : random.nextBoolean();
+    if (random.nextInt(10) > 0) {
+      byte[] bytes = new byte[random.nextInt(3)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) (random.nextInt(5) * 60 - 120);
+      }
+      row[5] = bytes;
+    }
+    return row;
+  }
+
+  private void assertSameOrder(IRowMeta rowMeta, int[] fieldNrs) throws Exception {
+    assertTrue(SortKeyEncoder.isSupported(rowMeta, fieldNrs));
+    SortKeyEncoder encoder = new SortKeyEncoder(rowMeta, fieldNrs);
+
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      Object[] row1 = randomRow(random);
+      Object[] row2 = randomRow(random);
+      int expected = Integer.signum(rowMeta.compare(row1, row2, fieldNrs));
+      int actual =
+          Integer.signum(SortKeyEncoder.compareKeys(encoder.encode(row1), encoder.encode(row2)));
+      assertEquals(rowMeta.getString(row1) + " <> " + rowMeta.getString(row2), expected, actual);
+    }
+  }
+
+  @Test
+  public void testAscending() throws Exception {
+    IRowMeta rowMeta = createRowMeta(false);
+    for (int i = 0; i < rowMeta.size(); i++) {
+      assertSameOrder(rowMeta, new int[] {i});
+    }
+    assertSameOrder(rowMeta, new int[] {0, 1, 2, 3, 4, 5});
+    assertSameOrder(rowMeta, new int[] {4, 0, 5});
+  }
+
+  @Test
+  public void testDescending() throws Exception {
+    IRowMeta rowMeta = createRowMeta(true);
+    for (int i = 0; i < rowMeta.size(); i++) {
+      assertSameOrder(rowMeta, new int[] {i});
+    }
+    assertSameOrder(rowMeta, new int[] {0, 1, 2, 3, 4, 5});
+  }
+
+  @Test
+  public void testMixedDirections() throws Exception {
+    IRowMeta rowMeta = createRowMeta(false);
+    rowMeta.getValueMeta(0).setSortedDescending(true);
+    rowMeta.getValueMeta(2).setSortedDescending(true);
+    assertSameOrder(rowMeta, new int[] {0, 1, 2, 3});
+    assertSameOrder(rowMeta, new int[] {4, 2, 0});
+  }
+
+  @Test
+  public void testUnsupportedFields() {
+    IRowMeta rowMeta = createRowMeta(false);
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    assertFalse(SortKeyEncoder.isSupported(rowMeta, new int[] {0, 6}));
+
+    // Case insensitive or locale specific string comparisons
+    rowMeta.getValueMeta(0).setCaseInsensitive(true);
+    assertFalse(SortKeyEncoder.isSupported(rowMeta, new int[] {0}));
+    rowMeta.getValueMeta(0).setCaseInsensitive(false);
+    rowMeta.getValueMeta(0).setCollatorDisabled(false);
+    assertFalse(SortKeyEncoder.isSupported(rowMeta, new int[] {0}));
+    assertTrue(SortKeyEncoder.isSupported(rowMeta, new int[] {1, 2, 3}));
+  }
+
+  @Test
+  public void testCustomComparator() {
+    // Sorts on the length of the strings
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(
+        new ValueMetaString("string", Comparator.comparingInt(value -> value.toString().length())));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    assertFalse(SortKeyEncoder.isSupported(rowMeta, new int[] {0}));
+    assertFalse(SortKeyEncoder.isSupported(rowMeta, new int[] {1, 0}));
+    assertTrue(SortKeyEncoder.isSupported(rowMeta, new int[] {1}));
+  }
+}
@@ -52,6 +52,9 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
     check("COLLATOR_ENABLED", () -> meta.getSortFields().get(0).isCollatorEnabled());
     check("COLLATOR_STRENGTH", () -> meta.getSortFields().get(0).getCollatorStrength());
     check("COMPRESS_VARIABLE", () -> meta.getCompressFilesVariable());
+    check("COMPRESSION_TYPE", () -> meta.getCompressionType());
+    check("SORT_MEMORY_LIMIT", () -> meta.getMemoryLimit());
+    check("SORT_THREADS", () -> meta.getSortThreads());
     //    check("NAME", () -> meta.getFieldName()[0]);
     //    check("SORT_ASCENDING", () -> meta.getAscending()[0]);
     //    check("IGNORE_CASE", () -> meta.getCaseSensitive()[0]);
@@ -53,8 +53,11 @@ public class SortRowsMetaTest {
             "Prefix",
             "SortSize",
             "FreeMemoryLimit",
+            "MemoryLimit",
             "CompressFiles",
             "CompressFilesVariable",
+            "CompressionType",
+            "SortThreads",
             "OnlyPassingUniqueRows",
             "SortFields");
 
@@ -70,8 +73,11 @@ public class SortRowsMetaTest {
     fieldLoadSaveValidatorAttributeMap.put("Prefix", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("SortSize", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("FreeMemoryLimit", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("MemoryLimit", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("CompressFiles", booleanFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("CompressFilesVariable", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("CompressionType", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("SortThreads", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("OnlyPassingUniqueRows", booleanFieldLoadSaveValidator);
 
     LoadSaveTester<SortRowsMeta> loadSaveTester =
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SortRowsTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> smh;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>("Sort rows", SortRowsMeta.class, SortRowsData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("seq"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows(int nrRows) {
+    Random random = new Random(123);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < nrRows; i++) {
+      rows.add(
+          new Object[] {
+            random.nextInt(20) == 0 ? null : (long) random.nextInt(50),
+            random.nextInt(20) == 0 ? null : "name-" + random.nextInt(10),
+            (long) i,
+            new BigDecimal(random.nextInt(100)).movePointLeft(1)
+          });
+    }
+    return rows;
+  }
+
+  private SortRowsMeta createMeta(String sortSize, SortRowsField... fields) {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setPrefix("sort");
+    meta.setSortSize(sortSize);
+    meta.getSortFields().addAll(List.of(fields));
+    return meta;
+  }
+
+  private List<Object[]> sort(SortRowsMeta meta, List<Object[]> rows) throws HopException {
+    IRowMeta inputRowMeta = createRowMeta();
+    SortRowsData data = new SortRowsData();
+    SortRows sortRows =
+        new SortRows(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline);
+    IRowSet inputRowSet = new QueueRowSet();
+    for (Object[] row : rows) {
+      inputRowSet.putRow(inputRowMeta, row);
+    }
+    inputRowSet.setDone();
+    sortRows.addRowSetToInputRowSets(inputRowSet);
+    sortRows.setInputRowMeta(inputRowMeta);
+    assertTrue(sortRows.init());
+
+    List<Object[]> output = new ArrayList<>();
+    sortRows.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            output.add(row);
+          }
+        });
+    while (sortRows.processRow()) {
+      // Keep sorting
+    }
+    sortRows.dispose();
+    return output;
+  }
+
+  /** Sort the rows the way we expect the transform to do it: a stable sort. */
+  private List<Object[]> expected(SortRowsMeta meta, List<Object[]> rows) throws HopException {
+    IRowMeta rowMeta = createRowMeta();
+    meta.assignSortingCriteria(rowMeta);
+    int[] fieldNrs = new int[meta.getSortFields().size()];
+    for (int i = 0; i < fieldNrs.length; i++) {
+      fieldNrs[i] = rowMeta.indexOfValue(meta.getSortFields().get(i).getFieldName());
+    }
+    List<Object[]> sorted = new ArrayList<>(rows);
+    sorted.sort(
+        (r1, r2) -> {
+          try {
+            return rowMeta.compare(r1, r2, fieldNrs);
+          } catch (HopException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    return sorted;
+  }
+
+  private void assertSequence(List<Object[]> expected, List<Object[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      // The seq field identifies the row
+      assertEquals("Row " + i, expected.get(i)[2], actual.get(i)[2]);
+    }
+  }
+
+  private void assertNoTempFiles() {
+    String[] files = tempFolder.getRoot().list();
+    assertNotNull(files);
+    assertEquals(0, files.length);
+  }
+
+  @Test
+  public void testSortInMemory() throws Exception {
+    SortRowsMeta meta =
+        createMeta(
+            "1000000",
+            new SortRowsField("id", true, true, false, 0, false),
+            new SortRowsField("name", false, true, false, 0, false));
+    List<Object[]> rows = createRows(5000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testSortExternal() throws Exception {
+    // 2000 rows in runs of 10 rows: more runs than we merge at once
+    SortRowsMeta meta =
+        createMeta(
+            "10",
+            new SortRowsField("name", true, true, false, 0, false),
+            new SortRowsField("id", false, true, false, 0, false));
+    List<Object[]> rows = createRows(2000);
+    assertTrue(rows.size() / 10 > SortRows.MAX_MERGE_FAN_IN);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testSortExternalCompressed() throws Exception {
+    for (String compression : new String[] {"GZip", "LZ4"}) {
+      SortRowsMeta meta = createMeta("100", new SortRowsField("id", true, true, false, 0, false));
+      meta.setCompressionType(compression);
+      List<Object[]> rows = createRows(1000);
+
+      assertSequence(expected(meta, rows), sort(meta, rows));
+      assertNoTempFiles();
+    }
+  }
+
+  @Test
+  public void testSortExternalWithoutNormalizedKeys() throws Exception {
+    // A BigNumber key is compared value by value
+    SortRowsMeta meta =
+        createMeta(
+            "50",
+            new SortRowsField("amount", false, true, false, 0, false),
+            new SortRowsField("name", true, false, false, 0, false));
+    List<Object[]> rows = createRows(1000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testSortExternalWithCollator() throws Exception {
+    // Strings compared with a collator can't be encoded in a normalized key
+    SortRowsMeta meta =
+        createMeta(
+            "50",
+            new SortRowsField("name", false, true, true, 0, false),
+            new SortRowsField("id", true, true, false, 0, false));
+    List<Object[]> rows = createRows(1000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testSortExternalMemoryLimit() throws Exception {
+    SortRowsMeta meta = createMeta("", new SortRowsField("id", true, true, false, 0, false));
+    meta.setMemoryLimit("1");
+    List<Object[]> rows = createRows(20000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testUniqueRowsExternal() throws Exception {
+    SortRowsMeta meta = createMeta("100", new SortRowsField("id", true, true, false, 0, false));
+    meta.setOnlyPassingUniqueRows(true);
+    List<Object[]> rows = createRows(1000);
+
+    List<Object[]> output = sort(meta, rows);
+    // ids 0-49 and null
+    assertEquals(51, output.size());
+    List<Object[]> sorted = expected(meta, rows);
+    assertEquals(sorted.get(0)[0], output.get(0)[0]);
+    assertEquals(sorted.get(sorted.size() - 1)[0], output.get(output.size() - 1)[0]);
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testParallelSortInMemory() throws Exception {
+    SortRowsMeta meta =
+        createMeta(
+            "1000000",
+            new SortRowsField("id", true, true, false, 0, false),
+            new SortRowsField("name", false, true, false, 0, false));
+    meta.setSortThreads("4");
+    List<Object[]> rows = createRows(5000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testParallelSortExternal() throws Exception {
+    // More rows than the sample window, every thread writes sorted runs
+    SortRowsMeta meta =
+        createMeta(
+            "400",
+            new SortRowsField("name", true, true, false, 0, false),
+            new SortRowsField("id", false, true, false, 0, false));
+    meta.setSortThreads("3");
+    List<Object[]> rows = createRows(5000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testParallelSortWithoutNormalizedKeys() throws Exception {
+    SortRowsMeta meta =
+        createMeta(
+            "200",
+            new SortRowsField("amount", false, true, false, 0, false),
+            new SortRowsField("name", true, false, false, 0, false));
+    meta.setSortThreads("4");
+    List<Object[]> rows = createRows(3000);
+
+    assertSequence(expected(meta, rows), sort(meta, rows));
+    assertNoTempFiles();
+  }
+
+  @Test
+  public void testParallelUniqueRows() throws Exception {
+    SortRowsMeta meta = createMeta("100", new SortRowsField("id", true, true, false, 0, false));
+    meta.setOnlyPassingUniqueRows(true);
+    meta.setSortThreads("4");
+    List<Object[]> rows = createRows(1000);
+
+    // ids 0-49 and null
+    assertEquals(51, sort(meta, rows).size());
+    assertNoTempFiles();
+  }
+}
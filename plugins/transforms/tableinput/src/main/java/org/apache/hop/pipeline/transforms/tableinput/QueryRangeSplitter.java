@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+
+/**
+ * Splits the query of Table Input in a number of ranges of a numeric or date field. Every copy of
+ * the transform reads one of the ranges on its own connection.
+ *
+ * <p>The minimum and maximum of the split field are divided into equal ranges. The first range also
+ * contains the rows where the field is null, the first and last ranges are open ended. This way all
+ * rows are read exactly once, whatever the boundaries are. The ranges have the same width, not the
+ * same number of rows: with skewed values most of the rows can end up in a few ranges.
+ *
+ * <p>The query is wrapped in {@code SELECT * FROM (query) hop_split}, see {@link
+ * #getNotSplitReason()} for the queries where that isn't possible.
+ */
+public class QueryRangeSplitter {
+  private static final String ALIAS = "hop_split";
+  private static final Pattern TOP_OR_OFFSET =
+      Pattern.compile("\\b(TOP|OFFSET)\\b", Pattern.CASE_INSENSITIVE);
+
+  private final DatabaseMeta databaseMeta;
+  private final String sql;
+  private final String quotedField;
+
+  /**
+   * @param databaseMeta The database to read from
+   * @param sql The query to split
+   * @param splitField The numeric or date field of the query to split the rows on
+   */
+  public QueryRangeSplitter(DatabaseMeta databaseMeta, String sql, String splitField) {
+    this.databaseMeta = databaseMeta;
+    this.sql = stripTrailingSemicolons(sql);
+    this.quotedField = databaseMeta.quoteField(splitField);
+  }
+
+  /** A statement separator at the end of the query can't be part of a subquery */
+  static String stripTrailingSemicolons(String sql) {
+    int end = sql.length();
+    while (end > 0 && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+      end--;
+    }
+    return sql.substring(0, end);
+  }
+
+  /**
+   * See if the query can be wrapped in the range queries.
+   *
+   * @return The reason why the query can't be split, or null if it can
+   */
+  public String getNotSplitReason() {
+    String start = sql.trim().toUpperCase(Locale.ROOT);
+    boolean select = start.startsWith("SELECT");
+    if (!select && !start.startsWith("WITH")) {
+      return "only a SELECT query can be used as a subquery.";
+    }
+    if (databaseMeta.getIDatabase().isMsSqlServerVariant()) {
+      if (!select) {
+        return "SQL Server doesn't allow a common table expression (WITH) in a subquery.";
+      }
+      if (hasOrderBy(sql) && !TOP_OR_OFFSET.matcher(sql).find()) {
+        return "SQL Server doesn't allow ORDER BY in a subquery without TOP or OFFSET.";
+      }
+    }
+    return null;
+  }
+
+  /** See if the query ends with an ORDER BY clause which isn't part of a subquery */
+  static boolean hasOrderBy(String sql) {
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '[') {
+        quote = ']';
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0
+          && sql.regionMatches(true, i, "ORDER", 0, 5)
+          && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))
+          && sql.substring(i + 5).matches("(?s)\\s+(?i:BY)\\b.*")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return The query which calculates the minimum and maximum value of the split field
+   */
+  public String getBoundsSql() {
+    return "SELECT MIN(" + quotedField + "), MAX(" + quotedField + ") FROM (" + sql + ") " + ALIAS;
+  }
+
+  /**
+   * Get the query which reads one of the ranges. The boundaries of the range are parameters of the
+   * query: see {@link #getRangeParameters(IRowMeta, Object[], int, int)}.
+   *
+   * @param rangeNr The range to read, starting at 0
+   * @param nrRanges The number of ranges
+   * @return The query to read the range with
+   */
+  public String getRangeSql(int rangeNr, int nrRanges) {
+    String condition;
+    if (nrRanges <= 1) {
+      return sql;
+    } else if (rangeNr == 0) {
+      condition = quotedField + " IS NULL OR " + quotedField + " < ?";
+    } else if (rangeNr == nrRanges - 1) {
+      condition = quotedField + " >= ?";
+    } else {
+      condition = quotedField + " >= ? AND " + quotedField + " < ?";
+    }
+    return "SELECT * FROM (" + sql + ") " + ALIAS + " WHERE " + condition;
+  }
+
+  /**
+   * Get the parameters of the query which reads one of the ranges.
+   *
+   * @param boundsMeta The layout of the row with the minimum and maximum of the split field
+   * @param bounds The minimum and maximum of the split field
+   * @param rangeNr The range to read, starting at 0
+   * @param nrRanges The number of ranges
+   * @return The boundaries of the range to pass to the range query
+   * @throws HopException in case the split field isn't a numeric or date field
+   */
+  public static RowMetaAndData getRangeParameters(
+      IRowMeta boundsMeta, Object[] bounds, int rangeNr, int nrRanges) throws HopException {
+    IValueMeta valueMeta = boundsMeta.getValueMeta(0);
+    IRowMeta parametersMeta = new RowMeta();
+    if (nrRanges <= 1) {
+      return new RowMetaAndData(parametersMeta);
+    }
+
+    Object[] boundaries =
+        getBoundaries(valueMeta, bounds[0], boundsMeta.getValueMeta(1), bounds[1], nrRanges);
+    Object[] parameters;
+    if (rangeNr == 0) {
+      parameters = new Object[] {boundaries[0]};
+    } else if (rangeNr == nrRanges - 1) {
+      parameters = new Object[] {boundaries[nrRanges - 2]};
+    } else {
+      parameters = new Object[] {boundaries[rangeNr - 1], boundaries[rangeNr]};
+    }
+    for (int i = 0; i < parameters.length; i++) {
+      IValueMeta parameterMeta = valueMeta.clone();
+      parameterMeta.setName("boundary" + (i + 1));
+      parametersMeta.addValueMeta(parameterMeta);
+    }
+    return new RowMetaAndData(parametersMeta, parameters);
+  }
+
+  /**
+   * Divide the values between a minimum and a maximum into a number of equal ranges.
+   *
+   * @return The nrRanges-1 values which separate the ranges. They are of the data type of the
+   *     minimum.
+   */
+  static Object[] getBoundaries(
+      IValueMeta minMeta, Object min, IValueMeta maxMeta, Object max, int nrRanges)
+      throws HopException {
+    Object[] boundaries = new Object[nrRanges - 1];
+    if (minMeta.isNull(min) || maxMeta.isNull(max)) {
+      // No values: everything ends up in the first range which also reads the nulls
+      //
+      return boundaries;
+    }
+
+    switch (minMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        {
+          BigInteger from = BigInteger.valueOf(minMeta.getInteger(min));
+          BigInteger span = BigInteger.valueOf(maxMeta.getInteger(max)).subtract(from);
+          for (int i = 1; i < nrRanges; i++) {
+            boundaries[i - 1] =
+                from.add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(nrRanges)))
+                    .longValue();
+          }
+          break;
+        }
+      case IValueMeta.TYPE_NUMBER:
+        {
+          double from = minMeta.getNumber(min);
+          double span = maxMeta.getNumber(max) - from;
+          for (int i = 1; i < nrRanges; i++) {
+            boundaries[i - 1] = from + span * i / nrRanges;
+          }
+          break;
+        }
+      case IValueMeta.TYPE_BIGNUMBER:
+        {
+          BigDecimal from = minMeta.getBigNumber(min);
+          BigDecimal span = maxMeta.getBigNumber(max).subtract(from);
+          BigDecimal ranges = BigDecimal.valueOf(nrRanges);
+          for (int i = 1; i < nrRanges; i++) {
+            boundaries[i - 1] =
+                from.add(
+                    span.multiply(BigDecimal.valueOf(i)).divide(ranges, MathContext.DECIMAL128));
+          }
+          break;
+        }
+      case IValueMeta.TYPE_DATE, IValueMeta.TYPE_TIMESTAMP:
+        {
+          long from = minMeta.getDate(min).getTime();
+          long span = maxMeta.getDate(max).getTime() - from;
+          boolean timestamp = minMeta.getType() == IValueMeta.TYPE_TIMESTAMP;
+          for (int i = 1; i < nrRanges; i++) {
+            long millis =
+                BigInteger.valueOf(span)
+                    .multiply(BigInteger.valueOf(i))
+                    .divide(BigInteger.valueOf(nrRanges))
+                    .longValue();
+            boundaries[i - 1] = timestamp ? new Timestamp(from + millis) : new Date(from + millis);
+          }
+          break;
+        }
+      default:
+        throw new HopException(
+            "Unable to split the query on field ["
+                + minMeta.getName()
+                + "] of type "
+                + minMeta.getTypeDesc()
+                + ": only numeric and date fields are supported");
+    }
+    return boundaries;
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.tableinput;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
@@ -134,6 +135,11 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
         return false; // stop immediately, nothing to do here.
       }
 
+      if (data.readByFirstCopy && getCopy() > 0) {
+        setOutputDone(); // the query couldn't be split, the first copy reads all the rows
+        return false;
+      }
+
       boolean success = doQuery(parametersMeta, parameters);
       if (!success) {
         return false;
@@ -212,8 +218,7 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
     }
   }
 
-  private boolean doQuery(IRowMeta parametersMeta, Object[] parameters)
-      throws HopDatabaseException {
+  private boolean doQuery(IRowMeta parametersMeta, Object[] parameters) throws HopException {
     boolean success = true;
 
     // Open the query with the optional parameters received from the source transforms.
@@ -224,6 +229,34 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
       sql = meta.getSql();
     }
 
+    if (data.nrRanges > 1) {
+      // Read the range of this transform copy
+      //
+      QueryRangeSplitter splitter =
+          new QueryRangeSplitter(data.db.getDatabaseMeta(), sql, data.splitField);
+      RowMetaAndData bounds = getSplitBounds(splitter, parametersMeta, parameters);
+      RowMetaAndData range =
+          QueryRangeSplitter.getRangeParameters(
+              bounds.getRowMeta(), bounds.getData(), getCopy(), data.nrRanges);
+      sql = splitter.getRangeSql(getCopy(), data.nrRanges);
+
+      parameters =
+          RowDataUtil.createResizedCopy(
+              new Object[][] {parameters, range.getData()},
+              new int[] {parametersMeta.size(), range.size()});
+      parametersMeta = parametersMeta.clone();
+      parametersMeta.addRowMeta(range.getRowMeta());
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "TableInput.Log.ReadingRange",
+                Integer.toString(getCopy() + 1),
+                Integer.toString(data.nrRanges),
+                range.getRowMeta().getString(range.getData())));
+      }
+    }
+
     if (isDetailed()) {
       logDetailed("SQL query : " + sql);
     }
@@ -261,6 +294,41 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
     return success;
   }
 
+  /**
+   * Get the minimum and maximum of the split field. They are calculated once and shared by all the
+   * copies of the transform, so that they all split the rows in the same ranges.
+   */
+  private RowMetaAndData getSplitBounds(
+      QueryRangeSplitter splitter, IRowMeta parametersMeta, Object[] parameters)
+      throws HopException {
+    Map<String, Object> extensionData = getPipeline().getExtensionDataMap();
+    String key = PKG.getName() + ".bounds." + getTransformName();
+    synchronized (extensionData) {
+      RowMetaAndData bounds = (RowMetaAndData) extensionData.get(key);
+      if (bounds == null) {
+        String sql = splitter.getBoundsSql();
+        if (isDetailed()) {
+          logDetailed("Split query : " + sql);
+        }
+        ResultSet rs =
+            parametersMeta.isEmpty()
+                ? data.db.openQuery(sql, null, null)
+                : data.db.openQuery(sql, parametersMeta, parameters);
+        try {
+          Object[] row = data.db.getRow(rs);
+          if (row == null) {
+            throw new HopException("Unable to get the range of the split field: " + sql);
+          }
+          bounds = new RowMetaAndData(data.db.getReturnRowMeta(), row);
+        } finally {
+          data.db.closeQuery(rs);
+        }
+        extensionData.put(key, bounds);
+      }
+      return bounds;
+    }
+  }
+
   @Override
   public void dispose() {
     if (isBasic()) {
@@ -325,6 +393,30 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
 
       DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
+      // Every copy of the transform reads a range of the split field
+      //
+      data.nrRanges = 1;
+      data.splitField = resolve(meta.getSplitField());
+      if (!Utils.isEmpty(data.splitField)) {
+        if (meta.isExecuteEachInputRow()) {
+          logBasic(BaseMessages.getString(PKG, "TableInput.Warning.SplitFieldNotUsed"));
+        } else {
+          data.nrRanges = Math.max(1, getTransformMeta().getCopies(this));
+        }
+      }
+      if (data.nrRanges > 1) {
+        String sql = meta.isVariableReplacementActive() ? resolve(meta.getSql()) : meta.getSql();
+        String reason =
+            new QueryRangeSplitter(databaseMeta, sql, data.splitField).getNotSplitReason();
+        if (reason != null) {
+          // Only the first copy reads the query, as a whole
+          //
+          logBasic(BaseMessages.getString(PKG, "TableInput.Warning.QueryNotSplit", reason));
+          data.nrRanges = 1;
+          data.readByFirstCopy = true;
+        }
+      }
+
       data.db = new Database(this, this, databaseMeta);
       data.db.setQueryLimit(Const.toInt(resolve(meta.getRowLimit()), 0));
 
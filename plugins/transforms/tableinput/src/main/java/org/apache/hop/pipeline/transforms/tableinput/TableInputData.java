@@ -37,6 +37,15 @@ public class TableInputData extends BaseTransformData implements ITransformData
   public boolean isCanceled;
   public IStream infoStream;
 
+  /** The field to split the query on */
+  public String splitField;
+
+  /** The number of ranges the query is split in: one per transform copy */
+  public int nrRanges;
+
+  /** The query couldn't be split: the first copy reads all the rows, the others none */
+  public boolean readByFirstCopy;
+
   public TableInputData() {
     super();
 
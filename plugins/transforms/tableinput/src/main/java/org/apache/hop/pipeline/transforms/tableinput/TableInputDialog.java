@@ -78,6 +78,8 @@ public class TableInputDialog extends BaseTransformDialog {
 
   private TextVar wLimit;
 
+  private TextVar wSplitField;
+
   private Label wlEachRow;
   private Button wEachRow;
 
@@ -146,6 +148,25 @@ public class TableInputDialog extends BaseTransformDialog {
 
     setButtonPositions(new Button[] {wOk, wPreview, wCancel}, margin, null);
 
+    // Split the query over the transform copies...
+    Label wlSplitField = new Label(shell, SWT.RIGHT);
+    wlSplitField.setText(BaseMessages.getString(PKG, "TableInputDialog.SplitField.Label"));
+    wlSplitField.setToolTipText(BaseMessages.getString(PKG, "TableInputDialog.SplitField.Tooltip"));
+    PropsUi.setLook(wlSplitField);
+    FormData fdlSplitField = new FormData();
+    fdlSplitField.left = new FormAttachment(0, 0);
+    fdlSplitField.right = new FormAttachment(middle, -margin);
+    fdlSplitField.bottom = new FormAttachment(wOk, -2 * margin);
+    wlSplitField.setLayoutData(fdlSplitField);
+    wSplitField = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSplitField);
+    wSplitField.addModifyListener(lsMod);
+    FormData fdSplitField = new FormData();
+    fdSplitField.left = new FormAttachment(middle, 0);
+    fdSplitField.right = new FormAttachment(100, 0);
+    fdSplitField.bottom = new FormAttachment(wlSplitField, 0, SWT.CENTER);
+    wSplitField.setLayoutData(fdSplitField);
+
     // Limit input ...
     Label wlLimit = new Label(shell, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "TableInputDialog.LimitSize"));
@@ -153,7 +174,7 @@ public class TableInputDialog extends BaseTransformDialog {
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
     fdlLimit.right = new FormAttachment(middle, -margin);
-    fdlLimit.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlLimit.bottom = new FormAttachment(wlSplitField, -margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     PropsUi.setLook(wLimit);
@@ -389,6 +410,7 @@ public class TableInputDialog extends BaseTransformDialog {
     }
 
     wLimit.setText(Const.NVL(input.getRowLimit(), ""));
+    wSplitField.setText(Const.NVL(input.getSplitField(), ""));
     wDataFrom.setText(Const.NVL(input.getLookup(), ""));
     wEachRow.setSelection(input.isExecuteEachInputRow());
     wVariables.setSelection(input.isVariableReplacementActive());
@@ -416,6 +438,7 @@ public class TableInputDialog extends BaseTransformDialog {
             : wSql.getText());
 
     meta.setRowLimit(wLimit.getText());
+    meta.setSplitField(wSplitField.getText());
     meta.setExecuteEachInputRow(wEachRow.getSelection());
     meta.setVariableReplacementActive(wVariables.getSelection());
     meta.setLookup(wDataFrom.getText());
@@ -88,6 +88,10 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
 
   @HopMetadataProperty private String lookup;
 
+  /** Split the query in ranges of this field, one range per transform copy */
+  @HopMetadataProperty(key = "split_field", injectionKey = "SPLIT_FIELD")
+  private String splitField;
+
   public TableInputMeta() {
     super();
   }
@@ -150,6 +154,21 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
     this.lookup = lookup;
   }
 
+  /**
+   * @return The numeric or date field to split the query on: every copy of the transform reads a
+   *     range of its values.
+   */
+  public String getSplitField() {
+    return splitField;
+  }
+
+  /**
+   * @param splitField The numeric or date field to split the query on
+   */
+  public void setSplitField(String splitField) {
+    this.splitField = splitField;
+  }
+
   @Override
   public Object clone() {
     TableInputMeta retval = (TableInputMeta) super.clone();
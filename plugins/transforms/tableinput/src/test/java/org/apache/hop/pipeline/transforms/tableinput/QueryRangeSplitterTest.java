@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class QueryRangeSplitterTest {
+
+  private static QueryRangeSplitter createSplitter() {
+    return createSplitter("SELECT id FROM t", false);
+  }
+
+  private static QueryRangeSplitter createSplitter(String sql, boolean sqlServer) {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    IDatabase database = mock(IDatabase.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(i -> "\"" + i.getArgument(0) + "\"");
+    when(databaseMeta.getIDatabase()).thenReturn(database);
+    when(database.isMsSqlServerVariant()).thenReturn(sqlServer);
+    return new QueryRangeSplitter(databaseMeta, sql, "id");
+  }
+
+  private static IRowMeta createBoundsMeta(ValueMetaInteger min, ValueMetaInteger max) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(min);
+    rowMeta.addValueMeta(max);
+    return rowMeta;
+  }
+
+  @Test
+  public void testSql() {
+    QueryRangeSplitter splitter = createSplitter();
+    assertEquals(
+        "SELECT MIN(\"id\"), MAX(\"id\") FROM (SELECT id FROM t) hop_split",
+        splitter.getBoundsSql());
+    assertEquals("SELECT id FROM t", splitter.getRangeSql(0, 1));
+    assertEquals(
+        "SELECT * FROM (SELECT id FROM t) hop_split WHERE \"id\" IS NULL OR \"id\" < ?",
+        splitter.getRangeSql(0, 3));
+    assertEquals(
+        "SELECT * FROM (SELECT id FROM t) hop_split WHERE \"id\" >= ? AND \"id\" < ?",
+        splitter.getRangeSql(1, 3));
+    assertEquals(
+        "SELECT * FROM (SELECT id FROM t) hop_split WHERE \"id\" >= ?", splitter.getRangeSql(2, 3));
+  }
+
+  @Test
+  public void testTrailingSemicolon() {
+    QueryRangeSplitter splitter = createSplitter("SELECT id FROM t ;\n", false);
+    assertEquals(
+        "SELECT * FROM (SELECT id FROM t) hop_split WHERE \"id\" >= ?", splitter.getRangeSql(2, 3));
+    assertEquals(
+        "SELECT id FROM 't;'", QueryRangeSplitter.stripTrailingSemicolons("SELECT id FROM 't;';;"));
+  }
+
+  @Test
+  public void testNotSplitReason() {
+    assertNull(createSplitter("SELECT id FROM t ORDER BY id", false).getNotSplitReason());
+    assertNull(
+        createSplitter("WITH x AS (SELECT id FROM t) SELECT id FROM x", false).getNotSplitReason());
+    assertNotNull(createSplitter("CALL read_ids()", false).getNotSplitReason());
+
+    assertNull(createSplitter("SELECT id FROM t", true).getNotSplitReason());
+    assertNull(createSplitter("SELECT TOP 10 id FROM t ORDER BY id", true).getNotSplitReason());
+    assertNull(
+        createSplitter("SELECT id FROM t ORDER BY id OFFSET 0 ROWS", true).getNotSplitReason());
+    assertNull(
+        createSplitter("SELECT id FROM (SELECT TOP 5 id FROM t ORDER BY id) x", true)
+            .getNotSplitReason());
+    assertNotNull(createSplitter("SELECT id FROM t order  by id;", true).getNotSplitReason());
+    assertNotNull(
+        createSplitter("WITH x AS (SELECT id FROM t) SELECT id FROM x", true).getNotSplitReason());
+  }
+
+  @Test
+  public void testHasOrderBy() {
+    assertTrue(QueryRangeSplitter.hasOrderBy("SELECT id FROM t ORDER BY id"));
+    assertTrue(QueryRangeSplitter.hasOrderBy("SELECT id FROM t\norder\nby id"));
+    assertFalse(QueryRangeSplitter.hasOrderBy("SELECT id FROM orders"));
+    assertFalse(QueryRangeSplitter.hasOrderBy("SELECT sort_order BY_name FROM t"));
+    assertFalse(QueryRangeSplitter.hasOrderBy("SELECT id FROM (SELECT id FROM t ORDER BY id) x"));
+    assertFalse(QueryRangeSplitter.hasOrderBy("SELECT 'ORDER BY' FROM t"));
+    assertFalse(QueryRangeSplitter.hasOrderBy("SELECT [order by] FROM t"));
+  }
+
+  @Test
+  public void testIntegerRanges() throws Exception {
+    IRowMeta boundsMeta =
+        createBoundsMeta(new ValueMetaInteger("min"), new ValueMetaInteger("max"));
+    Object[] bounds = new Object[] {1L, 100L};
+
+    RowMetaAndData first = QueryRangeSplitter.getRangeParameters(boundsMeta, bounds, 0, 4);
+    assertArrayEquals(new Object[] {25L}, first.getData());
+    RowMetaAndData second = QueryRangeSplitter.getRangeParameters(boundsMeta, bounds, 1, 4);
+    assertArrayEquals(new Object[] {25L, 50L}, second.getData());
+    assertEquals(2, second.size());
+    RowMetaAndData last = QueryRangeSplitter.getRangeParameters(boundsMeta, bounds, 3, 4);
+    assertArrayEquals(new Object[] {75L}, last.getData());
+
+    // No overflow on the full range of longs
+    //
+    Object[] boundaries =
+        QueryRangeSplitter.getBoundaries(
+            new ValueMetaInteger("min"),
+            Long.MIN_VALUE,
+            new ValueMetaInteger("max"),
+            Long.MAX_VALUE,
+            2);
+    assertArrayEquals(new Object[] {-1L}, boundaries);
+  }
+
+  @Test
+  public void testOtherTypes() throws Exception {
+    Object[] numbers =
+        QueryRangeSplitter.getBoundaries(
+            new ValueMetaBigNumber("min"),
+            new BigDecimal("0"),
+            new ValueMetaBigNumber("max"),
+            new BigDecimal("1"),
+            4);
+    assertEquals(0, new BigDecimal("0.25").compareTo((BigDecimal) numbers[0]));
+    assertEquals(0, new BigDecimal("0.75").compareTo((BigDecimal) numbers[2]));
+
+    Object[] dates =
+        QueryRangeSplitter.getBoundaries(
+            new ValueMetaDate("min"), new Date(0L), new ValueMetaDate("max"), new Date(3000L), 3);
+    assertArrayEquals(new Object[] {new Date(1000L), new Date(2000L)}, dates);
+  }
+
+  @Test
+  public void testEmptyQuery() throws Exception {
+    Object[] boundaries =
+        QueryRangeSplitter.getBoundaries(
+            new ValueMetaInteger("min"), null, new ValueMetaInteger("max"), null, 3);
+    assertNull(boundaries[0]);
+    assertNull(boundaries[1]);
+  }
+
+  @Test(expected = HopException.class)
+  public void testStringFieldIsNotSupported() throws Exception {
+    QueryRangeSplitter.getBoundaries(
+        new ValueMetaString("min"), "a", new ValueMetaString("max"), "z", 2);
+  }
+}
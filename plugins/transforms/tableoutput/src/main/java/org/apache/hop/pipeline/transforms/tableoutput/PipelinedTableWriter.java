@@ -0,0 +1,432 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.IBulkInserter;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.i18n.BaseMessages;
+
+/**
+ * Writes the rows of Table Output on a number of background connections. The transform thread
+ * collects the rows in batches of commit size rows. Every complete batch is handed to one of the
+ * writer threads which adds the rows to its own prepared statement (or bulk inserter), executes the
+ * batch and commits, while the transform thread keeps filling the next batch.
+ *
+ * <p>The number of batches which are being written at the same time is limited. The written rows
+ * are passed on (or sent to error handling) by the transform thread in the order in which the
+ * batches were filled.
+ */
+public class PipelinedTableWriter implements AutoCloseable {
+  private static final Class<?> PKG = TableOutputMeta.class;
+
+  /** The number of batches per writer which can be queued or written at the same time */
+  static final int BATCHES_PER_WRITER = 2;
+
+  private static final long POLL_MILLIS = 100L;
+
+  private final TableOutput tableOutput;
+  private final TableOutputData data;
+  private final int nrWriters;
+  private final int maxInFlight;
+
+  /** The batches waiting for a writer */
+  private final BlockingQueue<Batch> input;
+
+  /** The batches handed to the writers, in the order in which they were filled */
+  private final ArrayDeque<Batch> inFlight;
+
+  private Writer[] writers;
+  private Batch batch;
+
+  private volatile boolean closed;
+
+  /**
+   * @param tableOutput The transform we write for
+   * @param data The transform data with the commit size and the row layout to insert
+   * @param nrWriters The number of background connections to write on
+   */
+  public PipelinedTableWriter(TableOutput tableOutput, TableOutputData data, int nrWriters) {
+    this.tableOutput = tableOutput;
+    this.data = data;
+    this.nrWriters = Math.max(1, nrWriters);
+    this.maxInFlight = this.nrWriters * BATCHES_PER_WRITER;
+    this.input = new ArrayBlockingQueue<>(maxInFlight);
+    this.inFlight = new ArrayDeque<>(maxInFlight);
+  }
+
+  /**
+   * Open the writer connections and start the writer threads.
+   *
+   * @param tableName The name of the table to insert into
+   * @param sql The insert statement
+   * @throws HopException in case a connection couldn't be opened
+   */
+  public void start(String tableName, String sql) throws HopException {
+    if (tableOutput.isDetailed()) {
+      tableOutput.logDetailed(
+          BaseMessages.getString(
+              PKG, "TableOutput.Log.PipelinedWriters", data.commitSize, nrWriters));
+    }
+    writers = new Writer[nrWriters];
+    for (int i = 0; i < nrWriters; i++) {
+      writers[i] = new Writer(i, tableName, sql);
+    }
+    for (Writer writer : writers) {
+      writer.thread.start();
+    }
+  }
+
+  /**
+   * Add a row to write.
+   *
+   * @param insertRow The values to insert
+   * @param outputRow The row to pass on once it's safely written
+   * @throws HopException in case a batch couldn't be written
+   */
+  public void addRow(Object[] insertRow, Object[] outputRow) throws HopException {
+    if (batch == null) {
+      batch = new Batch(data.commitSize);
+    }
+    batch.insertRows.add(insertRow);
+    batch.outputRows.add(outputRow);
+    if (batch.insertRows.size() >= data.commitSize) {
+      send(batch);
+      batch = null;
+    }
+
+    // Pass on the rows of the batches which were written in the mean time
+    //
+    while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+      deliver(inFlight.poll());
+    }
+  }
+
+  /** Hand a batch to the writers, wait for the oldest batch if too many are being written. */
+  private void send(Batch batch) throws HopException {
+    while (inFlight.size() >= maxInFlight) {
+      Batch oldest = inFlight.peek();
+      if (!waitFor(oldest)) {
+        return; // stopped
+      }
+      deliver(inFlight.poll());
+    }
+    try {
+      while (!input.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        checkFailure();
+        if (tableOutput.isStopped()) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+    inFlight.add(batch);
+  }
+
+  /**
+   * Write the last rows and wait until all batches are written. This is done at the end of the rows
+   * and when a batch of rows is complete.
+   *
+   * @throws HopException in case a batch couldn't be written
+   */
+  public void flush() throws HopException {
+    if (batch != null && !batch.insertRows.isEmpty()) {
+      send(batch);
+    }
+    batch = null;
+    while (!inFlight.isEmpty()) {
+      if (!waitFor(inFlight.peek())) {
+        return; // stopped
+      }
+      deliver(inFlight.poll());
+    }
+  }
+
+  /** Wait until a batch is written, false if we stopped in the mean time */
+  private boolean waitFor(Batch batch) throws HopException {
+    try {
+      while (!batch.done.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        checkFailure();
+        if (tableOutput.isStopped()) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+  }
+
+  /** Pass on the rows of a written batch or send them to error handling. */
+  private void deliver(Batch batch) throws HopException {
+    if (batch.failure != null) {
+      throw batch.failure;
+    }
+    for (RowError rowError : batch.rowErrors) {
+      tableOutput.handleRowError(rowError.outputRow, rowError.exception);
+    }
+    if (batch.batchException != null) {
+      HopDatabaseBatchException be = batch.batchException;
+      tableOutput.processBatchException(
+          be.toString(), be.getUpdateCounts(), be.getExceptionsList(), batch.writtenRows);
+      return;
+    }
+    for (Object[] row : batch.writtenRows) {
+      tableOutput.putRow(data.outputRowMeta, row);
+      tableOutput.incrementLinesOutput();
+    }
+  }
+
+  private void checkFailure() throws HopException {
+    for (Writer writer : writers) {
+      Throwable e = writer.failure;
+      if (e != null) {
+        throw new HopException("Error writing rows on thread " + writer.thread.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * Stop the writer threads and close their connections. The connections are rolled back if the
+   * transform ran into an error.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if (writers == null) {
+      return;
+    }
+    for (Writer writer : writers) {
+      if (writer == null) {
+        continue;
+      }
+      try {
+        writer.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writer.disconnect();
+    }
+    writers = null;
+  }
+
+  private boolean isDone() {
+    return closed || tableOutput.isStopped();
+  }
+
+  /** A row which couldn't be added to a batch */
+  private record RowError(Object[] outputRow, HopDatabaseException exception) {}
+
+  /** A batch of rows, filled by the transform thread and written by a writer thread */
+  private static final class Batch {
+    private final List<Object[]> insertRows;
+    private final List<Object[]> outputRows;
+
+    /** The rows which were added to the batch on the database, written by the writer thread */
+    private final List<Object[]> writtenRows;
+
+    private final List<RowError> rowErrors = new ArrayList<>();
+    private HopDatabaseBatchException batchException;
+    private HopException failure;
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    Batch(int size) {
+      insertRows = new ArrayList<>(size);
+      outputRows = new ArrayList<>(size);
+      writtenRows = new ArrayList<>(size);
+    }
+
+    boolean isDone() {
+      return done.getCount() == 0;
+    }
+  }
+
+  /** A connection with the thread which writes batches of rows on it */
+  private final class Writer implements Runnable {
+    private final Thread thread;
+    private final String tableName;
+    private final IRowMeta insertRowMeta;
+    private final Database db;
+    private final PreparedStatement insertStatement;
+    private final IBulkInserter bulkInserter;
+    private final boolean errorHandling;
+    private final boolean ignoreErrors;
+
+    private volatile Throwable failure;
+
+    Writer(int index, String tableName, String sql) throws HopException {
+      this.tableName = tableName;
+      this.errorHandling = tableOutput.getTransformMeta().isDoingErrorHandling();
+      this.ignoreErrors = tableOutput.getMeta().isIgnoreErrors();
+
+      // Value metadata caches formatters while converting values: every thread needs its own copy
+      //
+      this.insertRowMeta = data.insertRowMeta.clone();
+
+      db = new Database(tableOutput, tableOutput, data.databaseMeta);
+      db.connect();
+      db.setCommit(data.commitSize);
+      if (data.bulkInsert) {
+        bulkInserter =
+            db.createBulkInserter(
+                tableOutput.resolve(tableOutput.getMeta().getSchemaName()),
+                tableName,
+                insertRowMeta);
+      } else {
+        bulkInserter = null;
+      }
+      insertStatement = bulkInserter == null ? db.prepareSql(sql) : null;
+
+      this.thread = new Thread(this, tableOutput.getTransformName() + " - writer " + index);
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        Batch batch = poll();
+        while (batch != null) {
+          try {
+            write(batch);
+          } finally {
+            batch.done.countDown();
+          }
+          batch = poll();
+        }
+      } catch (Throwable e) {
+        failure = e;
+      }
+    }
+
+    private void write(Batch batch) throws HopException {
+      for (int i = 0; i < batch.insertRows.size(); i++) {
+        Object[] insertRow = batch.insertRows.get(i);
+        try {
+          if (bulkInserter != null) {
+            bulkInserter.addRow(insertRow);
+          } else {
+            db.setValues(insertRowMeta, insertRow, insertStatement);
+            db.insertRow(insertStatement, true, false);
+          }
+          batch.writtenRows.add(batch.outputRows.get(i));
+        } catch (HopDatabaseException dbe) {
+          if (!errorHandling && !ignoreErrors) {
+            clearBatch();
+            db.rollback();
+            batch.failure =
+                new HopException(
+                    "Error inserting row into table ["
+                        + tableName
+                        + "] with values: "
+                        + insertRowMeta.getString(insertRow),
+                    dbe);
+            return;
+          }
+          batch.rowErrors.add(new RowError(batch.outputRows.get(i), dbe));
+        }
+      }
+
+      if (bulkInserter != null) {
+        writeBulk(batch);
+        return;
+      }
+      try {
+        db.emptyAndCommit(insertStatement, true, batch.writtenRows.size(), false);
+      } catch (HopDatabaseBatchException be) {
+        db.clearBatch(insertStatement);
+        if (errorHandling) {
+          db.commit(true);
+          batch.batchException = be;
+        } else {
+          db.rollback();
+          batch.failure = TableOutput.createBatchInsertException(tableName, be);
+        }
+      }
+    }
+
+    /** A failing bulk insert is rolled back as a whole */
+    private void writeBulk(Batch batch) throws HopException {
+      try {
+        bulkInserter.executeBatch();
+        db.commit();
+      } catch (HopDatabaseBatchException be) {
+        bulkInserter.clearBatch();
+        db.rollback();
+        if (errorHandling) {
+          batch.batchException = be;
+        } else {
+          batch.failure = TableOutput.createBatchInsertException(tableName, be);
+        }
+      }
+    }
+
+    private void clearBatch() throws HopDatabaseException {
+      if (bulkInserter != null) {
+        bulkInserter.clearBatch();
+      } else {
+        db.clearBatch(insertStatement);
+      }
+    }
+
+    /** Wait for a batch from the transform thread, null if we have to stop */
+    private Batch poll() throws InterruptedException {
+      while (!isDone()) {
+        Batch batch = input.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (batch != null) {
+          return batch;
+        }
+      }
+      return null;
+    }
+
+    private void disconnect() {
+      try {
+        if (bulkInserter != null) {
+          bulkInserter.close();
+        } else {
+          insertStatement.close();
+        }
+      } catch (Exception e) {
+        tableOutput.logError("An error occurred closing the prepared statement: " + e.getMessage());
+      }
+      if (tableOutput.getErrors() > 0) {
+        try {
+          db.rollback();
+        } catch (HopDatabaseException e) {
+          tableOutput.logError("Unexpected error rolling back the database connection.", e);
+        }
+      }
+      db.disconnect();
+    }
+  }
+}
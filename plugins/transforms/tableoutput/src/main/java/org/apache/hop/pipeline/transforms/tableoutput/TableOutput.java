@@ -33,6 +33,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.Utils;
@@ -59,9 +60,12 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   @Override
   public boolean processRow() throws HopException {
+    if (!isReadingBatches()) {
+      return processSingleRow();
+    }
 
-    Object[] r = getRow(); // this also waits for a previous transform to be finished.
-    if (r == null) { // no more input to be expected...
+    RowBatch batch = getBatch(); // this also waits for a previous transform to be finished.
+    if (batch == null) { // no more input to be expected...
       if (first && meta.isTruncateTable() && !meta.isOnlyWhenHaveRows()) {
         truncateTable();
       }
@@ -70,58 +74,134 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
     if (first) {
       first = false;
-      if (meta.isTruncateTable()) {
+      initInsert();
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      if (!writeRow(batch.getRow(i))) {
+        return false;
+      }
+    }
+
+    if (checkFeedback(getLinesRead(), batch.size()) && isBasic()) {
+      logBasic("linenr " + getLinesRead());
+    }
+    return true;
+  }
+
+  private boolean processSingleRow() throws HopException {
+
+    Object[] r = getRow(); // this also waits for a previous transform to be finished.
+    if (r == null) { // no more input to be expected...
+      if (first && meta.isTruncateTable() && !meta.isOnlyWhenHaveRows()) {
         truncateTable();
       }
-      data.outputRowMeta = getInputRowMeta().clone();
-      meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
+      return false;
+    }
 
-      if (!meta.isSpecifyFields()) {
-        // Just take the input row
-        data.insertRowMeta = getInputRowMeta().clone();
-      } else {
+    if (first) {
+      first = false;
+      initInsert();
+    }
 
-        data.insertRowMeta = new RowMeta();
+    if (!writeRow(r)) {
+      return false;
+    }
 
-        //
-        // Cache the position of the compare fields in Row row
-        //
-        data.valuenrs = new int[meta.getFields().size()];
-        for (int i = 0; i < meta.getFields().size(); i++) {
-          TableOutputField tf = meta.getFields().get(i);
-          data.valuenrs[i] = getInputRowMeta().indexOfValue(tf.getFieldStream());
-          if (data.valuenrs[i] < 0) {
-            throw new HopTransformException(
-                BaseMessages.getString(
-                    PKG, "TableOutput.Exception.FieldRequired", tf.getFieldStream()));
-          }
+    if (checkFeedback(getLinesRead()) && isBasic()) {
+      logBasic("linenr " + getLinesRead());
+    }
+    return true;
+  }
+
+  /** Truncate the table if needed and determine the fields to insert and how to insert them. */
+  private void initInsert() throws HopException {
+    if (meta.isTruncateTable()) {
+      truncateTable();
+    }
+    data.outputRowMeta = getInputRowMeta().clone();
+    meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
+
+    if (!meta.isSpecifyFields()) {
+      // Just take the input row
+      data.insertRowMeta = getInputRowMeta().clone();
+    } else {
+
+      data.insertRowMeta = new RowMeta();
+
+      //
+      // Cache the position of the compare fields in Row row
+      //
+      data.valuenrs = new int[meta.getFields().size()];
+      for (int i = 0; i < meta.getFields().size(); i++) {
+        TableOutputField tf = meta.getFields().get(i);
+        data.valuenrs[i] = getInputRowMeta().indexOfValue(tf.getFieldStream());
+        if (data.valuenrs[i] < 0) {
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "TableOutput.Exception.FieldRequired", tf.getFieldStream()));
         }
+      }
 
-        for (int i = 0; i < meta.getFields().size(); i++) {
-          TableOutputField tf = meta.getFields().get(i);
-          IValueMeta insValue = getInputRowMeta().searchValueMeta(tf.getFieldStream());
-          if (insValue != null) {
-            IValueMeta insertValue = insValue.clone();
-            insertValue.setName(tf.getFieldDatabase());
-            data.insertRowMeta.addValueMeta(insertValue);
-          } else {
-            throw new HopTransformException(
-                BaseMessages.getString(
-                    PKG, "TableOutput.Exception.FailedToFindField", tf.getFieldStream()));
-          }
+      for (int i = 0; i < meta.getFields().size(); i++) {
+        TableOutputField tf = meta.getFields().get(i);
+        IValueMeta insValue = getInputRowMeta().searchValueMeta(tf.getFieldStream());
+        if (insValue != null) {
+          IValueMeta insertValue = insValue.clone();
+          insertValue.setName(tf.getFieldDatabase());
+          data.insertRowMeta.addValueMeta(insertValue);
+        } else {
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "TableOutput.Exception.FailedToFindField", tf.getFieldStream()));
         }
       }
     }
 
-    try {
-      Object[] outputRowData = writeToTable(getInputRowMeta(), r);
-      if (outputRowData != null) {
-        putRow(data.outputRowMeta, outputRowData); // in case we want it go further...
-        incrementLinesOutput();
+    if (data.writerConnections > 1) {
+      // The writers use connections of their own: they need to see the truncated table
+      //
+      if (meta.isTruncateTable()) {
+        data.db.commit(true);
+      }
+      String sql =
+          data.db.getInsertStatement(
+              resolve(meta.getSchemaName()), data.tableName, data.insertRowMeta);
+      if (isDetailed()) {
+        logDetailed("Prepared statement : " + sql);
+      }
+      data.pipelinedWriter = new PipelinedTableWriter(this, data, data.writerConnections);
+      data.pipelinedWriter.start(data.tableName, sql);
+    } else if (data.bulkInsert) {
+      data.bulkInserter =
+          data.db.createBulkInserter(
+              resolve(meta.getSchemaName()), data.tableName, data.insertRowMeta);
+      if (data.bulkInserter == null) {
+        logBasic(BaseMessages.getString(PKG, "TableOutput.Log.BulkInsertNotSupported"));
+        data.bulkInsert = false;
+      } else if (isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "TableOutput.Log.BulkInsert", data.commitSize));
       }
+    }
+  }
 
-      if (checkFeedback(getLinesRead()) && isBasic()) {
-        logBasic("linenr " + getLinesRead());
+  /**
+   * Write a row to the table, the way the transform is configured to insert.
+   *
+   * @return false if the transform can't continue because of an error
+   */
+  private boolean writeRow(Object[] r) {
+    try {
+      if (data.pipelinedWriter != null) {
+        data.pipelinedWriter.addRow(getInsertRowData(r), r);
+      } else if (data.bulkInserter != null) {
+        writeBulk(r);
+      } else {
+        Object[] outputRowData = writeToTable(getInputRowMeta(), r);
+        if (outputRowData != null) {
+          putRow(data.outputRowMeta, outputRowData); // in case we want it go further...
+          incrementLinesOutput();
+        }
       }
     } catch (HopException e) {
       logError("Because of an error, this transform can't continue: ", e);
@@ -130,10 +210,72 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       setOutputDone(); // signal end to receiver(s)
       return false;
     }
-
     return true;
   }
 
+  /** Get the values to insert for a row of a single target table */
+  private Object[] getInsertRowData(Object[] r) {
+    if (!meta.isSpecifyFields()) {
+      return r;
+    }
+    Object[] insertRowData = new Object[data.valuenrs.length];
+    for (int idx = 0; idx < data.valuenrs.length; idx++) {
+      insertRowData[idx] = r[data.valuenrs[idx]];
+    }
+    return insertRowData;
+  }
+
+  /**
+   * Add a row to the bulk inserter. The rows are passed on once the batch is inserted and
+   * committed.
+   */
+  private void writeBulk(Object[] r) throws HopException {
+    Object[] insertRowData = getInsertRowData(r);
+    try {
+      data.bulkInserter.addRow(insertRowData);
+    } catch (HopDatabaseException dbe) {
+      if (!getTransformMeta().isDoingErrorHandling() && !meta.isIgnoreErrors()) {
+        throw new HopException(
+            "Error inserting row into table ["
+                + data.tableName
+                + "] with values: "
+                + data.insertRowMeta.getString(insertRowData),
+            dbe);
+      }
+      handleRowError(r, dbe);
+      return;
+    }
+    data.batchBuffer.add(r);
+    if (data.bulkInserter.getBatchSize() >= data.commitSize) {
+      flushBulk();
+    }
+  }
+
+  /**
+   * Insert and commit the current batch of the bulk inserter. A failing batch is rolled back as a
+   * whole: all its rows are sent to error handling.
+   */
+  private void flushBulk() throws HopException {
+    try {
+      data.bulkInserter.executeBatch();
+      data.db.commit();
+    } catch (HopDatabaseBatchException be) {
+      data.bulkInserter.clearBatch();
+      data.db.rollback();
+      if (getTransformMeta().isDoingErrorHandling()) {
+        processBatchException(
+            be.toString(), be.getUpdateCounts(), be.getExceptionsList(), data.batchBuffer);
+        return;
+      }
+      throw createBatchInsertException(data.tableName, be);
+    }
+    for (Object[] row : data.batchBuffer) {
+      putRow(data.outputRowMeta, row);
+      incrementLinesOutput();
+    }
+    data.batchBuffer.clear();
+  }
+
   protected Object[] writeToTable(IRowMeta rowMeta, Object[] r) throws HopException {
 
     if (r == null) { // Stop: last line or error encountered
@@ -327,17 +469,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       } else {
         data.db.clearBatch(insertStatement);
         data.db.rollback();
-        StringBuilder msg =
-            new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
-        msg.append(Const.CR);
-        msg.append("Errors encountered (first 10):").append(Const.CR);
-        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
-          Exception exception = be.getExceptionsList().get(x);
-          if (exception.getMessage() != null) {
-            msg.append(exception.getMessage()).append(Const.CR);
-          }
-        }
-        throw new HopException(msg.toString(), be);
+        throw createBatchInsertException(tableName, be);
       }
     } catch (HopDatabaseException dbe) {
       if (getTransformMeta().isDoingErrorHandling()) {
@@ -357,22 +489,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         errorMessage = dbe.toString();
       } else {
         if (meta.isIgnoreErrors()) {
-          if (data.warnings < 20) {
-            if (isBasic()) {
-              logBasic(
-                  "WARNING: Couldn't insert row into table: "
-                      + rowMeta.getString(r)
-                      + Const.CR
-                      + dbe.getMessage());
-            }
-          } else if (data.warnings == 20 && isBasic()) {
-            logBasic(
-                "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
-                    + rowMeta.getString(r)
-                    + Const.CR
-                    + dbe.getMessage());
-          }
-          data.warnings++;
+          logIgnoredError(rowMeta, r, dbe);
         } else {
           setErrors(getErrors() + 1);
           data.db.rollback();
@@ -397,7 +514,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.batchBuffer.add(outputRowData);
           outputRowData = null;
 
-          processBatchException(errorMessage, updateCounts, exceptionsList);
+          processBatchException(errorMessage, updateCounts, exceptionsList, data.batchBuffer);
         } else {
           // Simply add this row to the error row
           putError(rowMeta, r, 1L, errorMessage, null, "TOP001");
@@ -427,15 +544,68 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
-  private void processBatchException(
-      String errorMessage, int[] updateCounts, List<Exception> exceptionsList) throws HopException {
+  private void logIgnoredError(IRowMeta rowMeta, Object[] r, HopDatabaseException dbe)
+      throws HopException {
+    if (data.warnings < 20) {
+      if (isBasic()) {
+        logBasic(
+            "WARNING: Couldn't insert row into table: "
+                + rowMeta.getString(r)
+                + Const.CR
+                + dbe.getMessage());
+      }
+    } else if (data.warnings == 20 && isBasic()) {
+      logBasic(
+          "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
+              + rowMeta.getString(r)
+              + Const.CR
+              + dbe.getMessage());
+    }
+    data.warnings++;
+  }
+
+  /**
+   * Handle a row which couldn't be added to a batch by a background writer: it's sent to error
+   * handling or the error is logged as a warning when errors are ignored.
+   */
+  void handleRowError(Object[] row, HopDatabaseException dbe) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      if (isRowLevel()) {
+        logRowlevel("Written row to error handling : " + data.outputRowMeta.getString(row));
+      }
+      putError(data.outputRowMeta, row, 1L, dbe.toString(), null, "TOP001");
+    } else {
+      logIgnoredError(data.outputRowMeta, row, dbe);
+    }
+  }
+
+  static HopException createBatchInsertException(String tableName, HopDatabaseBatchException be) {
+    StringBuilder msg =
+        new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
+    msg.append(Const.CR);
+    msg.append("Errors encountered (first 10):").append(Const.CR);
+    for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+      Exception exception = be.getExceptionsList().get(x);
+      if (exception.getMessage() != null) {
+        msg.append(exception.getMessage()).append(Const.CR);
+      }
+    }
+    return new HopException(msg.toString(), be);
+  }
+
+  void processBatchException(
+      String errorMessage,
+      int[] updateCounts,
+      List<Exception> exceptionsList,
+      List<Object[]> batchRows)
+      throws HopException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if (updateCounts != null) {
       int errNr = 0;
       for (int i = 0; i < updateCounts.length; i++) {
-        Object[] row = data.batchBuffer.get(i);
+        Object[] row = batchRows.get(i);
         if (updateCounts[i] > 0) {
           // send the error foward
           putRow(data.outputRowMeta, row);
@@ -454,14 +624,14 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for (int i = 0; i < data.batchBuffer.size(); i++) {
-        Object[] row = data.batchBuffer.get(i);
+      for (int i = 0; i < batchRows.size(); i++) {
+        Object[] row = batchRows.get(i);
         putError(data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003");
       }
     }
 
     // Clear the buffer afterwards...
-    data.batchBuffer.clear();
+    batchRows.clear();
   }
 
   @Override
@@ -540,6 +710,26 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.tableName = resolve(meta.getTableName());
         }
 
+        // Write on background connections if we can. Every batch is committed on its own so we
+        // can't do this in a single database transaction.
+        //
+        data.writerConnections = Const.toInt(resolve(meta.getWriterConnections()), 1);
+        if (data.writerConnections > 1
+            && (!data.batchMode
+                || data.tableName == null
+                || !Utils.isEmpty(data.db.getConnectionGroup()))) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Warning.WriterConnectionsNotUsed"));
+          data.writerConnections = 1;
+        }
+
+        // Insert the batches of a single table in the fastest way the database offers
+        //
+        data.bulkInsert = meta.isUseBulkInsert();
+        if (data.bulkInsert && (!data.batchMode || data.tableName == null)) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Warning.BulkInsertNotUsed"));
+          data.bulkInsert = false;
+        }
+
         return true;
       } catch (HopException e) {
         logError("An error occurred initializing this transform: " + e.getMessage());
@@ -567,6 +757,18 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       try {
         emptyAndCommitBatchBuffers(true);
       } finally {
+        if (data.pipelinedWriter != null) {
+          data.pipelinedWriter.close();
+          data.pipelinedWriter = null;
+        }
+        if (data.bulkInserter != null) {
+          try {
+            data.bulkInserter.close();
+          } catch (HopDatabaseException e) {
+            logError("An error occurred closing the bulk inserter: " + e.getMessage());
+          }
+          data.bulkInserter = null;
+        }
         try {
           // close prepared statements
           for (Map.Entry<String, PreparedStatement> preparedStatement :
@@ -600,6 +802,18 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
+      if (data.pipelinedWriter != null && !isStopped()) {
+        data.pipelinedWriter.flush();
+      }
+      if (data.bulkInserter != null) {
+        if (isStopped()) {
+          // These rows are not written: don't pass them on
+          data.bulkInserter.clearBatch();
+          data.batchBuffer.clear();
+        } else if (data.bulkInserter.getBatchSize() > 0) {
+          flushBulk();
+        }
+      }
       for (String schemaTable : data.preparedStatements.keySet()) {
         // Get a commit counter per prepared statement to keep track of separate tables, etc.
         //
@@ -624,7 +838,8 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         // Right at the back we are experiencing a batch commit problem...
         // OK, we have the numbers...
         try {
-          processBatchException(be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+          processBatchException(
+              be.toString(), be.getUpdateCounts(), be.getExceptionsList(), data.batchBuffer);
         } catch (HopException e) {
           logError("Unexpected error processing batch error", e);
           setErrors(1);
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IBulkInserter;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -69,6 +70,18 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** The number of background connections to write on, 1 if the transform writes itself */
+  public int writerConnections;
+
+  /** Writes the batches of rows on the background connections */
+  public PipelinedTableWriter pipelinedWriter;
+
+  /** Insert the batches of rows with a bulk inserter of the database? */
+  public boolean bulkInsert;
+
+  /** Inserts the batches of rows when the transform writes them itself */
+  public IBulkInserter bulkInserter;
+
   public TableOutputData() {
     super();
 
@@ -88,6 +88,8 @@ public class TableOutputDialog extends BaseTransformDialog {
 
   private TextVar wCommit;
 
+  private TextVar wWriterConnections;
+
   private Label wlTruncate;
   private Button wTruncate;
 
@@ -101,6 +103,9 @@ public class TableOutputDialog extends BaseTransformDialog {
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlBulkInsert;
+  private Button wBulkInsert;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -286,13 +291,33 @@ public class TableOutputDialog extends BaseTransformDialog {
     fdCommit.right = new FormAttachment(100, 0);
     wCommit.setLayoutData(fdCommit);
 
+    // Writer connections ...
+    Label wlWriterConnections = new Label(shell, SWT.RIGHT);
+    wlWriterConnections.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Label"));
+    wlWriterConnections.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Tooltip"));
+    PropsUi.setLook(wlWriterConnections);
+    FormData fdlWriterConnections = new FormData();
+    fdlWriterConnections.left = new FormAttachment(0, 0);
+    fdlWriterConnections.right = new FormAttachment(middle, -margin);
+    fdlWriterConnections.top = new FormAttachment(wCommit, margin);
+    wlWriterConnections.setLayoutData(fdlWriterConnections);
+    wWriterConnections = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wWriterConnections);
+    FormData fdWriterConnections = new FormData();
+    fdWriterConnections.left = new FormAttachment(middle, 0);
+    fdWriterConnections.top = new FormAttachment(wlWriterConnections, 0, SWT.CENTER);
+    fdWriterConnections.right = new FormAttachment(100, 0);
+    wWriterConnections.setLayoutData(fdWriterConnections);
+
     // Truncate table
     wlTruncate = new Label(shell, SWT.RIGHT);
     wlTruncate.setText(BaseMessages.getString(PKG, "TableOutputDialog.TruncateTable.Label"));
     PropsUi.setLook(wlTruncate);
     FormData fdlTruncate = new FormData();
     fdlTruncate.left = new FormAttachment(0, 0);
-    fdlTruncate.top = new FormAttachment(wCommit, margin);
+    fdlTruncate.top = new FormAttachment(wWriterConnections, margin);
     fdlTruncate.right = new FormAttachment(middle, -margin);
     wlTruncate.setLayoutData(fdlTruncate);
     wTruncate = new Button(shell, SWT.CHECK);
@@ -549,13 +574,33 @@ public class TableOutputDialog extends BaseTransformDialog {
           }
         });
 
+    // Bulk insert
+    wlBulkInsert = new Label(wMainComp, SWT.RIGHT);
+    wlBulkInsert.setText(BaseMessages.getString(PKG, "TableOutputDialog.BulkInsert.Label"));
+    wlBulkInsert.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.BulkInsert.Tooltip"));
+    PropsUi.setLook(wlBulkInsert);
+    FormData fdlBulkInsert = new FormData();
+    fdlBulkInsert.left = new FormAttachment(0, 0);
+    fdlBulkInsert.top = new FormAttachment(wBatch, margin);
+    fdlBulkInsert.right = new FormAttachment(middle, -margin);
+    wlBulkInsert.setLayoutData(fdlBulkInsert);
+    wBulkInsert = new Button(wMainComp, SWT.CHECK);
+    PropsUi.setLook(wBulkInsert);
+    FormData fdBulkInsert = new FormData();
+    fdBulkInsert.left = new FormAttachment(middle, 0);
+    fdBulkInsert.top = new FormAttachment(wlBulkInsert, 0, SWT.CENTER);
+    fdBulkInsert.right = new FormAttachment(100, 0);
+    wBulkInsert.setLayoutData(fdBulkInsert);
+    wBulkInsert.addSelectionListener(lsSelMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     PropsUi.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wBulkInsert, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1216,6 +1261,10 @@ public class TableOutputDialog extends BaseTransformDialog {
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // Bulk inserts are done in batches of rows
+    wlBulkInsert.setEnabled(useBatch);
+    wBulkInsert.setEnabled(useBatch);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1260,8 +1309,10 @@ public class TableOutputDialog extends BaseTransformDialog {
     wOnlyWhenHaveRows.setSelection(input.isOnlyWhenHaveRows());
     wIgnore.setSelection(input.isIgnoreErrors());
     wBatch.setSelection(input.isUseBatchUpdate());
+    wBulkInsert.setSelection(input.isUseBulkInsert());
 
     wCommit.setText(input.getCommitSize());
+    wWriterConnections.setText(Const.NVL(input.getWriterConnections(), ""));
 
     wUsePart.setSelection(input.isPartitioningEnabled());
     wPartDaily.setSelection(input.isPartitioningDaily());
@@ -1312,10 +1363,12 @@ public class TableOutputDialog extends BaseTransformDialog {
     info.setTableName(wTable.getText());
     info.setConnection(wConnection.getText());
     info.setCommitSize(wCommit.getText());
+    info.setWriterConnections(wWriterConnections.getText());
     info.setTruncateTable(wTruncate.getSelection());
     info.setOnlyWhenHaveRows(wOnlyWhenHaveRows.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setUseBulkInsert(wBulkInsert.getSelection());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
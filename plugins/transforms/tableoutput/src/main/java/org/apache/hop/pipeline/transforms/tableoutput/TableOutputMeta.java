@@ -85,6 +85,12 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.CommitSize.Field")
   private String commitSize;
 
+  @HopMetadataProperty(
+      key = "writer_connections",
+      injectionKey = "WRITER_CONNECTIONS",
+      injectionKeyDescription = "TableOutputMeta.Injection.WriterConnections.Field")
+  private String writerConnections;
+
   @HopMetadataProperty(
       key = "truncate",
       injectionKey = "TRUNCATE_TABLE",
@@ -111,6 +117,12 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  @HopMetadataProperty(
+      key = "use_bulk_insert",
+      injectionKey = "USE_BULK_INSERT",
+      injectionKeyDescription = "TableOutputMeta.Injection.UseBulkInsert.Field")
+  private boolean useBulkInsert;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -374,6 +386,22 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return The number of connections which write batches of rows in the background. Empty or 1
+   *     means the rows are written by the transform itself.
+   */
+  public String getWriterConnections() {
+    return writerConnections;
+  }
+
+  /**
+   * @param writerConnections The number of connections which write batches of rows in the
+   *     background
+   */
+  public void setWriterConnections(String writerConnections) {
+    this.writerConnections = writerConnections;
+  }
+
   /**
    * Returns the table name.
    *
@@ -462,6 +490,21 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     return useBatchUpdate;
   }
 
+  /**
+   * @return true if the batches of rows are inserted in the fastest way the database offers:
+   *     multi-row inserts, COPY, bulk copy and so on.
+   */
+  public boolean isUseBulkInsert() {
+    return useBulkInsert;
+  }
+
+  /**
+   * @param useBulkInsert The useBulkInsert flag to set.
+   */
+  public void setUseBulkInsert(boolean useBulkInsert) {
+    this.useBulkInsert = useBulkInsert;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.IBulkInserter;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+
+public class PipelinedTableWriterTest {
+  private TableOutput tableOutput;
+  private TableOutputData data;
+  private TransformMeta transformMeta;
+
+  @Before
+  public void setUp() {
+    transformMeta = mock(TransformMeta.class);
+
+    tableOutput = mock(TableOutput.class);
+    doReturn("transform").when(tableOutput).getTransformName();
+    doReturn(transformMeta).when(tableOutput).getTransformMeta();
+    doReturn(mock(TableOutputMeta.class)).when(tableOutput).getMeta();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    data = new TableOutputData();
+    data.commitSize = 2;
+    data.insertRowMeta = rowMeta;
+    data.outputRowMeta = rowMeta;
+  }
+
+  private static MockedConstruction<Database> mockDatabases() {
+    return mockConstruction(
+        Database.class,
+        (db, context) ->
+            when(db.prepareSql(anyString())).thenReturn(mock(PreparedStatement.class)));
+  }
+
+  @Test
+  public void testRowsArePassedOnInOrder() throws Exception {
+    try (MockedConstruction<Database> databases = mockDatabases()) {
+      PipelinedTableWriter writer = new PipelinedTableWriter(tableOutput, data, 3);
+      writer.start("sas", "INSERT");
+
+      List<Object[]> rows = new ArrayList<>();
+      for (long i = 0; i < 25; i++) {
+        Object[] row = new Object[] {i};
+        rows.add(row);
+        writer.addRow(row, row);
+      }
+      writer.flush();
+      writer.close();
+
+      ArgumentCaptor<Object[]> written = ArgumentCaptor.forClass(Object[].class);
+      verify(tableOutput, times(25)).putRow(eq(data.outputRowMeta), written.capture());
+      verify(tableOutput, times(25)).incrementLinesOutput();
+      for (int i = 0; i < rows.size(); i++) {
+        assertSame(rows.get(i), written.getAllValues().get(i));
+      }
+
+      assertEquals(3, databases.constructed().size());
+      int batches = 0;
+      for (Database db : databases.constructed()) {
+        verify(db).connect();
+        verify(db).setCommit(2);
+        verify(db).disconnect();
+        batches += countBatches(db);
+      }
+      assertEquals(13, batches);
+    }
+  }
+
+  /** The number of batches executed and committed on a writer connection */
+  private static int countBatches(Database db) {
+    return (int)
+        mockingDetails(db).getInvocations().stream()
+            .filter(invocation -> invocation.getMethod().getName().equals("emptyAndCommit"))
+            .count();
+  }
+
+  @Test
+  public void testBatchErrorGoesToErrorHandling() throws Exception {
+    when(transformMeta.isDoingErrorHandling()).thenReturn(true);
+    HopDatabaseBatchException be = new HopDatabaseBatchException("batch failed", null);
+    be.setUpdateCounts(new int[] {1, 0});
+    be.setExceptionsList(new ArrayList<>());
+
+    try (MockedConstruction<Database> databases =
+        mockConstruction(
+            Database.class,
+            (db, context) -> {
+              when(db.prepareSql(anyString())).thenReturn(mock(PreparedStatement.class));
+              doThrow(be)
+                  .when(db)
+                  .emptyAndCommit(any(PreparedStatement.class), anyBoolean(), anyInt(), eq(false));
+            })) {
+      PipelinedTableWriter writer = new PipelinedTableWriter(tableOutput, data, 1);
+      writer.start("sas", "INSERT");
+      writer.addRow(new Object[] {1L}, new Object[] {1L});
+      writer.addRow(new Object[] {2L}, new Object[] {2L});
+      writer.flush();
+      writer.close();
+
+      Database db = databases.constructed().get(0);
+      verify(db).commit(true);
+      verify(db, never()).rollback();
+      verify(tableOutput)
+          .processBatchException(
+              eq(be.toString()), eq(be.getUpdateCounts()), eq(be.getExceptionsList()), any());
+      verify(tableOutput, never()).putRow(any(IRowMeta.class), any(Object[].class));
+    }
+  }
+
+  @Test
+  public void testBatchErrorWithoutErrorHandlingFails() throws Exception {
+    HopDatabaseBatchException be = new HopDatabaseBatchException("batch failed", null);
+    be.setExceptionsList(new ArrayList<>());
+
+    try (MockedConstruction<Database> databases =
+        mockConstruction(
+            Database.class,
+            (db, context) -> {
+              when(db.prepareSql(anyString())).thenReturn(mock(PreparedStatement.class));
+              doThrow(be)
+                  .when(db)
+                  .emptyAndCommit(any(PreparedStatement.class), anyBoolean(), anyInt(), eq(false));
+            })) {
+      PipelinedTableWriter writer = new PipelinedTableWriter(tableOutput, data, 1);
+      writer.start("sas", "INSERT");
+      writer.addRow(new Object[] {1L}, new Object[] {1L});
+      try {
+        writer.flush();
+        fail("The failed batch should stop the transform");
+      } catch (HopException e) {
+        assertSame(be, e.getCause());
+      }
+      writer.close();
+
+      verify(databases.constructed().get(0)).rollback();
+      verify(tableOutput, never()).putRow(any(IRowMeta.class), any(Object[].class));
+    }
+  }
+
+  @Test
+  public void testBulkInsert() throws Exception {
+    data.bulkInsert = true;
+    List<IBulkInserter> inserters = new ArrayList<>();
+
+    try (MockedConstruction<Database> databases =
+        mockConstruction(
+            Database.class,
+            (db, context) -> {
+              IBulkInserter inserter = mock(IBulkInserter.class);
+              inserters.add(inserter);
+              when(db.createBulkInserter(isNull(), eq("sas"), any(IRowMeta.class)))
+                  .thenReturn(inserter);
+            })) {
+      PipelinedTableWriter writer = new PipelinedTableWriter(tableOutput, data, 1);
+      writer.start("sas", "INSERT");
+      for (long i = 0; i < 5; i++) {
+        writer.addRow(new Object[] {i}, new Object[] {i});
+      }
+      writer.flush();
+      writer.close();
+
+      Database db = databases.constructed().get(0);
+      verify(db, never()).prepareSql(anyString());
+      verify(db, times(3)).commit();
+      IBulkInserter inserter = inserters.get(0);
+      verify(inserter, times(5)).addRow(any(Object[].class));
+      verify(inserter, times(3)).executeBatch();
+      verify(inserter).close();
+      verify(tableOutput, times(5)).putRow(any(IRowMeta.class), any(Object[].class));
+    }
+  }
+
+  @Test
+  public void testFailedBulkInsertGoesToErrorHandling() throws Exception {
+    when(transformMeta.isDoingErrorHandling()).thenReturn(true);
+    data.bulkInsert = true;
+    HopDatabaseBatchException be = new HopDatabaseBatchException("bulk failed", null);
+    IBulkInserter inserter = mock(IBulkInserter.class);
+    doThrow(be).when(inserter).executeBatch();
+
+    try (MockedConstruction<Database> databases =
+        mockConstruction(
+            Database.class,
+            (db, context) ->
+                when(db.createBulkInserter(any(), anyString(), any(IRowMeta.class)))
+                    .thenReturn(inserter))) {
+      PipelinedTableWriter writer = new PipelinedTableWriter(tableOutput, data, 1);
+      writer.start("sas", "INSERT");
+      writer.addRow(new Object[] {1L}, new Object[] {1L});
+      writer.addRow(new Object[] {2L}, new Object[] {2L});
+      writer.flush();
+      writer.close();
+
+      Database db = databases.constructed().get(0);
+      verify(db).rollback();
+      verify(db, never()).commit();
+      verify(inserter).clearBatch();
+      verify(tableOutput).processBatchException(eq(be.toString()), isNull(), isNull(), any());
+      verify(tableOutput, never()).putRow(any(IRowMeta.class), any(Object[].class));
+    }
+  }
+}
@@ -133,7 +133,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     }
 
     try {
-      Object[] outputRowData = readOneRow(false, false); // get row, set busy!
+      Object[] outputRowData = readNextRow(); // get row, set busy!
       // no more input to be expected...
       if (outputRowData == null) {
         if (openNextFile()) {
@@ -574,6 +574,117 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     return true;
   }
 
+  /**
+   * Read the next row of data from the file. Rows are split in bulk by the row tokenizer if we have
+   * one. Rows which it can't handle are read byte by byte.
+   *
+   * @return the next row or null if there are no more rows in the file
+   * @throws HopException
+   */
+  private Object[] readNextRow() throws HopException {
+    if (data.rowTokenizer != null) {
+      try {
+        Object[] outputRowData = readTokenizedRow();
+        if (outputRowData != null) {
+          return outputRowData;
+        }
+      } catch (IOException e) {
+        throw new HopFileException("Exception reading line using NIO", e);
+      }
+    }
+    return readOneRow(false, false);
+  }
+
+  /**
+   * Split the next row with the row tokenizer. Every field of the transform becomes a field of the
+   * output row, so all of them are copied out of the buffer. Columns after the last field aren't
+   * indexed or copied.
+   *
+   * @return the row or null if the row has to be read byte by byte
+   * @throws HopConversionException in case a field can't be converted
+   * @throws IOException in case we get an error reading from the input file
+   */
+  private Object[] readTokenizedRow() throws HopConversionException, IOException {
+    CsvRowTokenizer tokenizer = data.rowTokenizer;
+    boolean endOfFile = false;
+    CsvRowTokenizer.Result result;
+    while (true) {
+      result =
+          tokenizer.tokenize(
+              data.getByteBuffer(), data.getStartBuffer(), data.getBufferSize(), endOfFile);
+      if (result != CsvRowTokenizer.Result.NEED_MORE_DATA) {
+        break;
+      }
+      endOfFile = data.readMoreData() < 0;
+    }
+    if (result != CsvRowTokenizer.Result.ROW) {
+      return null;
+    }
+
+    byte[] buffer = data.getByteBuffer();
+    Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    List<Exception> conversionExceptions = null;
+    List<IValueMeta> exceptionFields = null;
+
+    for (int i = 0; i < tokenizer.getFieldsFound(); i++) {
+      byte[] field = tokenizer.getField(buffer, i);
+      int escapedEnclosures = tokenizer.getEscapedEnclosures(i);
+      if (escapedEnclosures > 0) {
+        field = data.removeEscapedEnclosures(field, escapedEnclosures);
+      }
+
+      if (meta.isLazyConversionActive()) {
+        outputRowData[i] = field;
+      } else {
+        IValueMeta sourceValueMeta = data.convertRowMeta.getValueMeta(i);
+        try {
+          outputRowData[i] = sourceValueMeta.convertBinaryStringToNativeType(field);
+        } catch (HopValueException e) {
+          outputRowData[i] = null;
+
+          if (conversionExceptions == null) {
+            conversionExceptions = new ArrayList<>();
+            exceptionFields = new ArrayList<>();
+          }
+          conversionExceptions.add(e);
+          exceptionFields.add(sourceValueMeta);
+        }
+      }
+    }
+
+    data.skipProcessedBytes(tokenizer.getRowEnd() - data.getStartBuffer());
+
+    addFilenameAndRowNumber(outputRowData);
+    incrementLinesInput();
+
+    if (conversionExceptions != null) {
+      throw new HopConversionException(
+          "There were "
+              + conversionExceptions.size()
+              + " conversion errors on line "
+              + getLinesInput(),
+          conversionExceptions,
+          exceptionFields,
+          outputRowData);
+    }
+
+    return outputRowData;
+  }
+
+  private void addFilenameAndRowNumber(Object[] outputRowData) {
+    if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
+      if (meta.isLazyConversionActive()) {
+        outputRowData[data.filenameFieldIndex] = data.binaryFilename;
+      } else {
+        outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
+      }
+    }
+
+    if (data.isAddingRowNumber) {
+      outputRowData[data.rownumFieldIndex] = data.rowNumber++;
+    }
+  }
+
   /**
    * Read a single row of data from the file...
    *
@@ -613,17 +724,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
             // filling the rest of them with null
             // Optionally add the current filename to the mix as well...
             //
-            if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
-              if (meta.isLazyConversionActive()) {
-                outputRowData[data.filenameFieldIndex] = data.binaryFilename;
-              } else {
-                outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
-              }
-            }
-
-            if (data.isAddingRowNumber) {
-              outputRowData[data.rownumFieldIndex] = data.rowNumber++;
-            }
+            addFilenameAndRowNumber(outputRowData);
 
             incrementLinesInput();
             return outputRowData;
@@ -838,17 +939,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
       // Optionally add the current filename to the mix as well...
       //
-      if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
-        if (meta.isLazyConversionActive()) {
-          outputRowData[data.filenameFieldIndex] = data.binaryFilename;
-        } else {
-          outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
-        }
-      }
-
-      if (data.isAddingRowNumber) {
-        outputRowData[data.rownumFieldIndex] = data.rowNumber++;
-      }
+      addFilenameAndRowNumber(outputRowData);
 
       if (!ignoreEnclosures) {
         incrementLinesInput();
@@ -961,6 +1052,20 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         }
       }
 
+      // Split the rows in bulk if the layout of the file is simple enough
+      //
+      int nrFields = meta.getInputFields() == null ? 0 : meta.getInputFields().length;
+      if (CsvRowTokenizer.isSupported(
+          nrFields,
+          data.delimiter,
+          data.enclosure,
+          data.encodingType == EncodingType.SINGLE,
+          meta.isNewlinePossibleInFields())) {
+        data.rowTokenizer = new CsvRowTokenizer(nrFields, data.delimiter[0], data.enclosure);
+      } else {
+        data.rowTokenizer = null;
+      }
+
       switch (data.encodingType) {
         case DOUBLE_BIG_ENDIAN:
           data.crLfMatcher = new MultiByteBigCrLfMatcher();
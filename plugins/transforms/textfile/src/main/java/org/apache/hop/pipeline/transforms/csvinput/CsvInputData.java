@@ -74,6 +74,9 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /** Splits rows in bulk when the file layout allows it, null to read byte by byte */
+  public CsvRowTokenizer rowTokenizer;
+
   /**
    * Data class for CsvInput transform
    *
@@ -273,6 +276,41 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     }
   }
 
+  /**
+   * Keep the data from the start buffer pointer onwards and append the next block of data from the
+   * file. Both buffer pointers are positioned at the start of the kept data.
+   *
+   * @return the number of bytes read or -1 if we reached the end of the file
+   * @throws IOException in case there is a I/O problem (read error)
+   */
+  int readMoreData() throws IOException {
+    endBuffer = bufferSize;
+    resizeByteBufferArray();
+    int n = readBufferFromFile();
+    endBuffer = startBuffer;
+    return n;
+  }
+
+  /**
+   * Move both buffer pointers ahead, past data which was processed without moving the end buffer
+   * pointer byte by byte.
+   *
+   * @param bytes The number of bytes to move
+   */
+  void skipProcessedBytes(int bytes) {
+    endBuffer += bytes;
+    totalBytesRead += bytes;
+    startBuffer = endBuffer;
+  }
+
+  byte[] getByteBuffer() {
+    return byteBuffer;
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
   int getStartBuffer() {
     return startBuffer;
   }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.util.Arrays;
+
+/**
+ * Splits a row of a CSV file into fields without copying or converting anything. The positions of
+ * the fields are kept in an index which is re-used for every row, so that the bytes of a field are
+ * only copied when the field is actually needed.
+ *
+ * <p>This tokenizer handles single byte encodings with a single byte delimiter and enclosure. The
+ * rows are split in the same way as {@link CsvInput} does it byte by byte. Rows which need any of
+ * its special handling, like text after a closing enclosure or a row which is cut short by the end
+ * of the file, are reported as {@link Result#UNSUPPORTED} so that they can be read the regular
+ * way.
+ */
+public class CsvRowTokenizer {
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  public enum Result {
+    /** A complete row was found */
+    ROW,
+    /** The row doesn't end in the available data, read more data and try again */
+    NEED_MORE_DATA,
+    /** The row can't be handled by this tokenizer */
+    UNSUPPORTED,
+  }
+
+  private final int nrFields;
+  private final boolean hasEnclosure;
+  private final byte delimiter;
+  private final byte enclosure;
+
+  private final SwarByteScanner fieldEndScanner;
+  private final SwarByteScanner lineEndScanner;
+  private final SwarByteScanner enclosureScanner;
+
+  private final int[] fieldStarts;
+  private final int[] fieldEnds;
+  private final int[] escapedEnclosures;
+  private int fieldsFound;
+  private int rowEnd;
+
+  /**
+   * @param nrFields The number of fields to read from every row
+   * @param delimiter The field delimiter
+   * @param enclosure The enclosure or null if fields are not enclosed
+   */
+  public CsvRowTokenizer(int nrFields, byte delimiter, byte[] enclosure) {
+    this.nrFields = nrFields;
+    this.delimiter = delimiter;
+    this.hasEnclosure = enclosure != null && enclosure.length > 0;
+    this.enclosure = hasEnclosure ? enclosure[0] : 0;
+
+    fieldEndScanner = new SwarByteScanner(delimiter, CR, LF);
+    lineEndScanner = new SwarByteScanner(CR, LF);
+    enclosureScanner = hasEnclosure ? new SwarByteScanner(this.enclosure) : null;
+
+    fieldStarts = new int[nrFields];
+    fieldEnds = new int[nrFields];
+    escapedEnclosures = new int[nrFields];
+  }
+
+  /**
+   * See if we can use this tokenizer for the given settings
+   *
+   * @param nrFields The number of fields to read
+   * @param delimiter The delimiter in the encoding of the file
+   * @param enclosure The enclosure in the encoding of the file or null
+   * @param singleByteEncoding true if the file uses a single byte encoding like ASCII or UTF-8
+   * @param newlinePossibleInFields true if new lines can appear in fields without enclosure
+   * @return true if the tokenizer can read rows with these settings
+   */
+  public static boolean isSupported(
+      int nrFields,
+      byte[] delimiter,
+      byte[] enclosure,
+      boolean singleByteEncoding,
+      boolean newlinePossibleInFields) {
+    if (nrFields <= 0 || !singleByteEncoding || newlinePossibleInFields) {
+      return false;
+    }
+    if (delimiter == null || delimiter.length != 1 || isLineEnd(delimiter[0])) {
+      return false;
+    }
+    if (enclosure != null
+        && enclosure.length > 0
+        && (enclosure.length != 1 || isLineEnd(enclosure[0]) || enclosure[0] == delimiter[0])) {
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean isLineEnd(byte b) {
+    return b == CR || b == LF;
+  }
+
+  /**
+   * Find the fields of the row which starts at the given position.
+   *
+   * @param buffer The data
+   * @param from The start of the row
+   * @param to The end of the available data
+   * @param endOfFile true if there is no more data after the available data
+   * @return The outcome, the field positions are only valid for {@link Result#ROW}
+   */
+  public Result tokenize(byte[] buffer, int from, int to, boolean endOfFile) {
+    Result needMore = endOfFile ? Result.UNSUPPORTED : Result.NEED_MORE_DATA;
+    fieldsFound = 0;
+    int position = from;
+
+    while (true) {
+      int fieldStart = position;
+      int fieldEnd;
+      int escaped = 0;
+
+      if (hasEnclosure && position < to && buffer[position] == enclosure) {
+        // Look for the closing enclosure, a doubled enclosure is an escaped one
+        //
+        int search = position + 1;
+        while (true) {
+          int found = enclosureScanner.indexOfAny(buffer, search, to);
+          if (found < 0 || found + 1 >= to) {
+            return needMore;
+          }
+          if (buffer[found + 1] != enclosure) {
+            fieldEnd = found;
+            break;
+          }
+          escaped++;
+          search = found + 2;
+        }
+        fieldStart++;
+        position = fieldEnd + 1;
+        byte next = buffer[position];
+        if (next != delimiter && !isLineEnd(next)) {
+          return Result.UNSUPPORTED;
+        }
+      } else {
+        position = fieldEndScanner.indexOfAny(buffer, position, to);
+        if (position < 0) {
+          return needMore;
+        }
+        fieldEnd = position;
+      }
+
+      fieldStarts[fieldsFound] = fieldStart;
+      fieldEnds[fieldsFound] = fieldEnd;
+      escapedEnclosures[fieldsFound] = escaped;
+      fieldsFound++;
+
+      // We're now positioned on a delimiter or a line end
+      //
+      if (buffer[position] != delimiter) {
+        // A line end, followed by at most one other line end: "\r\n"
+        //
+        if (position + 1 >= to) {
+          if (!endOfFile) {
+            return Result.NEED_MORE_DATA;
+          }
+          rowEnd = position + 1;
+        } else {
+          rowEnd = isLineEnd(buffer[position + 1]) ? position + 2 : position + 1;
+        }
+        return Result.ROW;
+      }
+
+      if (fieldsFound == nrFields) {
+        // Ignore the rest of the line and skip all the line ends after it
+        //
+        int lineEnd = lineEndScanner.indexOfAny(buffer, position + 1, to);
+        if (lineEnd < 0) {
+          return needMore;
+        }
+        int next = lineEnd;
+        while (next < to && isLineEnd(buffer[next])) {
+          next++;
+        }
+        if (next >= to && !endOfFile) {
+          return Result.NEED_MORE_DATA;
+        }
+        rowEnd = next;
+        return Result.ROW;
+      }
+
+      position++;
+    }
+  }
+
+  /**
+   * @return The number of fields found in the last row, it's never more than the number of fields
+   *     to read
+   */
+  public int getFieldsFound() {
+    return fieldsFound;
+  }
+
+  /**
+   * @return The position right after the last row, where the next row starts
+   */
+  public int getRowEnd() {
+    return rowEnd;
+  }
+
+  /**
+   * Copy the bytes of a field of the last row
+   *
+   * @param buffer The data which was tokenized
+   * @param index The index of the field
+   * @return The bytes of the field, without enclosures
+   */
+  public byte[] getField(byte[] buffer, int index) {
+    return Arrays.copyOfRange(buffer, fieldStarts[index], fieldEnds[index]);
+  }
+
+  /**
+   * @param index The index of the field
+   * @return The number of escaped (doubled) enclosures in the field of the last row
+   */
+  public int getEscapedEnclosures(int index) {
+    return escapedEnclosures[index];
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next occurrence of any of a few bytes in a byte array. Instead of comparing one byte at
+ * a time, 8 bytes are read as a single long and compared at once ("SIMD within a register").
+ *
+ * <p>For every byte we look for, the word is XOR-ed with that byte repeated 8 times, which turns
+ * the matching bytes into zero bytes. The classic {@code (x - 0x01..01) & ~x & 0x80..80} trick then
+ * sets the high bit of the zero bytes. It can also set the bit of a byte above a real match
+ * because of the borrow, but never below one, so the lowest bit found in little endian order is
+ * always a real match.
+ */
+public class SwarByteScanner {
+  private static final VarHandle LONG_VIEW =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final long LOW_BITS = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private final byte[] targets;
+  private final long[] patterns;
+
+  /**
+   * @param targets The bytes to look for
+   */
+  public SwarByteScanner(byte... targets) {
+    if (targets == null || targets.length == 0) {
+      throw new IllegalArgumentException("Specify at least one byte to look for");
+    }
+    this.targets = targets.clone();
+    this.patterns = new long[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      patterns[i] = LOW_BITS * (targets[i] & 0xFF);
+    }
+  }
+
+  /**
+   * Find the first position of any of the target bytes
+   *
+   * @param source The bytes to search
+   * @param from The first position to look at
+   * @param to The position after the last one to look at
+   * @return The position of the first target byte or -1 if there is none in the range
+   */
+  public int indexOfAny(byte[] source, int from, int to) {
+    int position = from;
+    int lastWord = to - Long.BYTES;
+    while (position <= lastWord) {
+      long word = (long) LONG_VIEW.get(source, position);
+      long found = 0L;
+      for (long pattern : patterns) {
+        long x = word ^ pattern;
+        found |= (x - LOW_BITS) & ~x & HIGH_BITS;
+      }
+      if (found != 0L) {
+        return position + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+      position += Long.BYTES;
+    }
+
+    // The last few bytes which don't fill a complete word
+    //
+    for (; position < to; position++) {
+      byte b = source[position];
+      for (byte target : targets) {
+        if (b == target) {
+          return position;
+        }
+      }
+    }
+    return -1;
+  }
+}
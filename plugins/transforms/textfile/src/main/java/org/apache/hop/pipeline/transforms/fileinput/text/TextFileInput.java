@@ -17,8 +17,13 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import java.util.Map;
+import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.file.EncodingType;
 import org.apache.hop.core.playlist.FilePlayListAll;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -47,7 +52,110 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
   @Override
   protected IBaseFileInputReader createReader(
       TextFileInputMeta meta, TextFileInputData data, FileObject file) throws Exception {
-    return new TextFileInputReader(this, meta, data, file, getLogChannel());
+    if (data.part != null && !data.part.isWholeFile() && isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "TextFileInput.Log.ReadingFilePart",
+              file.getName().getFriendlyURI(),
+              Long.toString(data.part.getStart()),
+              data.part.getEnd() == TextFileInputPart.END_OF_FILE
+                  ? "EOF"
+                  : Long.toString(data.part.getEnd())));
+    }
+    return new TextFileInputReader(this, meta, data, file, data.part, getLogChannel());
+  }
+
+  @Override
+  protected void prepareToRowProcessing() throws HopException {
+    super.prepareToRowProcessing();
+
+    // The copies take the files and parts of files to read from a list they share
+    //
+    int nrCopies = getTransformMeta().getCopies(this);
+    if (meta.content.runningInParallel && nrCopies > 1 && !meta.inputFiles.acceptingFilenames) {
+      data.work = getSharedWork(nrCopies);
+    }
+  }
+
+  /**
+   * Get the work which is shared by all the copies of this transform. It's calculated by the first
+   * copy which asks for it.
+   */
+  private TextFileInputWork getSharedWork(int nrCopies) throws HopException {
+    Map<String, Object> extensionData = getPipeline().getExtensionDataMap();
+    String key = PKG.getName() + ".work." + getTransformName();
+    synchronized (extensionData) {
+      TextFileInputWork work = (TextFileInputWork) extensionData.get(key);
+      if (work == null) {
+        boolean splittable = isSplittable();
+        long[] sizes = new long[data.files.nrOfFiles()];
+        for (int i = 0; i < sizes.length; i++) {
+          sizes[i] = splittable ? getSplittableSize(data.files.getFile(i)) : -1L;
+        }
+        work = TextFileInputWork.split(sizes, nrCopies, TextFileInputWork.MINIMUM_PART_SIZE);
+        extensionData.put(key, work);
+        if (isBasic()) {
+          logBasic(
+              BaseMessages.getString(
+                  PKG,
+                  "TextFileInput.Log.ParallelWork",
+                  Integer.toString(work.getNrFiles()),
+                  Integer.toString(work.getNrParts()),
+                  Integer.toString(nrCopies)));
+        }
+      }
+      return work;
+    }
+  }
+
+  /**
+   * Files can only be split in byte ranges if we can find the start of a line anywhere in the file,
+   * without knowing what came before it.
+   */
+  private boolean isSplittable() {
+    String compression = meta.content.fileCompression;
+    if (!Utils.isEmpty(compression) && !"None".equalsIgnoreCase(compression)) {
+      return false;
+    }
+    if (meta.content.breakInEnclosureAllowed
+        || meta.content.layoutPaged
+        || meta.content.lineWrapped
+        || meta.content.footer
+        || (meta.content.includeRowNumber && meta.content.rowNumberByFile)) {
+      return false;
+    }
+    String encoding = resolve(meta.getEncoding());
+    return EncodingType.guessEncodingType(encoding) == EncodingType.SINGLE
+        && (encoding == null || !encoding.toUpperCase().startsWith("UTF-32"));
+  }
+
+  /**
+   * @return the size of a file which can be read from any position cheaply, -1 otherwise
+   */
+  private long getSplittableSize(FileObject file) {
+    try {
+      if (!file.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)) {
+        return -1L;
+      }
+      return file.getContent().getSize();
+    } catch (Exception e) {
+      // We'll run into the problem again when we open the file
+      return -1L;
+    }
+  }
+
+  @Override
+  protected boolean openNextFile() {
+    if (data.work == null) {
+      return super.openNextFile();
+    }
+    data.part = data.work.nextPart();
+    if (data.part == null) {
+      return false;
+    }
+    data.currentFileIndex = data.part.getFileIndex();
+    return super.openNextFile();
   }
 
   @Override
@@ -59,6 +59,12 @@ public class TextFileInputData extends BaseFileInputTransformData {
 
   public String escapeCharacter;
 
+  /** The files and parts of files shared by the copies when running in parallel, null otherwise */
+  public TextFileInputWork work;
+
+  /** The part of the current file being read when running in parallel */
+  public TextFileInputPart part;
+
   public EncodingType encodingType;
 
   public TextFileInputData() {
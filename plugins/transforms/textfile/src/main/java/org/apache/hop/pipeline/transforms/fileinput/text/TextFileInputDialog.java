@@ -196,6 +196,8 @@ public class TextFileInputDialog extends BaseTransformDialog
 
   private Button wNoempty;
 
+  private Button wRunningInParallel;
+
   private Button wInclFilename;
 
   private Label wlInclFilenameField;
@@ -1226,12 +1228,31 @@ public class TextFileInputDialog extends BaseTransformDialog
     fdNoempty.right = new FormAttachment(100, 0);
     wNoempty.setLayoutData(fdNoempty);
 
+    Label wlRunningInParallel = new Label(wContentComp, SWT.RIGHT);
+    wlRunningInParallel.setText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.RunningInParallel.Label"));
+    PropsUi.setLook(wlRunningInParallel);
+    FormData fdlRunningInParallel = new FormData();
+    fdlRunningInParallel.left = new FormAttachment(0, 0);
+    fdlRunningInParallel.top = new FormAttachment(wNoempty, margin);
+    fdlRunningInParallel.right = new FormAttachment(middle, -margin);
+    wlRunningInParallel.setLayoutData(fdlRunningInParallel);
+    wRunningInParallel = new Button(wContentComp, SWT.CHECK);
+    PropsUi.setLook(wRunningInParallel);
+    wRunningInParallel.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.RunningInParallel.Tooltip"));
+    FormData fdRunningInParallel = new FormData();
+    fdRunningInParallel.left = new FormAttachment(middle, 0);
+    fdRunningInParallel.top = new FormAttachment(wlRunningInParallel, 0, SWT.CENTER);
+    fdRunningInParallel.right = new FormAttachment(100, 0);
+    wRunningInParallel.setLayoutData(fdRunningInParallel);
+
     Label wlInclFilename = new Label(wContentComp, SWT.RIGHT);
     wlInclFilename.setText(BaseMessages.getString(PKG, "TextFileInputDialog.InclFilename.Label"));
     PropsUi.setLook(wlInclFilename);
     FormData fdlInclFilename = new FormData();
     fdlInclFilename.left = new FormAttachment(0, 0);
-    fdlInclFilename.top = new FormAttachment(wNoempty, margin);
+    fdlInclFilename.top = new FormAttachment(wRunningInParallel, margin);
     fdlInclFilename.right = new FormAttachment(middle, -margin);
     wlInclFilename.setLayoutData(fdlInclFilename);
     wInclFilename = new Button(wContentComp, SWT.CHECK);
@@ -2347,6 +2368,7 @@ public class TextFileInputDialog extends BaseTransformDialog
       wCompression.setText(meta.content.fileCompression);
     }
     wNoempty.setSelection(meta.content.noEmptyLines);
+    wRunningInParallel.setSelection(meta.content.runningInParallel);
     wInclFilename.setSelection(meta.content.includeFilename);
     wInclRownum.setSelection(meta.content.includeRowNumber);
     wRownumByFile.setSelection(meta.content.rowNumberByFile);
@@ -2644,6 +2666,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     meta.content.fileCompression = wCompression.getText();
     meta.content.dateFormatLenient = wDateLenient.getSelection();
     meta.content.noEmptyLines = wNoempty.getSelection();
+    meta.content.runningInParallel = wRunningInParallel.getSelection();
     meta.content.encoding = wEncoding.getText();
     meta.content.length = wLength.getText();
 
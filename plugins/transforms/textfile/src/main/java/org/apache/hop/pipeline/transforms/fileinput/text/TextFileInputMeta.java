@@ -218,6 +218,10 @@ public class TextFileInputMeta
     /** Length based on bytes or characters */
     @Injection(name = "LENGTH")
     public String length;
+
+    /** Flag indicating that the copies of the transform share the files and parts of files */
+    @Injection(name = "RUNNING_IN_PARALLEL")
+    public boolean runningInParallel;
   }
 
   /** The filters to use... */
@@ -343,6 +347,8 @@ public class TextFileInputMeta
       content.fileFormat = XmlHandler.getTagValue(transformNode, CONST_FORMAT);
       content.encoding = XmlHandler.getTagValue(transformNode, "encoding");
       content.length = XmlHandler.getTagValue(transformNode, CONST_LENGTH);
+      content.runningInParallel =
+          YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "parallel"));
 
       Node filenode = XmlHandler.getSubNode(transformNode, "file");
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
@@ -558,6 +564,7 @@ public class TextFileInputMeta
     content.rowNumberField = "";
     content.dateFormatLenient = true;
     content.rowNumberByFile = false;
+    content.runningInParallel = false;
 
     errorHandling.errorIgnored = false;
     errorHandling.skipBadFiles = false;
@@ -791,6 +798,7 @@ public class TextFileInputMeta
     retval.append("    ").append(XmlHandler.addTagValue(CONST_FORMAT, content.fileFormat));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", content.encoding));
     retval.append("    ").append(XmlHandler.addTagValue(CONST_LENGTH, content.length));
+    retval.append("    ").append(XmlHandler.addTagValue("parallel", content.runningInParallel));
     retval.append(
         "    " + XmlHandler.addTagValue("add_to_result_filenames", inputFiles.isaddresult));
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+/**
+ * A part of an input file which is read by a single transform copy. A part which covers a byte
+ * range reads the lines which start in that range: see {@link TextFileRangeInputStream}.
+ */
+public class TextFileInputPart {
+
+  /** The end of a part which reads until the end of the file */
+  public static final long END_OF_FILE = -1L;
+
+  private final int fileIndex;
+  private final long start;
+  private final long end;
+
+  /**
+   * @param fileIndex The index of the file in the list of files to read
+   * @param start The byte position at which the part starts
+   * @param end The byte position at which the part ends or {@link #END_OF_FILE}
+   */
+  public TextFileInputPart(int fileIndex, long start, long end) {
+    this.fileIndex = fileIndex;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * @return true if this part reads the complete file
+   */
+  public boolean isWholeFile() {
+    return start == 0L && end == END_OF_FILE;
+  }
+
+  /**
+   * @return true if this part starts at the beginning of the file, where the header lines are
+   */
+  public boolean isFirstPart() {
+    return start == 0L;
+  }
+
+  /**
+   * @return The number of bytes in the part or -1 if it's unknown
+   */
+  public long getLength() {
+    return end == END_OF_FILE ? -1L : end - start;
+  }
+
+  /**
+   * Gets fileIndex
+   *
+   * @return value of fileIndex
+   */
+  public int getFileIndex() {
+    return fileIndex;
+  }
+
+  /**
+   * Gets start
+   *
+   * @return value of start
+   */
+  public long getStart() {
+    return start;
+  }
+
+  /**
+   * Gets end
+   *
+   * @return value of end
+   */
+  public long getEnd() {
+    return end;
+  }
+
+  @Override
+  public String toString() {
+    return "file #" + fileIndex + " [" + start + ", " + (end == END_OF_FILE ? "EOF" : end) + ")";
+  }
+}
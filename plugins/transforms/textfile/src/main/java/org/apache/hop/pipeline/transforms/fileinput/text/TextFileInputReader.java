@@ -53,6 +53,9 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
   protected long lineNumberInFile;
 
+  /** Only the part of the file which starts at the beginning of the file has the header lines */
+  private final boolean header;
+
   public TextFileInputReader(
       IBaseFileInputTransformControl transform,
       TextFileInputMeta meta,
@@ -60,10 +63,33 @@ public class TextFileInputReader implements IBaseFileInputReader {
       FileObject file,
       ILogChannel log)
       throws Exception {
+    this(transform, meta, data, file, null, log);
+  }
+
+  /**
+   * Read a part of a file
+   *
+   * @param transform The transform reading the file
+   * @param meta The transform metadata
+   * @param data The transform data
+   * @param file The file to read
+   * @param part The part of the file to read or null to read the whole file
+   * @param log The log channel
+   * @throws Exception In case the file can't be opened
+   */
+  public TextFileInputReader(
+      IBaseFileInputTransformControl transform,
+      TextFileInputMeta meta,
+      TextFileInputData data,
+      FileObject file,
+      TextFileInputPart part,
+      ILogChannel log)
+      throws Exception {
     this.transform = transform;
     this.meta = meta;
     this.data = data;
     this.log = log;
+    this.header = meta.content.header && (part == null || part.isFirstPart());
 
     ICompressionProvider provider =
         CompressionProviderFactory.getInstance()
@@ -74,7 +100,14 @@ public class TextFileInputReader implements IBaseFileInputReader {
           "This is a compressed file being handled by the " + provider.getName() + " provider");
     }
 
-    in = provider.createInputStream(HopVfs.getInputStream(file));
+    if (part == null || part.isWholeFile()) {
+      in = provider.createInputStream(HopVfs.getInputStream(file));
+    } else {
+      in =
+          provider.createInputStream(
+              new TextFileRangeInputStream(
+                  HopVfs.getInputStream(file), part.getStart(), part.getEnd()));
+    }
 
     in.nextEntry();
 
@@ -97,7 +130,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.content.header;
+    data.doneWithHeader = !header;
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -110,7 +143,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.content.header ? meta.content.nrHeaderLines : 0;
+    bufferSize += header ? meta.content.nrHeaderLines : 0;
     bufferSize +=
         meta.content.layoutPaged
             ? meta.content.nrLinesPerPage * (Math.max(0, meta.content.nrWraps) + 1)
@@ -140,7 +173,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
     for (int i = 0; i < bufferSize && !data.doneReading; i++) {
       boolean wasNotFiltered =
-          tryToReadLine(!meta.content.header || i >= meta.content.nrHeaderLines);
+          tryToReadLine(!header || i >= meta.content.nrHeaderLines);
       if (!wasNotFiltered) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The files and parts of files which the copies of a Text File Input transform running in parallel
+ * still have to read. Every copy takes the next part when it's done with the previous one, so a
+ * copy which reads small files or fast parts simply reads more of them.
+ */
+public class TextFileInputWork {
+
+  /** The number of parts we aim for per transform copy, to even out the differences in speed */
+  public static final int PARTS_PER_COPY = 4;
+
+  /** We don't split files in parts smaller than this */
+  public static final long MINIMUM_PART_SIZE = 8L * 1024 * 1024;
+
+  private final Queue<TextFileInputPart> parts;
+  private final int nrFiles;
+  private final int nrParts;
+
+  private TextFileInputWork(List<TextFileInputPart> parts, int nrFiles) {
+    this.parts = new ConcurrentLinkedQueue<>(parts);
+    this.nrFiles = nrFiles;
+    this.nrParts = parts.size();
+  }
+
+  /**
+   * Divide the files over parts
+   *
+   * @param sizes The size of every file, -1 for files which can't be split in byte ranges
+   * @param nrCopies The number of copies reading the files
+   * @param minimumPartSize The minimum size of a part of a file
+   * @return The work to share between the copies
+   */
+  public static TextFileInputWork split(long[] sizes, int nrCopies, long minimumPartSize) {
+    long splittableSize = 0L;
+    for (long size : sizes) {
+      if (size > 0) {
+        splittableSize += size;
+      }
+    }
+    long targetParts = (long) Math.max(1, nrCopies) * PARTS_PER_COPY;
+    long partSize =
+        Math.max(Math.max(1L, minimumPartSize), (splittableSize + targetParts - 1) / targetParts);
+
+    List<TextFileInputPart> parts = new ArrayList<>();
+    for (int i = 0; i < sizes.length; i++) {
+      long size = sizes[i];
+      if (size <= partSize) {
+        parts.add(new TextFileInputPart(i, 0L, TextFileInputPart.END_OF_FILE));
+        continue;
+      }
+      for (long start = 0L; start < size; start += partSize) {
+        long end = start + partSize >= size ? TextFileInputPart.END_OF_FILE : start + partSize;
+        parts.add(new TextFileInputPart(i, start, end));
+      }
+    }
+
+    // Hand out the largest parts first so that the copies finish at about the same time
+    //
+    parts.sort(
+        Comparator.comparingLong((TextFileInputPart part) -> expectedLength(part, sizes))
+            .reversed());
+
+    return new TextFileInputWork(parts, sizes.length);
+  }
+
+  private static long expectedLength(TextFileInputPart part, long[] sizes) {
+    if (part.getEnd() != TextFileInputPart.END_OF_FILE) {
+      return part.getLength();
+    }
+    long size = sizes[part.getFileIndex()];
+    return size < 0 ? -1L : size - part.getStart();
+  }
+
+  /**
+   * Take the next part to read
+   *
+   * @return The next part or null if all parts are being read or have been read
+   */
+  public TextFileInputPart nextPart() {
+    return parts.poll();
+  }
+
+  /**
+   * Gets nrFiles
+   *
+   * @return value of nrFiles
+   */
+  public int getNrFiles() {
+    return nrFiles;
+  }
+
+  /**
+   * Gets nrParts
+   *
+   * @return value of nrParts
+   */
+  public int getNrParts() {
+    return nrParts;
+  }
+}
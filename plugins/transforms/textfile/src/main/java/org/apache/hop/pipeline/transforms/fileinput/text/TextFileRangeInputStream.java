@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the complete lines which start in a byte range of a file. A line belongs to the range in
+ * which its first byte lies, so reading all the ranges of a file gives every line exactly once:
+ *
+ * <ul>
+ *   <li>A range which doesn't start at the beginning of the file skips the line which was already
+ *       started before the range.
+ *   <li>The last line which starts in the range is read until its end, even if that's beyond the
+ *       end of the range.
+ * </ul>
+ *
+ * <p>Lines are found by their line feed byte. This only works for encodings in which that byte is
+ * never a part of another character and when line feeds can't occur inside enclosed fields.
+ */
+public class TextFileRangeInputStream extends InputStream {
+  private static final int LINE_FEED = '\n';
+
+  private final InputStream in;
+  private final long end;
+  private long position;
+  private int lastByte;
+
+  /**
+   * @param in The stream of the complete file, positioned at the beginning of the file
+   * @param start The start of the range
+   * @param end The end of the range or {@link TextFileInputPart#END_OF_FILE}
+   * @throws IOException In case the file can't be read
+   */
+  public TextFileRangeInputStream(InputStream in, long start, long end) throws IOException {
+    this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    this.end = end == TextFileInputPart.END_OF_FILE ? Long.MAX_VALUE : end;
+    this.lastByte = LINE_FEED;
+
+    if (start > 0) {
+      // Skip to the byte before the range and then past the end of the line it's part of
+      //
+      skipFully(start - 1);
+      position = start - 1;
+      int b;
+      while ((b = this.in.read()) >= 0) {
+        position++;
+        if (b == LINE_FEED) {
+          break;
+        }
+      }
+    }
+  }
+
+  private void skipFully(long bytes) throws IOException {
+    long remaining = bytes;
+    while (remaining > 0) {
+      long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        // skip() may refuse to move ahead, see if we're at the end of the file
+        //
+        if (in.read() < 0) {
+          return;
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+
+  /**
+   * @return true if we read all the lines which start in the range
+   */
+  private boolean isDone() {
+    return position >= end && lastByte == LINE_FEED;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (isDone()) {
+      return -1;
+    }
+    int b = in.read();
+    if (b >= 0) {
+      position++;
+      lastByte = b;
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (isDone()) {
+      return -1;
+    }
+    if (position >= end) {
+      // Finish the last line one byte at a time so that we don't read into the next range
+      //
+      int count = 0;
+      while (count < length && !isDone()) {
+        int b = read();
+        if (b < 0) {
+          break;
+        }
+        buffer[offset + count++] = (byte) b;
+      }
+      return count == 0 ? -1 : count;
+    }
+
+    int toRead = (int) Math.min(length, end - position);
+    int count = in.read(buffer, offset, toRead);
+    if (count > 0) {
+      position += count;
+      lastByte = buffer[offset + count - 1] & 0xFF;
+    }
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
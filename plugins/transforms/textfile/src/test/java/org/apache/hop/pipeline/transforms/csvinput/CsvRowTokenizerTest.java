@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class CsvRowTokenizerTest {
+
+  @Test
+  public void testScannerFindsFirstMatch() {
+    SwarByteScanner scanner = new SwarByteScanner((byte) ';', (byte) '\n');
+    byte[] bytes = "abcdefghij;klmnop\nqrs".getBytes(StandardCharsets.UTF_8);
+
+    // Every start position and every match position relative to the 8 byte words
+    //
+    for (int from = 0; from < bytes.length; from++) {
+      int expected = -1;
+      for (int i = from; i < bytes.length; i++) {
+        if (bytes[i] == ';' || bytes[i] == '\n') {
+          expected = i;
+          break;
+        }
+      }
+      assertEquals("from " + from, expected, scanner.indexOfAny(bytes, from, bytes.length));
+    }
+    assertEquals(-1, scanner.indexOfAny(bytes, 0, 10));
+  }
+
+  @Test
+  public void testScannerHighBytes() {
+    // Bytes above 0x7F, like the ones in UTF-8 characters, are no false matches
+    //
+    SwarByteScanner scanner = new SwarByteScanner((byte) ',');
+    byte[] bytes = "\u00e9\u00e9\u00e9\u00e9\u00e9,\u00fc".getBytes(StandardCharsets.UTF_8);
+    assertEquals(10, scanner.indexOfAny(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testSimpleRows() {
+    byte[] bytes = "a,bb,ccc\r\nd,,f\ng".getBytes(StandardCharsets.UTF_8);
+    CsvRowTokenizer tokenizer = new CsvRowTokenizer(3, (byte) ',', null);
+
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 0, bytes.length, false));
+    assertEquals(3, tokenizer.getFieldsFound());
+    assertField("a", tokenizer, bytes, 0);
+    assertField("bb", tokenizer, bytes, 1);
+    assertField("ccc", tokenizer, bytes, 2);
+    assertEquals(10, tokenizer.getRowEnd());
+
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 10, bytes.length, false));
+    assertField("d", tokenizer, bytes, 0);
+    assertField("", tokenizer, bytes, 1);
+    assertField("f", tokenizer, bytes, 2);
+    assertEquals(15, tokenizer.getRowEnd());
+
+    // The last row doesn't end with a new line
+    //
+    assertEquals(
+        CsvRowTokenizer.Result.NEED_MORE_DATA,
+        tokenizer.tokenize(bytes, 15, bytes.length, false));
+    assertEquals(
+        CsvRowTokenizer.Result.UNSUPPORTED, tokenizer.tokenize(bytes, 15, bytes.length, true));
+  }
+
+  @Test
+  public void testShortAndLongRows() {
+    byte[] bytes = "a\nb,c,d,e\n\n\nf,g\n".getBytes(StandardCharsets.UTF_8);
+    CsvRowTokenizer tokenizer = new CsvRowTokenizer(2, (byte) ',', null);
+
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 0, bytes.length, false));
+    assertEquals(1, tokenizer.getFieldsFound());
+    assertField("a", tokenizer, bytes, 0);
+
+    // The fields after the second one are ignored, as are the empty lines after the row
+    //
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 2, bytes.length, false));
+    assertEquals(2, tokenizer.getFieldsFound());
+    assertField("b", tokenizer, bytes, 0);
+    assertField("c", tokenizer, bytes, 1);
+    assertEquals(12, tokenizer.getRowEnd());
+
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 12, bytes.length, true));
+    assertField("f", tokenizer, bytes, 0);
+    assertField("g", tokenizer, bytes, 1);
+    assertEquals(bytes.length, tokenizer.getRowEnd());
+  }
+
+  @Test
+  public void testEnclosures() {
+    byte[] bytes = "\"a;b\";\"say \"\"hi\"\"\";\"x\ny\"\n".getBytes(StandardCharsets.UTF_8);
+    CsvRowTokenizer tokenizer = new CsvRowTokenizer(3, (byte) ';', new byte[] {'"'});
+
+    assertEquals(CsvRowTokenizer.Result.ROW, tokenizer.tokenize(bytes, 0, bytes.length, true));
+    assertEquals(3, tokenizer.getFieldsFound());
+    assertField("a;b", tokenizer, bytes, 0);
+    assertEquals(0, tokenizer.getEscapedEnclosures(0));
+    assertField("say \"\"hi\"\"", tokenizer, bytes, 1);
+    assertEquals(2, tokenizer.getEscapedEnclosures(1));
+    assertField("x\ny", tokenizer, bytes, 2);
+    assertEquals(bytes.length, tokenizer.getRowEnd());
+  }
+
+  @Test
+  public void testUnsupportedRows() {
+    CsvRowTokenizer tokenizer = new CsvRowTokenizer(2, (byte) ',', new byte[] {'"'});
+
+    // Text after the closing enclosure
+    //
+    byte[] bytes = "\"a\"b,c\n".getBytes(StandardCharsets.UTF_8);
+    assertEquals(
+        CsvRowTokenizer.Result.UNSUPPORTED, tokenizer.tokenize(bytes, 0, bytes.length, false));
+
+    // An enclosure which isn't closed before the end of the data
+    //
+    bytes = "\"a,b\n".getBytes(StandardCharsets.UTF_8);
+    assertEquals(
+        CsvRowTokenizer.Result.NEED_MORE_DATA, tokenizer.tokenize(bytes, 0, bytes.length, false));
+    assertEquals(
+        CsvRowTokenizer.Result.UNSUPPORTED, tokenizer.tokenize(bytes, 0, bytes.length, true));
+  }
+
+  @Test
+  public void testIsSupported() {
+    byte[] comma = {','};
+    byte[] quote = {'"'};
+    assertTrue(CsvRowTokenizer.isSupported(3, comma, quote, true, false));
+    assertTrue(CsvRowTokenizer.isSupported(3, comma, null, true, false));
+    assertFalse(CsvRowTokenizer.isSupported(0, comma, quote, true, false));
+    assertFalse(CsvRowTokenizer.isSupported(3, comma, quote, false, false));
+    assertFalse(CsvRowTokenizer.isSupported(3, comma, quote, true, true));
+    assertFalse(CsvRowTokenizer.isSupported(3, new byte[] {',', ','}, quote, true, false));
+    assertFalse(CsvRowTokenizer.isSupported(3, comma, new byte[] {'"', '"'}, true, false));
+    assertFalse(CsvRowTokenizer.isSupported(3, new byte[] {'\n'}, quote, true, false));
+  }
+
+  private static void assertField(
+      String expected, CsvRowTokenizer tokenizer, byte[] bytes, int index) {
+    assertEquals(expected, new String(tokenizer.getField(bytes, index), StandardCharsets.UTF_8));
+  }
+}
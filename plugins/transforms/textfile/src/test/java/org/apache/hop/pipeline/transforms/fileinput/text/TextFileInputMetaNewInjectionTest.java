@@ -72,6 +72,8 @@ public class TextFileInputMetaNewInjectionTest
 
     check("NO_EMPTY_LINES", () -> meta.content.noEmptyLines);
 
+    check("RUNNING_IN_PARALLEL", () -> meta.content.runningInParallel);
+
     check("INCLUDE_FILENAME", () -> meta.content.includeFilename);
 
     check("FILENAME_FIELD", () -> meta.content.filenameField);
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TextFileInputWorkTest {
+
+  @Test
+  public void testSplit() {
+    // Two large files, one small file and one which can't be split
+    //
+    long[] sizes = {1000L, 400L, 10L, -1L};
+    TextFileInputWork work = TextFileInputWork.split(sizes, 2, 100L);
+
+    // 1410 bytes over 2 copies with 4 parts each gives parts of 177 bytes
+    //
+    assertEquals(4, work.getNrFiles());
+    assertEquals(6 + 3 + 1 + 1, work.getNrParts());
+
+    List<TextFileInputPart> parts = new ArrayList<>();
+    TextFileInputPart part;
+    while ((part = work.nextPart()) != null) {
+      parts.add(part);
+    }
+    assertEquals(work.getNrParts(), parts.size());
+    assertNull(work.nextPart());
+
+    // The largest parts come first, the file with the unknown size last
+    //
+    assertEquals(177L, parts.get(0).getLength());
+    assertEquals(3, parts.get(parts.size() - 1).getFileIndex());
+    assertTrue(parts.get(parts.size() - 1).isWholeFile());
+
+    // Every byte of the large file is covered once
+    //
+    long covered = 0L;
+    for (TextFileInputPart p : parts) {
+      if (p.getFileIndex() == 0) {
+        long end = p.getEnd() == TextFileInputPart.END_OF_FILE ? 1000L : p.getEnd();
+        covered += end - p.getStart();
+      }
+    }
+    assertEquals(1000L, covered);
+  }
+
+  @Test
+  public void testRangesReadEveryLineOnce() throws Exception {
+    String content = "header\na,1\nbb,22\n\nccc,333\ndddd,4444\neeeee,55555";
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+    for (int partSize = 1; partSize <= bytes.length + 1; partSize++) {
+      StringBuilder all = new StringBuilder();
+      for (long start = 0; start < bytes.length; start += partSize) {
+        long end = start + partSize >= bytes.length ? TextFileInputPart.END_OF_FILE : start + partSize;
+        all.append(read(bytes, start, end));
+      }
+      assertEquals("Part size " + partSize, content, all.toString());
+    }
+  }
+
+  @Test
+  public void testRangeStartingOnLineStart() throws Exception {
+    byte[] bytes = "a\nb\nc\n".getBytes(StandardCharsets.UTF_8);
+
+    // The line which starts at the end of a range belongs to the next range
+    //
+    assertEquals("a\n", read(bytes, 0, 2));
+    assertEquals("b\n", read(bytes, 2, 4));
+    assertEquals("c\n", read(bytes, 4, TextFileInputPart.END_OF_FILE));
+  }
+
+  private static String read(byte[] bytes, long start, long end) throws Exception {
+    try (InputStream in =
+        new TextFileRangeInputStream(new ByteArrayInputStream(bytes), start, end)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -643,20 +643,25 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
               BaseMessages.getString(PKG, "GetXMLData.Log.OpeningFile", data.file.toString()));
         }
 
-        // Open the XML document
-        if (!setDocument(null, data.file, false, false)) {
-          if (data.stopPruning) {
-            return false; // ignore error when stopped while pruning
+        if (data.staxStreaming) {
+          // Only open the file, the loop nodes are read when the rows are needed
+          openStaxReader();
+        } else {
+          // Open the XML document
+          if (!setDocument(null, data.file, false, false)) {
+            if (data.stopPruning) {
+              return false; // ignore error when stopped while pruning
+            }
+            throw new HopException(
+                BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_CREATE_DOCUMENT));
           }
-          throw new HopException(
-              BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_CREATE_DOCUMENT));
-        }
 
-        // Apply XPath and set node list
-        if (data.prunePath == null
-            && !applyXPath()) { // this was already done in processStreaming()
-          throw new HopException(
-              BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
+          // Apply XPath and set node list
+          if (data.prunePath == null
+              && !applyXPath()) { // this was already done in processStreaming()
+            throw new HopException(
+                BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
+          }
         }
 
         addFileToResultFilesname(data.file);
@@ -664,12 +669,14 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         if (isDetailed()) {
           logDetailed(
               BaseMessages.getString(PKG, "GetXMLData.Log.FileOpened", data.file.toString()));
-          logDetailed(
-              BaseMessages.getString(
-                  PKG,
-                  CONST_GET_XMLDATA_LOG_LOOP_FILE_OCCURENCES,
-                  "" + data.nodesize,
-                  data.file.getName().getBaseName()));
+          if (!data.staxStreaming) {
+            logDetailed(
+                BaseMessages.getString(
+                    PKG,
+                    CONST_GET_XMLDATA_LOG_LOOP_FILE_OCCURENCES,
+                    "" + data.nodesize,
+                    data.file.getName().getBaseName()));
+          }
         }
       }
     } catch (Exception e) {
@@ -687,6 +694,55 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return true;
   }
 
+  /** Start reading the loop nodes of the current file with StAX */
+  private void openStaxReader() throws Exception {
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+
+    // get encoding. By default UTF-8
+    String encoding = "UTF-8";
+    if (!Utils.isEmpty(meta.getEncoding())) {
+      encoding = meta.getEncoding();
+    }
+    if (data.staxReader == null) {
+      data.staxReader = new StaxLoopReader(data.PathValue, meta.isIgnoreComments());
+    }
+    data.staxReader.open(HopVfs.getInputStream(data.file), encoding);
+    data.nodenr = 0;
+  }
+
+  /**
+   * Read the next loop node with StAX and convert it to a row. Only this node and its ancestors
+   * are kept in memory.
+   */
+  private Object[] getStaxXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    while (true) {
+      Element node = null;
+      if (data.staxReader != null) {
+        try {
+          node = data.staxReader.next();
+        } catch (Exception e) {
+          throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+        }
+      }
+      if (node != null) {
+        if (meta.isNamespaceAware() && data.nodenr == 0) {
+          // The namespaces of the first node and its ancestors are used for the whole file
+          prepareNSMap(node.getDocument().getRootElement());
+        }
+        return processPutRow(node);
+      }
+      if (data.staxReader != null) {
+        // We're done with this file
+        BaseTransform.closeQuietly(data.staxReader);
+      }
+      if (!openNextFile()) {
+        data.errorInRowButContinue = false; // stop in all cases
+        return null;
+      }
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
     if (first && !meta.isInFields()) {
@@ -743,6 +799,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.staxStreaming) {
+      return getStaxXmlRow();
+    }
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -1037,11 +1096,46 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
+      if (meta.isStaxStreaming()) {
+        // check if other conditions apply that do not allow streaming with StAX
+        String fieldXPath = getFieldOutsideLoopNode();
+        if (meta.isInFields()
+            || meta.isValidating()
+            || !StaxLoopReader.isSupported(data.PathValue)) {
+          logBasic(
+              BaseMessages.getString(
+                  PKG, "GetXMLData.Log.StaxStreaming.NotPossible", data.PathValue));
+        } else if (fieldXPath != null) {
+          logBasic(
+              BaseMessages.getString(
+                  PKG, "GetXMLData.Log.StaxStreaming.FieldNotPossible", fieldXPath));
+        } else {
+          data.staxStreaming = true;
+          data.prunePath = null; // only the loop nodes are read, there is nothing left to prune
+          if (isDetailed()) {
+            logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.Activated"));
+          }
+        }
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * @return The XPath of the first field which needs more of the document than a streamed loop node
+   *     has, or null if there is no such field
+   */
+  private String getFieldOutsideLoopNode() {
+    for (GetXmlDataField xmlDataField : meta.getInputFields()) {
+      if (!StaxLoopReader.isSupportedField(xmlDataField.getResolvedXPath())) {
+        return xmlDataField.getResolvedXPath();
+      }
+    }
+    return null;
+  }
+
   @Override
   public void dispose() {
     if (data.file != null) {
@@ -1078,6 +1172,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     if (data.files != null) {
       data.files = null;
     }
+    if (data.staxReader != null) {
+      BaseTransform.closeQuietly(data.staxReader);
+      data.staxReader = null;
+    }
     super.dispose();
   }
 }
@@ -60,6 +60,8 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
       prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when
   // no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public boolean staxStreaming; // true when the loop nodes are read one at a time with StAX
+  public StaxLoopReader staxReader;
   public boolean
       errorInRowButContinue; // true when actual row has an error and error handling is active:
   // means
@@ -134,6 +136,8 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
     totalpreviousfields = 0;
     prunePath = "";
     stopPruning = false;
+    staxStreaming = false;
+    staxReader = null;
     errorInRowButContinue = false;
     nrReadRow = 0;
   }
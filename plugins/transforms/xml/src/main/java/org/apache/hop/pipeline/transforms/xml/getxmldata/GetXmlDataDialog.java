@@ -144,6 +144,9 @@ public class GetXmlDataDialog extends BaseTransformDialog {
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Label wlStaxStreaming;
+  private Button wStaxStreaming;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -827,6 +830,24 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Read the loop nodes one at a time with StAX
+    wlStaxStreaming = new Label(wXmlConf, SWT.RIGHT);
+    wlStaxStreaming.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.StaxStreaming.Label"));
+    PropsUi.setLook(wlStaxStreaming);
+    FormData fdlStaxStreaming = new FormData();
+    fdlStaxStreaming.left = new FormAttachment(0, 0);
+    fdlStaxStreaming.top = new FormAttachment(wPrunePath, margin);
+    fdlStaxStreaming.right = new FormAttachment(middle, -margin);
+    wlStaxStreaming.setLayoutData(fdlStaxStreaming);
+    wStaxStreaming = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wStaxStreaming);
+    wStaxStreaming.setToolTipText(
+        BaseMessages.getString(PKG, "GetXMLDataDialog.StaxStreaming.Tooltip"));
+    FormData fdStaxStreaming = new FormData();
+    fdStaxStreaming.left = new FormAttachment(middle, 0);
+    fdStaxStreaming.top = new FormAttachment(wlStaxStreaming, 0, SWT.CENTER);
+    wStaxStreaming.setLayoutData(fdStaxStreaming);
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1428,6 +1449,8 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wStaxStreaming.setEnabled(!wXMLStreamField.getSelection());
+    wlStaxStreaming.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1759,6 +1782,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
+    wStaxStreaming.setSelection(in.isStaxStreaming());
     if (in.getLoopXPath() != null) {
       wLoopXPath.setText(in.getLoopXPath());
     }
@@ -1897,6 +1921,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLong(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setStaxStreaming(wStaxStreaming.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
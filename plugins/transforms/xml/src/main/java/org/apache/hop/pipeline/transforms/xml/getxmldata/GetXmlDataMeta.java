@@ -149,6 +149,9 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag: read the loop nodes one at a time with StAX instead of reading the whole document */
+  private boolean staxStreaming;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -603,6 +606,20 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     this.prunePath = prunePath;
   }
 
+  /**
+   * @return true if the loop nodes are read one at a time with StAX
+   */
+  public boolean isStaxStreaming() {
+    return staxStreaming;
+  }
+
+  /**
+   * @param staxStreaming true to read the loop nodes one at a time with StAX
+   */
+  public void setStaxStreaming(boolean staxStreaming) {
+    this.staxStreaming = staxStreaming;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -680,6 +697,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", isAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("staxStreaming", staxStreaming));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -777,6 +795,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      staxStreaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "staxStreaming"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -854,6 +873,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     inFields = false;
     xmlField = "";
     prunePath = "";
+    staxStreaming = false;
   }
 
   @Override
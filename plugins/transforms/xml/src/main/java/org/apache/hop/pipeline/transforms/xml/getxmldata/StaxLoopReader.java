@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.dom4j.Document;
+import org.dom4j.DocumentFactory;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+
+/**
+ * Reads the nodes of the loop XPath from an XML file with StAX, one node at a time. Only the node
+ * which is returned is built as a dom4j element, attached to a skeleton of its ancestors: these
+ * have their attributes and namespaces but no other content. This way the memory use doesn't grow
+ * with the size of the file and the field XPaths are evaluated on the node in the same way as when
+ * the whole document is read.
+ *
+ * <p>The loop XPath needs to be a simple location path like {@code /root/items/item}: element
+ * names or {@code *} separated by slashes. A path like {@code //item} isn't supported since it
+ * also matches nodes within other matching nodes. The field XPaths can only use the loop node and
+ * the attributes of its ancestors, see {@link #isSupportedField(String)}.
+ */
+public class StaxLoopReader implements Closeable {
+  private static final String ANY = "*";
+  private static final Pattern STEP =
+      Pattern.compile("\\*|[^\\s/\\[\\]()@=|*:'\"]+(:[^\\s/\\[\\]()@=|*:'\"]+)?");
+  private static final Pattern ANCESTOR_ATTRIBUTE = Pattern.compile("(\\.\\./)+@[^\\s/\\[\\]()|]+");
+  private static final Pattern OUTSIDE_AXIS =
+      Pattern.compile("(parent|ancestor|ancestor-or-self|preceding|following)(-sibling)?\\s*::");
+
+  private final String[] steps;
+  private final boolean ignoreComments;
+  private final XMLInputFactory factory;
+  private final DocumentFactory documentFactory;
+
+  private InputStream inputStream;
+  private XMLStreamReader reader;
+  private Document document;
+
+  /** The current element and its ancestors, without any other content */
+  private final List<Element> ancestors;
+
+  /** The last node which was returned */
+  private Element current;
+
+  /**
+   * @param loopXPath The loop XPath, see {@link #isSupported(String)}
+   * @param ignoreComments true if comments are left out of the nodes
+   */
+  public StaxLoopReader(String loopXPath, boolean ignoreComments) {
+    if (!isSupported(loopXPath)) {
+      throw new IllegalArgumentException("Unsupported loop XPath for streaming: " + loopXPath);
+    }
+    this.steps = loopXPath.substring(1).split("/");
+    this.ignoreComments = ignoreComments;
+    this.documentFactory = DocumentFactory.getInstance();
+    this.ancestors = new ArrayList<>();
+
+    factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  /**
+   * See if a loop XPath can be read in a streaming way
+   *
+   * @param loopXPath The loop XPath
+   * @return true if the path is absolute and consists of element names or * steps only
+   */
+  public static boolean isSupported(String loopXPath) {
+    if (loopXPath == null || !loopXPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      return false;
+    }
+    String path = loopXPath.substring(1);
+    if (path.isEmpty()) {
+      return false;
+    }
+    for (String step : path.split("/", -1)) {
+      if (step.equals(".") || step.equals("..") || !STEP.matcher(step).matches()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * See if a field XPath can be evaluated on a streamed loop node. The ancestors of the node only
+   * have their attributes, the rest of the document isn't there.
+   *
+   * @param fieldXPath The resolved field XPath
+   * @return false if the path starts at the root of the document or looks outside the loop node,
+   *     other than for the attributes of an ancestor like {@code ../@id}
+   */
+  public static boolean isSupportedField(String fieldXPath) {
+    if (fieldXPath == null) {
+      return true;
+    }
+    String path = fieldXPath.trim();
+    if (path.startsWith(GetXmlDataMeta.N0DE_SEPARATOR) || OUTSIDE_AXIS.matcher(path).find()) {
+      return false;
+    }
+    return !path.contains("..") || ANCESTOR_ATTRIBUTE.matcher(path).matches();
+  }
+
+  /**
+   * Start reading a file
+   *
+   * @param inputStream The content of the file, it's closed together with this reader
+   * @param encoding The encoding of the file
+   */
+  public void open(InputStream inputStream, String encoding)
+      throws XMLStreamException, IOException {
+    close();
+    this.inputStream = inputStream;
+    reader = factory.createXMLStreamReader(inputStream, encoding);
+    document = documentFactory.createDocument();
+    ancestors.clear();
+    current = null;
+  }
+
+  /**
+   * Read the next node of the loop XPath. The previous node is removed from its document.
+   *
+   * @return The next node or null if there are no more nodes in the file
+   */
+  public Element next() throws XMLStreamException {
+    if (current != null) {
+      current.detach();
+      current = null;
+    }
+    if (reader == null) {
+      return null;
+    }
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        Element element = createElement();
+        if (ancestors.isEmpty()) {
+          document.setRootElement(element);
+        } else {
+          ancestors.get(ancestors.size() - 1).add(element);
+        }
+        ancestors.add(element);
+        if (matches()) {
+          readContent(element);
+          ancestors.remove(ancestors.size() - 1);
+          current = element;
+          return element;
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        // Only the ancestors of the nodes to come stay in the document
+        ancestors.remove(ancestors.size() - 1).detach();
+      }
+    }
+    return null;
+  }
+
+  private boolean matches() {
+    if (ancestors.size() != steps.length) {
+      return false;
+    }
+    for (int i = 0; i < steps.length; i++) {
+      Element element = ancestors.get(i);
+      String step = steps[i];
+      if (!ANY.equals(step)
+          && !step.equals(step.indexOf(':') < 0 ? element.getName() : element.getQualifiedName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Read everything up to the end of the given element in the same way as the SAX reader does */
+  private void readContent(Element node) throws XMLStreamException {
+    Element element = node;
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          Element child = createElement();
+          element.add(child);
+          element = child;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (element == node) {
+            return;
+          }
+          element = element.getParent();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+        case XMLStreamConstants.ENTITY_REFERENCE:
+          element.addText(reader.getText());
+          break;
+        case XMLStreamConstants.CDATA:
+          element.addCDATA(reader.getText());
+          break;
+        case XMLStreamConstants.COMMENT:
+          if (!ignoreComments) {
+            element.addComment(reader.getText());
+          }
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          element.addProcessingInstruction(reader.getPITarget(), reader.getPIData());
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private Element createElement() {
+    Element element =
+        documentFactory.createElement(
+            createQName(reader.getLocalName(), reader.getPrefix(), reader.getNamespaceURI()));
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      element.add(
+          Namespace.get(nullToEmpty(reader.getNamespacePrefix(i)), reader.getNamespaceURI(i)));
+    }
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      element.addAttribute(
+          createQName(
+              reader.getAttributeLocalName(i),
+              reader.getAttributePrefix(i),
+              reader.getAttributeNamespace(i)),
+          reader.getAttributeValue(i));
+    }
+    return element;
+  }
+
+  private QName createQName(String localName, String prefix, String uri) {
+    return documentFactory.createQName(localName, nullToEmpty(prefix), nullToEmpty(uri));
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  @Override
+  public void close() throws IOException {
+    current = null;
+    ancestors.clear();
+    document = null;
+    try {
+      if (reader != null) {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      reader = null;
+      if (inputStream != null) {
+        inputStream.close();
+        inputStream = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.dom4j.Element;
+import org.junit.Test;
+
+public class StaxLoopReaderTest {
+  private static final String XML =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<feed version=\"2\">"
+          + "<header><sender>ACME</sender></header>"
+          + "<orders region=\"EU\">"
+          + "<order id=\"1\"><line>a</line><line>b</line><!-- note --></order>"
+          + "<order id=\"2\"><line><![CDATA[<c>]]></line></order>"
+          + "</orders>"
+          + "<orders region=\"US\"><order id=\"3\"/></orders>"
+          + "</feed>";
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(StaxLoopReader.isSupported("/feed/orders/order"));
+    assertTrue(StaxLoopReader.isSupported("/feed/*/order"));
+    assertTrue(StaxLoopReader.isSupported("/ns:feed/ns:order"));
+    assertFalse(StaxLoopReader.isSupported("feed/order"));
+    assertFalse(StaxLoopReader.isSupported("/"));
+    assertFalse(StaxLoopReader.isSupported("//order"));
+    assertFalse(StaxLoopReader.isSupported("/feed//order"));
+    assertFalse(StaxLoopReader.isSupported("/feed/order[1]"));
+    assertFalse(StaxLoopReader.isSupported("/feed/order[@id='1']"));
+    assertFalse(StaxLoopReader.isSupported("/feed/order/@id"));
+    assertFalse(StaxLoopReader.isSupported("/feed/order/text()"));
+    assertFalse(StaxLoopReader.isSupported("/feed/order/.."));
+    assertFalse(StaxLoopReader.isSupported("/feed/order | /feed/header"));
+  }
+
+  @Test
+  public void testReadLoopNodes() throws Exception {
+    try (StaxLoopReader reader = open("/feed/orders/order", false)) {
+      Element order = reader.next();
+      assertEquals("1", order.attributeValue("id"));
+      assertEquals("ab", order.getStringValue());
+      assertEquals("b", order.valueOf("line[2]"));
+      assertEquals(
+          "<order id=\"1\"><line>a</line><line>b</line><!-- note --></order>", order.asXML());
+
+      // The attributes of the ancestors are available, their other content isn't
+      //
+      assertEquals("EU", order.valueOf("../@region"));
+      assertEquals("2", order.valueOf("/feed/@version"));
+      assertEquals("", order.valueOf("/feed/header/sender"));
+
+      order = reader.next();
+      assertEquals("2", order.attributeValue("id"));
+      assertEquals("<c>", order.valueOf("line"));
+      assertEquals(1, order.getParent().elements().size());
+
+      order = reader.next();
+      assertEquals("3", order.attributeValue("id"));
+      assertEquals("US", order.valueOf("../@region"));
+      assertEquals(1, order.getDocument().getRootElement().elements().size());
+
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  public void testIsSupportedField() {
+    assertTrue(StaxLoopReader.isSupportedField("line"));
+    assertTrue(StaxLoopReader.isSupportedField("@id"));
+    assertTrue(StaxLoopReader.isSupportedField("line[2]/text()"));
+    assertTrue(StaxLoopReader.isSupportedField(".//line"));
+    assertTrue(StaxLoopReader.isSupportedField("../@region"));
+    assertTrue(StaxLoopReader.isSupportedField("../../@version"));
+    assertFalse(StaxLoopReader.isSupportedField("/feed/@version"));
+    assertFalse(StaxLoopReader.isSupportedField("//sender"));
+    assertFalse(StaxLoopReader.isSupportedField("../order/@id"));
+    assertFalse(StaxLoopReader.isSupportedField("../../header/sender"));
+    assertFalse(StaxLoopReader.isSupportedField("preceding-sibling::order[1]/@id"));
+    assertFalse(StaxLoopReader.isSupportedField("following-sibling::order/@id"));
+    assertFalse(StaxLoopReader.isSupportedField("ancestor::feed/header"));
+    assertFalse(StaxLoopReader.isSupportedField("parent::orders/@region"));
+  }
+
+  @Test
+  public void testRootNode() throws Exception {
+    try (StaxLoopReader reader = open("/*", true)) {
+      Element feed = reader.next();
+      assertEquals("feed", feed.getName());
+      assertEquals(3, feed.selectNodes("//order").size());
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  public void testIgnoreComments() throws Exception {
+    try (StaxLoopReader reader = open("/feed/orders/order", true)) {
+      assertEquals("<order id=\"1\"><line>a</line><line>b</line></order>", reader.next().asXML());
+    }
+  }
+
+  @Test
+  public void testNamespaces() throws Exception {
+    String xml =
+        "<r:root xmlns:r=\"urn:root\" xmlns=\"urn:items\">"
+            + "<item><name>x</name></item><other/><item><name>y</name></item>"
+            + "</r:root>";
+    try (StaxLoopReader reader = new StaxLoopReader("/r:root/item", false)) {
+      reader.open(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+
+      Element item = reader.next();
+      assertEquals("urn:items", item.getNamespaceURI());
+      assertEquals(2, item.getDocument().getRootElement().declaredNamespaces().size());
+      assertEquals("x", item.getStringValue());
+      assertEquals("y", reader.next().getStringValue());
+      assertNull(reader.next());
+    }
+  }
+
+  private static StaxLoopReader open(String loopXPath, boolean ignoreComments) throws Exception {
+    StaxLoopReader reader = new StaxLoopReader(loopXPath, ignoreComments);
+    reader.open(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    return reader;
+  }
+}
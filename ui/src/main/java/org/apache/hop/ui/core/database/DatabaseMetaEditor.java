@@ -103,6 +103,13 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
   private Button wPreserveCase;
   private TextVar wPreferredSchema;
   private TextVar wSqlStatements;
+  private Button wUsingConnectionPool;
+  private TextVar wPoolMinimumSize;
+  private TextVar wPoolMaximumSize;
+  private TextVar wPoolMaximumWait;
+  private TextVar wPoolValidationTimeout;
+  private TextVar wPoolStatementCacheSize;
+  private TextVar wPoolIdleTimeout;
 
   private TableView wOptions;
 
@@ -194,6 +201,7 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
 
     addGeneralTab();
     addAdvancedTab();
+    addPoolingTab();
     addOptionsTab();
 
     // Select the general tab
@@ -231,6 +239,14 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreserveCase.addListener(SWT.Selection, modifyListener);
     wPreferredSchema.addListener(SWT.Modify, modifyListener);
     wSqlStatements.addListener(SWT.Modify, modifyListener);
+    wUsingConnectionPool.addListener(SWT.Selection, modifyListener);
+    wUsingConnectionPool.addListener(SWT.Selection, event -> enableFields());
+    wPoolMinimumSize.addListener(SWT.Modify, modifyListener);
+    wPoolMaximumSize.addListener(SWT.Modify, modifyListener);
+    wPoolMaximumWait.addListener(SWT.Modify, modifyListener);
+    wPoolValidationTimeout.addListener(SWT.Modify, modifyListener);
+    wPoolStatementCacheSize.addListener(SWT.Modify, modifyListener);
+    wPoolIdleTimeout.addListener(SWT.Modify, modifyListener);
     wOptions.addListener(SWT.Modify, modifyListener);
   }
 
@@ -680,6 +696,174 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wAdvancedTab.setControl(wAdvancedComp);
   }
 
+  private void addPoolingTab() {
+
+    CTabItem wPoolingTab = new CTabItem(wTabFolder, SWT.NONE);
+    wPoolingTab.setFont(GuiResource.getInstance().getFontDefault());
+    wPoolingTab.setText(
+        "   " + BaseMessages.getString(PKG, "DatabaseDialog.PoolingTab.title") + "   ");
+
+    Composite wPoolingComp = new Composite(wTabFolder, SWT.NONE);
+    PropsUi.setLook(wPoolingComp);
+
+    FormLayout poolingLayout = new FormLayout();
+    poolingLayout.marginWidth = PropsUi.getFormMargin() * 2;
+    poolingLayout.marginHeight = PropsUi.getFormMargin() * 2;
+    wPoolingComp.setLayout(poolingLayout);
+
+    // Use a connection pool shared by all pipelines and workflows?
+    //
+    Label wlUsingConnectionPool = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlUsingConnectionPool);
+    wlUsingConnectionPool.setText(
+        BaseMessages.getString(PKG, "DatabaseDialog.label.UseConnectionPool"));
+    FormData fdlUsingConnectionPool = new FormData();
+    fdlUsingConnectionPool.top = new FormAttachment(0, 0);
+    fdlUsingConnectionPool.left = new FormAttachment(0, 0); // First one in the left top corner
+    fdlUsingConnectionPool.right = new FormAttachment(middle, 0);
+    wlUsingConnectionPool.setLayoutData(fdlUsingConnectionPool);
+    wUsingConnectionPool = new Button(wPoolingComp, SWT.CHECK | SWT.LEFT);
+    PropsUi.setLook(wUsingConnectionPool);
+    FormData fdUsingConnectionPool = new FormData();
+    fdUsingConnectionPool.top = new FormAttachment(wlUsingConnectionPool, 0, SWT.CENTER);
+    fdUsingConnectionPool.left = new FormAttachment(middle, margin); // To the right of the label
+    fdUsingConnectionPool.right = new FormAttachment(100, 0);
+    wUsingConnectionPool.setLayoutData(fdUsingConnectionPool);
+    Control lastControl = wUsingConnectionPool;
+
+    // The number of connections to open when the pool is first used
+    //
+    Label wlPoolMinimumSize = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolMinimumSize);
+    wlPoolMinimumSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolMinimumSize"));
+    FormData fdlPoolMinimumSize = new FormData();
+    fdlPoolMinimumSize.top = new FormAttachment(lastControl, margin);
+    fdlPoolMinimumSize.left = new FormAttachment(0, 0);
+    fdlPoolMinimumSize.right = new FormAttachment(middle, 0);
+    wlPoolMinimumSize.setLayoutData(fdlPoolMinimumSize);
+    wPoolMinimumSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolMinimumSize);
+    FormData fdPoolMinimumSize = new FormData();
+    fdPoolMinimumSize.top = new FormAttachment(wlPoolMinimumSize, 0, SWT.CENTER);
+    fdPoolMinimumSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolMinimumSize.right = new FormAttachment(100, 0);
+    wPoolMinimumSize.setLayoutData(fdPoolMinimumSize);
+    lastControl = wPoolMinimumSize;
+
+    // The maximum number of connections in the pool
+    //
+    Label wlPoolMaximumSize = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolMaximumSize);
+    wlPoolMaximumSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolMaximumSize"));
+    FormData fdlPoolMaximumSize = new FormData();
+    fdlPoolMaximumSize.top = new FormAttachment(lastControl, margin);
+    fdlPoolMaximumSize.left = new FormAttachment(0, 0);
+    fdlPoolMaximumSize.right = new FormAttachment(middle, 0);
+    wlPoolMaximumSize.setLayoutData(fdlPoolMaximumSize);
+    wPoolMaximumSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolMaximumSize);
+    FormData fdPoolMaximumSize = new FormData();
+    fdPoolMaximumSize.top = new FormAttachment(wlPoolMaximumSize, 0, SWT.CENTER);
+    fdPoolMaximumSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolMaximumSize.right = new FormAttachment(100, 0);
+    wPoolMaximumSize.setLayoutData(fdPoolMaximumSize);
+    lastControl = wPoolMaximumSize;
+
+    // The maximum time to wait for a free connection (ms)
+    //
+    Label wlPoolMaximumWait = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolMaximumWait);
+    wlPoolMaximumWait.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolMaximumWait"));
+    FormData fdlPoolMaximumWait = new FormData();
+    fdlPoolMaximumWait.top = new FormAttachment(lastControl, margin);
+    fdlPoolMaximumWait.left = new FormAttachment(0, 0);
+    fdlPoolMaximumWait.right = new FormAttachment(middle, 0);
+    wlPoolMaximumWait.setLayoutData(fdlPoolMaximumWait);
+    wPoolMaximumWait =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolMaximumWait);
+    FormData fdPoolMaximumWait = new FormData();
+    fdPoolMaximumWait.top = new FormAttachment(wlPoolMaximumWait, 0, SWT.CENTER);
+    fdPoolMaximumWait.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolMaximumWait.right = new FormAttachment(100, 0);
+    wPoolMaximumWait.setLayoutData(fdPoolMaximumWait);
+    lastControl = wPoolMaximumWait;
+
+    // The timeout to validate an idle connection with (s)
+    //
+    Label wlPoolValidationTimeout = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolValidationTimeout);
+    wlPoolValidationTimeout.setText(
+        BaseMessages.getString(PKG, "DatabaseDialog.label.PoolValidationTimeout"));
+    FormData fdlPoolValidationTimeout = new FormData();
+    fdlPoolValidationTimeout.top = new FormAttachment(lastControl, margin);
+    fdlPoolValidationTimeout.left = new FormAttachment(0, 0);
+    fdlPoolValidationTimeout.right = new FormAttachment(middle, 0);
+    wlPoolValidationTimeout.setLayoutData(fdlPoolValidationTimeout);
+    wPoolValidationTimeout =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolValidationTimeout);
+    FormData fdPoolValidationTimeout = new FormData();
+    fdPoolValidationTimeout.top = new FormAttachment(wlPoolValidationTimeout, 0, SWT.CENTER);
+    fdPoolValidationTimeout.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolValidationTimeout.right = new FormAttachment(100, 0);
+    wPoolValidationTimeout.setLayoutData(fdPoolValidationTimeout);
+    lastControl = wPoolValidationTimeout;
+
+    // The number of prepared statements to cache per connection
+    //
+    Label wlPoolStatementCacheSize = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolStatementCacheSize);
+    wlPoolStatementCacheSize.setText(
+        BaseMessages.getString(PKG, "DatabaseDialog.label.PoolStatementCacheSize"));
+    FormData fdlPoolStatementCacheSize = new FormData();
+    fdlPoolStatementCacheSize.top = new FormAttachment(lastControl, margin);
+    fdlPoolStatementCacheSize.left = new FormAttachment(0, 0);
+    fdlPoolStatementCacheSize.right = new FormAttachment(middle, 0);
+    wlPoolStatementCacheSize.setLayoutData(fdlPoolStatementCacheSize);
+    wPoolStatementCacheSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolStatementCacheSize);
+    FormData fdPoolStatementCacheSize = new FormData();
+    fdPoolStatementCacheSize.top = new FormAttachment(wlPoolStatementCacheSize, 0, SWT.CENTER);
+    fdPoolStatementCacheSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolStatementCacheSize.right = new FormAttachment(100, 0);
+    wPoolStatementCacheSize.setLayoutData(fdPoolStatementCacheSize);
+    lastControl = wPoolStatementCacheSize;
+
+    // The time to keep an idle connection open
+    //
+    Label wlPoolIdleTimeout = new Label(wPoolingComp, SWT.RIGHT);
+    PropsUi.setLook(wlPoolIdleTimeout);
+    wlPoolIdleTimeout.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolIdleTimeout"));
+    FormData fdlPoolIdleTimeout = new FormData();
+    fdlPoolIdleTimeout.top = new FormAttachment(lastControl, margin);
+    fdlPoolIdleTimeout.left = new FormAttachment(0, 0);
+    fdlPoolIdleTimeout.right = new FormAttachment(middle, 0);
+    wlPoolIdleTimeout.setLayoutData(fdlPoolIdleTimeout);
+    wPoolIdleTimeout =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolIdleTimeout);
+    FormData fdPoolIdleTimeout = new FormData();
+    fdPoolIdleTimeout.top = new FormAttachment(wlPoolIdleTimeout, 0, SWT.CENTER);
+    fdPoolIdleTimeout.left = new FormAttachment(middle, margin); // To the right of the label
+    fdPoolIdleTimeout.right = new FormAttachment(100, 0);
+    wPoolIdleTimeout.setLayoutData(fdPoolIdleTimeout);
+    lastControl = wPoolIdleTimeout;
+
+    FormData fdPoolingComp = new FormData();
+    fdPoolingComp.left = new FormAttachment(0, 0);
+    fdPoolingComp.top = new FormAttachment(0, 0);
+    fdPoolingComp.right = new FormAttachment(100, 0);
+    fdPoolingComp.bottom = new FormAttachment(100, 0);
+    wPoolingComp.setLayoutData(fdPoolingComp);
+
+    wPoolingComp.layout();
+    wPoolingTab.setControl(wPoolingComp);
+  }
+
   private void addOptionsTab() {
 
     DatabaseMeta databaseMeta = this.getMetadata();
@@ -758,6 +942,14 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     //
     guiCompositeWidgets.enableWidgets(
         getMetadata().getIDatabase(), DatabaseMeta.GUI_PLUGIN_ELEMENT_PARENT_ID, !manualUrl);
+
+    boolean usingConnectionPool = wUsingConnectionPool.getSelection();
+    wPoolMinimumSize.setEnabled(usingConnectionPool);
+    wPoolMaximumSize.setEnabled(usingConnectionPool);
+    wPoolMaximumWait.setEnabled(usingConnectionPool);
+    wPoolValidationTimeout.setEnabled(usingConnectionPool);
+    wPoolStatementCacheSize.setEnabled(usingConnectionPool);
+    wPoolIdleTimeout.setEnabled(usingConnectionPool);
   }
 
   private void test() {
@@ -819,6 +1011,13 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreserveCase.setSelection(databaseMeta.preserveReservedCase());
     wPreferredSchema.setText(Const.NVL(databaseMeta.getPreferredSchemaName(), ""));
     wSqlStatements.setText(Const.NVL(databaseMeta.getConnectSql(), ""));
+    wUsingConnectionPool.setSelection(databaseMeta.isUsingConnectionPool());
+    wPoolMinimumSize.setText(Const.NVL(databaseMeta.getPoolMinimumSize(), ""));
+    wPoolMaximumSize.setText(Const.NVL(databaseMeta.getPoolMaximumSize(), ""));
+    wPoolMaximumWait.setText(Const.NVL(databaseMeta.getPoolMaximumWait(), ""));
+    wPoolValidationTimeout.setText(Const.NVL(databaseMeta.getPoolValidationTimeout(), ""));
+    wPoolStatementCacheSize.setText(Const.NVL(databaseMeta.getPoolStatementCacheSize(), ""));
+    wPoolIdleTimeout.setText(Const.NVL(databaseMeta.getPoolIdleTimeout(), ""));
 
     wOptions.clearAll(false);
     Map<String, String> optionsMap = databaseMeta.getExtraOptionsMap();
@@ -861,6 +1060,13 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     meta.setPreserveReservedCase(wPreserveCase.getSelection());
     meta.setPreferredSchemaName(wPreferredSchema.getText());
     meta.setConnectSql(wSqlStatements.getText());
+    meta.setUsingConnectionPool(wUsingConnectionPool.getSelection());
+    meta.setPoolMinimumSize(wPoolMinimumSize.getText());
+    meta.setPoolMaximumSize(wPoolMaximumSize.getText());
+    meta.setPoolMaximumWait(wPoolMaximumWait.getText());
+    meta.setPoolValidationTimeout(wPoolValidationTimeout.getText());
+    meta.setPoolStatementCacheSize(wPoolStatementCacheSize.getText());
+    meta.setPoolIdleTimeout(wPoolIdleTimeout.getText());
 
     meta.getExtraOptions().clear();
     for (int i = 0; i < wOptions.nrNonEmpty(); i++) {